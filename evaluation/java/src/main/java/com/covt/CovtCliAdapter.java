@@ -1,5 +1,6 @@
 package com.covt;
 
+import com.covt.converter.ConversionConfig;
 import com.covt.converter.CovtConverter;
 import com.covt.converter.mvt.MvtUtils;
 import org.apache.commons.cli.CommandLineParser;
@@ -8,9 +9,12 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.SQLException;
+import java.util.Arrays;
 
 public class CovtCliAdapter {
     private static final String FILE_NAME_ARG = "filename";
@@ -19,7 +23,7 @@ public class CovtCliAdapter {
     private static final String Y_COORDINATE_ARG = "y";
     private static final int NUM_COORDINATES_PER_QUADRANT = 8192;
 
-    public static void main(String... args) throws ParseException, IOException, SQLException, ClassNotFoundException {
+    public static void main(String... args) throws ParseException, IOException, SQLException {
         Options options = new Options();
         options.addOption(FILE_NAME_ARG, true, "Name and path of the MBTiles archive");
         options.addOption(ZOOM_LEVEL_ARG, true, "Zoom level of the specific tile");
@@ -36,10 +40,21 @@ public class CovtCliAdapter {
         var mvtTile = MvtUtils.decodeMvt(fileName, z, x, y);
         var mvtLayers = mvtTile.layers();
 
-        var tile = CovtConverter.convertMvtTile(mvtLayers, NUM_COORDINATES_PER_QUADRANT,
-                CovtConverter.GeometryEncoding.ICE, true, true, true,true, false);
+        var config = new ConversionConfig().geometryEncoding(CovtConverter.GeometryEncoding.ICE)
+                .allowFastPforForTopologyStreams(true).allowFastPforForVertexBuffer(true)
+                .allowLocalizedStringDictionary(true).includeIds(true).optimizeMetadata(false);
+        var segments = CovtConverter.convertMvtTileToSegments(mvtLayers, NUM_COORDINATES_PER_QUADRANT, config)
+                .getRight();
 
+        /* the segments of the tile are written with gathering writes instead of concatenating them first */
         var covtFileName = String.format("%s_%s_%s.covt", z, x, y);
-        Files.write(Path.of(covtFileName), tile);
+        try(var channel = FileChannel.open(Path.of(covtFileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            var tileLength = Arrays.stream(segments).mapToLong(ByteBuffer::remaining).sum();
+            var numWrittenBytes = 0L;
+            while(numWrittenBytes < tileLength){
+                numWrittenBytes += channel.write(segments);
+            }
+        }
     }
 }
@@ -0,0 +1,87 @@
+package com.covt.archive;
+
+import com.covt.converter.EncodingUtils;
+import com.covt.decoder.VarintDecoder;
+import me.lemire.integercompression.IntWrapper;
+import org.apache.commons.lang3.ArrayUtils;
+
+/*
+ * Directory of an archive with the entries sorted by tile id. An entry references the tile data of runLength
+ * consecutive tile ids, an entry with a run length of 0 references a leaf directory.
+ * The directory is stored column wise as varints:
+ * numEntries, delta coded tile ids, run lengths, lengths, offsets. An offset is stored as 0 if the data directly
+ * follows the data of the previous entry, otherwise as offset + 1.
+ * */
+record ArchiveDirectory(long[] tileIds, int[] runLengths, int[] lengths, long[] offsets) {
+
+    int numEntries(){
+        return tileIds.length;
+    }
+
+    boolean isLeafPointer(int index){
+        return runLengths[index] == 0;
+    }
+
+    /* Returns the index of the entry which contains the tile id or references the leaf directory, -1 if not found */
+    int find(long tileId){
+        var low = 0;
+        var high = tileIds.length - 1;
+        while(low <= high){
+            var mid = (low + high) >>> 1;
+            if(tileIds[mid] <= tileId){
+                low = mid + 1;
+            }
+            else{
+                high = mid - 1;
+            }
+        }
+
+        /* high is the last entry with a tile id lower or equal the searched id */
+        if(high < 0){
+            return -1;
+        }
+        return isLeafPointer(high) || tileId < tileIds[high] + runLengths[high] ? high : -1;
+    }
+
+    byte[] encode(){
+        var numEntries = tileIds.length;
+        var encodedOffsets = new long[numEntries];
+        for(var i = 0; i < numEntries; i++){
+            var isContiguous = i > 0 && offsets[i] == offsets[i - 1] + lengths[i - 1];
+            encodedOffsets[i] = isContiguous ? 0 : offsets[i] + 1;
+        }
+
+        var header = EncodingUtils.encodeVarints(new long[]{numEntries}, false, false);
+        var encodedTileIds = EncodingUtils.encodeVarints(tileIds, false, true);
+        var encodedRunLengths = EncodingUtils.encodeVarints(toLongs(runLengths), false, false);
+        var encodedLengths = EncodingUtils.encodeVarints(toLongs(lengths), false, false);
+        return ArrayUtils.addAll(ArrayUtils.addAll(ArrayUtils.addAll(header, encodedTileIds),
+                ArrayUtils.addAll(encodedRunLengths, encodedLengths)),
+                EncodingUtils.encodeVarints(encodedOffsets, false, false));
+    }
+
+    static ArchiveDirectory decode(byte[] buffer){
+        var pos = new IntWrapper(0);
+        var numEntries = VarintDecoder.decodeInt(buffer, pos);
+        var tileIds = new long[numEntries];
+        var runLengths = new int[numEntries];
+        var lengths = new int[numEntries];
+        var offsets = new long[numEntries];
+        VarintDecoder.decodeDeltaLongs(buffer, pos, tileIds, 0, numEntries);
+        VarintDecoder.decodeInts(buffer, pos, runLengths, 0, numEntries);
+        VarintDecoder.decodeInts(buffer, pos, lengths, 0, numEntries);
+        VarintDecoder.decodeLongs(buffer, pos, offsets, 0, numEntries);
+        for(var i = 0; i < numEntries; i++){
+            offsets[i] = offsets[i] == 0 && i > 0 ? offsets[i - 1] + lengths[i - 1] : offsets[i] - 1;
+        }
+        return new ArchiveDirectory(tileIds, runLengths, lengths, offsets);
+    }
+
+    private static long[] toLongs(int[] values){
+        var longValues = new long[values.length];
+        for(var i = 0; i < values.length; i++){
+            longValues[i] = values[i];
+        }
+        return longValues;
+    }
+}
@@ -0,0 +1,101 @@
+package com.covt.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Records for every tile of a converted tileset the SHA-256 hash of the source MVT tile and of the converted COVT
+ * tile, so an incremental conversion only has to convert the new and changed source tiles.
+ * File layout: magic (4 bytes), version (1 byte), config fingerprint (32 bytes), number of entries (8 bytes),
+ * followed by the entries with the tile id (8 bytes), the source hash and the tile hash (32 bytes each).
+ * The manifest is only valid for the ConversionConfig the tileset was converted with, so the fingerprint of the
+ * config is stored and the tiles are only reused if the fingerprint matches the config of the new conversion.
+ * */
+public class ConversionManifest {
+    private static final byte[] MAGIC = {'C', 'O', 'V', 'M'};
+    private static final int VERSION = 2;
+    private static final int HASH_SIZE = 32;
+
+    public record Entry(byte[] sourceHash, byte[] tileHash){}
+
+    private final byte[] configFingerprint;
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    /* @param configFingerprint fingerprint of the ConversionConfig the tiles are converted with */
+    public ConversionManifest(byte[] configFingerprint){
+        if(configFingerprint.length != HASH_SIZE){
+            throw new IllegalArgumentException("The config fingerprint has to be a SHA-256 hash.");
+        }
+        this.configFingerprint = configFingerprint;
+    }
+
+    public static ConversionManifest read(Path manifestPath) throws IOException {
+        try(var inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestPath)))){
+            var magic = new byte[MAGIC.length];
+            inputStream.readFully(magic);
+            if(!Arrays.equals(magic, MAGIC)){
+                throw new IllegalArgumentException("The file is not a conversion manifest.");
+            }
+            var version = inputStream.readByte();
+            if(version != VERSION){
+                throw new IllegalArgumentException(String.format("The manifest version %d is not supported.", version));
+            }
+
+            var configFingerprint = new byte[HASH_SIZE];
+            inputStream.readFully(configFingerprint);
+            var manifest = new ConversionManifest(configFingerprint);
+            var numEntries = inputStream.readLong();
+            for(var i = 0; i < numEntries; i++){
+                var tileId = inputStream.readLong();
+                var sourceHash = new byte[HASH_SIZE];
+                var tileHash = new byte[HASH_SIZE];
+                inputStream.readFully(sourceHash);
+                inputStream.readFully(tileHash);
+                manifest.entries.put(tileId, new Entry(sourceHash, tileHash));
+            }
+            return manifest;
+        }
+    }
+
+    public void write(Path manifestPath) throws IOException {
+        try(var outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(manifestPath)))){
+            outputStream.write(MAGIC);
+            outputStream.writeByte(VERSION);
+            outputStream.write(configFingerprint);
+            outputStream.writeLong(entries.size());
+            for(var entry : entries.entrySet()){
+                outputStream.writeLong(entry.getKey());
+                outputStream.write(entry.getValue().sourceHash);
+                outputStream.write(entry.getValue().tileHash);
+            }
+        }
+    }
+
+    public byte[] configFingerprint(){
+        return configFingerprint;
+    }
+
+    /* Returns the hashes of the tile or null if the tile is not part of the manifest */
+    public Entry get(long tileId){
+        return entries.get(tileId);
+    }
+
+    public void put(long tileId, byte[] sourceHash, byte[] tileHash){
+        if(sourceHash.length != HASH_SIZE || tileHash.length != HASH_SIZE){
+            throw new IllegalArgumentException("The hashes have to be SHA-256 hashes.");
+        }
+        entries.put(tileId, new Entry(sourceHash, tileHash));
+    }
+
+    public int size(){
+        return entries.size();
+    }
+}
@@ -0,0 +1,154 @@
+package com.covt.archive;
+
+import com.covt.converter.tilejson.TileJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Reads the tiles of an archive written by the CovtArchiveWriter through a memory mapped file.
+ * The root directory is decoded when the archive is opened and the leaf directories on the first access, so a
+ * lookup is a binary search in the root and leaf directory followed by a slice of the mapped file.
+ * As a single mapping is limited to 2 GB the file is mapped in segments, a tile which spans two segments is copied.
+ * The TileJson of the tileset is decoded when the archive is opened, so the same instance is used to decode all tiles
+ * and the shared dictionaries are only converted once, see SharedDictionaryCache.
+ * The reader is thread safe. Closing the reader releases its references to the mapped segments, the mappings are
+ * not unmapped explicitly as the views returned by getTile would otherwise point to unmapped memory, so they are
+ * unmapped by the garbage collector as soon as no view is in use anymore.
+ * */
+public class CovtArchiveReader implements AutoCloseable {
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private volatile MappedByteBuffer[] segments;
+    private final long tileDataOffset;
+    private final long leafDirectoriesOffset;
+    private final long numTiles;
+    private final ArchiveDirectory rootDirectory;
+    private final TileJson tileJson;
+    private final ConcurrentHashMap<Long, ArchiveDirectory> leafDirectories = new ConcurrentHashMap<>();
+
+    public CovtArchiveReader(Path archivePath) throws IOException {
+        try(var channel = FileChannel.open(archivePath, StandardOpenOption.READ)){
+            var size = channel.size();
+            if(size < CovtArchiveWriter.HEADER_SIZE){
+                throw new IllegalArgumentException("The file is not a COVT archive.");
+            }
+
+            /* the mappings stay valid after the channel is closed */
+            var mappedSegments = new MappedByteBuffer[(int)((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for(var i = 0; i < mappedSegments.length; i++){
+                var position = i * SEGMENT_SIZE;
+                mappedSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_SIZE, size - position));
+            }
+            segments = mappedSegments;
+        }
+
+        var header = slice(0, CovtArchiveWriter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        var magic = new byte[CovtArchiveWriter.MAGIC.length];
+        header.get(magic);
+        if(!Arrays.equals(magic, CovtArchiveWriter.MAGIC)){
+            throw new IllegalArgumentException("The file is not a COVT archive.");
+        }
+        var version = header.get();
+        if(version != CovtArchiveWriter.VERSION){
+            throw new IllegalArgumentException(String.format("The archive version %d is not supported.", version));
+        }
+
+        header.position(8);
+        tileDataOffset = header.getLong();
+        header.getLong();
+        var rootDirectoryOffset = header.getLong();
+        var rootDirectoryLength = (int)header.getLong();
+        leafDirectoriesOffset = header.getLong();
+        header.getLong();
+        numTiles = header.getLong();
+        var tileJsonOffset = header.getLong();
+        var tileJsonLength = (int)header.getLong();
+        rootDirectory = decodeDirectory(rootDirectoryOffset, rootDirectoryLength);
+        tileJson = tileJsonLength > 0 ? new ObjectMapper().readValue(read(tileJsonOffset, tileJsonLength),
+                TileJson.class) : null;
+    }
+
+    public long numTiles(){
+        return numTiles;
+    }
+
+    /* Returns the TileJson of the tileset or null if the archive contains no TileJson */
+    public TileJson tileJson(){
+        return tileJson;
+    }
+
+    /* Returns a read-only view of the tile or null if the archive contains no tile with the specified coordinates */
+    public ByteBuffer getTile(int zoom, int x, int y){
+        var tileId = TileId.zxyToTileId(zoom, x, y);
+        var directory = rootDirectory;
+        var index = directory.find(tileId);
+        if(index != -1 && directory.isLeafPointer(index)){
+            var leafOffset = directory.offsets()[index];
+            var leafLength = directory.lengths()[index];
+            directory = leafDirectories.computeIfAbsent(leafOffset,
+                    offset -> decodeDirectory(leafDirectoriesOffset + offset, leafLength));
+            index = directory.find(tileId);
+        }
+
+        if(index == -1){
+            return null;
+        }
+        return slice(tileDataOffset + directory.offsets()[index], directory.lengths()[index]);
+    }
+
+    public byte[] readTile(int zoom, int x, int y){
+        var tile = getTile(zoom, x, y);
+        if(tile == null){
+            return null;
+        }
+
+        var buffer = new byte[tile.remaining()];
+        tile.get(buffer);
+        return buffer;
+    }
+
+    @Override
+    public void close(){
+        segments = null;
+    }
+
+    private ArchiveDirectory decodeDirectory(long offset, int length){
+        return ArchiveDirectory.decode(read(offset, length));
+    }
+
+    private byte[] read(long offset, int length){
+        var buffer = new byte[length];
+        slice(offset, length).get(buffer);
+        return buffer;
+    }
+
+    private ByteBuffer slice(long offset, int length){
+        var mappedSegments = segments;
+        if(mappedSegments == null){
+            throw new IllegalStateException("The archive is closed.");
+        }
+
+        var segmentIndex = (int)(offset / SEGMENT_SIZE);
+        var segmentOffset = (int)(offset % SEGMENT_SIZE);
+        var segment = mappedSegments[segmentIndex];
+        if(segmentOffset + length <= segment.capacity()){
+            return segment.slice(segmentOffset, length).asReadOnlyBuffer();
+        }
+
+        var buffer = ByteBuffer.allocate(length);
+        var firstPartLength = segment.capacity() - segmentOffset;
+        buffer.put(segment.slice(segmentOffset, firstPartLength));
+        buffer.put(mappedSegments[segmentIndex + 1].slice(0, length - firstPartLength));
+        return buffer.flip().asReadOnlyBuffer();
+    }
+}
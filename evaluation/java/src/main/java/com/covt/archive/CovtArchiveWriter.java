@@ -0,0 +1,235 @@
+package com.covt.archive;
+
+import com.covt.converter.tilejson.TileJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Packs COVT tiles into a single archive file with the following layout:
+ * - Header: magic (4 bytes), version (1 byte), 3 bytes reserved, followed by the little endian 64-bit offsets and
+ *   lengths of the tile data, the root directory and the leaf directories, the number of tiles and the offset and
+ *   length of the TileJson
+ * - Tile data in the order the tiles are added
+ * - Root directory
+ * - Leaf directories
+ * - Optional JSON encoded TileJson of the tileset e.g. with the shared dictionaries which are referenced by the tiles
+ * The directories are sorted by the Hilbert ordered tile id, see TileId. If the archive contains more tiles than fit
+ * into the root directory, the entries are split into leaf directories and the root directory references the leaves.
+ * The tile data is written when the tile is added, the directories and the header when the writer is closed.
+ * Small tiles with identical content e.g. ocean tiles are only stored once, the directory entries of the duplicates
+ * reference the same data and consecutive tile ids with the same data are merged into a single run. Larger tiles are
+ * rarely identical, so they are not hashed to limit the memory of the writer to the directory entries.
+ * Tiles which are added more than once are detected when the writer is closed.
+ * */
+public class CovtArchiveWriter implements AutoCloseable {
+    static final byte[] MAGIC = {'C', 'O', 'V', 'A'};
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 80;
+    static final int MAX_ROOT_DIRECTORY_ENTRIES = 4096;
+    static final int LEAF_DIRECTORY_SIZE = 4096;
+    static final int MAX_DEDUPLICATED_TILE_SIZE = 1024;
+
+    private record Entry(long tileId, int runLength, long offset, int length){}
+
+    private record TileData(long offset, int length){}
+
+    private final FileChannel channel;
+    private final List<Entry> entries = new ArrayList<>();
+    /* the SHA-256 hash of the content makes collisions of different tiles practically impossible */
+    private final Map<ByteBuffer, TileData> tileDataByHash = new HashMap<>();
+    private final MessageDigest messageDigest;
+    private long tileDataLength = 0;
+    private long numDuplicateTiles = 0;
+    private TileJson tileJson = null;
+
+    public CovtArchiveWriter(Path archivePath) throws IOException {
+        this.channel = FileChannel.open(archivePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(HEADER_SIZE);
+        this.messageDigest = createMessageDigest();
+    }
+
+    public void addTile(int zoom, int x, int y, byte[] tile) throws IOException {
+        addTile(zoom, x, y, ByteBuffer.wrap(tile));
+    }
+
+    /*
+     * Adds a tile which consists of the remaining bytes of the segments e.g. from
+     * CovtConverter.convertMvtTileToSegments, the segments are written with a single gathering write without
+     * concatenating them. The positions of the segments are not changed.
+     * */
+    public void addTile(int zoom, int x, int y, ByteBuffer... segments) throws IOException {
+        var tileId = TileId.zxyToTileId(zoom, x, y);
+        var tileLength = 0;
+        for(var segment : segments){
+            tileLength += segment.remaining();
+        }
+
+        ByteBuffer hash = null;
+        if(tileLength <= MAX_DEDUPLICATED_TILE_SIZE){
+            for(var segment : segments){
+                messageDigest.update(segment.duplicate());
+            }
+            hash = ByteBuffer.wrap(messageDigest.digest());
+        }
+        var tileData = hash != null ? tileDataByHash.get(hash) : null;
+        if(tileData != null){
+            numDuplicateTiles++;
+        }
+        else{
+            var buffers = new ByteBuffer[segments.length];
+            for(var i = 0; i < segments.length; i++){
+                buffers[i] = segments[i].duplicate();
+            }
+            writeFully(buffers, tileLength);
+            tileData = new TileData(tileDataLength, tileLength);
+            if(hash != null){
+                tileDataByHash.put(hash, tileData);
+            }
+            tileDataLength += tileLength;
+        }
+        entries.add(new Entry(tileId, 1, tileData.offset, tileData.length));
+    }
+
+    /* Sets the TileJson of the tileset which is written when the writer is closed */
+    public void setTileJson(TileJson tileJson){
+        this.tileJson = tileJson;
+    }
+
+    /* Number of added tiles whose content was already part of the archive */
+    public long numDuplicateTiles(){
+        return numDuplicateTiles;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try(channel){
+            var numTiles = entries.size();
+            entries.sort(Comparator.comparingLong(Entry::tileId));
+            for(var i = 1; i < numTiles; i++){
+                if(entries.get(i).tileId() == entries.get(i - 1).tileId()){
+                    var tile = TileId.tileIdToZxy(entries.get(i).tileId());
+                    throw new IllegalArgumentException(String.format("The tile %d/%d/%d is already part of the " +
+                            "archive.", tile.zoom(), tile.x(), tile.y()));
+                }
+            }
+            var runs = mergeRuns(entries);
+
+            /* the offsets of the leaf directories are relative to the start of the leaf directories section */
+            var leafDirectories = new ArrayList<byte[]>();
+            ArchiveDirectory rootDirectory;
+            if(runs.size() <= MAX_ROOT_DIRECTORY_ENTRIES){
+                rootDirectory = createDirectory(runs);
+            }
+            else{
+                var numLeaves = (runs.size() + LEAF_DIRECTORY_SIZE - 1) / LEAF_DIRECTORY_SIZE;
+                var rootTileIds = new long[numLeaves];
+                var rootLengths = new int[numLeaves];
+                var rootOffsets = new long[numLeaves];
+                var leafOffset = 0L;
+                for(var i = 0; i < numLeaves; i++){
+                    var leafEntries = runs.subList(i * LEAF_DIRECTORY_SIZE,
+                            Math.min(runs.size(), (i + 1) * LEAF_DIRECTORY_SIZE));
+                    var leafDirectory = createDirectory(leafEntries).encode();
+                    leafDirectories.add(leafDirectory);
+                    rootTileIds[i] = leafEntries.get(0).tileId();
+                    rootLengths[i] = leafDirectory.length;
+                    rootOffsets[i] = leafOffset;
+                    leafOffset += leafDirectory.length;
+                }
+                rootDirectory = new ArchiveDirectory(rootTileIds, new int[numLeaves], rootLengths, rootOffsets);
+            }
+
+            var rootDirectoryOffset = HEADER_SIZE + tileDataLength;
+            var encodedRootDirectory = rootDirectory.encode();
+            writeFully(ByteBuffer.wrap(encodedRootDirectory));
+            var leafDirectoriesLength = 0L;
+            for(var leafDirectory : leafDirectories){
+                writeFully(ByteBuffer.wrap(leafDirectory));
+                leafDirectoriesLength += leafDirectory.length;
+            }
+            var tileJsonOffset = rootDirectoryOffset + encodedRootDirectory.length + leafDirectoriesLength;
+            var encodedTileJson = tileJson != null ? new ObjectMapper().writeValueAsBytes(tileJson) : new byte[0];
+            writeFully(ByteBuffer.wrap(encodedTileJson));
+
+            var header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).put((byte)VERSION).position(8);
+            header.putLong(HEADER_SIZE).putLong(tileDataLength);
+            header.putLong(rootDirectoryOffset).putLong(encodedRootDirectory.length);
+            header.putLong(rootDirectoryOffset + encodedRootDirectory.length).putLong(leafDirectoriesLength);
+            header.putLong(numTiles);
+            header.putLong(tileJsonOffset).putLong(encodedTileJson.length);
+            header.flip();
+            channel.position(0);
+            writeFully(header);
+        }
+    }
+
+    private static ArchiveDirectory createDirectory(List<Entry> entries){
+        var numEntries = entries.size();
+        var tileIds = new long[numEntries];
+        var runLengths = new int[numEntries];
+        var lengths = new int[numEntries];
+        var offsets = new long[numEntries];
+        for(var i = 0; i < numEntries; i++){
+            var entry = entries.get(i);
+            tileIds[i] = entry.tileId();
+            runLengths[i] = entry.runLength();
+            lengths[i] = entry.length();
+            offsets[i] = entry.offset();
+        }
+        return new ArchiveDirectory(tileIds, runLengths, lengths, offsets);
+    }
+
+    /* Merges the entries of consecutive tile ids which reference the same tile data */
+    private static List<Entry> mergeRuns(List<Entry> entries){
+        var runs = new ArrayList<Entry>();
+        for(var entry : entries){
+            var previousRun = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if(previousRun != null && previousRun.offset() == entry.offset() &&
+                    previousRun.tileId() + previousRun.runLength() == entry.tileId()){
+                runs.set(runs.size() - 1, new Entry(previousRun.tileId(), previousRun.runLength() + 1,
+                        previousRun.offset(), previousRun.length()));
+            }
+            else{
+                runs.add(entry);
+            }
+        }
+        return runs;
+    }
+
+    static MessageDigest createMessageDigest(){
+        try{
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch(NoSuchAlgorithmException e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    private void writeFully(ByteBuffer[] buffers, long length) throws IOException {
+        var numWrittenBytes = 0L;
+        while(numWrittenBytes < length){
+            numWrittenBytes += channel.write(buffers);
+        }
+    }
+}
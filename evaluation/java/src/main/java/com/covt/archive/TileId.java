@@ -0,0 +1,62 @@
+package com.covt.archive;
+
+import org.davidmoten.hilbert.HilbertCurve;
+import org.davidmoten.hilbert.SmallHilbertCurve;
+
+/*
+ * Maps the z/x/y coordinates of a tile to a single id like in PMTiles. The ids of a zoom level follow the ids of all
+ * lower zoom levels and within a zoom level the tiles are ordered on a Hilbert curve, so tiles which are close to
+ * each other have close ids and are stored close to each other in an archive.
+ * */
+public final class TileId {
+    public static final int MAX_ZOOM = 31;
+    private static final SmallHilbertCurve[] HILBERT_CURVES = new SmallHilbertCurve[MAX_ZOOM + 1];
+
+    static {
+        for(var zoom = 1; zoom <= MAX_ZOOM; zoom++){
+            HILBERT_CURVES[zoom] = HilbertCurve.small().bits(zoom).dimensions(2);
+        }
+    }
+
+    public record TileCoordinate(int zoom, int x, int y){}
+
+    private TileId(){}
+
+    public static long zxyToTileId(int zoom, int x, int y){
+        if(zoom < 0 || zoom > MAX_ZOOM){
+            throw new IllegalArgumentException(String.format("The zoom level %d is not supported.", zoom));
+        }
+        var numTiles = 1L << zoom;
+        if(x < 0 || y < 0 || x >= numTiles || y >= numTiles){
+            throw new IllegalArgumentException(String.format("The tile %d/%d/%d is out of range.", zoom, x, y));
+        }
+
+        var baseId = getBaseId(zoom);
+        return zoom == 0 ? baseId : baseId + HILBERT_CURVES[zoom].index(x, y);
+    }
+
+    public static TileCoordinate tileIdToZxy(long tileId){
+        if(tileId < 0){
+            throw new IllegalArgumentException("The tile id has to be positive.");
+        }
+
+        for(var zoom = 0; zoom <= MAX_ZOOM; zoom++){
+            var numTiles = 1L << (2 * zoom);
+            var baseId = getBaseId(zoom);
+            if(tileId < baseId + numTiles){
+                if(zoom == 0){
+                    return new TileCoordinate(0, 0, 0);
+                }
+                var point = HILBERT_CURVES[zoom].point(tileId - baseId);
+                return new TileCoordinate(zoom, (int)point[0], (int)point[1]);
+            }
+        }
+
+        throw new IllegalArgumentException("The tile id is out of range.");
+    }
+
+    /* number of tiles of all lower zoom levels which is (4^zoom - 1) / 3 */
+    private static long getBaseId(int zoom){
+        return ((1L << (2 * zoom)) - 1) / 3;
+    }
+}
@@ -0,0 +1,196 @@
+package com.covt.archive;
+
+import com.covt.converter.ConversionConfig;
+import com.covt.converter.CovtConverter;
+import com.covt.converter.SharedDictionaryBuilder;
+import com.covt.converter.mvt.MbTilesReader;
+import com.covt.converter.mvt.MvtUtils;
+import com.covt.converter.tilejson.TileJson;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Converts the MVT tiles of a MBTiles archive into a COVT archive.
+ * Ocean, ice or empty land tiles are byte identical for many tile coordinates, so the gzip compressed MVT tile
+ * is hashed before the conversion and the COVT tile of a previously converted identical tile is reused. As the
+ * conversion can depend on the zoom level e.g. when the geometries are simplified, only tiles of the same zoom level
+ * are reused. The converted tiles of the most recently seen hashes are kept in memory, the archive stores the
+ * content of identical tiles only once.
+ * In the incremental mode the hashes of the source tiles are compared with the manifest of the previous conversion
+ * and only new or changed tiles are converted, the unchanged tiles are copied from the previous archive into the
+ * new archive. Tiles which were removed from the source are not part of the new archive.
+ * The archive has no TileJson per tile, so the tiles are always converted without optimized metadata and contain the
+ * names of the layers and columns instead of ids which reference the TileJson of the single tile.
+ * The shared dictionaries of the config are stored once in the TileJson of the archive and not per tile, they can be
+ * built from the source in a first pass with buildSharedDictionaries.
+ * */
+public final class TilesetConverter {
+    private static final int MAX_CACHED_TILES = 4096;
+
+    public record Statistics(long numTiles, long numConvertedTiles, long numUnchangedTiles, long numDuplicateTiles){}
+
+    private record TileKey(int zoom, ByteBuffer hash){}
+
+    private TilesetConverter(){}
+
+    public static Statistics convert(MbTilesReader reader, int minZoom, int maxZoom, ConversionConfig config,
+                                     Path archivePath) throws IOException, SQLException {
+        return convert(reader, minZoom, maxZoom, config, archivePath, null, null, null);
+    }
+
+    /*
+     * Collects the values of the string columns of all tiles of the source and returns the shared dictionaries of the
+     * columns with at most maxDictionarySize distinct values, see SharedDictionaryBuilder. The dictionaries are used
+     * for the conversion if they are set with ConversionConfig.sharedDictionaries.
+     * */
+    public static Map<String, Map<String, List<String>>> buildSharedDictionaries(MbTilesReader reader, int minZoom,
+                                                                                 int maxZoom, int maxDictionarySize)
+            throws IOException, SQLException {
+        var dictionaryBuilder = new SharedDictionaryBuilder(maxDictionarySize);
+        try(var cursor = reader.scan(minZoom, maxZoom)){
+            while(cursor.hasNext()){
+                dictionaryBuilder.addTile(MvtUtils.decodeMvt2(cursor.next().data()).layers());
+            }
+        }
+        return dictionaryBuilder.build();
+    }
+
+    /*
+     * @param previousArchivePath archive of the previous conversion, the conversion is not incremental if the archive
+     *                            or the manifest doesn't exist or the manifest was written for different options
+     * @param manifestPath manifest of the previous conversion which is replaced by the manifest of this conversion
+     * */
+    public static Statistics convertIncremental(MbTilesReader reader, int minZoom, int maxZoom, ConversionConfig config,
+                                                Path previousArchivePath, Path manifestPath, Path archivePath)
+            throws IOException, SQLException {
+        if(Files.exists(archivePath) && Files.exists(previousArchivePath) &&
+                Files.isSameFile(previousArchivePath, archivePath)){
+            throw new IllegalArgumentException("The previous archive can't be overwritten as it is the source of the " +
+                    "unchanged tiles.");
+        }
+
+        var configFingerprint = createTileConfig(config, config.zoom()).fingerprint();
+        ConversionManifest previousManifest = null;
+        if(Files.exists(previousArchivePath) && Files.exists(manifestPath)){
+            /* the tiles of the previous conversion are only reused if they were converted with the same options */
+            var readManifest = ConversionManifest.read(manifestPath);
+            if(Arrays.equals(readManifest.configFingerprint(), configFingerprint)){
+                previousManifest = readManifest;
+            }
+        }
+
+        var manifest = new ConversionManifest(configFingerprint);
+        Statistics statistics;
+        try(var previousArchive = previousManifest != null ? new CovtArchiveReader(previousArchivePath) : null){
+            statistics = convert(reader, minZoom, maxZoom, config, archivePath, previousArchive, previousManifest,
+                    manifest);
+        }
+        manifest.write(manifestPath);
+        return statistics;
+    }
+
+    private static Statistics convert(MbTilesReader reader, int minZoom, int maxZoom, ConversionConfig config,
+                                      Path archivePath, CovtArchiveReader previousArchive,
+                                      ConversionManifest previousManifest, ConversionManifest manifest)
+            throws IOException, SQLException {
+        var messageDigest = CovtArchiveWriter.createMessageDigest();
+        var convertedTiles = new LinkedHashMap<TileKey, ByteBuffer[]>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, ByteBuffer[]> eldest) {
+                return size() > MAX_CACHED_TILES;
+            }
+        };
+
+        /* the config of the caller is not modified, the tiles are converted with a copy per zoom level */
+        var zoomConfigs = new HashMap<Integer, ConversionConfig>();
+        var numTiles = 0L;
+        var numConvertedTiles = 0L;
+        var numUnchangedTiles = 0L;
+        try(var writer = new CovtArchiveWriter(archivePath); var cursor = reader.scan(minZoom, maxZoom)){
+            writer.setTileJson(createTileJson(config));
+            while(cursor.hasNext()){
+                var tile = cursor.next();
+                /* the rows of MBTiles follow the TMS tiling scheme */
+                var y = (1 << tile.zoom()) - 1 - tile.y();
+                var tileId = TileId.zxyToTileId(tile.zoom(), tile.x(), y);
+                var sourceHash = messageDigest.digest(tile.data());
+
+                var covtTile = previousManifest != null ?
+                        getUnchangedTile(previousArchive, previousManifest.get(tileId), tile.zoom(), tile.x(), y,
+                                sourceHash, messageDigest) : null;
+                if(covtTile != null){
+                    numUnchangedTiles++;
+                }
+                else{
+                    var key = new TileKey(tile.zoom(), ByteBuffer.wrap(sourceHash));
+                    covtTile = convertedTiles.get(key);
+                    if(covtTile == null){
+                        var mvtTile = MvtUtils.decodeMvt2(tile.data());
+                        covtTile = CovtConverter.convertMvtTileToSegments(mvtTile.layers(), mvtTile.tileExtent(),
+                                zoomConfigs.computeIfAbsent(tile.zoom(), zoom -> createTileConfig(config, zoom))).
+                                getRight();
+                        convertedTiles.put(key, covtTile);
+                        numConvertedTiles++;
+                    }
+                }
+
+                writer.addTile(tile.zoom(), tile.x(), y, covtTile);
+                if(manifest != null){
+                    manifest.put(tileId, sourceHash, hash(messageDigest, covtTile));
+                }
+                numTiles++;
+            }
+
+            return new Statistics(numTiles, numConvertedTiles, numUnchangedTiles, writer.numDuplicateTiles());
+        }
+    }
+
+    /*
+     * Returns the copy of the config which is used for the tiles of the zoom level of a tileset. The tiles are
+     * converted without optimized metadata as they are decoded without their own TileJson.
+     * */
+    public static ConversionConfig createTileConfig(ConversionConfig config, int zoom){
+        return config.withZoom(zoom).optimizeMetadata(false);
+    }
+
+    /* Returns the TileJson of the tileset with the shared dictionaries which are referenced by the tiles */
+    public static TileJson createTileJson(ConversionConfig config){
+        var tileJson = new TileJson();
+        tileJson.sharedDictionaries = config.sharedDictionaries();
+        return tileJson;
+    }
+
+    /*
+     * Returns the tile of the previous archive if the source tile is unchanged, the content of the previous tile is
+     * verified against the manifest as the archive could have been replaced independently.
+     * */
+    private static ByteBuffer[] getUnchangedTile(CovtArchiveReader previousArchive, ConversionManifest.Entry manifestEntry,
+                                           int zoom, int x, int y, byte[] sourceHash,
+                                           MessageDigest messageDigest){
+        if(manifestEntry == null || !Arrays.equals(manifestEntry.sourceHash(), sourceHash)){
+            return null;
+        }
+
+        /* the view of the memory mapped archive is written to the new archive without copying it to the heap */
+        var previousTile = previousArchive.getTile(zoom, x, y);
+        return previousTile != null && Arrays.equals(manifestEntry.tileHash(), hash(messageDigest, previousTile)) ?
+                new ByteBuffer[]{previousTile} : null;
+    }
+
+    private static byte[] hash(MessageDigest messageDigest, ByteBuffer... segments){
+        for(var segment : segments){
+            messageDigest.update(segment.duplicate());
+        }
+        return messageDigest.digest();
+    }
+}
@@ -1,7 +1,24 @@
 package com.covt.converter;
 
+import java.util.LinkedHashMap;
 import java.util.TreeMap;
 
+/*
+ * The localized streams are only used for localized dictionary columns and contain the present and data stream
+ * per property name of the column group e.g. name, name:de, name:en.
+ * The nested field is only used for LIST and STRUCT columns and contains the schema and the streams per leaf field.
+ * */
 public record ColumnMetadata(ColumnDataType columnDataType, ColumnType columnType,
-                             TreeMap<StreamType, StreamMetadata> streams){
+                             TreeMap<StreamType, StreamMetadata> streams,
+                             LinkedHashMap<String, TreeMap<StreamType, StreamMetadata>> localizedStreams,
+                             NestedField nestedField){
+
+    public ColumnMetadata(ColumnDataType columnDataType, ColumnType columnType, TreeMap<StreamType, StreamMetadata> streams){
+        this(columnDataType, columnType, streams, null, null);
+    }
+
+    public ColumnMetadata(ColumnDataType columnDataType, ColumnType columnType, TreeMap<StreamType, StreamMetadata> streams,
+                          LinkedHashMap<String, TreeMap<StreamType, StreamMetadata>> localizedStreams){
+        this(columnDataType, columnType, streams, localizedStreams, null);
+    }
 }
@@ -6,4 +6,6 @@ public enum ColumnType {
     LOCALIZED_DICTIONARY,
     ICE,
     ICE_MORTON_CODE,
+    /* Dictionary is stored once per tileset in the TileJson and only the codes are stored in the tile */
+    SHARED_DICTIONARY,
 }
@@ -0,0 +1,279 @@
+package com.covt.converter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/*
+ * Options for the conversion of a MVT tile into the COVT format.
+ * The setters return the config so that the options can be chained.
+ * */
+public class ConversionConfig {
+    private CovtConverter.GeometryEncoding geometryEncoding = CovtConverter.GeometryEncoding.ICE_MORTON;
+    private boolean allowFastPforForTopologyStreams = true;
+    private boolean allowFastPforForVertexBuffer = true;
+    private boolean allowLocalizedStringDictionary = false;
+    private boolean includeIds = false;
+    /* Reorder the features of a layer by id which allows a delta encoding of the id column */
+    private boolean sortFeaturesById = false;
+    /*
+     * Reorder the features of point layers on the Hilbert curve which improves the delta encoding of the vertices,
+     * can not be combined with sortFeaturesById
+     * */
+    private boolean sortPointFeaturesOnHilbertCurve = false;
+    /* Reorder the points of the MultiPoints on the Hilbert curve, the order of the points has no meaning */
+    private boolean sortMultiPointsOnHilbertCurve = false;
+    /* Store the original index of the reordered features so that the decoder can restore the original order */
+    private boolean storeFeaturePermutation = false;
+    /* Triangulate the polygons and store the triangle indices in an IndexBuffer stream of the geometry column */
+    private boolean tessellatePolygons = false;
+    /* Use one ICE vertex dictionary for all layers of a tile instead of a dictionary per layer */
+    private boolean sharedVertexDictionary = false;
+    /* Number of decimal places of the z- and m-values which are preserved, the values are stored as integers */
+    private int vertexValueScale = 0;
+    /* Zoom level of the tile which is used to select the rules of the geometry simplifier */
+    private int zoom = -1;
+    /* Removes detail of the geometries before the encoding, see GeometrySimplifier */
+    private GeometrySimplifier geometrySimplifier = null;
+    private boolean optimizeMetadata = true;
+    /* Assign the dictionary codes in lexicographic order and front code the dictionary */
+    private boolean sortDictionaries = false;
+    /* Tileset wide dictionaries per layer and column, see SharedDictionaryBuilder */
+    private Map<String, Map<String, List<String>>> sharedDictionaries = null;
+    /* Prepend an index of the byte ranges of the layers and columns which enables partial fetches of a tile */
+    private boolean includeByteRangeIndex = false;
+    /* Receives the timings and sizes of the tiles, layers and columns, no metrics are collected if not set */
+    private ConversionListener conversionListener = null;
+
+    public CovtConverter.GeometryEncoding geometryEncoding() {
+        return geometryEncoding;
+    }
+
+    public ConversionConfig geometryEncoding(CovtConverter.GeometryEncoding geometryEncoding) {
+        this.geometryEncoding = geometryEncoding;
+        return this;
+    }
+
+    public boolean allowFastPforForTopologyStreams() {
+        return allowFastPforForTopologyStreams;
+    }
+
+    public ConversionConfig allowFastPforForTopologyStreams(boolean allowFastPforForTopologyStreams) {
+        this.allowFastPforForTopologyStreams = allowFastPforForTopologyStreams;
+        return this;
+    }
+
+    public boolean allowFastPforForVertexBuffer() {
+        return allowFastPforForVertexBuffer;
+    }
+
+    public ConversionConfig allowFastPforForVertexBuffer(boolean allowFastPforForVertexBuffer) {
+        this.allowFastPforForVertexBuffer = allowFastPforForVertexBuffer;
+        return this;
+    }
+
+    public boolean allowLocalizedStringDictionary() {
+        return allowLocalizedStringDictionary;
+    }
+
+    public ConversionConfig allowLocalizedStringDictionary(boolean allowLocalizedStringDictionary) {
+        this.allowLocalizedStringDictionary = allowLocalizedStringDictionary;
+        return this;
+    }
+
+    public boolean includeIds() {
+        return includeIds;
+    }
+
+    public ConversionConfig includeIds(boolean includeIds) {
+        this.includeIds = includeIds;
+        return this;
+    }
+
+    public boolean sortFeaturesById() {
+        return sortFeaturesById;
+    }
+
+    public ConversionConfig sortFeaturesById(boolean sortFeaturesById) {
+        this.sortFeaturesById = sortFeaturesById;
+        return this;
+    }
+
+    public boolean sortPointFeaturesOnHilbertCurve() {
+        return sortPointFeaturesOnHilbertCurve;
+    }
+
+    public ConversionConfig sortPointFeaturesOnHilbertCurve(boolean sortPointFeaturesOnHilbertCurve) {
+        this.sortPointFeaturesOnHilbertCurve = sortPointFeaturesOnHilbertCurve;
+        return this;
+    }
+
+    public boolean sortMultiPointsOnHilbertCurve() {
+        return sortMultiPointsOnHilbertCurve;
+    }
+
+    public ConversionConfig sortMultiPointsOnHilbertCurve(boolean sortMultiPointsOnHilbertCurve) {
+        this.sortMultiPointsOnHilbertCurve = sortMultiPointsOnHilbertCurve;
+        return this;
+    }
+
+    public boolean storeFeaturePermutation() {
+        return storeFeaturePermutation;
+    }
+
+    public ConversionConfig storeFeaturePermutation(boolean storeFeaturePermutation) {
+        this.storeFeaturePermutation = storeFeaturePermutation;
+        return this;
+    }
+
+    public boolean tessellatePolygons() {
+        return tessellatePolygons;
+    }
+
+    public ConversionConfig tessellatePolygons(boolean tessellatePolygons) {
+        this.tessellatePolygons = tessellatePolygons;
+        return this;
+    }
+
+    public boolean sharedVertexDictionary() {
+        return sharedVertexDictionary;
+    }
+
+    public ConversionConfig sharedVertexDictionary(boolean sharedVertexDictionary) {
+        this.sharedVertexDictionary = sharedVertexDictionary;
+        return this;
+    }
+
+    public int vertexValueScale() {
+        return vertexValueScale;
+    }
+
+    public ConversionConfig vertexValueScale(int vertexValueScale) {
+        if(vertexValueScale < 0 || vertexValueScale > 9){
+            throw new IllegalArgumentException("The scale of the vertex values has to be between 0 and 9.");
+        }
+        this.vertexValueScale = vertexValueScale;
+        return this;
+    }
+
+    public int zoom() {
+        return zoom;
+    }
+
+    public ConversionConfig zoom(int zoom) {
+        this.zoom = zoom;
+        return this;
+    }
+
+    /*
+     * Returns a copy of the config for the zoom level of a tile, so a config which is shared by concurrent
+     * conversions of tiles with different zoom levels is not modified.
+     * */
+    public ConversionConfig withZoom(int zoom) {
+        var config = new ConversionConfig();
+        config.geometryEncoding = geometryEncoding;
+        config.allowFastPforForTopologyStreams = allowFastPforForTopologyStreams;
+        config.allowFastPforForVertexBuffer = allowFastPforForVertexBuffer;
+        config.allowLocalizedStringDictionary = allowLocalizedStringDictionary;
+        config.includeIds = includeIds;
+        config.sortFeaturesById = sortFeaturesById;
+        config.sortPointFeaturesOnHilbertCurve = sortPointFeaturesOnHilbertCurve;
+        config.sortMultiPointsOnHilbertCurve = sortMultiPointsOnHilbertCurve;
+        config.storeFeaturePermutation = storeFeaturePermutation;
+        config.tessellatePolygons = tessellatePolygons;
+        config.sharedVertexDictionary = sharedVertexDictionary;
+        config.vertexValueScale = vertexValueScale;
+        config.zoom = zoom;
+        config.geometrySimplifier = geometrySimplifier;
+        config.optimizeMetadata = optimizeMetadata;
+        config.sortDictionaries = sortDictionaries;
+        config.sharedDictionaries = sharedDictionaries;
+        config.includeByteRangeIndex = includeByteRangeIndex;
+        config.conversionListener = conversionListener;
+        return config;
+    }
+
+    public GeometrySimplifier geometrySimplifier() {
+        return geometrySimplifier;
+    }
+
+    public ConversionConfig geometrySimplifier(GeometrySimplifier geometrySimplifier) {
+        this.geometrySimplifier = geometrySimplifier;
+        return this;
+    }
+
+    public boolean optimizeMetadata() {
+        return optimizeMetadata;
+    }
+
+    public ConversionConfig optimizeMetadata(boolean optimizeMetadata) {
+        this.optimizeMetadata = optimizeMetadata;
+        return this;
+    }
+
+    public boolean sortDictionaries() {
+        return sortDictionaries;
+    }
+
+    public ConversionConfig sortDictionaries(boolean sortDictionaries) {
+        this.sortDictionaries = sortDictionaries;
+        return this;
+    }
+
+    public Map<String, Map<String, List<String>>> sharedDictionaries() {
+        return sharedDictionaries;
+    }
+
+    public ConversionConfig sharedDictionaries(Map<String, Map<String, List<String>>> sharedDictionaries) {
+        this.sharedDictionaries = sharedDictionaries;
+        return this;
+    }
+
+    public boolean includeByteRangeIndex() {
+        return includeByteRangeIndex;
+    }
+
+    public ConversionConfig includeByteRangeIndex(boolean includeByteRangeIndex) {
+        this.includeByteRangeIndex = includeByteRangeIndex;
+        return this;
+    }
+
+    /*
+     * Returns the SHA-256 hash of the options which affect the content of the converted tiles, so the tiles of a
+     * tileset which was converted with different options can be detected. The zoom level is set per tile and the
+     * listener doesn't change the tiles, so both are not part of the fingerprint.
+     * */
+    public byte[] fingerprint() {
+        var sortedSharedDictionaries = sharedDictionaries == null ? null :
+                sharedDictionaries.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                        e -> new TreeMap<>(e.getValue()), (a, b) -> a, TreeMap::new));
+        var options = String.join(";", geometryEncoding.name(), String.valueOf(allowFastPforForTopologyStreams),
+                String.valueOf(allowFastPforForVertexBuffer), String.valueOf(allowLocalizedStringDictionary),
+                String.valueOf(includeIds), String.valueOf(sortFeaturesById),
+                String.valueOf(sortPointFeaturesOnHilbertCurve), String.valueOf(sortMultiPointsOnHilbertCurve),
+                String.valueOf(storeFeaturePermutation),
+                String.valueOf(tessellatePolygons), String.valueOf(sharedVertexDictionary),
+                String.valueOf(vertexValueScale), geometrySimplifier == null ? "null" : geometrySimplifier.describeRules(),
+                String.valueOf(optimizeMetadata), String.valueOf(sortDictionaries),
+                String.valueOf(sortedSharedDictionaries), String.valueOf(includeByteRangeIndex));
+        try{
+            return MessageDigest.getInstance("SHA-256").digest(options.getBytes(StandardCharsets.UTF_8));
+        }
+        catch(NoSuchAlgorithmException e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    public ConversionListener conversionListener() {
+        return conversionListener;
+    }
+
+    public ConversionConfig conversionListener(ConversionListener conversionListener) {
+        this.conversionListener = conversionListener;
+        return this;
+    }
+}
@@ -0,0 +1,29 @@
+package com.covt.converter;
+
+import java.util.List;
+
+/*
+ * Receives the timings and sizes of a conversion when it is set with ConversionConfig.conversionListener.
+ * The methods are called on the converting thread for every column of a layer, then for the layer and after all
+ * layers for the tile. The metadata of a column contains the chosen encoding, the number of values and the size of
+ * every stream, the rejected candidates are the alternatives which were encoded but not chosen because they are
+ * larger. If a whole column was encoded in two ways, the candidates of the streams of both are reported.
+ * The durations are in nanoseconds and the sizes in bytes.
+ * */
+public interface ConversionListener {
+
+    /*
+     * @param streamType stream of the column which was encoded with the candidate or null if the whole column was
+     *                   encoded differently e.g. a PLAIN instead of an ICE coded geometry column
+     * @param encoding name of the StreamEncoding respectively of the ColumnType for a whole column
+     * */
+    record RejectedCandidate(StreamType streamType, String encoding, int byteSize){}
+
+    default void onColumnConverted(String layerName, String columnName, ColumnMetadata columnMetadata, int byteSize,
+                                   long nanos, List<RejectedCandidate> rejectedCandidates){}
+
+    /* The size contains the metadata and all columns of the layer */
+    default void onLayerConverted(String layerName, int numFeatures, int metadataSize, int byteSize, long nanos){}
+
+    default void onTileConverted(int numLayers, int byteSize, long nanos){}
+}
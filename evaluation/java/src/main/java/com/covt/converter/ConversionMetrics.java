@@ -0,0 +1,89 @@
+package com.covt.converter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Collects the metrics of the conversion of a tile for the ConversionListener of the config.
+ * The instance is bound to the converting thread so that the encoding helpers can report the candidates they reject
+ * without an additional parameter. The candidates and durations are assigned to the column which is currently
+ * converted. Without a listener no instance exists and reject only checks the thread local.
+ * */
+final class ConversionMetrics {
+    private static final ThreadLocal<ConversionMetrics> CURRENT = new ThreadLocal<>();
+
+    private final ConversionListener listener;
+    private final Map<String, Long> columnNanos = new HashMap<>();
+    private final Map<String, List<ConversionListener.RejectedCandidate>> rejectedCandidates = new HashMap<>();
+    private String columnName;
+    private long columnStart;
+
+    private ConversionMetrics(ConversionListener listener){
+        this.listener = listener;
+    }
+
+    /* Returns null if no listener is set, end has to be called after the conversion */
+    static ConversionMetrics begin(ConversionConfig config){
+        if(config.conversionListener() == null){
+            return null;
+        }
+
+        var metrics = new ConversionMetrics(config.conversionListener());
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static ConversionMetrics current(){
+        return CURRENT.get();
+    }
+
+    static void reject(StreamType streamType, StreamEncoding encoding, int byteSize){
+        reject(streamType, encoding.name(), byteSize);
+    }
+
+    static void reject(StreamType streamType, String encoding, int byteSize){
+        var metrics = CURRENT.get();
+        if(metrics != null && metrics.columnName != null){
+            metrics.rejectedCandidates.computeIfAbsent(metrics.columnName, c -> new ArrayList<>()).
+                    add(new ConversionListener.RejectedCandidate(streamType, encoding, byteSize));
+        }
+    }
+
+    void end(){
+        CURRENT.remove();
+    }
+
+    /*
+     * Starts to measure the column and stops the previous column, so the loops over the columns don't have to stop
+     * the measurement before every continue. The durations of multiple measurements of a column are added.
+     * */
+    void startColumn(String columnName){
+        stopColumn();
+        this.columnName = columnName;
+        this.columnStart = System.nanoTime();
+    }
+
+    void stopColumn(){
+        if(columnName != null){
+            columnNanos.merge(columnName, System.nanoTime() - columnStart, Long::sum);
+            columnName = null;
+        }
+    }
+
+    void columnConverted(String layerName, String columnName, ColumnMetadata columnMetadata, int byteSize){
+        listener.onColumnConverted(layerName, columnName, columnMetadata, byteSize,
+                columnNanos.getOrDefault(columnName, 0L), rejectedCandidates.getOrDefault(columnName, List.of()));
+    }
+
+    void layerConverted(String layerName, int numFeatures, int metadataSize, int byteSize, long nanos){
+        listener.onLayerConverted(layerName, numFeatures, metadataSize, byteSize, nanos);
+        columnNanos.clear();
+        rejectedCandidates.clear();
+    }
+
+    void tileConverted(int numLayers, int byteSize, long nanos){
+        listener.onTileConverted(numLayers, byteSize, nanos);
+    }
+}
@@ -1,20 +1,24 @@
 package com.covt.converter;
 
+import com.covt.converter.geometry.GeometryTopology;
 import com.covt.converter.geometry.GeometryType;
 import com.covt.converter.geometry.Vertex;
+import com.covt.converter.mvt.ColumnarLayer;
 import com.covt.converter.mvt.Feature;
 import com.covt.converter.mvt.Layer;
 import com.covt.converter.tilejson.TileJson;
 import com.covt.converter.tilejson.VectorLayer;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.Iterables;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.davidmoten.hilbert.HilbertCurve;
+import org.davidmoten.hilbert.SmallHilbertCurve;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
 import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
@@ -22,15 +26,23 @@ import org.locationtech.jts.geom.LinearRing;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 record GeometryColumData(ColumnMetadata columnMetadata, byte[] geometryColumn){}
 
-record PropertyColumData(PropertyColumnsMetadata metadata, byte[] propertyColumns){}
+/* The start offsets of the columns in the property columns buffer in the order of the columns */
+record PropertyColumData(PropertyColumnsMetadata metadata, byte[] propertyColumns,
+                         LinkedHashMap<String, Integer> columnOffsets){}
+
+record LayerIndexEntry(String layerName, int metadataLength, LinkedHashMap<String, Integer> columnLengths,
+                       int sharedVertexBufferLayer){}
 
 /*
 -> boolean -> rle encode present, boolean rle encode data
@@ -58,7 +70,8 @@ record LocalizedStringDictionaryStreamData(List<Boolean> presentStream, List<Int
 record PropertyColumnsMetadata(List<NamedColumnMetadata> booleanMetadata, List<NamedColumnMetadata> longMetadata,
                                List<NamedColumnMetadata> floatMetadata,
                                 List<NamedColumnMetadata> stringDictionaryMetadata,
-                                List<NamedColumnMetadata> localizedStringDictionaryMetadata){}
+                                List<NamedColumnMetadata> localizedStringDictionaryMetadata,
+                                List<NamedColumnMetadata> nestedMetadata){}
 
 record NamedColumnMetadata(String columnName, ColumnMetadata columnMetadata) {}
 
@@ -87,8 +100,18 @@ public class CovtConverter {
     private static final byte FILE_VERSION = 1;
     private static final List<String> LOCALIZED_COLUM_NAME_PREFIXES = Arrays.asList("name");
     private static final Set<String>  LOCALIZE_DELIMITER = new HashSet<>(List.of(":", "_"));
-
-    //TODO: use a extent per layer instead of tile
+    /* Number of values between two fully stored restart values of a front coded dictionary */
+    private static final int FRONT_CODING_BLOCK_SIZE = 16;
+    private static final int MAX_COLUMN_DATA_TYPE_ID = 0xF;
+    private static final byte BYTE_RANGE_INDEX_MARKER = 0;
+    private static final String ID_COLUMN_NAME = "id";
+    private static final String GEOMETRY_COLUMN_NAME = "geometry";
+    /* The ids of the space filling curves are stored as int, so 15 bits per coordinate for an extent of 2^14 */
+    private static final int MAX_SFC_TILE_EXTENT = 1 << 14;
+
+    /*
+     * The tile extent is used for all layers which don't specify their own extent, see Layer.
+     * */
     public static byte[] convertMvtTile(List<Layer> layers, int tileExtent, GeometryEncoding geometryEncoding,
                                         boolean allowFastPforForTopologyStreams,
                                         boolean allowFastPforForVertexBuffer,
@@ -96,209 +119,606 @@ public class CovtConverter {
                                         boolean includeIds,
                                         boolean optimizeMetadata
     ) throws IOException {
+        return convertMvtTile(layers, tileExtent, createConfig(geometryEncoding, allowFastPforForTopologyStreams,
+                allowFastPforForVertexBuffer, allowLocalizedStringDictionary, includeIds, optimizeMetadata));
+    }
+
+    public static byte[] convertMvtTile(List<Layer> layers, int tileExtent, ConversionConfig config) throws IOException {
+        return convertMvtTile2(layers, tileExtent, config).getRight();
+    }
+
+    public static Pair<String, byte[]> convertMvtTile2(List<Layer> layers, int tileExtent, GeometryEncoding geometryEncoding,
+                                        boolean allowFastPforForTopologyStreams,
+                                        boolean allowFastPforForVertexBuffer,
+                                        boolean allowLocalizedStringDictionary,
+                                        boolean includeIds,
+                                        boolean optimizeMetadata
+    ) throws IOException {
+        return convertMvtTile2(layers, tileExtent, createConfig(geometryEncoding, allowFastPforForTopologyStreams,
+                allowFastPforForVertexBuffer, allowLocalizedStringDictionary, includeIds, optimizeMetadata));
+    }
+
+    public static Pair<String, byte[]> convertMvtTile2(List<Layer> layers, int tileExtent, ConversionConfig config) throws IOException {
+        var segments = convertMvtTileToSegments(layers, tileExtent, config);
+        var tile = new byte[Arrays.stream(segments.getRight()).mapToInt(ByteBuffer::remaining).sum()];
+        var tileBuffer = ByteBuffer.wrap(tile);
+        for(var segment : segments.getRight()){
+            tileBuffer.put(segment);
+        }
+        return new ImmutablePair<>(segments.getLeft(), tile);
+    }
+
+    /*
+     * Returns the tile as sequence of segments in the order of the tile layout, the byte range index followed by the
+     * metadata, the id, the geometry and the property columns of every layer. The segments wrap the encoded columns
+     * without concatenating them, so they can be written directly to a GatheringByteChannel, a HTTP response or
+     * the CovtArchiveWriter.
+     * */
+    public static Pair<String, ByteBuffer[]> convertMvtTileToSegments(List<Layer> layers, int tileExtent,
+                                                                      ConversionConfig config) throws IOException {
+        return convertLayers(layers, null, tileExtent, config);
+    }
+
+    /*
+     * Converts the layers of MvtColumnarReader without creating JTS geometries and features, the geometries are
+     * directly encoded from the decoded geometry commands and the property columns from the columns of the layers.
+     * The ICE encodings operate on JTS geometries, so the geometries of columnar layers are always plain encoded, also
+     * with the default ICE_MORTON encoding, like the layers which can't be ICE encoded. Sorting, simplification and
+     * tessellation are not supported.
+     * */
+    public static Pair<String, ByteBuffer[]> convertColumnarTile(List<ColumnarLayer> columnarLayers, int tileExtent,
+                                                                 ConversionConfig config) throws IOException {
+        if(config.geometrySimplifier() != null || config.tessellatePolygons() || config.sortFeaturesById() ||
+                config.sortPointFeaturesOnHilbertCurve() || config.sortMultiPointsOnHilbertCurve()){
+            throw new IllegalArgumentException("Sorting, simplification and tessellation are not supported for " +
+                    "columnar layers.");
+        }
+
+        /* the layers only provide the name and the extent, the columns are taken from the columnar layers */
+        var layers = columnarLayers.stream().map(columnarLayer -> new Layer(columnarLayer.name(), List.<Feature>of(),
+                columnarLayer.extent())).toList();
+        return convertLayers(layers, columnarLayers, tileExtent, config);
+    }
+
+    /*
+     * @param columnarLayers already decoded columns of the layers which are used instead of the features of the layers,
+     *                       null if the layers contain the features
+     * */
+    private static Pair<String, ByteBuffer[]> convertLayers(List<Layer> layers, List<ColumnarLayer> columnarLayers,
+                                                            int tileExtent, ConversionConfig config) throws IOException {
+        /*
+         * the features can only be stored in one order, the Hilbert order would undo the id order and the permutation
+         * would refer to the id sorted features instead of the original order
+         * */
+        if(config.sortFeaturesById() && config.sortPointFeaturesOnHilbertCurve()){
+            throw new IllegalArgumentException("The features can't be sorted by id and on the Hilbert curve.");
+        }
+
+        var metrics = ConversionMetrics.begin(config);
+        if(metrics == null){
+            return convertLayers(layers, columnarLayers, tileExtent, config, null);
+        }
+
+        try{
+            var start = System.nanoTime();
+            var tile = convertLayers(layers, columnarLayers, tileExtent, config, metrics);
+            var tileSize = Arrays.stream(tile.getRight()).mapToInt(ByteBuffer::remaining).sum();
+            metrics.tileConverted(layers.size(), tileSize, System.nanoTime() - start);
+            return tile;
+        }
+        finally{
+            metrics.end();
+        }
+    }
+
+    /*
+     * @param metrics collects the timings and sizes for the listener of the config, null if no listener is set
+     * */
+    private static Pair<String, ByteBuffer[]> convertLayers(List<Layer> layers, List<ColumnarLayer> columnarLayers,
+                                                            int tileExtent, ConversionConfig config,
+                                                            ConversionMetrics metrics) throws IOException {
+        var geometryEncoding = config.geometryEncoding();
+        var allowFastPforForTopologyStreams = config.allowFastPforForTopologyStreams();
+        var allowFastPforForVertexBuffer = config.allowFastPforForVertexBuffer();
+        var allowLocalizedStringDictionary = config.allowLocalizedStringDictionary();
+        var includeIds = config.includeIds();
+        var optimizeMetadata = config.optimizeMetadata();
         var vectorLayers = new ArrayList<VectorLayer>();
-        try(ByteArrayOutputStream stream = new ByteArrayOutputStream()){
-            var totalLayerMetadataSize = 0;
-            var layerId = 0;
-            for(var layer : layers){
-                var features = layer.features();
-                var propertyColumnMetadata = getPropertyColumnMetadata(features, allowLocalizedStringDictionary);
-
-                ColumnMetadata idMetadata = null;
-                byte[] idColumn = null;
-                if(includeIds == true) {
-                    var allowReordering = false;
-                    /*var idColumnData = convertIdColumn(features, allowReordering);
-                    idColumn = idColumnData.getRight();
-                    //TODO: id and geometry has to be the first columns in the metadata
-                    idMetadata = new ColumnMetadata(ColumnDataType.UINT_64, ColumnType.PLAIN,
-                            new LinkedHashMap<>(Map.of(
-                                    DATA_STREAM_NAME,
-                                    new StreamMetadata(features.size(), idColumn.length, idColumnData.getLeft(), StreamType.DATA)
-                            )));*/
+        var segments = new ArrayList<ByteBuffer>();
+        var layerId = 0;
+        var allowIceEncodig = geometryEncoding == GeometryEncoding.ICE ||
+                geometryEncoding == GeometryEncoding.ICE_MORTON;
+        if(config.geometrySimplifier() != null){
+            layers = simplifyLayers(layers, config);
+        }
+        /* one vertex dictionary for all layers as for example streets and landuse areas often share vertices */
+        TreeMap<Integer, Vertex> sharedVertexDictionary = null;
+        if(allowIceEncodig && config.sharedVertexDictionary() && isSfcEncodableExtent(tileExtent) &&
+                columnarLayers == null){
+            var allFeatures = layers.stream().filter(l -> getLayerExtent(l, tileExtent) == tileExtent &&
+                    isIceEncodable(l.features(), tileExtent)).flatMap(l -> l.features().stream()).
+                    collect(Collectors.toList());
+            sharedVertexDictionary = createVertexDictionary(allFeatures, createSfcIdGenerator(tileExtent, geometryEncoding));
+        }
+        var sharedVertexBufferWritten = false;
+        var sharedVertexBufferLayer = -1;
+        var indexEntries = new ArrayList<LayerIndexEntry>();
+        for(var layer : layers){
+            var layerStart = metrics != null ? System.nanoTime() : 0;
+            var columnarLayer = columnarLayers != null ? columnarLayers.get(indexEntries.size()) : null;
+            var geometryTopology = columnarLayer != null ? columnarLayer.geometries() : null;
+            var referencesSharedVertexBuffer = false;
+            var features = layer.features();
+            var layerExtent = getLayerExtent(layer, tileExtent);
+            var allowIceEncodingForLayer = allowIceEncodig && isIceEncodable(features, layerExtent);
+            /* all columns are created from the sorted list so the permutation is applied to every column */
+            if(config.sortFeaturesById()){
+                features = new ArrayList<>(features);
+                features.sort(Comparator.comparingLong(Feature::id));
+            }
+            int[] featurePermutation = null;
+            if(config.sortPointFeaturesOnHilbertCurve() && isPointLayer(features)){
+                featurePermutation = getHilbertPermutation(features, layerExtent);
+                var sortedFeatures = new ArrayList<Feature>(features.size());
+                for(var originalIndex : featurePermutation){
+                    sortedFeatures.add(features.get(originalIndex));
+                }
+                features = sortedFeatures;
+            }
+            if(config.sortMultiPointsOnHilbertCurve()){
+                features = sortMultiPointsOnHilbertCurve(features, layerExtent);
+            }
+            /* the properties of the features are transposed into columns, columnar layers already store columns */
+            var ids = columnarLayer != null ? columnarLayer.ids() : features.stream().mapToLong(Feature::id).toArray();
+            var propertyValues = columnarLayer != null ? columnarLayer.properties() : getPropertyColumns(features);
+            var numFeatures = ids.length;
+            var propertyColumnMetadata = getPropertyColumnMetadata(propertyValues, allowLocalizedStringDictionary);
+
+            ColumnMetadata idMetadata = null;
+            byte[] idColumn = null;
+            if(includeIds == true) {
+                if(metrics != null){
+                    metrics.startColumn(ID_COLUMN_NAME);
                 }
+                var idColumnData = convertIdColumn(ids);
+                idColumn = idColumnData.getRight();
+                idMetadata = new ColumnMetadata(ColumnDataType.UINT_64, ColumnType.PLAIN, new TreeMap<>(Map.of(
+                        StreamType.DATA, new StreamMetadata(idColumnData.getLeft(), numFeatures, idColumn.length))));
+            }
 
-                //TODO: if features are not sorted based on id sort the geometry
-                //for example part_offsets when ICE is used or point geometries without ICE
-                var allowIceEncodig = geometryEncoding == GeometryEncoding.ICE ||
-                        geometryEncoding == GeometryEncoding.ICE_MORTON;
-                GeometryColumData geometryColumnData;
+            if(metrics != null){
+                metrics.startColumn(GEOMETRY_COLUMN_NAME);
+            }
+            GeometryColumData geometryColumnData;
+            if(geometryTopology != null){
+                geometryColumnData = encodeUnorderedGeometryColumn(geometryTopology, allowFastPforForTopologyStreams,
+                        allowFastPforForVertexBuffer);
+            }
+            else if(sharedVertexDictionary != null && allowIceEncodingForLayer && layerExtent == tileExtent){
+                /* the first layer stores the shared vertex buffer */
+                geometryColumnData = convertIceCodedGeometryColumn(features, tileExtent, geometryEncoding,
+                        allowFastPforForTopologyStreams, allowFastPforForVertexBuffer, sharedVertexDictionary,
+                        !sharedVertexBufferWritten);
+                referencesSharedVertexBuffer = sharedVertexBufferWritten;
+                if(!sharedVertexBufferWritten){
+                    sharedVertexBufferLayer = indexEntries.size();
+                }
+                sharedVertexBufferWritten = true;
+            }
+            /*
+             * layers which can't reference the shared vertex dictionary use the plain encoding, so that the
+             * following layers still reference the vertex buffer of the shared dictionary
+             * */
+            else if(!allowIceEncodingForLayer || sharedVertexDictionary != null){
+                geometryColumnData = convertUnorderedGeometryColumn(features,
+                        allowFastPforForTopologyStreams, allowFastPforForVertexBuffer);
+            }
+            else{
                 var unorderedGeometryColumnData = convertUnorderedGeometryColumn(features,
                         allowFastPforForTopologyStreams, allowFastPforForVertexBuffer);
-                if(!allowIceEncodig){
-                    geometryColumnData = unorderedGeometryColumnData;
-                }
-                else{
-                    var iceCodedGeometryColumnData = convertIceCodedGeometryColumn(features, tileExtent,
-                            geometryEncoding, allowFastPforForTopologyStreams, allowFastPforForVertexBuffer);
-                    geometryColumnData = iceCodedGeometryColumnData.geometryColumn().length < unorderedGeometryColumnData.geometryColumn().length?
-                            iceCodedGeometryColumnData : unorderedGeometryColumnData;
+                var iceCodedGeometryColumnData = convertIceCodedGeometryColumn(features, layerExtent,
+                        geometryEncoding, allowFastPforForTopologyStreams, allowFastPforForVertexBuffer, null, true);
+                geometryColumnData = iceCodedGeometryColumnData.geometryColumn().length < unorderedGeometryColumnData.geometryColumn().length?
+                        iceCodedGeometryColumnData : unorderedGeometryColumnData;
+                var rejectedColumnData = geometryColumnData == iceCodedGeometryColumnData ?
+                        unorderedGeometryColumnData : iceCodedGeometryColumnData;
+                ConversionMetrics.reject(null, rejectedColumnData.columnMetadata().columnType().name(),
+                        rejectedColumnData.geometryColumn().length);
+            }
+
+            var geometryColumn = geometryColumnData.geometryColumn();
+            var geometryMetadata = geometryColumnData.columnMetadata();
+            /* the z- and m-values are stored directly after the vertex buffer in separate streams, MVT has no z- and m-values */
+            var zValues = geometryTopology == null ? convertVertexValues(features, Coordinate::getZ,
+                    config.vertexValueScale(), allowFastPforForVertexBuffer) : null;
+            var mValues = geometryTopology == null ? convertVertexValues(features, Coordinate::getM,
+                    config.vertexValueScale(), allowFastPforForVertexBuffer) : null;
+            if(zValues != null){
+                geometryMetadata.streams().put(StreamType.Z_VALUE, zValues.getLeft());
+                geometryColumn = ArrayUtils.addAll(geometryColumn, zValues.getRight());
+            }
+            if(mValues != null){
+                geometryMetadata.streams().put(StreamType.M_VALUE, mValues.getLeft());
+                geometryColumn = ArrayUtils.addAll(geometryColumn, mValues.getRight());
+            }
+            if(zValues != null || mValues != null){
+                var geometryDataType = zValues == null ? ColumnDataType.GEOMETRY_M :
+                        mValues == null ? ColumnDataType.GEOMETRY_Z : ColumnDataType.GEOMETRY_ZM;
+                geometryMetadata = new ColumnMetadata(geometryDataType, geometryMetadata.columnType(),
+                        geometryMetadata.streams());
+            }
+            /* the triangles of the polygons are stored after the vertex buffer so that clients can skip the tessellation */
+            if(config.tessellatePolygons()){
+                var indexBuffer = convertIndexBuffer(features, allowFastPforForTopologyStreams);
+                if(indexBuffer != null){
+                    geometryMetadata.streams().put(StreamType.INDEX_BUFFER, indexBuffer.getLeft());
+                    geometryColumn = ArrayUtils.addAll(geometryColumn, indexBuffer.getRight());
                 }
+            }
 
-                var geometryColumn = geometryColumnData.geometryColumn();
-                var geometryMetadata = geometryColumnData.columnMetadata();
-
-                var propertyColumnData = convertPropertyColumns(features, propertyColumnMetadata);
-                var propertyMetadata = propertyColumnData.metadata();
-                var propertyColumns = propertyColumnData.propertyColumns();
-                //System.out.println(layerName + " property size: " + propertyColumnData.propertyColumns().length / 1000d);
-
-                byte[] layerMetadata = null;
-                if(optimizeMetadata){
-                    layerMetadata = convertOptimizedLayerMetadata(layerId++, idMetadata, geometryMetadata, propertyMetadata, tileExtent);
-
-                    var vectorLayer = new VectorLayer();
-                    vectorLayer.id = layer.name();
-                    vectorLayer.fields = new LinkedHashMap<>();
-                    for(var property : propertyMetadata.floatMetadata()){
-                        var columnName = property.columnName();
-                        var columnMetadata = property.columnMetadata().columnDataType();
-                        //TODO: add real data type
-                        vectorLayer.fields.put(columnName, "String");
-                    }
-                    vectorLayers.add(vectorLayer);
+            /* the original index of every feature is stored after the vertex buffer to restore the original order */
+            if(featurePermutation != null && config.storeFeaturePermutation()){
+                var permutation = EncodingUtils.encodeForBitPacking(
+                        Arrays.stream(featurePermutation).mapToLong(i -> i).toArray(), false);
+                geometryMetadata.streams().put(StreamType.PERMUTATION, new StreamMetadata(StreamEncoding.FOR_BIT_PACKING,
+                        featurePermutation.length, permutation.length));
+                geometryColumn = ArrayUtils.addAll(geometryColumn, permutation);
+            }
+            if(metrics != null){
+                metrics.stopColumn();
+            }
+
+            var propertyColumnData = convertPropertyColumns(layer.name(), propertyValues, propertyColumnMetadata,
+                    config);
+            var propertyMetadata = propertyColumnData.metadata();
+            var propertyColumns = propertyColumnData.propertyColumns();
+
+            byte[] layerMetadata = null;
+            if(optimizeMetadata){
+                var vectorLayer = new VectorLayer();
+                vectorLayer.id = layer.name();
+                vectorLayer.fields = new LinkedHashMap<>();
+                var metadata = new ArrayList<>(propertyMetadata.booleanMetadata());
+                metadata.addAll(propertyMetadata.longMetadata());
+                metadata.addAll(propertyMetadata.floatMetadata());
+                metadata.addAll(propertyMetadata.stringDictionaryMetadata());
+                metadata.addAll(propertyMetadata.localizedStringDictionaryMetadata());
+                metadata.addAll(propertyMetadata.nestedMetadata());
+                for(var property : metadata){
+                    var columnName = property.columnName();
+                    var columnMetadata = property.columnMetadata().columnDataType();
+                    //TODO: add real data type
+                    vectorLayer.fields.put(columnName, "String");
                 }
-                else{
-                    throw new RuntimeException("Currently only the optimized metadata mode is supported.");
+                /* the property names of a localized column are referenced by their index in the fields */
+                for(var property : propertyMetadata.localizedStringDictionaryMetadata()){
+                    for(var propertyName : property.columnMetadata().localizedStreams().keySet()){
+                        vectorLayer.fields.putIfAbsent(propertyName, "String");
+                    }
                 }
+                vectorLayers.add(vectorLayer);
 
+                layerMetadata = convertOptimizedLayerMetadata(layerId++, idMetadata, geometryMetadata, propertyMetadata,
+                        layerExtent, new ArrayList<>(vectorLayer.fields.keySet()));
+            }
+            else{
+                layerMetadata = convertLayerMetadata(layer.name(), idMetadata, geometryMetadata, propertyMetadata, layerExtent);
+            }
 
-                //System.out.println(layerName + " metadata size: " + layerMetadata.length / 1000d);
-                totalLayerMetadataSize += layerMetadata.length;
 
-                stream.write(layerMetadata);
-                if(includeIds == true){
-                    stream.write(idColumn);
-                }
-                stream.write(geometryColumn);
-                stream.write(propertyColumns);
+            segments.add(ByteBuffer.wrap(layerMetadata));
+            if(includeIds == true){
+                segments.add(ByteBuffer.wrap(idColumn));
             }
+            segments.add(ByteBuffer.wrap(geometryColumn));
+            segments.add(ByteBuffer.wrap(propertyColumns));
 
-            //System.out.println("------------------------------------------------------------");
-            //System.out.println("Total Layer Metadata Size: " + totalLayerMetadataSize);
-            //System.out.printf("Contribution of metadata to the total file size: %f%%%n", (1d / (stream.toByteArray().length / (double)totalLayerMetadataSize ))  * 100);
-            //System.out.println("------------------------------------------------------------");
+            var columnLengths = new LinkedHashMap<String, Integer>();
+            if(includeIds){
+                columnLengths.put(ID_COLUMN_NAME, idColumn.length);
+            }
+            columnLengths.put(GEOMETRY_COLUMN_NAME, geometryColumn.length);
+            var propertyColumnOffsets = new ArrayList<>(propertyColumnData.columnOffsets().entrySet());
+            for(var i = 0; i < propertyColumnOffsets.size(); i++){
+                var columnEnd = i + 1 < propertyColumnOffsets.size() ? propertyColumnOffsets.get(i + 1).getValue() :
+                        propertyColumns.length;
+                var column = propertyColumnOffsets.get(i);
+                columnLengths.put(column.getKey(), columnEnd - column.getValue());
+            }
+            indexEntries.add(new LayerIndexEntry(layer.name(), layerMetadata.length, columnLengths,
+                    referencesSharedVertexBuffer ? sharedVertexBufferLayer + 1 : 0));
+
+            if(metrics != null){
+                var columnMetadata = new HashMap<String, ColumnMetadata>();
+                columnMetadata.put(ID_COLUMN_NAME, idMetadata);
+                columnMetadata.put(GEOMETRY_COLUMN_NAME, geometryMetadata);
+                Stream.of(propertyMetadata.booleanMetadata(), propertyMetadata.longMetadata(),
+                        propertyMetadata.floatMetadata(), propertyMetadata.stringDictionaryMetadata(),
+                        propertyMetadata.localizedStringDictionaryMetadata(), propertyMetadata.nestedMetadata()).
+                        flatMap(List::stream).forEach(c -> columnMetadata.put(c.columnName(), c.columnMetadata()));
+                var layerSize = layerMetadata.length;
+                for(var column : columnLengths.entrySet()){
+                    metrics.columnConverted(layer.name(), column.getKey(), columnMetadata.get(column.getKey()),
+                            column.getValue());
+                    layerSize += column.getValue();
+                }
+                metrics.layerConverted(layer.name(), numFeatures, layerMetadata.length, layerSize,
+                        System.nanoTime() - layerStart);
+            }
+        }
 
 
-            var tileJson = new TileJson();
-            tileJson.vectorLayers = vectorLayers;
-            ObjectMapper mapper = new ObjectMapper();
-            var tileJsonStr = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(tileJson);
+        /* the shared dictionaries are part of the TileJson of the tileset, see TilesetConverter.createTileJson */
+        var tileJson = new TileJson();
+        tileJson.vectorLayers = vectorLayers;
+        ObjectMapper mapper = new ObjectMapper();
+        var tileJsonStr = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(tileJson);
 
-            return stream.toByteArray();
+        if(config.includeByteRangeIndex()){
+            segments.add(0, ByteBuffer.wrap(encodeByteRangeIndex(indexEntries)));
         }
+        return new ImmutablePair<>(tileJsonStr, segments.toArray(new ByteBuffer[0]));
     }
 
-    public static Pair<String, byte[]> convertMvtTile2(List<Layer> layers, int tileExtent, GeometryEncoding geometryEncoding,
-                                        boolean allowFastPforForTopologyStreams,
-                                        boolean allowFastPforForVertexBuffer,
-                                        boolean allowLocalizedStringDictionary,
-                                        boolean includeIds,
-                                        boolean optimizeMetadata
-    ) throws IOException {
-        var vectorLayers = new ArrayList<VectorLayer>();
-        try(ByteArrayOutputStream stream = new ByteArrayOutputStream()){
-            var totalLayerMetadataSize = 0;
-            var layerId = 0;
-            for(var layer : layers){
-                var features = layer.features();
-                var propertyColumnMetadata = getPropertyColumnMetadata(features, allowLocalizedStringDictionary);
-
-                ColumnMetadata idMetadata = null;
-                byte[] idColumn = null;
-                if(includeIds == true) {
-                    var allowReordering = false;
-                    throw new RuntimeException("Id columns currently not supported.");
-                    /*var idColumnData = convertIdColumn(features, allowReordering);
-                    idColumn = idColumnData.getRight();
-                    //TODO: id and geometry has to be the first columns in the metadata
-                    idMetadata = new ColumnMetadata(ColumnDataType.UINT_64, ColumnType.PLAIN,
-                            new LinkedHashMap<>(Map.of(
-                                    DATA_STREAM_NAME,
-                                    new StreamMetadata(features.size(), idColumn.length, idColumnData.getLeft(), StreamType.DATA)
-                            )));*/
+    /*
+     * The optional byte range index precedes the layers of a tile so that a client can fetch only the metadata and
+     * the columns of the layers it needs with HTTP range requests:
+     * -> ByteRangeIndex -> marker (1 byte, always 0 which is no valid layer version), indexLength (u32),
+     *                      numLayers (u32), LayerEntry[]
+     * -> LayerEntry -> layerName (String), metadataLength (u32), sharedVertexBufferLayer (u32), numColumns (u32),
+     *                  ColumnEntry[]
+     * -> ColumnEntry -> columnName (String), byteLength (u32)
+     * The layers and the columns of a layer are stored consecutively after the index, so the offsets are derived from
+     * the lengths. A geometry column which references the vertex buffer of a shared vertex dictionary stores the index
+     * of the layer with the vertex buffer + 1, otherwise 0.
+     * */
+    private static byte[] encodeByteRangeIndex(List<LayerIndexEntry> indexEntries) throws IOException {
+        try(var stream = new ByteArrayOutputStream()){
+            stream.write(EncodingUtils.encodeVarints(new long[]{indexEntries.size()}, false, false));
+            for(var entry : indexEntries){
+                stream.write(EncodingUtils.encodeString(entry.layerName()));
+                stream.write(EncodingUtils.encodeVarints(new long[]{entry.metadataLength(),
+                        entry.sharedVertexBufferLayer(), entry.columnLengths().size()}, false, false));
+                for(var column : entry.columnLengths().entrySet()){
+                    stream.write(EncodingUtils.encodeString(column.getKey()));
+                    stream.write(EncodingUtils.encodeVarints(new long[]{column.getValue()}, false, false));
                 }
+            }
 
-                //TODO: if features are not sorted based on id sort the geometry
-                //for example part_offsets when ICE is used or point geometries without ICE
-                var allowIceEncodig = geometryEncoding == GeometryEncoding.ICE ||
-                        geometryEncoding == GeometryEncoding.ICE_MORTON;
-                GeometryColumData geometryColumnData;
-                var unorderedGeometryColumnData = convertUnorderedGeometryColumn(features,
-                        allowFastPforForTopologyStreams, allowFastPforForVertexBuffer);
-                if(!allowIceEncodig){
-                    geometryColumnData = unorderedGeometryColumnData;
-                }
-                else{
-                    var iceCodedGeometryColumnData = convertIceCodedGeometryColumn(features, tileExtent,
-                            geometryEncoding, allowFastPforForTopologyStreams, allowFastPforForVertexBuffer);
-                    geometryColumnData = iceCodedGeometryColumnData.geometryColumn().length < unorderedGeometryColumnData.geometryColumn().length?
-                            iceCodedGeometryColumnData : unorderedGeometryColumnData;
+            var index = stream.toByteArray();
+            var header = ArrayUtils.addAll(new byte[]{BYTE_RANGE_INDEX_MARKER},
+                    EncodingUtils.encodeVarints(new long[]{index.length}, false, false));
+            return ArrayUtils.addAll(header, index);
+        }
+    }
+
+    private static ConversionConfig createConfig(GeometryEncoding geometryEncoding, boolean allowFastPforForTopologyStreams,
+                                                 boolean allowFastPforForVertexBuffer, boolean allowLocalizedStringDictionary,
+                                                 boolean includeIds, boolean optimizeMetadata){
+        return new ConversionConfig().geometryEncoding(geometryEncoding)
+                .allowFastPforForTopologyStreams(allowFastPforForTopologyStreams)
+                .allowFastPforForVertexBuffer(allowFastPforForVertexBuffer)
+                .allowLocalizedStringDictionary(allowLocalizedStringDictionary)
+                .includeIds(includeIds)
+                .optimizeMetadata(optimizeMetadata);
+    }
+
+    /*
+     * Triangulates the polygons of a layer. The indices reference the vertices of the layer in the order of the
+     * vertex buffer of the plain encoding respectively the vertex offsets of the ICE encoding.
+     * Returns null if the layer contains no polygons.
+     * */
+    private static Pair<StreamMetadata, byte[]> convertIndexBuffer(List<Feature> features, boolean allowFastPfor){
+        var indexBuffer = new ArrayList<Integer>();
+        var vertexOffset = 0;
+        var containsPolygons = false;
+        for(var feature : features){
+            var geometry = feature.geometry();
+            var geometryType = geometry.getGeometryType();
+            if(geometryType.equals("Polygon") || geometryType.equals("MultiPolygon")){
+                containsPolygons = true;
+                for(var i = 0; i < geometry.getNumGeometries(); i++){
+                    var polygon = (Polygon) geometry.getGeometryN(i);
+                    for(var index : Triangulator.triangulate(polygon)){
+                        indexBuffer.add(vertexOffset + index);
+                    }
+                    vertexOffset += polygon.getNumPoints() - polygon.getNumInteriorRing() - 1;
                 }
+            }
+            else{
+                vertexOffset += geometry.getNumPoints();
+            }
+        }
 
-                var geometryColumn = geometryColumnData.geometryColumn();
-                var geometryMetadata = geometryColumnData.columnMetadata();
-
-                var propertyColumnData = convertPropertyColumns(features, propertyColumnMetadata);
-                var propertyMetadata = propertyColumnData.metadata();
-                var propertyColumns = propertyColumnData.propertyColumns();
-                //System.out.println(layerName + " property size: " + propertyColumnData.propertyColumns().length / 1000d);
-
-                byte[] layerMetadata = null;
-                if(optimizeMetadata){
-                    layerMetadata = convertOptimizedLayerMetadata(layerId++, idMetadata, geometryMetadata, propertyMetadata, tileExtent);
-
-                    var vectorLayer = new VectorLayer();
-                    vectorLayer.id = layer.name();
-                    vectorLayer.fields = new LinkedHashMap<>();
-                    var metadata = new ArrayList<>(propertyMetadata.booleanMetadata());
-                    metadata.addAll(propertyMetadata.longMetadata());
-                    metadata.addAll(propertyMetadata.floatMetadata());
-                    metadata.addAll(propertyMetadata.stringDictionaryMetadata());
-                    metadata.addAll(propertyMetadata.localizedStringDictionaryMetadata());
-                    for(var property : metadata){
-                        var columnName = property.columnName();
-                        var columnMetadata = property.columnMetadata().columnDataType();
-                        //TODO: add real data type
-                        vectorLayer.fields.put(columnName, "String");
+        if(!containsPolygons){
+            return null;
+        }
+
+        var varintIndexBuffer = EncodingUtils.encodeVarints(indexBuffer.stream().mapToLong(i -> i).toArray(), true, true);
+        if(allowFastPfor){
+            var fastPforIndexBuffer = EncodingUtils.encodeFastPfor128(indexBuffer.stream().mapToInt(i -> i).toArray(),
+                    true, true);
+            if(fastPforIndexBuffer.length < varintIndexBuffer.length){
+                ConversionMetrics.reject(StreamType.INDEX_BUFFER, StreamEncoding.VARINT_DELTA_ZIG_ZAG,
+                        varintIndexBuffer.length);
+                return Pair.of(new StreamMetadata(StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG, indexBuffer.size(),
+                        fastPforIndexBuffer.length), fastPforIndexBuffer);
+            }
+            ConversionMetrics.reject(StreamType.INDEX_BUFFER, StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG,
+                    fastPforIndexBuffer.length);
+        }
+
+        return Pair.of(new StreamMetadata(StreamEncoding.VARINT_DELTA_ZIG_ZAG, indexBuffer.size(), varintIndexBuffer.length),
+                varintIndexBuffer);
+    }
+
+    /*
+     * Encodes the z- or m-values of the vertices in the order of the vertex buffer of the plain encoding respectively
+     * the vertex offsets of the ICE encoding, so the values are also preserved for vertices which share the position
+     * in the vertex dictionary. The values are stored as the rounded integers value * 10^scale and the scale is part
+     * of the stream metadata.
+     * -> VertexValues -> presentLength (u32), present (ByteRle bitset per vertex), values of the present vertices
+     * Returns null if no vertex of the layer has a value.
+     * */
+    private static Pair<StreamMetadata, byte[]> convertVertexValues(List<Feature> features,
+                                                                    ToDoubleFunction<Coordinate> ordinate, int scale,
+                                                                    boolean allowFastPfor) throws IOException {
+        var present = new ArrayList<Boolean>();
+        var values = new ArrayList<Integer>();
+        var factor = Math.pow(10, scale);
+        for(var feature : features){
+            var geometry = feature.geometry();
+            for(var i = 0; i < geometry.getNumGeometries(); i++){
+                var part = geometry.getGeometryN(i);
+                /* the closing vertex of a ring is not stored */
+                var lineStrings = new ArrayList<LineString>();
+                if(part instanceof Polygon polygon){
+                    lineStrings.add(polygon.getExteriorRing());
+                    for(var j = 0; j < polygon.getNumInteriorRing(); j++){
+                        lineStrings.add(polygon.getInteriorRingN(j));
                     }
-                    vectorLayers.add(vectorLayer);
                 }
-                else{
-                    layerMetadata = convertLayerMetadata(layer.name(), idMetadata, geometryMetadata, propertyMetadata, tileExtent);
+                var coordinates = lineStrings.isEmpty() ? List.of(part.getCoordinates()) :
+                        lineStrings.stream().flatMap(ring -> Arrays.stream(ring.getCoordinates(), 0,
+                                ring.getNumPoints() - 1)).collect(Collectors.toList());
+                for(var coordinate : coordinates){
+                    var value = ordinate.applyAsDouble(coordinate);
+                    present.add(!Double.isNaN(value));
+                    if(Double.isNaN(value)){
+                        continue;
+                    }
+
+                    var scaledValue = Math.round(value * factor);
+                    if(scaledValue < Integer.MIN_VALUE || scaledValue > Integer.MAX_VALUE){
+                        throw new IllegalArgumentException("The z- or m-value exceeds the integer range with the " +
+                                "specified scale.");
+                    }
+                    values.add((int)scaledValue);
                 }
+            }
+        }
+
+        if(values.isEmpty()){
+            return null;
+        }
 
+        var presentStream = EncodingUtils.encodeBooleans(present);
+        var presentHeader = ArrayUtils.addAll(EncodingUtils.encodeVarints(new long[]{presentStream.length}, false,
+                false), presentStream);
+        var varintValues = EncodingUtils.encodeVarints(values.stream().mapToLong(i -> i).toArray(), true, true);
+        if(allowFastPfor){
+            var fastPforValues = EncodingUtils.encodeFastPfor128(values.stream().mapToInt(i -> i).toArray(),
+                    true, true);
+            if(fastPforValues.length < varintValues.length){
+                var stream = ArrayUtils.addAll(presentHeader, fastPforValues);
+                return Pair.of(new StreamMetadata(StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG, present.size(),
+                        stream.length, scale), stream);
+            }
+        }
+
+        var stream = ArrayUtils.addAll(presentHeader, varintValues);
+        return Pair.of(new StreamMetadata(StreamEncoding.VARINT_DELTA_ZIG_ZAG, present.size(), stream.length, scale),
+                stream);
+    }
 
-                //System.out.println(layerName + " metadata size: " + layerMetadata.length / 1000d);
-                totalLayerMetadataSize += layerMetadata.length;
+    /* layers without features after the simplification are removed from the tile */
+    private static List<Layer> simplifyLayers(List<Layer> layers, ConversionConfig config){
+        if(config.zoom() < 0){
+            throw new IllegalArgumentException("The zoom level of the tile is required for the simplification of the geometries.");
+        }
 
-                stream.write(layerMetadata);
-                if(includeIds == true){
-                    stream.write(idColumn);
-                }
-                stream.write(geometryColumn);
-                stream.write(propertyColumns);
+        var simplifiedLayers = new ArrayList<Layer>();
+        for(var layer : layers){
+            var features = config.geometrySimplifier().simplify(layer.name(), config.zoom(), layer.features());
+            if(!features.isEmpty()){
+                simplifiedLayers.add(new Layer(layer.name(), features, layer.tileExtent()));
             }
+        }
+        return simplifiedLayers;
+    }
 
-            //System.out.println("------------------------------------------------------------");
-            //System.out.println("Total Layer Metadata Size: " + totalLayerMetadataSize);
-            //System.out.printf("Contribution of metadata to the total file size: %f%%%n", (1d / (stream.toByteArray().length / (double)totalLayerMetadataSize ))  * 100);
-            //System.out.println("------------------------------------------------------------");
+    private static int getLayerExtent(Layer layer, int tileExtent){
+        return layer.tileExtent() > 0 ? layer.tileExtent() : tileExtent;
+    }
 
+    /* The number of bits of the space filling curves is derived from the extent which has to be a power of two */
+    private static boolean isSfcEncodableExtent(int extent){
+        return Integer.bitCount(extent) == 1 && extent <= MAX_SFC_TILE_EXTENT;
+    }
 
-            var tileJson = new TileJson();
-            tileJson.vectorLayers = vectorLayers;
-            ObjectMapper mapper = new ObjectMapper();
-            var tileJsonStr = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(tileJson);
+    /*
+     * The space filling curves cover the extent plus a buffer of half the extent on each side, layers with vertices
+     * outside this range or with an extent which is no power of two or larger than 2^14 can't be ICE encoded and
+     * fall back to the plain encoding.
+     * */
+    private static boolean isIceEncodable(List<Feature> features, int layerExtent){
+        if(!isSfcEncodableExtent(layerExtent)){
+            return false;
+        }
 
-            return new ImmutablePair<>(tileJsonStr, stream.toByteArray());
+        var minCoordinate = -layerExtent / 2;
+        var maxCoordinate = layerExtent + layerExtent / 2 - 1;
+        for(var feature : features){
+            for(var coordinate : feature.geometry().getCoordinates()){
+                if(coordinate.x < minCoordinate || coordinate.x > maxCoordinate || coordinate.y < minCoordinate ||
+                        coordinate.y > maxCoordinate){
+                    return false;
+                }
+            }
         }
+        return true;
+    }
 
+    private static boolean isPointLayer(List<Feature> features){
+        return !features.isEmpty() && features.stream().allMatch(f -> f.geometry().getGeometryType().equals("Point"));
+    }
+
+    /*
+     * Returns the original indices of the features ordered by the Hilbert index of the points.
+     * Points in the buffer of the tile are clamped to the range of the curve.
+     * */
+    private static int[] getHilbertPermutation(List<Feature> features, int tileExtent){
+        var hilbertCurve = HilbertCurve.small().bits(32 - Integer.numberOfLeadingZeros(tileExtent)).dimensions(2);
+        var hilbertIndices = new long[features.size()];
+        for(var i = 0; i < features.size(); i++){
+            hilbertIndices[i] = getHilbertIndex(hilbertCurve, features.get(i).geometry().getCoordinate(), tileExtent);
+        }
 
+        return IntStream.range(0, features.size()).boxed().sorted(Comparator.comparingLong(i -> hilbertIndices[i])).
+                mapToInt(Integer::intValue).toArray();
+    }
+
+    /*
+     * The points of a MultiPoint are unordered, so they are sorted on the Hilbert curve which reduces the deltas of the
+     * vertex buffer respectively of the vertex offsets for the ICE encoding.
+     * */
+    private static List<Feature> sortMultiPointsOnHilbertCurve(List<Feature> features, int tileExtent){
+        var hilbertCurve = HilbertCurve.small().bits(32 - Integer.numberOfLeadingZeros(tileExtent)).dimensions(2);
+        var sortedFeatures = new ArrayList<Feature>(features.size());
+        for(var feature : features){
+            if(!(feature.geometry() instanceof MultiPoint multiPoint)){
+                sortedFeatures.add(feature);
+                continue;
+            }
+
+            var coordinates = multiPoint.getCoordinates();
+            Arrays.sort(coordinates, Comparator.comparingLong(c -> getHilbertIndex(hilbertCurve, c, tileExtent)));
+            var sortedMultiPoint = multiPoint.getFactory().createMultiPointFromCoords(coordinates);
+            sortedFeatures.add(new Feature(feature.id(), sortedMultiPoint, feature.properties()));
+        }
+        return sortedFeatures;
+    }
+
+    private static long getHilbertIndex(SmallHilbertCurve hilbertCurve, Coordinate coordinate, int tileExtent){
+        var maxCoordinate = (1 << hilbertCurve.bits()) - 1;
+        var x = Math.max(0, Math.min(maxCoordinate, (int)coordinate.getX() + tileExtent / 2));
+        var y = Math.max(0, Math.min(maxCoordinate, (int)coordinate.getY() + tileExtent / 2));
+        return hilbertCurve.index(x, y);
     }
 
     private static byte[] convertOptimizedLayerMetadata(int layerId, ColumnMetadata idMetadata, ColumnMetadata geometryMetadata,
-                                                        PropertyColumnsMetadata propertyColumnData, int layerExtent) {
+                                                        PropertyColumnsMetadata propertyColumnData, int layerExtent,
+                                                        List<String> fieldNames) throws IOException {
         /*
         * -> LayerHeader -> version (7 bits), optimizeMetadata (1 bit), name (String | u32), layerExtent (u32),
         *                   numFeatures (u32), numColumns (u32), ColumnMetadata[]
@@ -306,10 +726,10 @@ public class CovtConverter {
         *                      GeometryMetadata | PrimitiveTypeMetadata | StringDictionaryMetadata | LocalizedStringDictionaryMetadata
         * -> StreamMetadata -> streamType (4 bits), streamEncoding(4 bits), streamName (optional), numValues (u32), byteLength (u32)
         * -> IdMetadata -> PrimitiveTypeMetadata -> StreamMetadata[1]
-        * -> GeometryMetadata -> StreamMetadata[max 6 vor geometries plus z- and m-values]
+        * -> GeometryMetadata -> numStreams (u32), StreamMetadata[max 6 vor geometries plus z- and m-values and permutation]
         * -> PrimitiveTypeMetadata -> StreamMetadata[2]
         * -> StringDictionaryMetadata -> StreamMetadata[4] -> order: present, data, length, dictionary
-        * -> LocalizedStringDictionaryMetadata -> StreamMetadata[n]
+        * -> LocalizedStringDictionaryMetadata -> LocalizedStreamMetadata, StreamMetadata[2] -> order: length, dictionary
         * */
 
         /* id colum is optional but geometry column is required */
@@ -319,6 +739,7 @@ public class CovtConverter {
         var numColumns = propertyColumnData.booleanMetadata().size() + propertyColumnData.longMetadata().size() +
                 propertyColumnData.floatMetadata().size() +
                 propertyColumnData.stringDictionaryMetadata().size() + propertyColumnData.localizedStringDictionaryMetadata().size() +
+                propertyColumnData.nestedMetadata().size() +
                 numColumnsBeforePropertyColumns;
 
         /* version and optimizeMetadata flag */
@@ -326,38 +747,35 @@ public class CovtConverter {
         var metadata = ArrayUtils.addAll(new byte[]{encodedVersion},
                 EncodingUtils.encodeVarints(new long[]{layerId, layerExtent, numFeatures, numColumns}, false, false));
 
+        /* the id and geometry column are always referenced by their column id also when the metadata is not optimized */
         if(idMetadata != null){
-            /*//metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeString(ID_COLUMN_NAME));
-            //metadata  = ArrayUtils.addAll(metadata, (byte)ColumnDataType.UINT_64.ordinal());
-            metadata = ArrayUtils.addAll(metadata, (byte) idMetadata.columnType().ordinal());
-            metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{1}, false, false));
-            //metadata = addStreamMetadata(metadata, DATA_STREAM_NAME,  idMetadata.streams().get(DATA_STREAM_NAME));*/
-            throw new RuntimeException("Id column currently no supported.");
+            var idColumnId = 0;
+            metadata = addOptimizedColumnHeader(metadata, idMetadata, idColumnId);
+            metadata = addOptimizedStreamMetadata(metadata, idMetadata.streams().get(StreamType.DATA), StreamType.DATA);
         }
 
         var geometryStreams = geometryMetadata.streams();
         var geometryColumnId = 1;
         metadata = addOptimizedColumnHeader(metadata, geometryMetadata, geometryColumnId);
+        metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{geometryStreams.size()}, false, false));
         for(var geometryStream : geometryStreams.entrySet()){
-            //TODO: add support for z-values and m-values
             metadata = addOptimizedStreamMetadata(metadata, geometryStream.getValue(), geometryStream.getKey());
         }
 
         /* column id 0 and 1 is always reserved for id and geometry independent of the presence of the id column */
         var nextColumnId = 2;
-        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.booleanMetadata(), nextColumnId);
+        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.booleanMetadata(), nextColumnId, fieldNames);
         nextColumnId += propertyColumnData.booleanMetadata().size();
-        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.longMetadata(), nextColumnId);
+        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.longMetadata(), nextColumnId, fieldNames);
         nextColumnId += propertyColumnData.longMetadata().size();
-        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.floatMetadata(), nextColumnId);
+        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.floatMetadata(), nextColumnId, fieldNames);
         nextColumnId += propertyColumnData.floatMetadata().size();
-        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.stringDictionaryMetadata(), nextColumnId);
-        //nextColumnId += propertyColumnData.stringDictionaryMetadata().size();
-        //return addOptimizedNamedColumnMetadata(metadata, propertyColumnData.localizedStringDictionaryMetadata(), nextColumnId);
-
-        if(propertyColumnData.localizedStringDictionaryMetadata().size() > 0){
-            throw new RuntimeException("Localized Dictionary currently not supported.");
-        }
+        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.stringDictionaryMetadata(), nextColumnId, fieldNames);
+        nextColumnId += propertyColumnData.stringDictionaryMetadata().size();
+        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.localizedStringDictionaryMetadata(),
+                nextColumnId, fieldNames);
+        nextColumnId += propertyColumnData.localizedStringDictionaryMetadata().size();
+        metadata = addOptimizedNamedColumnMetadata(metadata, propertyColumnData.nestedMetadata(), nextColumnId, fieldNames);
 
         return metadata;
     }
@@ -371,10 +789,10 @@ public class CovtConverter {
          *                      GeometryMetadata | PrimitiveTypeMetadata | StringDictionaryMetadata | LocalizedStringDictionaryMetadata
          * -> StreamMetadata -> streamType (4 bits), streamEncoding(4 bits), streamName (optional), numValues (u32), byteLength (u32)
          * -> IdMetadata -> PrimitiveTypeMetadata -> StreamMetadata[1]
-         * -> GeometryMetadata -> StreamMetadata[max 6 vor geometries plus z- and m-values]
+         * -> GeometryMetadata -> numStreams (u32), StreamMetadata[max 6 vor geometries plus z- and m-values and permutation]
          * -> PrimitiveTypeMetadata -> StreamMetadata[2]
          * -> StringDictionaryMetadata -> StreamMetadata[4] -> order: present, data, length, dictionary
-         * -> LocalizedStringDictionaryMetadata -> StreamMetadata[n]
+         * -> LocalizedStringDictionaryMetadata -> LocalizedStreamMetadata, StreamMetadata[2] -> order: length, dictionary
          * */
 
         /* id colum is optional but geometry column is required */
@@ -384,6 +802,7 @@ public class CovtConverter {
         var numColumns = propertyColumnData.booleanMetadata().size() + propertyColumnData.longMetadata().size() +
                 propertyColumnData.floatMetadata().size() +
                 propertyColumnData.stringDictionaryMetadata().size() + propertyColumnData.localizedStringDictionaryMetadata().size() +
+                propertyColumnData.nestedMetadata().size() +
                 numColumnsBeforePropertyColumns;
 
         /* version and optimizeMetadata flag */
@@ -392,20 +811,18 @@ public class CovtConverter {
         metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{layerExtent, numFeatures, numColumns},
                 false, false));
 
+        /* the id and geometry column are always referenced by their column id also when the metadata is not optimized */
         if(idMetadata != null){
-            /*//metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeString(ID_COLUMN_NAME));
-            //metadata  = ArrayUtils.addAll(metadata, (byte)ColumnDataType.UINT_64.ordinal());
-            metadata = ArrayUtils.addAll(metadata, (byte) idMetadata.columnType().ordinal());
-            metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{1}, false, false));
-            //metadata = addStreamMetadata(metadata, DATA_STREAM_NAME,  idMetadata.streams().get(DATA_STREAM_NAME));*/
-            throw new RuntimeException("Id column currently no supported.");
+            var idColumnId = 0;
+            metadata = addOptimizedColumnHeader(metadata, idMetadata, idColumnId);
+            metadata = addOptimizedStreamMetadata(metadata, idMetadata.streams().get(StreamType.DATA), StreamType.DATA);
         }
 
         var geometryStreams = geometryMetadata.streams();
         var geometryColumnId = 1;
         metadata = addOptimizedColumnHeader(metadata, geometryMetadata, geometryColumnId);
+        metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{geometryStreams.size()}, false, false));
         for(var geometryStream : geometryStreams.entrySet()){
-            //TODO: add support for z-values and m-values
             metadata = addOptimizedStreamMetadata(metadata, geometryStream.getValue(), geometryStream.getKey());
         }
 
@@ -413,20 +830,23 @@ public class CovtConverter {
         metadata = addNamedColumnMetadata(metadata, propertyColumnData.longMetadata());
         metadata = addNamedColumnMetadata(metadata, propertyColumnData.floatMetadata());
         metadata = addNamedColumnMetadata(metadata, propertyColumnData.stringDictionaryMetadata());
-        //nextColumnId += propertyColumnData.stringDictionaryMetadata().size();
-        //return addOptimizedNamedColumnMetadata(metadata, propertyColumnData.localizedStringDictionaryMetadata(), nextColumnId);
-
-        if(propertyColumnData.localizedStringDictionaryMetadata().size() > 0){
-            throw new RuntimeException("Localized Dictionary currently not supported.");
-        }
+        metadata = addNamedColumnMetadata(metadata, propertyColumnData.localizedStringDictionaryMetadata());
+        metadata = addNamedColumnMetadata(metadata, propertyColumnData.nestedMetadata());
 
         return metadata;
     }
 
-    private static byte[] addOptimizedNamedColumnMetadata(byte[] metadata, List<NamedColumnMetadata> namedMetadata, int nextId){
+    private static byte[] addOptimizedNamedColumnMetadata(byte[] metadata, List<NamedColumnMetadata> namedMetadata, int nextId,
+                                                          List<String> fieldNames) throws IOException {
         for(var column : namedMetadata){
             var columnMetadata = column.columnMetadata();
             metadata = addOptimizedColumnHeader(metadata, columnMetadata, nextId++);
+            if(columnMetadata.columnType() == ColumnType.LOCALIZED_DICTIONARY){
+                metadata = addLocalizedStreamMetadata(metadata, columnMetadata, fieldNames);
+            }
+            if(columnMetadata.nestedField() != null){
+                metadata = addNestedFieldMetadata(metadata, columnMetadata.nestedField());
+            }
 
             for(var stream : columnMetadata.streams().entrySet()){
                 var streamType = stream.getKey();
@@ -444,15 +864,68 @@ public class CovtConverter {
 
     private static byte[] addOptimizedColumnHeader(byte[] metadata, ColumnMetadata columnMetadata, int columnId) {
         metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{columnId}, false, false));
-        var columnDesc = columnMetadata.columnDataType().ordinal() << 3 | columnMetadata.columnType().ordinal();
+        return ArrayUtils.addAll(metadata, encodeColumnDescription(columnMetadata));
+    }
+
+    /*
+     * The data types which don't fit into the 4 bits of the column description e.g. STRUCT are stored as escape value
+     * 15 followed by the difference to 15 as varint.
+     * */
+    private static byte[] encodeColumnDescription(ColumnMetadata columnMetadata){
+        /*
+         * a column is required if it has no present stream, localized columns have a present stream per property and
+         * nested columns encode missing values in the definition levels
+         * */
+        var required = columnMetadata.columnType() != ColumnType.LOCALIZED_DICTIONARY && columnMetadata.nestedField() == null &&
+                !columnMetadata.streams().containsKey(StreamType.PRESENT) ? 1 : 0;
+        var dataType = columnMetadata.columnDataType().ordinal();
+        var columnDesc = required << 7 | Math.min(dataType, MAX_COLUMN_DATA_TYPE_ID) << 3 | columnMetadata.columnType().ordinal();
         /* required (0 == false), dataType and columnType */
-        return ArrayUtils.addAll(metadata, (byte)columnDesc);
+        if(dataType < MAX_COLUMN_DATA_TYPE_ID){
+            return new byte[]{(byte)columnDesc};
+        }
+        return ArrayUtils.addAll(new byte[]{(byte)columnDesc},
+                EncodingUtils.encodeVarints(new long[]{dataType - MAX_COLUMN_DATA_TYPE_ID}, false, false));
+    }
+
+    /*
+     * -> NestedFieldMetadata -> Struct: numFields (u32), (name (String), dataType (u8), NestedFieldMetadata)[]
+     *                        -> List: dataType of the elements (u8), NestedFieldMetadata
+     *                        -> Leaf: numStreams (u32), StreamMetadata[]
+     * */
+    private static byte[] addNestedFieldMetadata(byte[] metadata, NestedField field) throws IOException {
+        if(field.isLeaf()){
+            var streams = field.streams();
+            metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{streams.size()}, false, false));
+            for(var stream : streams.entrySet()){
+                metadata = addOptimizedStreamMetadata(metadata, stream.getValue(), stream.getKey());
+            }
+            return metadata;
+        }
+
+        if(field.dataType() == ColumnDataType.STRUCT){
+            metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{field.children().size()}, false, false));
+        }
+        for(var child : field.children()){
+            if(child.name() != null){
+                metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeString(child.name()));
+            }
+            metadata = ArrayUtils.addAll(metadata, new byte[]{(byte)child.dataType().ordinal()});
+            metadata = addNestedFieldMetadata(metadata, child);
+        }
+        return metadata;
     }
 
     private static byte[] addNamedColumnMetadata(byte[] metadata, List<NamedColumnMetadata> namedMetadata) throws IOException {
         for(var column : namedMetadata){
             var columnMetadata = column.columnMetadata();
             metadata = addColumnHeader(metadata, columnMetadata, column.columnName());
+            if(columnMetadata.columnType() == ColumnType.LOCALIZED_DICTIONARY){
+                metadata = addLocalizedStreamMetadata(metadata, columnMetadata, null);
+            }
+            if(columnMetadata.nestedField() != null){
+                metadata = addNestedFieldMetadata(metadata, columnMetadata.nestedField());
+            }
 
             for(var stream : columnMetadata.streams().entrySet()){
                 var streamType = stream.getKey();
@@ -468,114 +941,179 @@ public class CovtConverter {
         return metadata;
     }
 
+    /*
+     * -> LocalizedStreamMetadata -> numProperties (u32), (propertyName (String | u32), present stream, data stream)[]
+     * The property name is referenced by the index in the fields of the vector layer when the metadata is optimized.
+     * */
+    private static byte[] addLocalizedStreamMetadata(byte[] metadata, ColumnMetadata columnMetadata,
+                                                     List<String> fieldNames) throws IOException {
+        var localizedStreams = columnMetadata.localizedStreams();
+        metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{localizedStreams.size()}, false, false));
+        for(var localizedStream : localizedStreams.entrySet()){
+            var propertyName = localizedStream.getKey();
+            metadata = ArrayUtils.addAll(metadata, fieldNames != null ?
+                    EncodingUtils.encodeVarints(new long[]{fieldNames.indexOf(propertyName)}, false, false) :
+                    EncodingUtils.encodeString(propertyName));
+
+            /* the present stream is also added to allow skipping the streams of a not requested property */
+            var streams = localizedStream.getValue();
+            metadata = addOptimizedStreamMetadata(metadata, streams.get(StreamType.PRESENT), StreamType.PRESENT);
+            metadata = addOptimizedStreamMetadata(metadata, streams.get(StreamType.DATA), StreamType.DATA);
+        }
+
+        return metadata;
+    }
+
     private static byte[] addColumnHeader(byte[] metadata, ColumnMetadata columnMetadata, String columnName) throws IOException {
         metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeString(columnName));
-        var columnDesc = columnMetadata.columnDataType().ordinal() << 3 | columnMetadata.columnType().ordinal();
-        /* required (0 == false), dataType and columnType */
-        return ArrayUtils.addAll(metadata, (byte)columnDesc);
+        return ArrayUtils.addAll(metadata, encodeColumnDescription(columnMetadata));
     }
 
     private static byte[] addOptimizedStreamMetadata(byte[] metadata, StreamMetadata streamMetadata, StreamType streamType) {
         var streamTypeAndEncoding = streamType.ordinal() << 4 | streamMetadata.streamEncoding().ordinal();
         metadata = ArrayUtils.addAll(metadata, new byte[]{(byte)streamTypeAndEncoding});
-        return ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{streamMetadata.numValues(),
+        metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{streamMetadata.numValues(),
                 streamMetadata.byteLength()}, false, false));
+        /* the scale of the quantized z- and m-values */
+        if(streamType == StreamType.Z_VALUE || streamType == StreamType.M_VALUE){
+            metadata = ArrayUtils.addAll(metadata, EncodingUtils.encodeVarints(new long[]{streamMetadata.scale()},
+                    false, false));
+        }
+        return metadata;
     }
 
-    private static LinkedHashMap<String, ColumnMetadata> getPropertyColumnMetadata(List<Feature> features, boolean allowLocalizedStringDictionary){
+    /*
+     * Returns the values of every property per feature in the order the properties first occur, null if a feature
+     * has no value for the property.
+     * */
+    private static LinkedHashMap<String, Object[]> getPropertyColumns(List<Feature> features){
+        var propertyColumns = new LinkedHashMap<String, Object[]>();
+        for(var i = 0; i < features.size(); i++){
+            for(var property : features.get(i).properties().entrySet()){
+                propertyColumns.computeIfAbsent(property.getKey(), key -> new Object[features.size()])[i] =
+                        property.getValue();
+            }
+        }
+        return propertyColumns;
+    }
+
+    /* The data type of a column is derived from the first value of the column */
+    private static LinkedHashMap<String, ColumnMetadata> getPropertyColumnMetadata(LinkedHashMap<String, Object[]> propertyColumns,
+                                                                                   boolean allowLocalizedStringDictionary){
         var columnMetadata = new LinkedHashMap<String, ColumnMetadata>();
-        for(var feature : features){
-            var properties = feature.properties();
-            for(var property : properties.entrySet()){
-                var columnName = property.getKey();
+        for(var propertyColumn : propertyColumns.entrySet()){
+            var columnName = propertyColumn.getKey();
+            var propertyValue = Arrays.stream(propertyColumn.getValue()).filter(Objects::nonNull).findFirst().
+                    orElse(null);
+            if(propertyValue == null){
+                continue;
+            }
 
-                if(columnMetadata.containsKey(columnName)){
-                    continue;
+            /* localized properties like name, name:de or name_en are grouped into one column */
+            var localizedColumnName = allowLocalizedStringDictionary && propertyValue instanceof String ?
+                    getLocalizedColumnName(columnName) : null;
+            if(localizedColumnName != null){
+                var localizedColumn = columnMetadata.get(localizedColumnName);
+                if(localizedColumn == null){
+                    localizedColumn = new ColumnMetadata(ColumnDataType.STRING, ColumnType.LOCALIZED_DICTIONARY,
+                            new TreeMap<>(), new LinkedHashMap<>());
+                    columnMetadata.put(localizedColumnName, localizedColumn);
                 }
+                localizedColumn.localizedStreams().putIfAbsent(columnName, new TreeMap<>());
+                continue;
+            }
 
-                var propertyValue = property.getValue();
-                if(propertyValue instanceof String){
-                    if(LOCALIZED_COLUM_NAME_PREFIXES.stream().anyMatch(prefix -> columnName.contains(prefix)) && allowLocalizedStringDictionary){
-                        /* a feature with localized properties has to use : or _ as separator*/
-                        var columnNameComponents = Arrays.stream(columnName.split(":|_"))
-                                .filter(e -> !e.isEmpty()).toArray(String[]::new);
-                        var baseColumnName = columnNameComponents[0];
-                        var streamName = columnNameComponents.length > 1 ? columnNameComponents[1] : columnName;
-                        var localizedColumn = columnMetadata.get(baseColumnName);
-                        throw new RuntimeException("implement");
-                        /* Used as a placeholder since can only be filled after the compression of the columns */
-                        /*var emptyStreamData = new StreamMetadata(StreamEncoding.PLAIN, 0,0);
-                        if(localizedColumn == null){
-                            var metadata = new ColumnMetadata(ColumnDataType.STRING,
-                                    ColumnType.LOCALIZED_DICTIONARY, new TreeMap<StreamType, StreamMetadata>(Map.of(streamName, emptyStreamData)));
-                            columnMetadata.put(baseColumnName, metadata);
-                        }
-                        else{
-                            if(!localizedColumn.streams().containsKey(streamName)){
-                                localizedColumn.streams().put(streamName, emptyStreamData);
-                            }
-                        }*/
-                    }
-                    else{
-                        var metadata = new ColumnMetadata(ColumnDataType.STRING, ColumnType.DICTIONARY, new TreeMap<>());
-                        columnMetadata.put(columnName, metadata);
-                    }
-                }
-                else if(propertyValue instanceof Boolean){
-                    var metadata = new ColumnMetadata(ColumnDataType.BOOLEAN, ColumnType.PLAIN, new TreeMap<>());
-                    columnMetadata.put(columnName, metadata);
-                }
-                //TODO: also handle unsigned int and long to avoid zigZag coding
-                else if(propertyValue instanceof Integer || propertyValue instanceof  Long){
-                    var metadata = new ColumnMetadata(ColumnDataType.INT_64, ColumnType.PLAIN, new TreeMap<>());
-                    columnMetadata.put(columnName, metadata);
-                }
-                else if(propertyValue instanceof Float){
-                    var metadata = new ColumnMetadata(ColumnDataType.FLOAT, ColumnType.PLAIN, new TreeMap<>());
-                    columnMetadata.put(columnName, metadata);
-                }
-                else if(propertyValue instanceof Double){
-                    throw new IllegalArgumentException("Double currently not supported as property data type.");
-                }
-                else{
-                    throw new IllegalArgumentException("Specified data type currently not supported.");
-                }
+            if(columnMetadata.containsKey(columnName)){
+                continue;
+            }
+
+            if(propertyValue instanceof String){
+                var metadata = new ColumnMetadata(ColumnDataType.STRING, ColumnType.DICTIONARY, new TreeMap<>());
+                columnMetadata.put(columnName, metadata);
+            }
+            else if(propertyValue instanceof Boolean){
+                var metadata = new ColumnMetadata(ColumnDataType.BOOLEAN, ColumnType.PLAIN, new TreeMap<>());
+                columnMetadata.put(columnName, metadata);
+            }
+            //TODO: also handle unsigned int and long to avoid zigZag coding
+            else if(propertyValue instanceof Integer || propertyValue instanceof  Long){
+                var metadata = new ColumnMetadata(ColumnDataType.INT_64, ColumnType.PLAIN, new TreeMap<>());
+                columnMetadata.put(columnName, metadata);
+            }
+            else if(propertyValue instanceof Float){
+                var metadata = new ColumnMetadata(ColumnDataType.FLOAT, ColumnType.PLAIN, new TreeMap<>());
+                columnMetadata.put(columnName, metadata);
+            }
+            else if(propertyValue instanceof Map || propertyValue instanceof List){
+                /* the schema of a nested column is derived from the values of all features during the conversion */
+                var dataType = propertyValue instanceof Map ? ColumnDataType.STRUCT : ColumnDataType.LIST;
+                columnMetadata.put(columnName, new ColumnMetadata(dataType, ColumnType.PLAIN, new TreeMap<>()));
+            }
+            else if(propertyValue instanceof Double){
+                throw new IllegalArgumentException("Double currently not supported as property data type.");
+            }
+            else{
+                throw new IllegalArgumentException("Specified data type currently not supported.");
             }
         }
 
         return columnMetadata;
     }
 
-    private static Pair<StreamEncoding, byte[]> convertIdColumn(List<Feature> features, boolean allowReordering) throws IOException {
-        var ids = features.stream().map(feature -> feature.id()).mapToLong(i -> i).toArray();
+    /*
+     * Returns the name of the column group if the property is a localized property otherwise null.
+     * The grouping is also used by the decoder to select the localized properties of a column.
+     * */
+    public static String getLocalizedColumnName(String propertyName){
+        for(var prefix : LOCALIZED_COLUM_NAME_PREFIXES){
+            if(propertyName.equals(prefix)){
+                return prefix;
+            }
 
-        var varintEncodedIds = EncodingUtils.encodeVarints(ids, false, false);
-        //TODO: also sort if Rle encoding is used to ensure ascending order -> in transportation layer
-        // this is a problem as 1,1,2,2,.... when sorted -> we need 1,2,1,2
-        var rleEncodedIds = EncodingUtils.encodeRle(ids, false);;
-        if(allowReordering){
-            features.sort(Comparator.comparing(p -> p.id()));
+            for(var delimiter : LOCALIZE_DELIMITER){
+                if(propertyName.startsWith(prefix + delimiter) && propertyName.length() > prefix.length() + 1){
+                    return prefix;
+                }
+            }
         }
-        var deltaVarintEncodedIds = EncodingUtils.encodeVarints(ids, true, true);
 
-        if(rleEncodedIds.length < varintEncodedIds.length && rleEncodedIds.length < deltaVarintEncodedIds.length){
-            return Pair.of(StreamEncoding.RLE, rleEncodedIds);
-        }
-        else if(deltaVarintEncodedIds.length < varintEncodedIds.length){
-            return Pair.of(StreamEncoding.VARINT_DELTA_ZIG_ZAG, rleEncodedIds);
+        return null;
+    }
+
+    private static Pair<StreamEncoding, byte[]> convertIdColumn(long[] ids) throws IOException {
+
+        /* ZigZag encoding of the deltas is only needed if the ids are not sorted */
+        var isSorted = true;
+        for(var i = 1; i < ids.length && isSorted; i++){
+            isSorted = ids[i] >= ids[i - 1];
         }
 
-        return Pair.of(StreamEncoding.VARINT, varintEncodedIds);
+        var encodedIds = new LinkedHashMap<StreamEncoding, byte[]>();
+        encodedIds.put(StreamEncoding.VARINT, EncodingUtils.encodeVarints(ids, false, false));
+        encodedIds.put(isSorted ? StreamEncoding.VARINT_DELTA : StreamEncoding.VARINT_DELTA_ZIG_ZAG,
+                EncodingUtils.encodeVarints(ids, !isSorted, true));
+        encodedIds.put(StreamEncoding.RLE, EncodingUtils.encodeRle(ids, false));
+        encodedIds.put(StreamEncoding.FOR_BIT_PACKING, EncodingUtils.encodeForBitPacking(ids, false));
+        encodedIds.put(StreamEncoding.DELTA_FOR_BIT_PACKING, EncodingUtils.encodeForBitPacking(ids, true));
+
+        var smallestEncoding = encodedIds.entrySet().stream().min(Comparator.comparingInt(e -> e.getValue().length)).get();
+        for(var encodedId : encodedIds.entrySet()){
+            if(encodedId.getKey() != smallestEncoding.getKey()){
+                ConversionMetrics.reject(StreamType.DATA, encodedId.getKey(), encodedId.getValue().length);
+            }
+        }
+        return Pair.of(smallestEncoding.getKey(), smallestEncoding.getValue());
     }
 
     private static GeometryColumData convertUnorderedGeometryColumn(List<Feature> features,
                                                                     boolean allowFastPforForTopologyStreams,
                                                                     boolean allowFastPforForVertexBuffer) throws IOException {
-        var geometryTypes = new ArrayList<Integer>();
-        var partOffsets = new ArrayList<Integer>();
-        var ringOffsets = new ArrayList<Integer>();
-        var geometryOffsets = new ArrayList<Integer>();
-        var vertexBuffer = new ArrayList<Integer>();
+        var geometryTopology = new GeometryTopology();
+        var geometryTypes = geometryTopology.geometryTypes();
+        var partOffsets = geometryTopology.partOffsets();
+        var ringOffsets = geometryTopology.ringOffsets();
+        var geometryOffsets = geometryTopology.geometryOffsets();
+        var vertexBuffer = geometryTopology.vertexBuffer();
         //TODO: if not sorted after id sort the geometries -> points based on HilbertCurve
         for(var feature : features){
             var geometryType = feature.geometry().getGeometryType();
@@ -596,13 +1134,19 @@ public class CovtConverter {
                 vertexBuffer.add((int)point.getY());
             }
             else if(geometryType.equals("MultiPoint")) {
-                throw new IllegalArgumentException("MultiPoint currently not supported.");
+                geometryTypes.add(GeometryType.MULTIPOINT.ordinal());
+                var multiPoint = (MultiPoint)feature.geometry();
+                geometryOffsets.add(multiPoint.getNumGeometries());
+                for(var coordinate : multiPoint.getCoordinates()){
+                    vertexBuffer.add((int)coordinate.getX());
+                    vertexBuffer.add((int)coordinate.getY());
+                }
             }
             else if(geometryType.equals("LineString")){
                 geometryTypes.add(GeometryType.LINESTRING.ordinal());
                 var lineString = (LineString) feature.geometry();
                 partOffsets.add(lineString.getCoordinates().length);
-                vertexBuffer.addAll(flatLineString(lineString));
+                flatLineString(lineString, vertexBuffer);
             }
             else if(geometryType.equals("MultiLineString")){
                 geometryTypes.add( GeometryType.MULTILINESTRING.ordinal());
@@ -612,15 +1156,13 @@ public class CovtConverter {
                 for(var i = 0; i < numLineStrings; i++){
                     var lineString =  (LineString)multiLineString.getGeometryN(i);
                     partOffsets.add(lineString.getCoordinates().length);
-                    var vertices = flatLineString(lineString);
-                    vertexBuffer.addAll(vertices);
+                    flatLineString(lineString, vertexBuffer);
                 }
             }
             else if(geometryType.equals("Polygon")){
                 geometryTypes.add( GeometryType.POLYGON.ordinal());
                 var polygon = (Polygon)feature.geometry();
-                var vertices = flatPolygon(polygon, partOffsets, ringOffsets);
-                vertexBuffer.addAll(vertices);
+                flatPolygon(polygon, geometryTopology);
             }
             else if(geometryType.equals("MultiPolygon")){
                 geometryTypes.add( GeometryType.MULTIPOLYGON.ordinal());
@@ -629,8 +1171,7 @@ public class CovtConverter {
                 geometryOffsets.add(numPolygons);
                 for(var i = 0; i < numPolygons; i++){
                     var polygon = (Polygon)multiPolygon.getGeometryN(i);
-                    var vertices = flatPolygon(polygon, partOffsets, ringOffsets);
-                    vertexBuffer.addAll(vertices);
+                    flatPolygon(polygon, geometryTopology);
                 }
             }
             else{
@@ -638,12 +1179,22 @@ public class CovtConverter {
             }
         }
 
+        return encodeUnorderedGeometryColumn(geometryTopology, allowFastPforForTopologyStreams,
+                allowFastPforForVertexBuffer);
+    }
+
+    private static GeometryColumData encodeUnorderedGeometryColumn(GeometryTopology geometryTopology,
+                                                                   boolean allowFastPforForTopologyStreams,
+                                                                   boolean allowFastPforForVertexBuffer) throws IOException {
+        var vertexBuffer = geometryTopology.vertexBuffer();
         var numVertices = vertexBuffer.size();
         var columnMetadata = new ColumnMetadata(ColumnDataType.GEOMETRY, ColumnType.PLAIN, new TreeMap<>());
-        var geometryColumn = convertTopologyStreams(geometryTypes, geometryOffsets, partOffsets, ringOffsets,
-                columnMetadata, allowFastPforForTopologyStreams);
+        var geometryColumn = convertTopologyStreams(geometryTopology.geometryTypes().toArray(),
+                geometryTopology.geometryOffsets().toArray(), geometryTopology.partOffsets().toArray(),
+                geometryTopology.ringOffsets().toArray(), columnMetadata, allowFastPforForTopologyStreams);
 
-        var zigZagDeltaCodedVertexBuffer = EncodingUtils.encodeZigZagDeltaCoordinates(vertexBuffer);
+        var zigZagDeltaCodedVertexBuffer = EncodingUtils.encodeZigZagDeltaCoordinates(vertexBuffer.array(),
+                numVertices);
         var varintZigZagDeltaVertexBuffer = EncodingUtils.encodeVarints(Arrays.stream(zigZagDeltaCodedVertexBuffer).mapToLong(v -> v).toArray(),
                 false, false);
         if(!allowFastPforForVertexBuffer){
@@ -655,12 +1206,16 @@ public class CovtConverter {
 
         var fastPforZigZagDeltaVertexBuffer = EncodingUtils.encodeFastPfor128(zigZagDeltaCodedVertexBuffer, false, false);
         if(fastPforZigZagDeltaVertexBuffer.length <= varintZigZagDeltaVertexBuffer.length){
+            ConversionMetrics.reject(StreamType.VERTEX_BUFFER, StreamEncoding.VARINT_DELTA_ZIG_ZAG,
+                    varintZigZagDeltaVertexBuffer.length);
             columnMetadata.streams().put(StreamType.VERTEX_BUFFER, new StreamMetadata(StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG,
                     numVertices, fastPforZigZagDeltaVertexBuffer.length));
             geometryColumn = ArrayUtils.addAll(geometryColumn, fastPforZigZagDeltaVertexBuffer);
             return new GeometryColumData(columnMetadata, geometryColumn);
         }
         else{
+            ConversionMetrics.reject(StreamType.VERTEX_BUFFER, StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG,
+                    fastPforZigZagDeltaVertexBuffer.length);
             columnMetadata.streams().put(StreamType.VERTEX_BUFFER, new StreamMetadata(StreamEncoding.VARINT_DELTA_ZIG_ZAG,
                     numVertices, varintZigZagDeltaVertexBuffer.length));
             geometryColumn = ArrayUtils.addAll(geometryColumn, varintZigZagDeltaVertexBuffer);
@@ -668,18 +1223,31 @@ public class CovtConverter {
         }
     }
 
-    private static GeometryColumData convertIceCodedGeometryColumn(List<Feature> features, int tileExtent, GeometryEncoding geometryEncoding,
-                                                                   boolean allowFastPforForTopologyStreams,
-                                                                   boolean allowFastPfor) throws IOException {
-        if(tileExtent != 2<<11 && tileExtent != 2<<12){
-            throw new RuntimeException("The specified tile extent is not (yet) supported.");
+    /* The number of bits per coordinate is derived from the extent, the decoder derives it from the layer extent */
+    private static Function<Vertex, Integer> createSfcIdGenerator(int tileExtent, GeometryEncoding geometryEncoding){
+        if(!isSfcEncodableExtent(tileExtent)){
+            throw new IllegalArgumentException("The specified tile extent is not supported by the space filling curves.");
         }
-        var numBits = tileExtent == 2<<11 ? 13 : 14;
+        var numBits = 32 - Integer.numberOfLeadingZeros(tileExtent);
         var hilbertCurve = HilbertCurve.small().bits(numBits).dimensions(2);
-        Function<Vertex, Integer> sfcIdGenerator = geometryEncoding == GeometryEncoding.ICE_MORTON ?
+        return geometryEncoding == GeometryEncoding.ICE_MORTON ?
                     vertex -> GeometryUtils.encodeMorton(vertex.x(), vertex.y(), numBits):
                     vertex -> GeometryUtils.encodeHilbertIndex(hilbertCurve, vertex);
-        var vertexDictionary = createVertexDictionary(features, sfcIdGenerator);
+    }
+
+    /*
+     * If a vertex dictionary is specified the dictionary is shared across the layers of the tile, in that case the
+     * vertex buffer is only included in the first layer and the following layers only store the vertex offsets.
+     * */
+    private static GeometryColumData convertIceCodedGeometryColumn(List<Feature> features, int tileExtent, GeometryEncoding geometryEncoding,
+                                                                   boolean allowFastPforForTopologyStreams,
+                                                                   boolean allowFastPfor,
+                                                                   TreeMap<Integer, Vertex> sharedVertexDictionary,
+                                                                   boolean includeVertexBuffer) throws IOException {
+        var sfcIdGenerator = createSfcIdGenerator(tileExtent, geometryEncoding);
+        var vertexDictionary = sharedVertexDictionary != null ? sharedVertexDictionary :
+                createVertexDictionary(features, sfcIdGenerator);
+        var vertexIndices = getVertexIndices(vertexDictionary);
 
         var geometryTypes = new ArrayList<Integer>();
         var partOffsets = new ArrayList<Integer>();
@@ -694,14 +1262,23 @@ public class CovtConverter {
                 var point = (Point) feature.geometry();
                 var vertex = new Vertex((int)point.getX(), (int)point.getY());
                 var sfcId = sfcIdGenerator.apply(vertex);
-                var offset = Iterables.indexOf(vertexDictionary.entrySet(), v -> v.getKey().equals(sfcId));
+                var offset = vertexIndices.get(sfcId);
                 vertexOffsets.add(offset);
             }
+            else if(geometryType.equals("MultiPoint")){
+                geometryTypes.add(GeometryType.MULTIPOINT.ordinal());
+                var multiPoint = (MultiPoint) feature.geometry();
+                geometryOffsets.add(multiPoint.getNumGeometries());
+                for(var coordinate : multiPoint.getCoordinates()){
+                    var sfcId = sfcIdGenerator.apply(new Vertex((int)coordinate.getX(), (int)coordinate.getY()));
+                    vertexOffsets.add(vertexIndices.get(sfcId));
+                }
+            }
             else if(geometryType.equals("LineString")){
                 geometryTypes.add(GeometryType.LINESTRING.ordinal());
                 var lineString = (LineString) feature.geometry();
                 partOffsets.add(lineString.getCoordinates().length);
-                var offsets = getVertexOffsets(lineString, vertexDictionary, sfcIdGenerator);
+                var offsets = getVertexOffsets(lineString, vertexIndices, sfcIdGenerator);
                 vertexOffsets.addAll(offsets);
             }
             else if(geometryType.equals("MultiLineString")){
@@ -712,7 +1289,7 @@ public class CovtConverter {
                 for(var i = 0; i < numLineStrings; i++){
                     var lineString =  (LineString)multiLineString.getGeometryN(i);
                     partOffsets.add(lineString.getCoordinates().length);
-                    var offsets = getVertexOffsets(lineString, vertexDictionary, sfcIdGenerator);
+                    var offsets = getVertexOffsets(lineString, vertexIndices, sfcIdGenerator);
                     vertexOffsets.addAll(offsets);
                 }
             }
@@ -728,7 +1305,7 @@ public class CovtConverter {
                     ringOffsets.add(linearRing.getCoordinates().length - 1);
                     var ring = new GeometryFactory().createLineString(Arrays.copyOf(linearRing.getCoordinates(),
                             linearRing.getCoordinates().length - 1));
-                    var offsets = getVertexOffsets(ring, vertexDictionary, sfcIdGenerator);
+                    var offsets = getVertexOffsets(ring, vertexIndices, sfcIdGenerator);
                     vertexOffsets.addAll(offsets);
                 }
 
@@ -747,7 +1324,7 @@ public class CovtConverter {
                         ringOffsets.add(linearRing.getCoordinates().length -1);
                         var ring = new GeometryFactory().createLineString(Arrays.copyOf(linearRing.getCoordinates(),
                                 linearRing.getCoordinates().length - 1));
-                        var offsets = getVertexOffsets(ring, vertexDictionary, sfcIdGenerator);
+                        var offsets = getVertexOffsets(ring, vertexIndices, sfcIdGenerator);
                         vertexOffsets.addAll(offsets);
                     }
                 }
@@ -761,9 +1338,15 @@ public class CovtConverter {
         var vertexData = encodeVertexBuffer(vertexDictionary, vertexOffsets, allowFastPfor,
                 allowMortonEncoding, sfcIdGenerator);
         var columnMetadata = vertexData.getLeft();
-        var geometryColumn = convertTopologyStreams(geometryTypes, geometryOffsets, partOffsets, ringOffsets,
-                columnMetadata, allowFastPforForTopologyStreams);
-        geometryColumn = ArrayUtils.addAll(geometryColumn, vertexData.getRight());
+        var vertexStreams = vertexData.getRight();
+        /* the vertex buffer is the last stream and is removed when the vertex buffer of another layer is referenced */
+        if(!includeVertexBuffer){
+            var vertexBufferMetadata = columnMetadata.streams().remove(StreamType.VERTEX_BUFFER);
+            vertexStreams = Arrays.copyOf(vertexStreams, vertexStreams.length - vertexBufferMetadata.byteLength());
+        }
+        var geometryColumn = convertTopologyStreams(toIntArray(geometryTypes), toIntArray(geometryOffsets),
+                toIntArray(partOffsets), toIntArray(ringOffsets), columnMetadata, allowFastPforForTopologyStreams);
+        geometryColumn = ArrayUtils.addAll(geometryColumn, vertexStreams);
         return new GeometryColumData(columnMetadata, geometryColumn);
     }
 
@@ -807,10 +1390,14 @@ public class CovtConverter {
         if(varintDeltaOffsets.length < fastPforOffsets.length){
             vertexOffsetsEncoding = StreamEncoding.VARINT_DELTA_ZIG_ZAG;
             encodedVertexOffsets = varintDeltaOffsets;
+            ConversionMetrics.reject(StreamType.VERTEX_OFFSETS, StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG,
+                    fastPforOffsets.length);
         }
         else{
             vertexOffsetsEncoding = StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG;
             encodedVertexOffsets = fastPforOffsets;
+            ConversionMetrics.reject(StreamType.VERTEX_OFFSETS, StreamEncoding.VARINT_DELTA_ZIG_ZAG,
+                    varintDeltaOffsets.length);
         }
 
         var varintDeltaGeometryColumSize = varintDeltaVertexBuffer.length;
@@ -869,26 +1456,29 @@ public class CovtConverter {
         return vertexDictionary;
     }
 
-    private static byte [] convertTopologyStreams(List<Integer> geometryTypes, List<Integer> geometryOffsets, List<Integer> partOffsets,
-                            List<Integer> ringOffsets, ColumnMetadata columnMetadata, boolean allowFastPforDelta) throws IOException {
+    private static byte [] convertTopologyStreams(int[] geometryTypes, int[] geometryOffsets, int[] partOffsets,
+                            int[] ringOffsets, ColumnMetadata columnMetadata, boolean allowFastPforDelta) throws IOException {
         var streams = columnMetadata.streams();
 
-        var geometryTypeStream = EncodingUtils.encodeByteRle(
-                ArrayUtils.toPrimitive(geometryTypes.stream().map(g -> g.byteValue()).toArray(Byte[]::new)));
-        streams.put(StreamType.GEOMETRY_TYPES, new StreamMetadata(StreamEncoding.BYTE_RLE, geometryTypes.size(), geometryTypeStream.length));
+        var geometryTypeBytes = new byte[geometryTypes.length];
+        for(var i = 0; i < geometryTypes.length; i++){
+            geometryTypeBytes[i] = (byte)geometryTypes[i];
+        }
+        var geometryTypeStream = EncodingUtils.encodeByteRle(geometryTypeBytes);
+        streams.put(StreamType.GEOMETRY_TYPES, new StreamMetadata(StreamEncoding.BYTE_RLE, geometryTypes.length, geometryTypeStream.length));
         var geometryColumn = geometryTypeStream;
 
-        if(geometryOffsets.size() > 0){
+        if(geometryOffsets.length > 0){
             geometryColumn = addOffsets(geometryOffsets, allowFastPforDelta,
                     streams, geometryColumn, StreamType.GEOMETRY_OFFSETS);
         }
 
-        if(partOffsets.size() > 0){
+        if(partOffsets.length > 0){
             geometryColumn = addOffsets(partOffsets, allowFastPforDelta,
                     streams, geometryColumn, StreamType.PART_OFFSETS);
         }
 
-        if(ringOffsets.size() > 0){
+        if(ringOffsets.length > 0){
             geometryColumn = addOffsets(ringOffsets, allowFastPforDelta,
                     streams, geometryColumn, StreamType.RING_OFFSETS);
         }
@@ -896,25 +1486,26 @@ public class CovtConverter {
         return geometryColumn;
     }
 
-    private static byte[] addOffsets(List<Integer> offsets, Boolean useFastPforDelta,
+    private static byte[] addOffsets(int[] offsets, Boolean useFastPforDelta,
                                      TreeMap<StreamType, StreamMetadata> streams, byte[] geometryColumn,
                                      StreamType streamType) throws IOException {
-        var rleOffsets= EncodingUtils.encodeRle(offsets.stream().mapToLong(i -> i).toArray(), false);
+        var rleOffsets= EncodingUtils.encodeRle(Arrays.stream(offsets).asLongStream().toArray(), false);
         if(!useFastPforDelta){
-            streams.put(streamType, new StreamMetadata(StreamEncoding.RLE, offsets.size(), rleOffsets.length));
+            streams.put(streamType, new StreamMetadata(StreamEncoding.RLE, offsets.length, rleOffsets.length));
             return ArrayUtils.addAll(geometryColumn, rleOffsets);
         }
 
-        var fastPforDeltaOffsets = EncodingUtils.encodeFastPfor128(
-                offsets.stream().mapToInt(i -> i).toArray(), true, true);
+        var fastPforDeltaOffsets = EncodingUtils.encodeFastPfor128(offsets, true, true);
 
         if(fastPforDeltaOffsets.length <= rleOffsets.length){
-            streams.put(streamType, new StreamMetadata(StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG, offsets.size(),
+            ConversionMetrics.reject(streamType, StreamEncoding.RLE, rleOffsets.length);
+            streams.put(streamType, new StreamMetadata(StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG, offsets.length,
                     fastPforDeltaOffsets.length));
             return ArrayUtils.addAll(geometryColumn, fastPforDeltaOffsets);
         }
         else{
-            streams.put(streamType, new StreamMetadata(StreamEncoding.RLE, offsets.size(), rleOffsets.length));
+            ConversionMetrics.reject(streamType, StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG, fastPforDeltaOffsets.length);
+            streams.put(streamType, new StreamMetadata(StreamEncoding.RLE, offsets.length, rleOffsets.length));
             return ArrayUtils.addAll(geometryColumn, rleOffsets);
         }
     }
@@ -924,16 +1515,12 @@ public class CovtConverter {
                 collect(Collectors.toList());
         var zigZagDeltaVertices = EncodingUtils.encodeZigZagDeltaCoordinates(vertices);
 
-        var varintEncodedVertexBuffer = EncodingUtils.encodeVarints(Arrays.stream(zigZagDeltaVertices).mapToLong(i -> i).toArray(),
-                false, false);
-        if(!useFastPfor){
-            return varintEncodedVertexBuffer;
+        /* the callers compare the sizes of both encodings and set the encoding in the stream metadata */
+        if(useFastPfor){
+            return EncodingUtils.encodeFastPfor128(zigZagDeltaVertices, false, false);
         }
-        var fastPforEncodedVertexBuffer =  EncodingUtils.encodeFastPfor128(zigZagDeltaVertices, false, false);
-        //TODO: add to the stream metadata which encoding is used
-        return fastPforEncodedVertexBuffer.length < varintEncodedVertexBuffer.length?
-                fastPforEncodedVertexBuffer:
-                varintEncodedVertexBuffer;
+        return EncodingUtils.encodeVarints(Arrays.stream(zigZagDeltaVertices).mapToLong(i -> i).toArray(),
+                false, false);
     }
 
     private static byte[] encodeVertexDictionaryVarintWithMortonId(Map<Integer, Vertex> vertexDictionary, Function<Vertex, Integer> sfcIdGenerator){
@@ -947,50 +1534,69 @@ public class CovtConverter {
                 false, true);
     }
 
-    private static List<Integer> getVertexOffsets(LineString lineString, TreeMap<Integer, Vertex> vertexDictionary, Function<Vertex, Integer> sfcIdGenerator){
+    private static List<Integer> getVertexOffsets(LineString lineString, Map<Integer, Integer> vertexIndices, Function<Vertex, Integer> sfcIdGenerator){
         return Arrays.stream(lineString.getCoordinates()).map(coordinate -> {
             var vertex = new Vertex((int)coordinate.x, (int)coordinate.y);
             var sfcIndex = sfcIdGenerator.apply(vertex);
-            return Iterables.indexOf(vertexDictionary.entrySet(), v -> v.getKey().equals(sfcIndex));
+            return vertexIndices.get(sfcIndex);
         }).collect(Collectors.toList());
     }
 
-    private static List<Integer> flatPolygon(Polygon polygon, List<Integer> partOffsets, List<Integer> ringOffsets) {
-        var vertexBuffer = new ArrayList<Integer>();
-        var numRings = polygon.getNumInteriorRing() + 1;
-        partOffsets.add(numRings);
+    /* maps the sfc id of a vertex to its position in the sorted vertex dictionary */
+    private static Map<Integer, Integer> getVertexIndices(TreeMap<Integer, Vertex> vertexDictionary){
+        var vertexIndices = new HashMap<Integer, Integer>(vertexDictionary.size() * 2);
+        var index = 0;
+        for(var sfcId : vertexDictionary.keySet()){
+            vertexIndices.put(sfcId, index++);
+        }
+        return vertexIndices;
+    }
 
-        var exteriorRing = polygon.getExteriorRing();
-        var shell = new GeometryFactory().createLineString(Arrays.copyOf(exteriorRing.getCoordinates(),
-                exteriorRing.getCoordinates().length - 1));
-        var shellVertices = flatLineString(shell);
-        vertexBuffer.addAll(shellVertices);
-        ringOffsets.add(shell.getNumPoints());
+    private static void flatPolygon(Polygon polygon, GeometryTopology geometryTopology) {
+        var numRings = polygon.getNumInteriorRing() + 1;
+        geometryTopology.partOffsets().add(numRings);
 
+        /* the closing vertex of a ring is not stored */
+        flatRing(polygon.getExteriorRing(), geometryTopology);
         for (var i = 0; i < polygon.getNumInteriorRing(); i++) {
-            var interiorRing = polygon.getInteriorRingN(i);
-            var ring = new GeometryFactory().createLineString(Arrays.copyOf(interiorRing.getCoordinates(),
-                    interiorRing.getCoordinates().length - 1));
+            flatRing(polygon.getInteriorRingN(i), geometryTopology);
+        }
+    }
 
-            var ringVertices = flatLineString(ring);
-            vertexBuffer.addAll(ringVertices);
-            ringOffsets.add(ring.getNumPoints());
+    private static void flatRing(LineString ring, GeometryTopology geometryTopology){
+        var coordinates = ring.getCoordinates();
+        var vertexBuffer = geometryTopology.vertexBuffer();
+        for(var i = 0; i < coordinates.length - 1; i++){
+            vertexBuffer.add((int)coordinates[i].x);
+            vertexBuffer.add((int)coordinates[i].y);
         }
+        geometryTopology.ringOffsets().add(coordinates.length - 1);
+    }
 
-        return vertexBuffer;
+    private static void flatLineString(LineString lineString, GeometryTopology.IntColumn vertexBuffer){
+        for(var coordinate : lineString.getCoordinates()){
+            vertexBuffer.add((int)coordinate.x);
+            vertexBuffer.add((int)coordinate.y);
+        }
     }
 
-    private static List<Integer> flatLineString(LineString lineString){
-        return Arrays.stream(lineString.getCoordinates()).flatMapToInt(v -> IntStream.of((int)v.x, (int)v.y)).boxed().
-                collect(Collectors.toList());
+    private static int[] toIntArray(List<Integer> values){
+        return values.stream().mapToInt(i -> i).toArray();
     }
 
-    private static PropertyColumData convertPropertyColumns(List<Feature> features, LinkedHashMap<String, ColumnMetadata> columnMetadata) throws IOException {
+    /* @param propertyValues values of the properties per feature, see getPropertyColumns */
+    private static PropertyColumData convertPropertyColumns(String layerName,
+                                                             LinkedHashMap<String, Object[]> propertyValues,
+                                                             LinkedHashMap<String, ColumnMetadata> columnMetadata,
+                                                             ConversionConfig config) throws IOException {
         var booleanColumns = new HashMap<String, PrimitiveColumnData<Boolean>>();
         var longColumns = new HashMap<String, PrimitiveColumnData<Long>>();
         var floatColumns = new HashMap<String, PrimitiveColumnData<Float>>();
         var stringDictionaryColumns = new HashMap<String, StringDictionaryColumnData>();
         var stringLocalizedDictionaryColumns = new HashMap<String, StringLocalizedDictionaryColumnData>();
+        var nestedColumns = new LinkedHashMap<String, Pair<ColumnMetadata, byte[]>>();
+        /* the values of a column are collected and encoded in separate loops, so the durations of both are added */
+        var metrics = ConversionMetrics.current();
 
         /*
         * -> List of streams per column
@@ -1022,43 +1628,67 @@ public class CovtConverter {
             var columnName = metadataSet.getKey();
             var metadata = metadataSet.getValue();
             var columnDataType = metadata.columnDataType();
+            if(metrics != null){
+                metrics.startColumn(columnName);
+            }
 
             switch (columnDataType){
                 case BOOLEAN:
-                    var booleanColumn = convertPropertyColumn(columnName, metadata, features,
+                    var booleanColumn = convertPropertyColumn(metadata, propertyValues.get(columnName),
                             (ColumnMetadata m, List<Boolean> p, List<Boolean> d) -> new PrimitiveColumnData(m, p, d));
                     booleanColumns.put(columnName, booleanColumn);
                     break;
                 case INT_64:
                 case UINT_64:
-                    var longColumn = convertPropertyColumn(columnName, metadata, features,
+                    var longColumn = convertPropertyColumn(metadata, propertyValues.get(columnName),
                             (ColumnMetadata m, List<Boolean> p, List<Long> d) -> new PrimitiveColumnData(m, p, d));
                     longColumns.put(columnName, longColumn);
                     break;
                 case STRING:
                     if(ColumnType.LOCALIZED_DICTIONARY.equals(metadata.columnType())) {
                         var stringLocalizedDictionaryColumn =
-                                convertLocalizedStringDictionaryColumn(columnName, metadata, features);
+                                convertLocalizedStringDictionaryColumn(metadata, propertyValues,
+                                        config.sortDictionaries());
                         stringLocalizedDictionaryColumns.put(columnName, stringLocalizedDictionaryColumn);
                     }
                     else{
-                        var stringDictionaryColumn = convertStringDictionaryColumn(columnName, metadata, features);
+                        /* fall back to a dictionary per tile if a value is missing in the shared dictionary */
+                        var sharedDictionary = getSharedDictionary(config, layerName, columnName);
+                        var stringDictionaryColumn = sharedDictionary != null ?
+                                convertSharedDictionaryColumn(propertyValues.get(columnName), sharedDictionary) : null;
+                        if(stringDictionaryColumn == null){
+                            stringDictionaryColumn = convertStringDictionaryColumn(metadata,
+                                    propertyValues.get(columnName), config.sortDictionaries());
+                        }
                         stringDictionaryColumns.put(columnName, stringDictionaryColumn);
                     }
                     break;
                 case FLOAT:
-                    var floatColumn = convertPropertyColumn(columnName, metadata, features,
+                    var floatColumn = convertPropertyColumn(metadata, propertyValues.get(columnName),
                             (ColumnMetadata m, List<Boolean> p, List<Float> d) -> new PrimitiveColumnData(m, p, d));
                     floatColumns.put(columnName, floatColumn);
                     break;
+                case LIST:
+                case STRUCT:
+                    nestedColumns.put(columnName, convertNestedColumn(columnName, metadata,
+                            propertyValues.get(columnName), config.sortDictionaries()));
+                    break;
                 default:
                     throw new IllegalArgumentException("Column data type currently not supported.");
             }
         }
+        if(metrics != null){
+            metrics.stopColumn();
+        }
 
         var columnBuffer = new byte[0];
+        var columnOffsets = new LinkedHashMap<String, Integer>();
         if(booleanColumns.size() > 0){
             for(var column : booleanColumns.entrySet()){
+                if(metrics != null){
+                    metrics.startColumn(column.getKey());
+                }
+                columnOffsets.put(column.getKey(), columnBuffer.length);
                 var booleanColumn = column.getValue();
                 var dataStream = booleanColumn.dataStream();
                 var values = new ArrayList<Boolean>();
@@ -1067,74 +1697,76 @@ public class CovtConverter {
                     var value = present ? dataStream.get(i++) : false;
                     values.add(value);
                 }
+                var metadata = booleanColumn.columnMetadata();
+                if(isConstant(values)){
+                    var encodedValue = new byte[]{(byte)(values.get(0) ? 1 : 0)};
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodedValue);
+                    metadata.streams().put(StreamType.DATA, new StreamMetadata(StreamEncoding.CONSTANT, dataStream.size(),
+                            encodedValue.length));
+                    continue;
+                }
+
                 var encodedData = EncodingUtils.encodeBooleans(values);
                 columnBuffer = ArrayUtils.addAll(columnBuffer, encodedData);
-                var metadata = booleanColumn.columnMetadata();
                 metadata.streams().put(StreamType.DATA, new StreamMetadata(StreamEncoding.BOOLEAN_RLE, dataStream.size(), encodedData.length));
             }
         }
 
         if(longColumns.size() > 0){
             for(var column : longColumns.entrySet()){
+                if(metrics != null){
+                    metrics.startColumn(column.getKey());
+                }
+                columnOffsets.put(column.getKey(), columnBuffer.length);
                 var longColumn = column.getValue();
                 var presentStream = longColumn.presentStream();
                 var dataStream = longColumn.dataStream();
                 var metadata = longColumn.columnMetadata();
 
-                var encodedPresentStream = EncodingUtils.encodeBooleans(presentStream);
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedPresentStream);
-
-                var data = dataStream.stream().mapToLong(i -> i).toArray();
-                //TODO: add supporrt for UInt64 -> depending on the datatype is signed true or false
-                var varintValues = EncodingUtils.encodeVarints(data, true, false);
-                var deltaVarintValues = EncodingUtils.encodeVarints(data, true, true);
-                var rleValues = EncodingUtils.encodeRle(data, true);
-
-                metadata.streams().put(StreamType.PRESENT, new StreamMetadata(StreamEncoding.BOOLEAN_RLE,
-                        presentStream.size(), encodedPresentStream.length));
-                if(rleValues.length < varintValues.length && rleValues.length < deltaVarintValues.length){
-                    columnBuffer = ArrayUtils.addAll(columnBuffer, rleValues);
-                    metadata.streams().put(StreamType.DATA, new StreamMetadata(StreamEncoding.RLE,
-                            dataStream.size(), rleValues.length));
-                }
-                else if(deltaVarintValues.length < rleValues.length && deltaVarintValues.length < varintValues.length){
-                    columnBuffer = ArrayUtils.addAll(columnBuffer, deltaVarintValues);
-                    metadata.streams().put(StreamType.DATA, new StreamMetadata(StreamEncoding.VARINT_DELTA_ZIG_ZAG,
-                            dataStream.size(), deltaVarintValues.length));
-                }
-                else{
-                    columnBuffer = ArrayUtils.addAll(columnBuffer, varintValues);
-                    metadata.streams().put(StreamType.DATA, new StreamMetadata(StreamEncoding.VARINT_ZIG_ZAG,
-                            dataStream.size(), varintValues.length));
-                }
+                columnBuffer = ArrayUtils.addAll(columnBuffer, encodePresentStream(presentStream, metadata.streams()));
+                columnBuffer = ArrayUtils.addAll(columnBuffer, encodeLongDataStream(dataStream, metadata.streams()));
             }
         }
 
         if(floatColumns.size() > 0){
             for(var column : floatColumns.entrySet()){
+                if(metrics != null){
+                    metrics.startColumn(column.getKey());
+                }
+                columnOffsets.put(column.getKey(), columnBuffer.length);
                 var floatColumn = column.getValue();
                 var presentStream = floatColumn.presentStream();
                 var dataStream = floatColumn.dataStream();
                 var metadata = floatColumn.columnMetadata();
 
-                var encodedPresentStream = EncodingUtils.encodeBooleans(presentStream);
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedPresentStream);
+                columnBuffer = ArrayUtils.addAll(columnBuffer, encodePresentStream(presentStream, metadata.streams()));
 
                 var data = new float[dataStream.size()];
                 for(var i = 0; i < dataStream.size(); i++){
                     data[i] = dataStream.get(i);
                 }
+                if(isConstant(dataStream)){
+                    var encodedValue = EncodingUtils.encodeFloatsLE(new float[]{data[0]});
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodedValue);
+                    metadata.streams().put(StreamType.DATA, new StreamMetadata(StreamEncoding.CONSTANT, dataStream.size(),
+                            encodedValue.length));
+                    continue;
+                }
+
                 var encodedData = EncodingUtils.encodeFloatsLE(data);
                 columnBuffer = ArrayUtils.addAll(columnBuffer, encodedData);
 
                 //TODO: add also encoding for floats like XOR-based compression
-                metadata.streams().put(StreamType.PRESENT, new StreamMetadata(StreamEncoding.PLAIN, presentStream.size(), encodedPresentStream.length));
                 metadata.streams().put(StreamType.DATA, new StreamMetadata(StreamEncoding.PLAIN, dataStream.size(), encodedData.length));
             }
         }
 
         if(stringDictionaryColumns.size() > 0){
             for(var column : stringDictionaryColumns.entrySet()){
+                if(metrics != null){
+                    metrics.startColumn(column.getKey());
+                }
+                columnOffsets.put(column.getKey(), columnBuffer.length);
                 var stringDictionaryColumn = column.getValue();
                 var presentStream = stringDictionaryColumn.presentStream();
                 var dataStream = stringDictionaryColumn.dataStream();
@@ -1142,67 +1774,64 @@ public class CovtConverter {
                 var dictionaryStream = stringDictionaryColumn.dictionaryStream();
                 var metadata = stringDictionaryColumn.columnMetadata();
 
-                var encodedPresentStream = EncodingUtils.encodeBooleans(presentStream);
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedPresentStream);
+                var streams = metadata.streams();
+                columnBuffer = ArrayUtils.addAll(columnBuffer, encodePresentStream(presentStream, streams));
 
+                /* a constant column only stores the code of the single value */
                 //TODO: test different encodings like delta encoding
-                var encodedDataStream = EncodingUtils.encodeRle(dataStream.stream().mapToLong(i -> i).toArray(), false);
-                var encodedLengthStream = EncodingUtils.encodeRle(lengthStream.stream().mapToLong(i -> i).toArray(), false);
-                var encodedDictionary = CollectionUtils.concatByteArrays(dictionaryStream.stream().
-                        map(s -> s.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList()));
+                if(isConstant(dataStream)){
+                    var encodedDataStream = EncodingUtils.encodeVarints(new long[]{dataStream.get(0)}, false, false);
+                    streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.CONSTANT, dataStream.size(),
+                            encodedDataStream.length));
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodedDataStream);
+                }
+                else{
+                    var encodedDataStream = EncodingUtils.encodeRle(dataStream.stream().mapToLong(i -> i).toArray(), false);
+                    streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.RLE, dataStream.size(), encodedDataStream.length));
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodedDataStream);
+                }
 
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedDataStream);
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedLengthStream);
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedDictionary);
+                if(metadata.columnType() == ColumnType.SHARED_DICTIONARY){
+                    continue;
+                }
 
-                var streams = metadata.streams();
-                streams.put(StreamType.PRESENT, new StreamMetadata(StreamEncoding.BOOLEAN_RLE,
-                        presentStream.size(), encodedPresentStream.length));
-                streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.RLE, dataStream.size(), encodedDataStream.length));
-                streams.put(StreamType.LENGTH, new StreamMetadata(StreamEncoding.RLE,
-                        dictionaryStream.size(), encodedLengthStream.length));
-                streams.put(StreamType.DICTIONARY, new StreamMetadata(StreamEncoding.PLAIN,
-                        dictionaryStream.size(), encodedDictionary.length));
+                columnBuffer = ArrayUtils.addAll(columnBuffer, encodeStringDictionary(dictionaryStream, lengthStream,
+                        streams, config.sortDictionaries()));
             }
         }
 
         if(stringLocalizedDictionaryColumns.size() > 0){
-            throw new RuntimeException("Localized Dictionary encoding currently not supported.");
-            /*for(var column : stringLocalizedDictionaryColumns.entrySet()){
+            /* present and data stream per property of the column group followed by the shared length and dictionary stream */
+            for(var column : stringLocalizedDictionaryColumns.entrySet()){
+                if(metrics != null){
+                    metrics.startColumn(column.getKey());
+                }
+                columnOffsets.put(column.getKey(), columnBuffer.length);
                 var columnData = column.getValue();
-                columnData.columnMetadata().streams().clear();
-
-                var streams = columnData.columnMetadata().streams();
+                var metadata = columnData.columnMetadata();
                 for(var stream : columnData.streamData().entrySet()){
-                    var streamName = stream.getKey();
-                    var streamData = stream.getValue();
-                    var presentStream = streamData.presentStream();
-                    var dataStream = streamData.dataStream();
+                    var presentStream = stream.getValue().presentStream();
+                    var dataStream = stream.getValue().dataStream();
 
                     var encodedPresentStream = EncodingUtils.encodeBooleans(presentStream);
                     columnBuffer = ArrayUtils.addAll(columnBuffer, encodedPresentStream);
                     var encodedDataStream = EncodingUtils.encodeRle(dataStream.stream().mapToLong(i -> i).toArray(), false);
                     columnBuffer = ArrayUtils.addAll(columnBuffer, encodedDataStream);
 
-                    //TODO: add the metadata ids for the name streams
-                    streams.put(PRESENT_STREAM_ID + "_" + streamName, new StreamMetadata(presentStream.size(), encodedPresentStream.length,
-                            StreamEncoding.BOOLEAN_RLE, StreamType.PRESENT));
-                    streams.put(streamName, new StreamMetadata(dataStream.size(), encodedDataStream.length,
-                            StreamEncoding.RLE, StreamType.DATA));
+                    var streams = metadata.localizedStreams().get(stream.getKey());
+                    streams.put(StreamType.PRESENT, new StreamMetadata(StreamEncoding.BOOLEAN_RLE,
+                            presentStream.size(), encodedPresentStream.length));
+                    streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.RLE, dataStream.size(),
+                            encodedDataStream.length));
                 }
 
-                var encodedLengthStream = EncodingUtils.encodeRle(columnData.lengthStream().stream().mapToLong(i -> i).toArray(), false);
-                var encodedDictionary = CollectionUtils.concatByteArrays(columnData.dictionaryStream().stream().
-                        map(s -> s.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList()));
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedLengthStream);
-                columnBuffer = ArrayUtils.addAll(columnBuffer, encodedDictionary);
-                var numValues = columnData.dictionaryStream().size();
-                //TODO: quick and dirty -> leads to collisions when length or dictionary are feature properties
-                streams.put(LENGTH_STREAM_NAME, new StreamMetadata(numValues, encodedLengthStream.length, StreamEncoding.RLE,
-                        StreamType.LENGTH));
-                streams.put(DICTIONARY_STREAM_NAME, new StreamMetadata(numValues, encodedDictionary.length, StreamEncoding.PLAIN,
-                        StreamType.DICTIONARY));
-            }*/
+                columnBuffer = ArrayUtils.addAll(columnBuffer, encodeStringDictionary(columnData.dictionaryStream(),
+                        columnData.lengthStream(), metadata.streams(), config.sortDictionaries()));
+            }
+        }
+
+        if(metrics != null){
+            metrics.stopColumn();
         }
 
         var booleanColumnMetadata = booleanColumns.entrySet().stream().map(c -> new NamedColumnMetadata(c.getKey(),
@@ -1215,92 +1844,308 @@ public class CovtConverter {
                 c.getValue().columnMetadata())).collect(Collectors.toList());
         var localizedStringDictionaryColumnMetadata = stringLocalizedDictionaryColumns.entrySet().stream().map(c -> new NamedColumnMetadata(c.getKey(),
                 c.getValue().columnMetadata())).collect(Collectors.toList());
-        var columnsMetadata = new PropertyColumnsMetadata(booleanColumnMetadata, longColumnMetadata, floatColumnMetadata, stringDictionaryColumnMetadata, localizedStringDictionaryColumnMetadata);
+        /* the nested columns are stored after all other property columns */
+        var nestedColumnMetadata = new ArrayList<NamedColumnMetadata>();
+        for(var column : nestedColumns.entrySet()){
+            columnOffsets.put(column.getKey(), columnBuffer.length);
+            nestedColumnMetadata.add(new NamedColumnMetadata(column.getKey(), column.getValue().getLeft()));
+            columnBuffer = ArrayUtils.addAll(columnBuffer, column.getValue().getRight());
+        }
+        var columnsMetadata = new PropertyColumnsMetadata(booleanColumnMetadata, longColumnMetadata, floatColumnMetadata,
+                stringDictionaryColumnMetadata, localizedStringDictionaryColumnMetadata, nestedColumnMetadata);
 
-        return new PropertyColumData(columnsMetadata, columnBuffer);
+        return new PropertyColumData(columnsMetadata, columnBuffer, columnOffsets);
     }
 
-    private static StringLocalizedDictionaryColumnData convertLocalizedStringDictionaryColumn(String columnName, ColumnMetadata metadata, List<Feature> features){
-        var streamData = new HashMap<String, LocalizedStringDictionaryStreamData>();
-        var lengthStream = new ArrayList<Integer>();
-        var dictionaryStream = new ArrayList<String>();
-        for(var streamSet : metadata.streams().entrySet()){
-            var streamName = streamSet.getKey();
-            var presentStream = new ArrayList<Boolean>();
-            var dataStream = new ArrayList<Integer>();
+    /*
+     * Encodes the values with the smallest of the RLE, varint and delta varint encoding or as constant if all values
+     * are equal and adds the metadata of the data stream.
+     * */
+    private static byte[] encodeLongDataStream(List<Long> dataStream, TreeMap<StreamType, StreamMetadata> streams) throws IOException {
+        var data = dataStream.stream().mapToLong(i -> i).toArray();
+        if(isConstant(dataStream)){
+            var encodedValue = EncodingUtils.encodeVarints(new long[]{data[0]}, true, false);
+            streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.CONSTANT, dataStream.size(), encodedValue.length));
+            return encodedValue;
+        }
 
-            for(var feature : features) {
-                var properties = feature.properties();
-
-                /* The default property has no suffix */
-                if(!streamName.equals(columnName)){
-                    var isPropertyPresent = Boolean.valueOf(false);
-                    var propertyName = "";
-                    for(var delimiter : LOCALIZE_DELIMITER){
-                        propertyName = columnName + delimiter + streamName;
-                        if(properties.containsKey(propertyName)){
-                            isPropertyPresent = true;
-                        }
-                        else{
-                            continue;
-                        }
+        //TODO: add supporrt for UInt64 -> depending on the datatype is signed true or false
+        var varintValues = EncodingUtils.encodeVarints(data, true, false);
+        var deltaVarintValues = EncodingUtils.encodeVarints(data, true, true);
+        var rleValues = EncodingUtils.encodeRle(data, true);
 
-                        var value = properties.get(propertyName);
-                        var stringValue = (String)value;
-                        if(!dictionaryStream.contains((stringValue))){
-                            var utf8EncodedData = stringValue.getBytes(StandardCharsets.UTF_8);
-                            lengthStream.add(utf8EncodedData.length);
-                            dictionaryStream.add(stringValue);
+        if(rleValues.length < varintValues.length && rleValues.length < deltaVarintValues.length){
+            ConversionMetrics.reject(StreamType.DATA, StreamEncoding.VARINT_ZIG_ZAG, varintValues.length);
+            ConversionMetrics.reject(StreamType.DATA, StreamEncoding.VARINT_DELTA_ZIG_ZAG, deltaVarintValues.length);
+            streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.RLE, dataStream.size(), rleValues.length));
+            return rleValues;
+        }
+        else if(deltaVarintValues.length < rleValues.length && deltaVarintValues.length < varintValues.length){
+            ConversionMetrics.reject(StreamType.DATA, StreamEncoding.VARINT_ZIG_ZAG, varintValues.length);
+            ConversionMetrics.reject(StreamType.DATA, StreamEncoding.RLE, rleValues.length);
+            streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.VARINT_DELTA_ZIG_ZAG, dataStream.size(),
+                    deltaVarintValues.length));
+            return deltaVarintValues;
+        }
 
-                            var index = dictionaryStream.size() - 1;
-                            dataStream.add(index);
-                        }
-                        else{
-                            var index = dictionaryStream.indexOf(stringValue);
-                            dataStream.add(index);
-                        }
-                        break;
+        ConversionMetrics.reject(StreamType.DATA, StreamEncoding.VARINT_DELTA_ZIG_ZAG, deltaVarintValues.length);
+        ConversionMetrics.reject(StreamType.DATA, StreamEncoding.RLE, rleValues.length);
+        streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.VARINT_ZIG_ZAG, dataStream.size(), varintValues.length));
+        return varintValues;
+    }
+
+    /*
+     * Stores the streams of the leaf fields of a nested property in preorder. The streams of a leaf field are stored in
+     * the order repetition levels, definition levels, data and for strings length and dictionary. The repetition levels
+     * are omitted if the path of the leaf contains no list and the data streams if no value is present.
+     * */
+    private static Pair<ColumnMetadata, byte[]> convertNestedColumn(String columnName, ColumnMetadata metadata,
+                                                                    Object[] columnValues, boolean sortDictionary) throws IOException {
+        var shreddedColumn = NestedColumnEncoder.shred(columnName, columnValues);
+        var columnBuffer = new byte[0];
+        for(var leafColumn : shreddedColumn.leafColumns()){
+            var streams = leafColumn.field().streams();
+            if(leafColumn.maxRepetitionLevel() > 0){
+                var repetitionLevels = EncodingUtils.encodeRle(
+                        Arrays.stream(leafColumn.repetitionLevels()).mapToLong(i -> i).toArray(), false);
+                streams.put(StreamType.REPETITION_LEVELS, new StreamMetadata(StreamEncoding.RLE,
+                        leafColumn.repetitionLevels().length, repetitionLevels.length));
+                columnBuffer = ArrayUtils.addAll(columnBuffer, repetitionLevels);
+            }
+            var definitionLevels = EncodingUtils.encodeRle(
+                    Arrays.stream(leafColumn.definitionLevels()).mapToLong(i -> i).toArray(), false);
+            streams.put(StreamType.DEFINITION_LEVELS, new StreamMetadata(StreamEncoding.RLE,
+                    leafColumn.definitionLevels().length, definitionLevels.length));
+            columnBuffer = ArrayUtils.addAll(columnBuffer, definitionLevels);
+
+            var values = leafColumn.values();
+            if(values.isEmpty()){
+                continue;
+            }
+
+            switch (leafColumn.field().dataType()){
+                case BOOLEAN: {
+                    var encodedValues = EncodingUtils.encodeBooleans(values.stream().map(v -> (Boolean)v).
+                            collect(Collectors.toList()));
+                    streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.BOOLEAN_RLE, values.size(),
+                            encodedValues.length));
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodedValues);
+                    break;
+                }
+                case INT_64:
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodeLongDataStream(values.stream().
+                            map(v -> ((Number)v).longValue()).collect(Collectors.toList()), streams));
+                    break;
+                case FLOAT: {
+                    var floatValues = new float[values.size()];
+                    for(var i = 0; i < floatValues.length; i++){
+                        floatValues[i] = (Float)values.get(i);
                     }
-                    presentStream.add(isPropertyPresent);
+                    var encodedValues = EncodingUtils.encodeFloatsLE(floatValues);
+                    streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.PLAIN, values.size(),
+                            encodedValues.length));
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodedValues);
+                    break;
                 }
-                else{
-                    var isPropertyPresent = properties.containsKey(columnName);
-                    presentStream.add(isPropertyPresent);
-
-                    if(isPropertyPresent){
-                        var stringValue = (String)properties.get(columnName);
-                        if(!dictionaryStream.contains((stringValue))){
-                            var utf8EncodedData = stringValue.getBytes(StandardCharsets.UTF_8);
-                            lengthStream.add(utf8EncodedData.length);
-                            dictionaryStream.add(stringValue);
-                            var index = dictionaryStream.size() - 1;
-                            dataStream.add(index);
-                        }
-                        else{
-                            var index = dictionaryStream.indexOf(stringValue);
-                            dataStream.add(index);
-                        }
+                case STRING: {
+                    var dictionaryStream = new ArrayList<String>();
+                    var codes = new HashMap<String, Integer>();
+                    var dataStream = new ArrayList<Integer>();
+                    for(var value : values){
+                        dataStream.add(codes.computeIfAbsent((String)value, v -> {
+                            dictionaryStream.add(v);
+                            return dictionaryStream.size() - 1;
+                        }));
+                    }
+                    if(sortDictionary){
+                        var sortedCodes = sortDictionary(dictionaryStream);
+                        dataStream.replaceAll(code -> sortedCodes[code]);
                     }
+
+                    var encodedDataStream = EncodingUtils.encodeRle(dataStream.stream().mapToLong(i -> i).toArray(), false);
+                    streams.put(StreamType.DATA, new StreamMetadata(StreamEncoding.RLE, dataStream.size(),
+                            encodedDataStream.length));
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodedDataStream);
+                    var lengthStream = dictionaryStream.stream().map(v -> v.getBytes(StandardCharsets.UTF_8).length).
+                            collect(Collectors.toList());
+                    columnBuffer = ArrayUtils.addAll(columnBuffer, encodeStringDictionary(dictionaryStream, lengthStream,
+                            streams, sortDictionary));
+                    break;
                 }
+                default:
+                    throw new IllegalArgumentException("Data type of the nested field currently not supported.");
             }
+        }
 
-            throw new RuntimeException("implement");
-           //streamData.put(streamName, new LocalizedStringDictionaryStreamData(presentStream, dataStream));
+        return Pair.of(new ColumnMetadata(metadata.columnDataType(), ColumnType.PLAIN, new TreeMap<>(), null,
+                shreddedColumn.schema()), columnBuffer);
+    }
+
+    /*
+     * Required columns where every feature has a value are encoded without a present stream.
+     * */
+    private static byte[] encodePresentStream(List<Boolean> presentStream, TreeMap<StreamType, StreamMetadata> streams) throws IOException {
+        if(!presentStream.contains(false)){
+            return new byte[0];
         }
 
+        var encodedPresentStream = EncodingUtils.encodeBooleans(presentStream);
+        streams.put(StreamType.PRESENT, new StreamMetadata(StreamEncoding.BOOLEAN_RLE, presentStream.size(),
+                encodedPresentStream.length));
+        return encodedPresentStream;
+    }
+
+    private static boolean isConstant(List<?> values){
+        return !values.isEmpty() && values.stream().allMatch(value -> value.equals(values.get(0)));
+    }
+
+    /*
+     * Encodes the length and dictionary stream of a string dictionary and adds the metadata of the streams.
+     * A sorted dictionary is front coded and needs no length stream, otherwise FSST is used if smaller than the plain encoding.
+     * */
+    private static byte[] encodeStringDictionary(List<String> dictionaryStream, List<Integer> lengthStream,
+                                                 TreeMap<StreamType, StreamMetadata> streams, boolean sortedDictionary) throws IOException {
+        if(sortedDictionary){
+            var frontCodedDictionary = EncodingUtils.encodeFrontCodedDictionary(dictionaryStream, FRONT_CODING_BLOCK_SIZE);
+            streams.put(StreamType.DICTIONARY, new StreamMetadata(StreamEncoding.FRONT_CODING,
+                    dictionaryStream.size(), frontCodedDictionary.length));
+            return frontCodedDictionary;
+        }
+
+        var encodedLengthStream = EncodingUtils.encodeRle(lengthStream.stream().mapToLong(i -> i).toArray(), false);
+        var encodedDictionary = CollectionUtils.concatByteArrays(dictionaryStream.stream().
+                map(s -> s.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList()));
+        var dictionaryEncoding = StreamEncoding.PLAIN;
+
+        var fsstEncodedDictionary = FsstEncoder.encode(dictionaryStream);
+        var encodedFsstLengthStream = EncodingUtils.encodeRle(
+                Arrays.stream(fsstEncodedDictionary.compressedLengths()).mapToLong(i -> i).toArray(), false);
+        var encodedFsstDictionary = fsstEncodedDictionary.toByteArray();
+        /* the size of a rejected dictionary candidate includes its length stream */
+        if(encodedFsstLengthStream.length + encodedFsstDictionary.length <
+                encodedLengthStream.length + encodedDictionary.length){
+            ConversionMetrics.reject(StreamType.DICTIONARY, StreamEncoding.PLAIN,
+                    encodedLengthStream.length + encodedDictionary.length);
+            encodedLengthStream = encodedFsstLengthStream;
+            encodedDictionary = encodedFsstDictionary;
+            dictionaryEncoding = StreamEncoding.FSST;
+        }
+        else{
+            ConversionMetrics.reject(StreamType.DICTIONARY, StreamEncoding.FSST,
+                    encodedFsstLengthStream.length + encodedFsstDictionary.length);
+        }
+
+        streams.put(StreamType.LENGTH, new StreamMetadata(StreamEncoding.RLE,
+                dictionaryStream.size(), encodedLengthStream.length));
+        streams.put(StreamType.DICTIONARY, new StreamMetadata(dictionaryEncoding,
+                dictionaryStream.size(), encodedDictionary.length));
+        return ArrayUtils.addAll(encodedLengthStream, encodedDictionary);
+    }
+
+    private static StringLocalizedDictionaryColumnData convertLocalizedStringDictionaryColumn(ColumnMetadata metadata,
+                                                                                              LinkedHashMap<String, Object[]> propertyValues,
+                                                                                              boolean sortDictionary){
+        /* one dictionary for all properties of the group as most localized values are duplicates of the default value */
+        var streamData = new LinkedHashMap<String, LocalizedStringDictionaryStreamData>();
+        var dictionaryStream = new ArrayList<String>();
+        var codes = new HashMap<String, Integer>();
+        for(var propertyName : metadata.localizedStreams().keySet()){
+            var presentStream = new ArrayList<Boolean>();
+            var dataStream = new ArrayList<Integer>();
+            for(var value : propertyValues.get(propertyName)) {
+                if(value == null){
+                    presentStream.add(false);
+                    continue;
+                }
+
+                presentStream.add(true);
+                var stringValue = (String)value;
+                var code = codes.get(stringValue);
+                if(code == null){
+                    code = dictionaryStream.size();
+                    codes.put(stringValue, code);
+                    dictionaryStream.add(stringValue);
+                }
+                dataStream.add(code);
+            }
+
+            streamData.put(propertyName, new LocalizedStringDictionaryStreamData(presentStream, dataStream));
+        }
+
+        if(sortDictionary){
+            var sortedCodes = sortDictionary(dictionaryStream);
+            streamData.values().forEach(stream -> stream.dataStream().replaceAll(code -> sortedCodes[code]));
+        }
+
+        var lengthStream = dictionaryStream.stream().map(value -> value.getBytes(StandardCharsets.UTF_8).length).
+                collect(Collectors.toList());
         return new StringLocalizedDictionaryColumnData(metadata, lengthStream, dictionaryStream, streamData);
     }
 
-    private static StringDictionaryColumnData convertStringDictionaryColumn(String columnName, ColumnMetadata metadata, List<Feature> features){
+    /*
+     * Sorts the dictionary in lexicographic order and returns the new code for every previous code.
+     * */
+    private static int[] sortDictionary(List<String> dictionary){
+        var sortedDictionary = new ArrayList<>(dictionary);
+        Collections.sort(sortedDictionary);
+        var sortedCodes = new HashMap<String, Integer>();
+        for(var i = 0; i < sortedDictionary.size(); i++){
+            sortedCodes.put(sortedDictionary.get(i), i);
+        }
+
+        var codes = dictionary.stream().mapToInt(sortedCodes::get).toArray();
+        dictionary.clear();
+        dictionary.addAll(sortedDictionary);
+        return codes;
+    }
+
+    private static List<String> getSharedDictionary(ConversionConfig config, String layerName, String columnName){
+        var sharedDictionaries = config.sharedDictionaries();
+        if(sharedDictionaries == null || !sharedDictionaries.containsKey(layerName)){
+            return null;
+        }
+
+        return sharedDictionaries.get(layerName).get(columnName);
+    }
+
+    /*
+     * Returns null if not all values of the column are contained in the shared dictionary.
+     * */
+    private static StringDictionaryColumnData convertSharedDictionaryColumn(Object[] values,
+                                                                            List<String> sharedDictionary){
+        var codes = new HashMap<String, Integer>();
+        for(var i = 0; i < sharedDictionary.size(); i++){
+            codes.put(sharedDictionary.get(i), i);
+        }
+
+        var presentStream = new ArrayList<Boolean>();
+        var dataStream = new ArrayList<Integer>();
+        for(var value : values){
+            if(value == null){
+                presentStream.add(false);
+                continue;
+            }
+
+            var code = codes.get((String)value);
+            if(code == null){
+                return null;
+            }
+            presentStream.add(true);
+            dataStream.add(code);
+        }
+
+        var metadata = new ColumnMetadata(ColumnDataType.STRING, ColumnType.SHARED_DICTIONARY, new TreeMap<>());
+        return new StringDictionaryColumnData(metadata, presentStream, dataStream, List.of(), sharedDictionary);
+    }
+
+    private static StringDictionaryColumnData convertStringDictionaryColumn(ColumnMetadata metadata, Object[] values,
+                                                                            boolean sortDictionary){
         var presentStream = new ArrayList<Boolean>();
         var dataStream = new ArrayList<Integer>();
         var lengthStream = new ArrayList<Integer>();
         var dictionaryStream = new ArrayList<String>();
-        for(var feature : features){
-            var properties = feature.properties();
-            var propertyValue = properties.get(columnName);
-
-            if(!properties.containsKey(columnName)){
+        for(var propertyValue : values){
+            if(propertyValue == null){
                 presentStream.add(false);
                 continue;
             }
@@ -1320,19 +2165,24 @@ public class CovtConverter {
             }
         }
 
+        if(sortDictionary){
+            /* assign the codes in lexicographic order so that the dictionary can be binary searched */
+            var sortedCodes = sortDictionary(dictionaryStream);
+            dataStream.replaceAll(code -> sortedCodes[code]);
+            lengthStream.clear();
+            dictionaryStream.forEach(value -> lengthStream.add(value.getBytes(StandardCharsets.UTF_8).length));
+        }
+
         return new StringDictionaryColumnData(metadata, presentStream, dataStream, lengthStream, dictionaryStream);
     }
 
-    private static <T, U> U convertPropertyColumn(String columnName, ColumnMetadata metadata, List<Feature> features,
+    private static <T, U> U convertPropertyColumn(ColumnMetadata metadata, Object[] values,
                                                   TriFunction<ColumnMetadata, List<Boolean>, List<T>, U> columnDataFunc){
         var presentStream = new ArrayList<Boolean>();
         var dataStream = new ArrayList<T>();
 
-        for(var feature : features){
-            var properties = feature.properties();
-            var propertyValue = properties.get(columnName);
-
-            if(!properties.containsKey(columnName)){
+        for(var propertyValue : values){
+            if(propertyValue == null){
                 presentStream.add(false);
                 continue;
             }
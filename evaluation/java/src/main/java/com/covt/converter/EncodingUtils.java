@@ -17,6 +17,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
@@ -46,7 +47,8 @@ public class EncodingUtils {
             encodedValues = encodeZigZag(encodedValues);
         }
 
-        var varintBuffer = new byte[values.length * 8];
+        /* a 64-bit value needs up to 10 bytes */
+        var varintBuffer = new byte[values.length * 10];
         var i = 0;
         for(var value : encodedValues){
             i = putVarInt(value, varintBuffer, i);
@@ -119,6 +121,87 @@ public class EncodingUtils {
         return ArrayUtils.addAll(stringLength, utf8Data);
     }
 
+    /*
+     * Front codes a lexicographically sorted dictionary -> blockSize | blockLengths[] | blocks[].
+     * Every block starts with a fully stored restart value (suffixLength | suffix), the following values store
+     * the length of the prefix shared with the previous value (sharedLength | suffixLength | suffix).
+     * The block lengths enable a jump to a block without decoding the preceding blocks.
+     * */
+    public static byte[] encodeFrontCodedDictionary(List<String> sortedValues, int blockSize) throws IOException {
+        var blocks = new ByteArrayOutputStream();
+        var blockLengths = new ArrayList<Long>();
+        byte[] previousValue = null;
+        var blockStart = 0;
+        for(var i = 0; i < sortedValues.size(); i++){
+            var value = sortedValues.get(i).getBytes(StandardCharsets.UTF_8);
+            var sharedLength = 0;
+            if(i % blockSize == 0){
+                if(i > 0){
+                    blockLengths.add((long)(blocks.size() - blockStart));
+                    blockStart = blocks.size();
+                }
+            }
+            else{
+                var maxSharedLength = Math.min(value.length, previousValue.length);
+                while(sharedLength < maxSharedLength && value[sharedLength] == previousValue[sharedLength]){
+                    sharedLength++;
+                }
+                blocks.write(encodeVarints(new long[]{sharedLength}, false, false));
+            }
+
+            blocks.write(encodeVarints(new long[]{value.length - sharedLength}, false, false));
+            blocks.write(value, sharedLength, value.length - sharedLength);
+            previousValue = value;
+        }
+        if(!sortedValues.isEmpty()){
+            blockLengths.add((long)(blocks.size() - blockStart));
+        }
+
+        var header = ArrayUtils.addAll(encodeVarints(new long[]{blockSize}, false, false),
+                encodeVarints(blockLengths.stream().mapToLong(l -> l).toArray(), false, false));
+        return ArrayUtils.addAll(header, blocks.toByteArray());
+    }
+
+
+    /*
+     * Frame of reference encoding -> reference (zigzag varint) | bitWidth (u8) | packed values (LSB first).
+     * The difference of every value to the reference (minimum) is packed with the bit width of the largest difference.
+     * With delta encoding the first value is stored as zigzag varint before the reference and the deltas between
+     * the following values are packed.
+     * */
+    public static byte[] encodeForBitPacking(long[] values, boolean deltaEncode){
+        var header = new byte[0];
+        var packedValues = values;
+        if(deltaEncode && values.length > 0){
+            header = encodeVarints(new long[]{values[0]}, true, false);
+            packedValues = new long[values.length - 1];
+            for(var i = 1; i < values.length; i++){
+                packedValues[i - 1] = values[i] - values[i - 1];
+            }
+        }
+
+        var reference = Arrays.stream(packedValues).min().orElse(0);
+        var maxDifference = 0L;
+        for(var value : packedValues){
+            maxDifference |= value - reference;
+        }
+        var bitWidth = 64 - Long.numberOfLeadingZeros(maxDifference);
+
+        var buffer = new byte[(int)(((long)packedValues.length * bitWidth + 7) / 8)];
+        var bitPos = 0L;
+        for(var value : packedValues){
+            var difference = value - reference;
+            for(var i = 0; i < bitWidth; i++, bitPos++){
+                if(((difference >>> i) & 1) == 1){
+                    buffer[(int)(bitPos >>> 3)] |= 1 << (bitPos & 7);
+                }
+            }
+        }
+
+        header = ArrayUtils.addAll(header, encodeVarints(new long[]{reference}, true, false));
+        header = ArrayUtils.addAll(header, (byte)bitWidth);
+        return ArrayUtils.addAll(header, buffer);
+    }
 
     public static byte[] encodeRle(long[] values, boolean signed) throws IOException {
         var testOutputCatcher = new TestOutputCatcher();
@@ -210,6 +293,23 @@ public class EncodingUtils {
         return deltaValues;
     }
 
+    /* Encodes the first numCoordinates values of the interleaved x and y coordinates */
+    public static int[] encodeZigZagDeltaCoordinates(int[] coordinates, int numCoordinates){
+        var previousValueX = 0;
+        var previousValueY = 0;
+        var deltaValues = new int[numCoordinates];
+        for(var j = 0; j < numCoordinates; j += 2){
+            deltaValues[j] = encodeZigZag(coordinates[j] - previousValueX);
+            previousValueX = coordinates[j];
+            if(j + 1 < numCoordinates){
+                deltaValues[j + 1] = encodeZigZag(coordinates[j + 1] - previousValueY);
+                previousValueY = coordinates[j + 1];
+            }
+        }
+
+        return deltaValues;
+    }
+
     public static byte[] encodeBooleans(List<Boolean> present) throws IOException {
         BitSet bitSet = new BitSet(present.size());
         var j = 0;
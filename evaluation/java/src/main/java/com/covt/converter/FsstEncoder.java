@@ -0,0 +1,139 @@
+package com.covt.converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/*
+ * Simplified version of FSST (Fast Static Symbol Table) string compression based on
+ * "FSST: Fast Random Access String Compression" from Boncz, Neumann and Leis.
+ * A symbol table with up to 255 symbols of 1 to 8 bytes is created once per column and every string
+ * is compressed on its own, so a single dictionary entry can be decoded without decompressing the other entries.
+ * The code 255 is used as escape code which is followed by a literal byte.
+ *
+ * Layout of the encoded symbol table -> numSymbols (u8) | symbolLengths (u8[numSymbols]) | symbols (u8[])
+ * */
+public class FsstEncoder {
+    public static final int ESCAPE_CODE = 255;
+    private static final int MAX_NUM_SYMBOLS = 255;
+    private static final int MAX_SYMBOL_LENGTH = 8;
+    private static final int NUM_GENERATIONS = 5;
+
+    private FsstEncoder(){}
+
+    public record FsstEncodedStrings(byte[] symbolTable, byte[] compressedData, int[] compressedLengths){
+        /* Symbol table followed by the compressed strings like stored in the dictionary stream */
+        public byte[] toByteArray(){
+            var buffer = Arrays.copyOf(symbolTable, symbolTable.length + compressedData.length);
+            System.arraycopy(compressedData, 0, buffer, symbolTable.length, compressedData.length);
+            return buffer;
+        }
+    }
+
+    public static FsstEncodedStrings encode(List<String> values){
+        /* ISO-8859-1 maps every byte to exactly one char which simplifies the matching of the symbols */
+        var latin1Values = values.stream().map(v -> new String(v.getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.ISO_8859_1)).toList();
+        var symbolTable = buildSymbolTable(latin1Values);
+        var symbolIndex = createSymbolIndex(symbolTable);
+
+        var compressedData = new ByteArrayOutputStream();
+        var compressedLengths = new int[latin1Values.size()];
+        for(var i = 0; i < latin1Values.size(); i++){
+            var value = latin1Values.get(i);
+            var startSize = compressedData.size();
+            var pos = 0;
+            while(pos < value.length()){
+                var symbol = findLongestSymbol(symbolIndex, value, pos);
+                if(symbol == null){
+                    compressedData.write(ESCAPE_CODE);
+                    compressedData.write(value.charAt(pos));
+                    pos++;
+                }
+                else{
+                    compressedData.write(symbol.code());
+                    pos += symbol.value().length();
+                }
+            }
+            compressedLengths[i] = compressedData.size() - startSize;
+        }
+
+        return new FsstEncodedStrings(encodeSymbolTable(symbolTable), compressedData.toByteArray(), compressedLengths);
+    }
+
+    private record Symbol(String value, int code){}
+
+    /* Iteratively refines the table by counting the symbols and the concatenations of consecutive symbols */
+    private static List<String> buildSymbolTable(List<String> values){
+        var symbolTable = new ArrayList<String>();
+        for(var generation = 0; generation < NUM_GENERATIONS; generation++){
+            var symbolIndex = createSymbolIndex(symbolTable);
+            var counts = new HashMap<String, Integer>();
+            for(var value : values){
+                var pos = 0;
+                String previousSymbol = null;
+                while(pos < value.length()){
+                    var symbol = findLongestSymbol(symbolIndex, value, pos);
+                    var currentSymbol = symbol != null ? symbol.value() : value.substring(pos, pos + 1);
+                    counts.merge(currentSymbol, 1, Integer::sum);
+                    if(previousSymbol != null && previousSymbol.length() + currentSymbol.length() <= MAX_SYMBOL_LENGTH){
+                        counts.merge(previousSymbol + currentSymbol, 1, Integer::sum);
+                    }
+                    previousSymbol = currentSymbol;
+                    pos += currentSymbol.length();
+                }
+            }
+
+            /* A symbol which is only used once saves no space compared to the escaped literals */
+            symbolTable = counts.entrySet().stream().filter(c -> c.getValue() > 1).sorted((a, b) -> {
+                var gainA = a.getValue() * a.getKey().length();
+                var gainB = b.getValue() * b.getKey().length();
+                if(gainA != gainB){
+                    return Integer.compare(gainB, gainA);
+                }
+                return a.getKey().compareTo(b.getKey());
+            }).limit(MAX_NUM_SYMBOLS).map(Map.Entry::getKey).collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+
+        return symbolTable;
+    }
+
+    /* Symbols grouped by the first byte and sorted by descending length for a greedy longest match */
+    private static Map<Character, List<Symbol>> createSymbolIndex(List<String> symbolTable){
+        var symbolIndex = new HashMap<Character, List<Symbol>>();
+        for(var i = 0; i < symbolTable.size(); i++){
+            var symbol = symbolTable.get(i);
+            symbolIndex.computeIfAbsent(symbol.charAt(0), k -> new ArrayList<>()).add(new Symbol(symbol, i));
+        }
+        for(var symbols : symbolIndex.values()){
+            symbols.sort((a, b) -> Integer.compare(b.value().length(), a.value().length()));
+        }
+        return symbolIndex;
+    }
+
+    private static Symbol findLongestSymbol(Map<Character, List<Symbol>> symbolIndex, String value, int pos){
+        var candidates = symbolIndex.get(value.charAt(pos));
+        if(candidates == null){
+            return null;
+        }
+
+        for(var candidate : candidates){
+            if(value.startsWith(candidate.value(), pos)){
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] encodeSymbolTable(List<String> symbolTable){
+        var buffer = new ByteArrayOutputStream();
+        buffer.write(symbolTable.size());
+        for(var symbol : symbolTable){
+            buffer.write(symbol.length());
+        }
+        for(var symbol : symbolTable){
+            buffer.writeBytes(symbol.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return buffer.toByteArray();
+    }
+}
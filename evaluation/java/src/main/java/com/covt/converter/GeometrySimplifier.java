@@ -0,0 +1,126 @@
+package com.covt.converter;
+
+import com.covt.converter.mvt.Feature;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.Puntal;
+import org.locationtech.jts.geom.util.GeometryFixer;
+import org.locationtech.jts.precision.GeometryPrecisionReducer;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.locationtech.jts.simplify.VWSimplifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Prepares the geometries of a tile before the encoding by removing detail which is not visible at the zoom level
+ * of the tile:
+ * - the coordinates are snapped to a grid which is coarser than the tile extent
+ * - duplicate and collinear vertices are removed
+ * - the lines and polygons are simplified within a tolerance with the Douglas-Peucker or Visvalingam-Whyatt algorithm
+ * The rules are specified per layer and apply up to the specified max zoom level. Polygons stay valid, polygons and
+ * lines which collapse are removed from the layer.
+ * */
+public class GeometrySimplifier {
+    private static final String ALL_LAYERS = "*";
+
+    public enum Algorithm {
+        DOUGLAS_PEUCKER,
+        VISVALINGAM_WHYATT
+    }
+
+    /*
+     * @param gridSize size of the grid cells in tile coordinates, 1 keeps the precision of the tile extent
+     * @param tolerance max distance in tile coordinates respectively the square root of the min triangle area for
+     *                  Visvalingam-Whyatt, 0 only removes the collinear vertices
+     * */
+    public record Options(int gridSize, double tolerance, Algorithm algorithm){}
+
+    /* rules per layer ordered by the max zoom level */
+    private final Map<String, TreeMap<Integer, Options>> rules = new HashMap<>();
+
+    /*
+     * Adds a rule for the specified layer which is applied to all tiles with a zoom level lower or equal maxZoom.
+     * If multiple rules match the rule with the lowest max zoom is used.
+     * */
+    public GeometrySimplifier addRule(String layerName, int maxZoom, Options options){
+        if(options.gridSize() < 1 || options.tolerance() < 0){
+            throw new IllegalArgumentException("The grid size has to be positive and the tolerance not negative.");
+        }
+
+        rules.computeIfAbsent(layerName, k -> new TreeMap<>()).put(maxZoom, options);
+        return this;
+    }
+
+    /* Adds a rule which is applied to all layers without a rule for the layer */
+    public GeometrySimplifier addRule(int maxZoom, Options options){
+        return addRule(ALL_LAYERS, maxZoom, options);
+    }
+
+    /* Returns the rules in a deterministic order which is used for the fingerprint of a ConversionConfig */
+    String describeRules(){
+        return new TreeMap<>(rules).toString();
+    }
+
+    public List<Feature> simplify(String layerName, int zoom, List<Feature> features){
+        var options = getOptions(layerName, zoom);
+        if(options == null){
+            return features;
+        }
+
+        var precisionReducer = new GeometryPrecisionReducer(new PrecisionModel(1d / options.gridSize()));
+        var simplifiedFeatures = new ArrayList<Feature>(features.size());
+        for(var feature : features){
+            var geometry = simplify(feature.geometry(), options, precisionReducer);
+            if(geometry.isEmpty()){
+                continue;
+            }
+
+            simplifiedFeatures.add(geometry == feature.geometry() ? feature :
+                    new Feature(feature.id(), geometry, feature.properties()));
+        }
+
+        return simplifiedFeatures;
+    }
+
+    private Options getOptions(String layerName, int zoom){
+        var layerRules = rules.getOrDefault(layerName, rules.get(ALL_LAYERS));
+        if(layerRules == null){
+            return null;
+        }
+
+        var rule = layerRules.ceilingEntry(zoom);
+        return rule != null ? rule.getValue() : null;
+    }
+
+    private static Geometry simplify(Geometry geometry, Options options, GeometryPrecisionReducer precisionReducer){
+        if(geometry instanceof Puntal){
+            return options.gridSize() == 1 ? geometry : precisionReducer.reduce(geometry);
+        }
+
+        /* the simplification removes the collinear vertices, the precision reducer the duplicate vertices */
+        Geometry simplifiedGeometry;
+        if(options.algorithm() == Algorithm.VISVALINGAM_WHYATT){
+            simplifiedGeometry = VWSimplifier.simplify(geometry, options.tolerance());
+        }
+        else if(geometry instanceof Polygonal){
+            simplifiedGeometry = TopologyPreservingSimplifier.simplify(geometry, options.tolerance());
+        }
+        else{
+            simplifiedGeometry = DouglasPeuckerSimplifier.simplify(geometry, options.tolerance());
+        }
+
+        /* snapping to the grid can lead to collapsed or self intersecting polygons which are fixed by the reducer */
+        simplifiedGeometry = precisionReducer.reduce(simplifiedGeometry);
+        if(geometry instanceof Polygonal && !simplifiedGeometry.isValid()){
+            simplifiedGeometry = GeometryFixer.fix(simplifiedGeometry);
+        }
+
+        return simplifiedGeometry;
+    }
+}
@@ -0,0 +1,198 @@
+package com.covt.converter;
+
+import com.covt.converter.mvt.Feature;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Shreds the values of a nested property into one column per leaf field based on the repetition and definition
+ * levels of "Dremel: Interactive Analysis of Web-Scale Datasets" from Melnik et al.
+ * All fields are optional:
+ * - a struct increases the definition level by one if it is not null
+ * - a list increases the definition level by one if it is not null and by another one if it is not empty,
+ *   every list of a path increases the max repetition level by one
+ * - a leaf increases the definition level by one if the value is not null, so only values with the max
+ *   definition level are stored in the data stream
+ * Supported leaf types are String, Boolean, Integer, Long and Float. The schema is derived from the values of all
+ * features, fields which are null for all features are not part of the schema.
+ * */
+public final class NestedColumnEncoder {
+
+    private NestedColumnEncoder(){}
+
+    public record LeafColumn(NestedField field, int maxRepetitionLevel, int[] repetitionLevels, int[] definitionLevels,
+                             List<Object> values){}
+
+    public record ShreddedColumn(NestedField schema, List<LeafColumn> leafColumns){}
+
+    public static ShreddedColumn shred(String columnName, List<Feature> features){
+        return shred(columnName, features.stream().map(feature -> feature.properties().get(columnName)).toArray());
+    }
+
+    /* @param values value of the nested property per feature, null if the feature has no value */
+    public static ShreddedColumn shred(String columnName, Object[] values){
+        SchemaNode rootNode = null;
+        for(var value : values){
+            rootNode = addToSchema(rootNode, value, columnName);
+        }
+        var schema = rootNode != null ? toNestedField(columnName, rootNode) : null;
+        if(schema == null){
+            throw new IllegalArgumentException(String.format("The nested property %s contains no values.", columnName));
+        }
+
+        var leafColumns = new ArrayList<LeafColumn>();
+        for(var path : schema.getLeafPaths()){
+            var maxRepetitionLevel = (int)path.stream().filter(field -> field.dataType() == ColumnDataType.LIST).count();
+            var levels = new LevelCollector();
+            for(var value : values){
+                shred(value, path, 0, 0, 0, 0, levels);
+            }
+            leafColumns.add(new LeafColumn(path.get(path.size() - 1), maxRepetitionLevel,
+                    levels.repetitionLevels.stream().mapToInt(i -> i).toArray(),
+                    levels.definitionLevels.stream().mapToInt(i -> i).toArray(), levels.values));
+        }
+
+        return new ShreddedColumn(schema, leafColumns);
+    }
+
+    private static void shred(Object value, List<NestedField> path, int depth, int repetitionLevel,
+                              int definitionLevel, int numLists, LevelCollector levels){
+        if(value == null){
+            levels.add(repetitionLevel, definitionLevel, null);
+            return;
+        }
+
+        var field = path.get(depth);
+        definitionLevel++;
+        if(field.dataType() == ColumnDataType.STRUCT){
+            var childValue = ((Map<?, ?>)value).get(path.get(depth + 1).name());
+            shred(childValue, path, depth + 1, repetitionLevel, definitionLevel, numLists, levels);
+        }
+        else if(field.dataType() == ColumnDataType.LIST){
+            var elements = (List<?>)value;
+            if(elements.isEmpty()){
+                levels.add(repetitionLevel, definitionLevel, null);
+                return;
+            }
+
+            /* the first element continues the repetition level of the parent, the following repeat this list */
+            numLists++;
+            for(var i = 0; i < elements.size(); i++){
+                shred(elements.get(i), path, depth + 1, i == 0 ? repetitionLevel : numLists, definitionLevel + 1,
+                        numLists, levels);
+            }
+        }
+        else{
+            levels.add(repetitionLevel, definitionLevel, value);
+        }
+    }
+
+    private static SchemaNode addToSchema(SchemaNode node, Object value, String name){
+        if(value == null){
+            return node;
+        }
+
+        var dataType = getDataType(value, name);
+        if(node == null){
+            node = new SchemaNode(dataType);
+        }
+        else if(node.dataType != dataType){
+            throw new IllegalArgumentException(String.format("The field %s has values of different data types.", name));
+        }
+
+        if(value instanceof Map<?, ?> struct){
+            for(var field : struct.entrySet()){
+                var fieldName = (String)field.getKey();
+                node.fields.put(fieldName, addToSchema(node.fields.get(fieldName), field.getValue(), fieldName));
+            }
+        }
+        else if(value instanceof List<?> list){
+            for(var element : list){
+                node.element = addToSchema(node.element, element, name);
+            }
+        }
+
+        return node;
+    }
+
+    /*
+     * Fields without values are removed and a struct without fields is removed as it would have no leaf field.
+     * The elements of a list which is always empty are stored as strings.
+     * */
+    private static NestedField toNestedField(String name, SchemaNode node){
+        if(node == null){
+            return null;
+        }
+
+        var children = new ArrayList<NestedField>();
+        if(node.dataType == ColumnDataType.STRUCT){
+            for(var field : node.fields.entrySet()){
+                var child = toNestedField(field.getKey(), field.getValue());
+                if(child != null){
+                    children.add(child);
+                }
+            }
+            if(children.isEmpty()){
+                return null;
+            }
+        }
+        else if(node.dataType == ColumnDataType.LIST){
+            var element = toNestedField(null, node.element);
+            children.add(element != null ? element : new NestedField(null, ColumnDataType.STRING, List.of(),
+                    new TreeMap<>()));
+        }
+
+        return new NestedField(name, node.dataType, children, new TreeMap<>());
+    }
+
+    private static ColumnDataType getDataType(Object value, String name){
+        if(value instanceof Map){
+            return ColumnDataType.STRUCT;
+        }
+        else if(value instanceof List){
+            return ColumnDataType.LIST;
+        }
+        else if(value instanceof String){
+            return ColumnDataType.STRING;
+        }
+        else if(value instanceof Boolean){
+            return ColumnDataType.BOOLEAN;
+        }
+        else if(value instanceof Integer || value instanceof Long){
+            return ColumnDataType.INT_64;
+        }
+        else if(value instanceof Float){
+            return ColumnDataType.FLOAT;
+        }
+
+        throw new IllegalArgumentException(String.format("Data type of the nested field %s currently not supported.", name));
+    }
+
+    private static class SchemaNode {
+        private final ColumnDataType dataType;
+        private final LinkedHashMap<String, SchemaNode> fields = new LinkedHashMap<>();
+        private SchemaNode element;
+
+        private SchemaNode(ColumnDataType dataType){
+            this.dataType = dataType;
+        }
+    }
+
+    private static class LevelCollector {
+        private final List<Integer> repetitionLevels = new ArrayList<>();
+        private final List<Integer> definitionLevels = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+
+        private void add(int repetitionLevel, int definitionLevel, Object value){
+            repetitionLevels.add(repetitionLevel);
+            definitionLevels.add(definitionLevel);
+            if(value != null){
+                values.add(value);
+            }
+        }
+    }
+}
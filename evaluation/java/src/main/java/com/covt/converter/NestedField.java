@@ -0,0 +1,54 @@
+package com.covt.converter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/*
+ * Node of the schema of a nested property column. A struct has a child per field, a list has exactly one child
+ * without a name which describes the elements of the list and a leaf has no children but the streams of its values.
+ * */
+public record NestedField(String name, ColumnDataType dataType, List<NestedField> children,
+                          TreeMap<StreamType, StreamMetadata> streams){
+
+    public boolean isLeaf(){
+        return dataType != ColumnDataType.STRUCT && dataType != ColumnDataType.LIST;
+    }
+
+    /*
+     * Returns the paths from this field to all leaf fields in preorder, which is the order in which the streams of the
+     * leaf fields are stored.
+     * */
+    public List<List<NestedField>> getLeafPaths(){
+        var leafPaths = new ArrayList<List<NestedField>>();
+        addLeafPaths(new ArrayList<>(), leafPaths);
+        return leafPaths;
+    }
+
+    /*
+     * Name of the leaf field which is referenced in a projection e.g. lanes.width, the elements of a list have no name.
+     * */
+    public static String getPathName(String columnName, List<NestedField> path){
+        var pathName = new StringBuilder(columnName);
+        for(var i = 1; i < path.size(); i++){
+            var name = path.get(i).name();
+            if(name != null){
+                pathName.append('.').append(name);
+            }
+        }
+        return pathName.toString();
+    }
+
+    private void addLeafPaths(List<NestedField> parentPath, List<List<NestedField>> leafPaths){
+        var path = new ArrayList<>(parentPath);
+        path.add(this);
+        if(isLeaf()){
+            leafPaths.add(path);
+            return;
+        }
+
+        for(var child : children){
+            child.addLeafPaths(path, leafPaths);
+        }
+    }
+}
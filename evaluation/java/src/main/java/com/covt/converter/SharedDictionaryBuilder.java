@@ -0,0 +1,77 @@
+package com.covt.converter;
+
+import com.covt.converter.mvt.Layer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+ * Collects the string values of the layers while converting a tileset to build tileset wide dictionaries.
+ * Only low cardinality columns like class or subclass are included, columns with more distinct values than
+ * the specified maximum like names are still dictionary encoded per tile.
+ * */
+public class SharedDictionaryBuilder {
+    private final int maxDictionarySize;
+    private final Map<String, Map<String, Map<String, Integer>>> valueCounts = new LinkedHashMap<>();
+    private final Map<String, Set<String>> exceededColumns = new HashMap<>();
+
+    public SharedDictionaryBuilder(int maxDictionarySize){
+        this.maxDictionarySize = maxDictionarySize;
+    }
+
+    public void addTile(List<Layer> layers){
+        for(var layer : layers){
+            var layerValueCounts = valueCounts.computeIfAbsent(layer.name(), k -> new LinkedHashMap<>());
+            var layerExceededColumns = exceededColumns.computeIfAbsent(layer.name(), k -> new HashSet<>());
+            for(var feature : layer.features()){
+                for(var property : feature.properties().entrySet()){
+                    if(!(property.getValue() instanceof String value)){
+                        continue;
+                    }
+
+                    var columnName = property.getKey();
+                    if(layerExceededColumns.contains(columnName)){
+                        continue;
+                    }
+
+                    var columnValueCounts = layerValueCounts.computeIfAbsent(columnName, k -> new HashMap<>());
+                    columnValueCounts.merge(value, 1, Integer::sum);
+                    if(columnValueCounts.size() > maxDictionarySize){
+                        layerValueCounts.remove(columnName);
+                        layerExceededColumns.add(columnName);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Returns the dictionaries per layer and column. The most frequent values get the smallest codes.
+     * */
+    public Map<String, Map<String, List<String>>> build(){
+        var sharedDictionaries = new LinkedHashMap<String, Map<String, List<String>>>();
+        for(var layer : valueCounts.entrySet()){
+            var layerDictionaries = new LinkedHashMap<String, List<String>>();
+            for(var column : layer.getValue().entrySet()){
+                var values = column.getValue().entrySet().stream().sorted(
+                        Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()).
+                                thenComparing(Map.Entry.comparingByKey())).
+                        map(Map.Entry::getKey).collect(Collectors.toCollection(ArrayList::new));
+                layerDictionaries.put(column.getKey(), values);
+            }
+
+            if(!layerDictionaries.isEmpty()){
+                sharedDictionaries.put(layer.getKey(), layerDictionaries);
+            }
+        }
+
+        return sharedDictionaries;
+    }
+}
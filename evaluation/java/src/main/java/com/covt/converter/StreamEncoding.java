@@ -12,5 +12,15 @@ public enum StreamEncoding {
     BYTE_RLE,
     /* Without ZigZag encoding so only positive integers */
     FAST_PFOR_DELTA,
-    FAST_PFOR_DELTA_ZIG_ZAG
+    FAST_PFOR_DELTA_ZIG_ZAG,
+    /* Symbol table based string compression, the length stream contains the size of the compressed strings */
+    FSST,
+    /* Sorted dictionary stored in blocks of shared prefix lengths and suffixes, no length stream is used */
+    FRONT_CODING,
+    /* All values of the stream are equal so only a single value is stored */
+    CONSTANT,
+    /* Values minus the minimum bit packed with the width of the largest difference */
+    FOR_BIT_PACKING,
+    /* Deltas of consecutive values minus the minimum delta bit packed, the first value is stored separately */
+    DELTA_FOR_BIT_PACKING
 }
@@ -1,4 +1,12 @@
 package com.covt.converter;
 
-public record StreamMetadata(StreamEncoding streamEncoding, int numValues, int byteLength){ }
+/*
+ * The scale is only part of the metadata of the z- and m-value streams, the values are stored as the integers
+ * value * 10^scale.
+ * */
+public record StreamMetadata(StreamEncoding streamEncoding, int numValues, int byteLength, int scale){
+    public StreamMetadata(StreamEncoding streamEncoding, int numValues, int byteLength){
+        this(streamEncoding, numValues, byteLength, 0);
+    }
+}
 
@@ -12,5 +12,10 @@ public enum StreamType {
     VERTEX_OFFSETS,
     VERTEX_BUFFER,
     Z_VALUE,
-    M_VALUE
+    M_VALUE,
+    PERMUTATION,
+    INDEX_BUFFER,
+    /* Dremel levels of the leaf fields of a nested property column */
+    REPETITION_LEVELS,
+    DEFINITION_LEVELS
 }
@@ -0,0 +1,464 @@
+package com.covt.converter;
+
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * Ear clipping triangulation of polygons with holes based on the earcut algorithm of Mapbox
+ * (https://github.com/mapbox/earcut, ISC license) without the z-order hashing of the vertices.
+ * The returned indices reference the vertices of the polygon in the order of the rings without the closing vertex,
+ * which matches the order of the vertices in the geometry column of a COVT tile.
+ * */
+public class Triangulator {
+
+    private Triangulator(){}
+
+    public static List<Integer> triangulate(Polygon polygon){
+        var numRings = polygon.getNumInteriorRing() + 1;
+        var holeIndices = new int[numRings - 1];
+        var numVertices = 0;
+        for(var i = 0; i < numRings; i++){
+            var ring = i == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(i - 1);
+            if(i > 0){
+                holeIndices[i - 1] = numVertices;
+            }
+            numVertices += ring.getNumPoints() - 1;
+        }
+
+        var vertices = new double[numVertices * 2];
+        var offset = 0;
+        for(var i = 0; i < numRings; i++){
+            LinearRing ring = i == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(i - 1);
+            var coordinates = ring.getCoordinates();
+            for(var j = 0; j < coordinates.length - 1; j++){
+                vertices[offset++] = coordinates[j].x;
+                vertices[offset++] = coordinates[j].y;
+            }
+        }
+
+        return triangulate(vertices, holeIndices);
+    }
+
+    /*
+     * @param vertices flat x, y coordinates of the rings without the closing vertex
+     * @param holeIndices index of the first vertex of every hole
+     * */
+    public static List<Integer> triangulate(double[] vertices, int[] holeIndices){
+        var triangles = new ArrayList<Integer>();
+        var outerLength = holeIndices.length > 0 ? holeIndices[0] * 2 : vertices.length;
+        var outerNode = linkedList(vertices, 0, outerLength, true);
+        if(outerNode == null || outerNode.next == outerNode.prev){
+            return triangles;
+        }
+
+        if(holeIndices.length > 0){
+            outerNode = eliminateHoles(vertices, holeIndices, outerNode);
+        }
+
+        earcutLinked(outerNode, triangles, 0);
+        return triangles;
+    }
+
+    private static final class Node {
+        private final int i;
+        private final double x;
+        private final double y;
+        private Node prev;
+        private Node next;
+        private boolean steiner;
+
+        private Node(int i, double x, double y){
+            this.i = i;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /* creates a circular doubly linked list from the vertices in the specified winding order */
+    private static Node linkedList(double[] vertices, int start, int end, boolean clockwise){
+        Node last = null;
+        if(clockwise == (signedArea(vertices, start, end) > 0)){
+            for(var i = start; i < end; i += 2){
+                last = insertNode(i / 2, vertices[i], vertices[i + 1], last);
+            }
+        }
+        else{
+            for(var i = end - 2; i >= start; i -= 2){
+                last = insertNode(i / 2, vertices[i], vertices[i + 1], last);
+            }
+        }
+
+        if(last != null && equals(last, last.next)){
+            removeNode(last);
+            last = last.next;
+        }
+
+        return last;
+    }
+
+    /* removes duplicate and collinear vertices */
+    private static Node filterPoints(Node start, Node end){
+        if(start == null){
+            return null;
+        }
+        if(end == null){
+            end = start;
+        }
+
+        var p = start;
+        boolean again;
+        do{
+            again = false;
+            if(!p.steiner && (equals(p, p.next) || area(p.prev, p, p.next) == 0)){
+                removeNode(p);
+                p = end = p.prev;
+                if(p == p.next){
+                    break;
+                }
+                again = true;
+            }
+            else{
+                p = p.next;
+            }
+        } while(again || p != end);
+
+        return end;
+    }
+
+    private static void earcutLinked(Node ear, List<Integer> triangles, int pass){
+        if(ear == null){
+            return;
+        }
+
+        var stop = ear;
+        while(ear.prev != ear.next){
+            var prev = ear.prev;
+            var next = ear.next;
+
+            if(isEar(ear)){
+                triangles.add(prev.i);
+                triangles.add(ear.i);
+                triangles.add(next.i);
+                removeNode(ear);
+
+                /* skipping the next vertex leads to less sliver triangles */
+                ear = next.next;
+                stop = next.next;
+                continue;
+            }
+
+            ear = next;
+
+            /* no ear found in a full loop -> filter the vertices, cure self intersections or split the polygon */
+            if(ear == stop){
+                if(pass == 0){
+                    earcutLinked(filterPoints(ear, null), triangles, 1);
+                }
+                else if(pass == 1){
+                    ear = cureLocalIntersections(filterPoints(ear, null), triangles);
+                    earcutLinked(ear, triangles, 2);
+                }
+                else if(pass == 2){
+                    splitEarcut(ear, triangles);
+                }
+                break;
+            }
+        }
+    }
+
+    private static boolean isEar(Node ear){
+        var a = ear.prev;
+        var b = ear;
+        var c = ear.next;
+
+        /* reflex vertex -> can't be an ear */
+        if(area(a, b, c) >= 0){
+            return false;
+        }
+
+        /* no other vertex is allowed to be inside the ear */
+        var p = ear.next.next;
+        while(p != ear.prev){
+            if(pointInTriangle(a.x, a.y, b.x, b.y, c.x, c.y, p.x, p.y) && area(p.prev, p, p.next) >= 0){
+                return false;
+            }
+            p = p.next;
+        }
+
+        return true;
+    }
+
+    private static Node cureLocalIntersections(Node start, List<Integer> triangles){
+        var p = start;
+        do{
+            var a = p.prev;
+            var b = p.next.next;
+
+            if(!equals(a, b) && intersects(a, p, p.next, b) && locallyInside(a, b) && locallyInside(b, a)){
+                triangles.add(a.i);
+                triangles.add(p.i);
+                triangles.add(b.i);
+
+                removeNode(p);
+                removeNode(p.next);
+                p = start = b;
+            }
+            p = p.next;
+        } while(p != start);
+
+        return filterPoints(p, null);
+    }
+
+    /* splits the polygon along a valid diagonal and triangulates both halves */
+    private static void splitEarcut(Node start, List<Integer> triangles){
+        var a = start;
+        do{
+            var b = a.next.next;
+            while(b != a.prev){
+                if(a.i != b.i && isValidDiagonal(a, b)){
+                    var c = splitPolygon(a, b);
+                    a = filterPoints(a, a.next);
+                    c = filterPoints(c, c.next);
+
+                    earcutLinked(a, triangles, 0);
+                    earcutLinked(c, triangles, 0);
+                    return;
+                }
+                b = b.next;
+            }
+            a = a.next;
+        } while(a != start);
+    }
+
+    /* links every hole into the outer ring to produce a single ring without holes */
+    private static Node eliminateHoles(double[] vertices, int[] holeIndices, Node outerNode){
+        var queue = new ArrayList<Node>();
+        for(var i = 0; i < holeIndices.length; i++){
+            var start = holeIndices[i] * 2;
+            var end = i < holeIndices.length - 1 ? holeIndices[i + 1] * 2 : vertices.length;
+            var list = linkedList(vertices, start, end, false);
+            if(list == null){
+                continue;
+            }
+            if(list == list.next){
+                list.steiner = true;
+            }
+            queue.add(getLeftmost(list));
+        }
+
+        queue.sort(Comparator.comparingDouble(n -> n.x));
+        for(var hole : queue){
+            outerNode = eliminateHole(hole, outerNode);
+        }
+
+        return outerNode;
+    }
+
+    private static Node eliminateHole(Node hole, Node outerNode){
+        var bridge = findHoleBridge(hole, outerNode);
+        if(bridge == null){
+            return outerNode;
+        }
+
+        var bridgeReverse = splitPolygon(bridge, hole);
+        filterPoints(bridgeReverse, bridgeReverse.next);
+        return filterPoints(bridge, bridge.next);
+    }
+
+    /* David Eberly's algorithm for finding a bridge between a hole and the outer ring */
+    private static Node findHoleBridge(Node hole, Node outerNode){
+        var p = outerNode;
+        var hx = hole.x;
+        var hy = hole.y;
+        var qx = Double.NEGATIVE_INFINITY;
+        Node m = null;
+
+        /* find a segment intersected by a ray from the hole's leftmost vertex to the left */
+        do{
+            if(hy <= p.y && hy >= p.next.y && p.next.y != p.y){
+                var x = p.x + (hy - p.y) * (p.next.x - p.x) / (p.next.y - p.y);
+                if(x <= hx && x > qx){
+                    qx = x;
+                    m = p.x < p.next.x ? p : p.next;
+                    if(x == hx){
+                        return m;
+                    }
+                }
+            }
+            p = p.next;
+        } while(p != outerNode);
+
+        if(m == null){
+            return null;
+        }
+
+        /* look for vertices inside the triangle of hole vertex, segment intersection and endpoint */
+        var stop = m;
+        var mx = m.x;
+        var my = m.y;
+        var tanMin = Double.POSITIVE_INFINITY;
+        p = m;
+        do{
+            if(hx >= p.x && p.x >= mx && hx != p.x &&
+                    pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, p.x, p.y)){
+                var tan = Math.abs(hy - p.y) / (hx - p.x);
+                if(locallyInside(p, hole) && (tan < tanMin ||
+                        (tan == tanMin && (p.x > m.x || (p.x == m.x && sectorContainsSector(m, p)))))){
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = p.next;
+        } while(p != stop);
+
+        return m;
+    }
+
+    private static boolean sectorContainsSector(Node m, Node p){
+        return area(m.prev, m, p.prev) < 0 && area(p.next, m, m.next) < 0;
+    }
+
+    private static Node getLeftmost(Node start){
+        var p = start;
+        var leftmost = start;
+        do{
+            if(p.x < leftmost.x || (p.x == leftmost.x && p.y < leftmost.y)){
+                leftmost = p;
+            }
+            p = p.next;
+        } while(p != start);
+
+        return leftmost;
+    }
+
+    private static boolean pointInTriangle(double ax, double ay, double bx, double by, double cx, double cy,
+                                           double px, double py){
+        return (cx - px) * (ay - py) >= (ax - px) * (cy - py) &&
+                (ax - px) * (by - py) >= (bx - px) * (ay - py) &&
+                (bx - px) * (cy - py) >= (cx - px) * (by - py);
+    }
+
+    private static boolean isValidDiagonal(Node a, Node b){
+        return a.next.i != b.i && a.prev.i != b.i && !intersectsPolygon(a, b) &&
+                (locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b) &&
+                        (area(a.prev, a, b.prev) != 0 || area(a, b.prev, b) != 0) ||
+                        equals(a, b) && area(a.prev, a, a.next) > 0 && area(b.prev, b, b.next) > 0);
+    }
+
+    private static double area(Node p, Node q, Node r){
+        return (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
+    }
+
+    private static boolean equals(Node p1, Node p2){
+        return p1.x == p2.x && p1.y == p2.y;
+    }
+
+    private static boolean intersects(Node p1, Node q1, Node p2, Node q2){
+        var o1 = Math.signum(area(p1, q1, p2));
+        var o2 = Math.signum(area(p1, q1, q2));
+        var o3 = Math.signum(area(p2, q2, p1));
+        var o4 = Math.signum(area(p2, q2, q1));
+
+        if(o1 != o2 && o3 != o4){
+            return true;
+        }
+
+        /* collinear cases */
+        return (o1 == 0 && onSegment(p1, p2, q1)) || (o2 == 0 && onSegment(p1, q2, q1)) ||
+                (o3 == 0 && onSegment(p2, p1, q2)) || (o4 == 0 && onSegment(p2, q1, q2));
+    }
+
+    private static boolean onSegment(Node p, Node q, Node r){
+        return q.x <= Math.max(p.x, r.x) && q.x >= Math.min(p.x, r.x) &&
+                q.y <= Math.max(p.y, r.y) && q.y >= Math.min(p.y, r.y);
+    }
+
+    private static boolean intersectsPolygon(Node a, Node b){
+        var p = a;
+        do{
+            if(p.i != a.i && p.next.i != a.i && p.i != b.i && p.next.i != b.i && intersects(p, p.next, a, b)){
+                return true;
+            }
+            p = p.next;
+        } while(p != a);
+
+        return false;
+    }
+
+    private static boolean locallyInside(Node a, Node b){
+        return area(a.prev, a, a.next) < 0 ?
+                area(a, b, a.next) >= 0 && area(a, a.prev, b) >= 0 :
+                area(a, b, a.prev) < 0 || area(a, a.next, b) < 0;
+    }
+
+    private static boolean middleInside(Node a, Node b){
+        var p = a;
+        var inside = false;
+        var px = (a.x + b.x) / 2;
+        var py = (a.y + b.y) / 2;
+        do{
+            if(((p.y > py) != (p.next.y > py)) && p.next.y != p.y &&
+                    (px < (p.next.x - p.x) * (py - p.y) / (p.next.y - p.y) + p.x)){
+                inside = !inside;
+            }
+            p = p.next;
+        } while(p != a);
+
+        return inside;
+    }
+
+    /* links two vertices with a bridge, returns the second copy of b */
+    private static Node splitPolygon(Node a, Node b){
+        var a2 = new Node(a.i, a.x, a.y);
+        var b2 = new Node(b.i, b.x, b.y);
+        var an = a.next;
+        var bp = b.prev;
+
+        a.next = b;
+        b.prev = a;
+
+        a2.next = an;
+        an.prev = a2;
+
+        b2.next = a2;
+        a2.prev = b2;
+
+        bp.next = b2;
+        b2.prev = bp;
+
+        return b2;
+    }
+
+    private static Node insertNode(int i, double x, double y, Node last){
+        var p = new Node(i, x, y);
+        if(last == null){
+            p.prev = p;
+            p.next = p;
+        }
+        else{
+            p.next = last.next;
+            p.prev = last;
+            last.next.prev = p;
+            last.next = p;
+        }
+        return p;
+    }
+
+    private static void removeNode(Node p){
+        p.next.prev = p.prev;
+        p.prev.next = p.next;
+    }
+
+    private static double signedArea(double[] vertices, int start, int end){
+        var sum = 0d;
+        for(int i = start, j = end - 2; i < end; i += 2){
+            sum += (vertices[j] - vertices[i]) * (vertices[i + 1] + vertices[j + 1]);
+            j = i;
+        }
+        return sum;
+    }
+}
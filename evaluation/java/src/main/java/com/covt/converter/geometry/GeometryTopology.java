@@ -0,0 +1,92 @@
+package com.covt.converter.geometry;
+
+import java.util.Arrays;
+
+/*
+ * Geometries of a layer in the columnar form of the plain geometry encoding:
+ * - geometryTypes: ordinal of the GeometryType per feature
+ * - geometryOffsets: number of points, LineStrings or Polygons of a Multi* geometry
+ * - partOffsets: number of vertices of a LineString respectively number of rings of a Polygon
+ * - ringOffsets: number of vertices of a ring without the closing vertex
+ * - vertexBuffer: x and y coordinates of all vertices
+ * The columns are growable int arrays, so the decoded geometry commands are stored without boxing every value.
+ * */
+public final class GeometryTopology {
+    private final IntColumn geometryTypes = new IntColumn();
+    private final IntColumn geometryOffsets = new IntColumn();
+    private final IntColumn partOffsets = new IntColumn();
+    private final IntColumn ringOffsets = new IntColumn();
+    private final IntColumn vertexBuffer = new IntColumn();
+
+    public IntColumn geometryTypes() {
+        return geometryTypes;
+    }
+
+    public IntColumn geometryOffsets() {
+        return geometryOffsets;
+    }
+
+    public IntColumn partOffsets() {
+        return partOffsets;
+    }
+
+    public IntColumn ringOffsets() {
+        return ringOffsets;
+    }
+
+    public IntColumn vertexBuffer() {
+        return vertexBuffer;
+    }
+
+    /*
+     * Growable array of int values, the backing array is only valid up to the size of the column.
+     * */
+    public static final class IntColumn {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+
+        public void add(int value){
+            if(size == values.length){
+                values = Arrays.copyOf(values, values.length << 1);
+            }
+            values[size++] = value;
+        }
+
+        public int get(int index){
+            if(index >= size){
+                throw new IndexOutOfBoundsException(index);
+            }
+            return values[index];
+        }
+
+        public void set(int index, int value){
+            if(index >= size){
+                throw new IndexOutOfBoundsException(index);
+            }
+            values[index] = value;
+        }
+
+        public int size(){
+            return size;
+        }
+
+        /* Removes the values after the specified size e.g. of a discarded part of a geometry */
+        public void truncate(int size){
+            if(size < 0 || size > this.size){
+                throw new IllegalArgumentException("The size has to be between 0 and the current size.");
+            }
+            this.size = size;
+        }
+
+        /* Returns the backing array without copying it, only the values up to the size are valid */
+        public int[] array(){
+            return values;
+        }
+
+        public int[] toArray(){
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
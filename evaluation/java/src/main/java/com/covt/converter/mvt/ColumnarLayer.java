@@ -0,0 +1,18 @@
+package com.covt.converter.mvt;
+
+import com.covt.converter.geometry.GeometryTopology;
+
+import java.util.LinkedHashMap;
+
+/*
+ * Layer of a MVT tile decoded into columns, see MvtColumnarReader.
+ * The values of a property column are stored per feature, null if the feature has no value for the property.
+ * The columns are encoded as they are by CovtConverter.convertColumnarTile without creating features.
+ * */
+public record ColumnarLayer(String name, int extent, long[] ids, GeometryTopology geometries,
+                            LinkedHashMap<String, Object[]> properties) {
+
+    public int numFeatures(){
+        return ids.length;
+    }
+}
@@ -2,4 +2,13 @@ package com.covt.converter.mvt;
 
 import java.util.List;
 
-public record Layer(String name, List<Feature> features) { }
+/*
+ * The tile extent of a layer is usually a power of two like in MVT, 0 if the extent of the tile is used for the layer.
+ * Layers with an extent which is no power of two can't use the space filling curves and are plain encoded.
+ * */
+public record Layer(String name, List<Feature> features, int tileExtent) {
+
+    public Layer(String name, List<Feature> features){
+        this(name, features, 0);
+    }
+}
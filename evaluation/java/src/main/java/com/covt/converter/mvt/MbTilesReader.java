@@ -0,0 +1,220 @@
+package com.covt.converter.mvt;
+
+import org.sqlite.SQLiteConfig;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/*
+ * Reads the tiles of an MBTiles archive with a pool of read-only connections. A worker borrows a connection with
+ * its prepared statements for a single read respectively for the lifetime of a cursor, so the connections are also
+ * reused when every request runs on its own (virtual) thread. The number of connections is limited, workers wait
+ * for a free connection. The connections are closed when the reader is closed.
+ * The y coordinate is the tile_row of the archive like in MvtUtils.decodeMvt.
+ * */
+public class MbTilesReader implements AutoCloseable {
+    private static final String TILE_QUERY = "SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? " +
+            "AND tile_row = ?;";
+    /* the order matches the primary key of the tiles table, so the rows are streamed without sorting */
+    private static final String ZOOM_RANGE_QUERY = "SELECT zoom_level, tile_column, tile_row, tile_data FROM tiles " +
+            "WHERE zoom_level BETWEEN ? AND ? ORDER BY zoom_level, tile_column, tile_row;";
+    private static final String TILE_RANGE_QUERY = "SELECT zoom_level, tile_column, tile_row, tile_data FROM tiles " +
+            "WHERE zoom_level = ? AND tile_column BETWEEN ? AND ? AND tile_row BETWEEN ? AND ? " +
+            "ORDER BY tile_column, tile_row;";
+    private static final int BULK_FETCH_SIZE = 1024;
+
+    public record Tile(int zoom, int x, int y, byte[] data){}
+
+    private final String url;
+    private final Semaphore availableConnections;
+    private final ConcurrentLinkedQueue<WorkerConnection> idleConnections = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<WorkerConnection> openConnections = new ConcurrentLinkedQueue<>();
+
+    public MbTilesReader(String mbTilesFileName){
+        this(mbTilesFileName, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MbTilesReader(String mbTilesFileName, int maxConnections){
+        if(maxConnections < 1){
+            throw new IllegalArgumentException("At least one connection is required.");
+        }
+        this.url = "jdbc:sqlite:" + mbTilesFileName;
+        this.availableConnections = new Semaphore(maxConnections);
+    }
+
+    /* Returns the gzip compressed tile or null if the archive contains no tile with the specified coordinates */
+    public byte[] readTile(int zoom, int x, int y) throws SQLException {
+        var workerConnection = acquireConnection();
+        try{
+            var statement = workerConnection.tileStatement;
+            statement.setInt(1, zoom);
+            statement.setInt(2, x);
+            statement.setInt(3, y);
+            try(var resultSet = statement.executeQuery()){
+                return resultSet.next() ? resultSet.getBytes(1) : null;
+            }
+        }
+        finally{
+            releaseConnection(workerConnection);
+        }
+    }
+
+    public MapboxVectorTile decodeTile(int zoom, int x, int y) throws SQLException, IOException {
+        var gzipCompressedMvt = readTile(zoom, x, y);
+        if(gzipCompressedMvt == null){
+            throw new IllegalArgumentException(String.format("The tile %d/%d/%d is not part of the archive.", zoom, x, y));
+        }
+        return MvtUtils.decodeMvt(gzipCompressedMvt);
+    }
+
+    /* The cursor has to be closed to release the connection, the tiles are ordered by zoom level, column and row */
+    public TileCursor scan(int minZoom, int maxZoom) throws SQLException {
+        return openCursor(ZOOM_RANGE_QUERY, minZoom, maxZoom);
+    }
+
+    /* Streams the tiles of the zoom level within the inclusive range of the columns and rows */
+    public TileCursor scan(int zoom, int minX, int minY, int maxX, int maxY) throws SQLException {
+        return openCursor(TILE_RANGE_QUERY, zoom, minX, maxX, minY, maxY);
+    }
+
+    private TileCursor openCursor(String query, int... parameters) throws SQLException {
+        var workerConnection = acquireConnection();
+        PreparedStatement statement = null;
+        try{
+            statement = workerConnection.connection.prepareStatement(query);
+            for(var i = 0; i < parameters.length; i++){
+                statement.setInt(i + 1, parameters[i]);
+            }
+            return new TileCursor(statement, () -> releaseConnection(workerConnection));
+        }
+        catch(SQLException e){
+            if(statement != null){
+                try{
+                    statement.close();
+                }
+                catch(SQLException closeException){
+                    e.addSuppressed(closeException);
+                }
+            }
+            releaseConnection(workerConnection);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        SQLException exception = null;
+        idleConnections.clear();
+        WorkerConnection workerConnection;
+        while((workerConnection = openConnections.poll()) != null){
+            try{
+                workerConnection.close();
+            }
+            catch(SQLException e){
+                exception = e;
+            }
+        }
+        if(exception != null){
+            throw exception;
+        }
+    }
+
+    private WorkerConnection acquireConnection() throws SQLException {
+        availableConnections.acquireUninterruptibly();
+        var workerConnection = idleConnections.poll();
+        if(workerConnection != null){
+            return workerConnection;
+        }
+
+        try{
+            var config = new SQLiteConfig();
+            config.setReadOnly(true);
+            var connection = config.createConnection(url);
+            workerConnection = new WorkerConnection(connection, connection.prepareStatement(TILE_QUERY));
+            openConnections.add(workerConnection);
+            return workerConnection;
+        }
+        catch(SQLException e){
+            availableConnections.release();
+            throw e;
+        }
+    }
+
+    private void releaseConnection(WorkerConnection workerConnection){
+        idleConnections.add(workerConnection);
+        availableConnections.release();
+    }
+
+    private record WorkerConnection(Connection connection, PreparedStatement tileStatement){
+        private void close() throws SQLException {
+            try(connection; tileStatement){}
+        }
+    }
+
+    /*
+     * Iterates over the rows of a range query, the rows are fetched in batches from the archive.
+     * The connection is released only once even if the cursor is closed multiple times.
+     * */
+    public static class TileCursor implements Iterator<Tile>, AutoCloseable {
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final Runnable onClose;
+        private Boolean hasNext;
+        private boolean closed;
+
+        private TileCursor(PreparedStatement statement, Runnable onClose) throws SQLException {
+            this.statement = statement;
+            this.onClose = onClose;
+            statement.setFetchSize(BULK_FETCH_SIZE);
+            this.resultSet = statement.executeQuery();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(hasNext == null){
+                try{
+                    hasNext = resultSet.next();
+                }
+                catch(SQLException e){
+                    throw new RuntimeException("The next tile can't be read from the archive.", e);
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Tile next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+
+            hasNext = null;
+            try{
+                return new Tile(resultSet.getInt(1), resultSet.getInt(2), resultSet.getInt(3), resultSet.getBytes(4));
+            }
+            catch(SQLException e){
+                throw new RuntimeException("The tile can't be read from the archive.", e);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if(closed){
+                return;
+            }
+
+            closed = true;
+            try(statement; resultSet){}
+            finally{
+                onClose.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.covt.converter.mvt;
+
+import com.covt.converter.geometry.GeometryTopology;
+import com.covt.converter.geometry.GeometryType;
+import com.covt.decoder.VarintDecoder;
+import me.lemire.integercompression.IntWrapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/*
+ * Decodes the protobuf encoded MVT tile in a single pass directly into the columns which are used by the
+ * converter, see CovtConverter.convertColumnarTile. In contrast to MvtUtils no JTS geometries and no property maps
+ * per feature are created, the geometry commands are decoded into a GeometryTopology and the tags into one value
+ * list per property key.
+ * The geometries are decoded like the VectorTileDecoder used in MvtUtils: the orientation of the first ring of a
+ * polygon feature defines the orientation of the exterior rings and rings without area are skipped. The id property
+ * is renamed to _id as id is a reserved column name in COVT.
+ * */
+public final class MvtColumnarReader {
+    private static final int WIRE_TYPE_VARINT = 0;
+    private static final int WIRE_TYPE_FIXED64 = 1;
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_TYPE_FIXED32 = 5;
+    private static final int TILE_LAYERS = 3;
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int DEFAULT_EXTENT = 4096;
+    private static final int MOVE_TO = 1;
+    private static final int LINE_TO = 2;
+    private static final int CLOSE_PATH = 7;
+    private static final int POINT_TYPE = 1;
+    private static final int LINESTRING_TYPE = 2;
+    private static final int POLYGON_TYPE = 3;
+    private static final String ID_KEY = "id";
+    private static final int INITIAL_NUM_FEATURES = 64;
+
+    private MvtColumnarReader(){}
+
+    /* Decodes a gzip compressed tile as stored in MBTiles archives */
+    public static List<ColumnarLayer> readCompressed(byte[] gzipCompressedMvt) throws IOException {
+        return read(MvtUtils.unzip(gzipCompressedMvt));
+    }
+
+    public static List<ColumnarLayer> read(byte[] mvt){
+        var layers = new ArrayList<ColumnarLayer>();
+        var pos = new IntWrapper(0);
+        while(pos.get() < mvt.length){
+            var key = VarintDecoder.decodeInt(mvt, pos);
+            if(key >>> 3 == TILE_LAYERS && (key & 0x7) == WIRE_TYPE_LENGTH_DELIMITED){
+                var length = VarintDecoder.decodeInt(mvt, pos);
+                layers.add(readLayer(mvt, pos.get(), pos.get() + length));
+                pos.add(length);
+            }
+            else{
+                skipField(mvt, pos, key & 0x7);
+            }
+        }
+        return layers;
+    }
+
+    /* Returns the largest extent of the layers which is the extent of the tile, see MvtUtils.decodeMvt2 */
+    public static int getTileExtent(List<ColumnarLayer> layers){
+        return layers.stream().mapToInt(ColumnarLayer::extent).max().orElse(DEFAULT_EXTENT);
+    }
+
+    private static ColumnarLayer readLayer(byte[] buffer, int start, int end){
+        String name = null;
+        var extent = DEFAULT_EXTENT;
+        var ids = new long[INITIAL_NUM_FEATURES];
+        var numFeatures = 0;
+        var featureTags = new ArrayList<int[]>();
+        var keys = new ArrayList<String>();
+        var values = new ArrayList<Object>();
+        var geometries = new GeometryTopology();
+        var partStarts = new GeometryTopology.IntColumn();
+        var pos = new IntWrapper(start);
+        while(pos.get() < end){
+            var key = VarintDecoder.decodeInt(buffer, pos);
+            var fieldNumber = key >>> 3;
+            var wireType = key & 0x7;
+            if(fieldNumber == LAYER_NAME && wireType == WIRE_TYPE_LENGTH_DELIMITED){
+                name = readString(buffer, pos);
+            }
+            else if(fieldNumber == LAYER_FEATURES && wireType == WIRE_TYPE_LENGTH_DELIMITED){
+                var length = VarintDecoder.decodeInt(buffer, pos);
+                if(numFeatures == ids.length){
+                    ids = Arrays.copyOf(ids, ids.length << 1);
+                }
+                ids[numFeatures++] = readFeature(buffer, pos.get(), pos.get() + length, featureTags, geometries,
+                        partStarts);
+                pos.add(length);
+            }
+            else if(fieldNumber == LAYER_KEYS && wireType == WIRE_TYPE_LENGTH_DELIMITED){
+                keys.add(readString(buffer, pos));
+            }
+            else if(fieldNumber == LAYER_VALUES && wireType == WIRE_TYPE_LENGTH_DELIMITED){
+                var length = VarintDecoder.decodeInt(buffer, pos);
+                values.add(readValue(buffer, pos.get(), pos.get() + length));
+                pos.add(length);
+            }
+            else if(fieldNumber == LAYER_EXTENT && wireType == WIRE_TYPE_VARINT){
+                extent = VarintDecoder.decodeInt(buffer, pos);
+            }
+            else{
+                skipField(buffer, pos, wireType);
+            }
+        }
+
+        /* the keys and values can follow the features, so the tags are resolved after the layer is decoded */
+        var layerNumFeatures = numFeatures;
+        var properties = new LinkedHashMap<String, Object[]>();
+        for(var featureIndex = 0; featureIndex < numFeatures; featureIndex++){
+            var tags = featureTags.get(featureIndex);
+            for(var i = 0; i + 1 < tags.length; i += 2){
+                var propertyName = keys.get(tags[i]);
+                var value = values.get(tags[i + 1]);
+                if(propertyName.equals(ID_KEY)){
+                    if(!(value instanceof String)){
+                        throw new RuntimeException("Only a string datatype for the id in the properties supported.");
+                    }
+                    propertyName = "_" + ID_KEY;
+                }
+                properties.computeIfAbsent(propertyName, k -> new Object[layerNumFeatures])[featureIndex] = value;
+            }
+        }
+
+        return new ColumnarLayer(name, extent, Arrays.copyOf(ids, numFeatures), geometries, properties);
+    }
+
+    /* Returns the id of the feature, the partStarts are reused for the geometries of all features of the layer */
+    private static long readFeature(byte[] buffer, int start, int end, List<int[]> featureTags,
+                                    GeometryTopology geometries, GeometryTopology.IntColumn partStarts){
+        var id = 0L;
+        var tags = new int[0];
+        var type = 0;
+        var geometryStart = -1;
+        var geometryEnd = -1;
+        var pos = new IntWrapper(start);
+        while(pos.get() < end){
+            var key = VarintDecoder.decodeInt(buffer, pos);
+            var fieldNumber = key >>> 3;
+            var wireType = key & 0x7;
+            if(fieldNumber == FEATURE_ID && wireType == WIRE_TYPE_VARINT){
+                id = VarintDecoder.decodeLong(buffer, pos);
+            }
+            else if(fieldNumber == FEATURE_TAGS && wireType == WIRE_TYPE_LENGTH_DELIMITED){
+                tags = readPackedInts(buffer, pos);
+            }
+            else if(fieldNumber == FEATURE_TYPE && wireType == WIRE_TYPE_VARINT){
+                type = VarintDecoder.decodeInt(buffer, pos);
+            }
+            else if(fieldNumber == FEATURE_GEOMETRY && wireType == WIRE_TYPE_LENGTH_DELIMITED){
+                var length = VarintDecoder.decodeInt(buffer, pos);
+                geometryStart = pos.get();
+                geometryEnd = geometryStart + length;
+                pos.add(length);
+            }
+            else{
+                skipField(buffer, pos, wireType);
+            }
+        }
+
+        /* the type of the feature can follow the geometry */
+        if(geometryStart == -1){
+            throw new IllegalArgumentException("Features without geometry are not supported.");
+        }
+        decodeGeometry(buffer, geometryStart, geometryEnd, type, geometries, partStarts);
+        featureTags.add(tags);
+        return id;
+    }
+
+    /*
+     * Decodes the commands directly into the vertex buffer and collects the start of every part in the vertex
+     * buffer, a part starts with a MoveTo command. For points every vertex of a MoveTo command is a separate part.
+     * */
+    private static void decodeGeometry(byte[] buffer, int start, int end, int type, GeometryTopology geometries,
+                                       GeometryTopology.IntColumn partStarts){
+        var vertexBuffer = geometries.vertexBuffer();
+        partStarts.truncate(0);
+        var x = 0;
+        var y = 0;
+        var pos = new IntWrapper(start);
+        while(pos.get() < end){
+            var command = VarintDecoder.decodeInt(buffer, pos);
+            var commandId = command & 0x7;
+            var count = command >>> 3;
+            if(commandId == CLOSE_PATH){
+                continue;
+            }
+            if(commandId != MOVE_TO && commandId != LINE_TO || commandId == LINE_TO && partStarts.size() == 0){
+                throw new IllegalArgumentException("Invalid geometry command.");
+            }
+
+            for(var i = 0; i < count; i++){
+                x += VarintDecoder.decodeZigZagInt(buffer, pos);
+                y += VarintDecoder.decodeZigZagInt(buffer, pos);
+                if(commandId == MOVE_TO){
+                    partStarts.add(vertexBuffer.size());
+                }
+                vertexBuffer.add(x);
+                vertexBuffer.add(y);
+            }
+        }
+
+        if(type == POINT_TYPE){
+            addPoints(partStarts, geometries);
+        }
+        else if(type == LINESTRING_TYPE){
+            addLineStrings(partStarts, geometries);
+        }
+        else if(type == POLYGON_TYPE){
+            addPolygons(partStarts, geometries);
+        }
+        else{
+            throw new IllegalArgumentException("Geometry type not supported.");
+        }
+    }
+
+    private static void addPoints(GeometryTopology.IntColumn points, GeometryTopology geometries){
+        if(points.size() == 1){
+            geometries.geometryTypes().add(GeometryType.POINT.ordinal());
+        }
+        else{
+            geometries.geometryTypes().add(GeometryType.MULTIPOINT.ordinal());
+            geometries.geometryOffsets().add(points.size());
+        }
+    }
+
+    private static void addLineStrings(GeometryTopology.IntColumn lineStringStarts, GeometryTopology geometries){
+        var numLineStrings = lineStringStarts.size();
+        if(numLineStrings == 1){
+            geometries.geometryTypes().add(GeometryType.LINESTRING.ordinal());
+        }
+        else{
+            geometries.geometryTypes().add(GeometryType.MULTILINESTRING.ordinal());
+            geometries.geometryOffsets().add(numLineStrings);
+        }
+        for(var i = 0; i < numLineStrings; i++){
+            var lineStringEnd = i + 1 < numLineStrings ? lineStringStarts.get(i + 1) :
+                    geometries.vertexBuffer().size();
+            geometries.partOffsets().add((lineStringEnd - lineStringStarts.get(i)) / 2);
+        }
+    }
+
+    /* Rings without area are removed from the vertex buffer by moving the following rings to their start */
+    private static void addPolygons(GeometryTopology.IntColumn ringStarts, GeometryTopology geometries){
+        var vertexBuffer = geometries.vertexBuffer();
+        var partOffsets = geometries.partOffsets();
+        var numRings = ringStarts.size();
+        var verticesEnd = vertexBuffer.size();
+        var writePosition = numRings > 0 ? ringStarts.get(0) : verticesEnd;
+        var numPolygons = 0;
+        Boolean exteriorRingIsClockwise = null;
+        for(var i = 0; i < numRings; i++){
+            var ringStart = ringStarts.get(i);
+            var ringEnd = i + 1 < numRings ? ringStarts.get(i + 1) : verticesEnd;
+            var area = getSignedArea(vertexBuffer.array(), ringStart, ringEnd);
+            if(area == 0){
+                continue;
+            }
+
+            /* the y axis of the tile coordinates points down */
+            var isClockwise = area > 0;
+            if(exteriorRingIsClockwise == null){
+                exteriorRingIsClockwise = isClockwise;
+            }
+            if(isClockwise == exteriorRingIsClockwise){
+                partOffsets.add(1);
+                numPolygons++;
+            }
+            else{
+                var lastPolygon = partOffsets.size() - 1;
+                partOffsets.set(lastPolygon, partOffsets.get(lastPolygon) + 1);
+            }
+            geometries.ringOffsets().add((ringEnd - ringStart) / 2);
+            System.arraycopy(vertexBuffer.array(), ringStart, vertexBuffer.array(), writePosition, ringEnd - ringStart);
+            writePosition += ringEnd - ringStart;
+        }
+        vertexBuffer.truncate(writePosition);
+
+        if(numPolygons == 1){
+            geometries.geometryTypes().add(GeometryType.POLYGON.ordinal());
+        }
+        else{
+            geometries.geometryTypes().add(GeometryType.MULTIPOLYGON.ordinal());
+            geometries.geometryOffsets().add(numPolygons);
+        }
+    }
+
+    /* Shoelace formula for the ring with the interleaved x and y coordinates between start and end */
+    private static long getSignedArea(int[] vertices, int start, int end){
+        var area = 0L;
+        for(var i = start; i < end; i += 2){
+            var j = i + 2 < end ? i + 2 : start;
+            area += (long)vertices[i] * vertices[j + 1] - (long)vertices[j] * vertices[i + 1];
+        }
+        return area;
+    }
+
+    private static Object readValue(byte[] buffer, int start, int end){
+        Object value = null;
+        var pos = new IntWrapper(start);
+        while(pos.get() < end){
+            var key = VarintDecoder.decodeInt(buffer, pos);
+            var wireType = key & 0x7;
+            switch(key >>> 3){
+                case 1 -> value = readString(buffer, pos);
+                case 2 -> {
+                    value = ByteBuffer.wrap(buffer, pos.get(), Float.BYTES).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+                    pos.add(Float.BYTES);
+                }
+                case 3 -> {
+                    value = ByteBuffer.wrap(buffer, pos.get(), Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).getDouble();
+                    pos.add(Double.BYTES);
+                }
+                case 4, 5 -> value = VarintDecoder.decodeLong(buffer, pos);
+                case 6 -> value = VarintDecoder.decodeZigZagLong(buffer, pos);
+                case 7 -> value = VarintDecoder.decodeLong(buffer, pos) != 0;
+                default -> skipField(buffer, pos, wireType);
+            }
+        }
+        return value;
+    }
+
+    private static String readString(byte[] buffer, IntWrapper pos){
+        var length = VarintDecoder.decodeInt(buffer, pos);
+        var value = new String(buffer, pos.get(), length, StandardCharsets.UTF_8);
+        pos.add(length);
+        return value;
+    }
+
+    private static int[] readPackedInts(byte[] buffer, IntWrapper pos){
+        var length = VarintDecoder.decodeInt(buffer, pos);
+        var end = pos.get() + length;
+        /* every value has at least one byte */
+        var values = new int[length];
+        var numValues = 0;
+        while(pos.get() < end){
+            values[numValues++] = VarintDecoder.decodeInt(buffer, pos);
+        }
+        return numValues == length ? values : Arrays.copyOf(values, numValues);
+    }
+
+    private static void skipField(byte[] buffer, IntWrapper pos, int wireType){
+        switch(wireType){
+            case WIRE_TYPE_VARINT -> VarintDecoder.decodeLong(buffer, pos);
+            case WIRE_TYPE_FIXED64 -> pos.add(Long.BYTES);
+            case WIRE_TYPE_LENGTH_DELIMITED -> pos.add(VarintDecoder.decodeInt(buffer, pos));
+            case WIRE_TYPE_FIXED32 -> pos.add(Integer.BYTES);
+            default -> throw new IllegalArgumentException("Unsupported protobuf wire type " + wireType + ".");
+        }
+    }
+}
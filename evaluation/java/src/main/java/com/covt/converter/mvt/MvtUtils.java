@@ -12,8 +12,6 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,32 +22,43 @@ public class MvtUtils {
     private static final String ID_KEY = "id";
     private static final String TILE_DATA_KEY = "tile_data";
 
-    public static MapboxVectorTile decodeMvt(String mbTilesFileName, int zoom, int x, int y) throws SQLException, IOException, ClassNotFoundException {
-        Class.forName("org.sqlite.JDBC");
-        byte[] gzipCompressedMvt;
-        try(var connection = DriverManager.getConnection("jdbc:sqlite:" + mbTilesFileName)) {
-            try(var stmt = connection.createStatement()){
-                try(ResultSet rs = stmt.executeQuery(String.format("SELECT %s FROM tiles WHERE tile_column = %d AND tile_row = %d AND zoom_level = %d;",
-                        TILE_DATA_KEY, x, y, zoom))){
-                    rs.next();
-                    gzipCompressedMvt = rs.getBytes(TILE_DATA_KEY);
-                }
-            }
+    /* For reading multiple tiles of an archive use the MbTilesReader which reuses the connection */
+    public static MapboxVectorTile decodeMvt(String mbTilesFileName, int zoom, int x, int y) throws SQLException, IOException {
+        try(var reader = new MbTilesReader(mbTilesFileName)){
+            return reader.decodeTile(zoom, x, y);
         }
-
-        return  decodeMvt(unzip(gzipCompressedMvt), gzipCompressedMvt);
     }
 
+    /*
+     * The tile file is not compressed, so the gzip compressed size is the size of a compressed copy and the
+     * decompression time is 0. For measuring the decompression time decode the compressed tile with decodeMvt2.
+     * */
     public static MapboxVectorTile decodeMvt(Path mvtFilePath) throws IOException {
         var mvt = Files.readAllBytes(mvtFilePath);
-        return decodeMvt(mvt, EncodingUtils.gzipCompress(mvt));
+        return decodeMvt(mvt, EncodingUtils.gzipCompress(mvt), 0);
     }
 
+    /* See decodeMvt(Path) */
     public static MapboxVectorTile decodeMvt2(Path mvtFilePath) throws IOException {
         var mvt = Files.readAllBytes(mvtFilePath);
+        return decodeMvt2(mvt, EncodingUtils.gzipCompress(mvt), 0);
+    }
+
+    /*
+     * Decodes a gzip compressed tile as stored in MBTiles archives with the extents of the MVT layers.
+     * The decompression time is the time of the decompression of the tile which is decoded.
+     * */
+    public static MapboxVectorTile decodeMvt2(byte[] gzipCompressedMvt) throws IOException {
+        var start = System.nanoTime();
+        var mvt = unzip(gzipCompressedMvt);
+        return decodeMvt2(mvt, gzipCompressedMvt, (System.nanoTime() - start) / 1_000_000d);
+    }
 
-        var compressedMVT = EncodingUtils.gzipCompress(mvt);
-        return decodeMvt2(mvt, compressedMVT);
+    /* Decodes a gzip compressed tile with the MvtReader, see decodeMvt2 */
+    static MapboxVectorTile decodeMvt(byte[] gzipCompressedMvt) throws IOException {
+        var start = System.nanoTime();
+        var mvt = unzip(gzipCompressedMvt);
+        return decodeMvt(mvt, gzipCompressedMvt, (System.nanoTime() - start) / 1_000_000d);
     }
 
     public static byte[] unzip(byte[] buffer) throws IOException {
@@ -60,7 +69,9 @@ public class MvtUtils {
         }
     }
 
-    private static MapboxVectorTile decodeMvt(byte[] mvtTile, byte[] compressedMvt) throws IOException {
+    /* @param decompressionTime time in milliseconds for the decompression of the compressed tile */
+    private static MapboxVectorTile decodeMvt(byte[] mvtTile, byte[] compressedMvt, double decompressionTime)
+            throws IOException {
         var result = MvtReader.loadMvt(new ByteArrayInputStream(mvtTile), MvtUtils.createGeometryFactory(),
                 new TagKeyValueMapConverter(true, ID_KEY));
         final var mvtLayers = result.getLayers();
@@ -81,12 +92,12 @@ public class MvtUtils {
             layers.add(new Layer(name, features));
         }
 
-        var decompressionTime = getGzipDecompressionTime(compressedMvt);
         //TODO: evaluate tile extent
         return new MapboxVectorTile(layers, compressedMvt.length, mvtTile.length, 8192, decompressionTime);
     }
 
-    private static MapboxVectorTile decodeMvt2(byte[] mvtTile, byte[] compressedMvt) throws IOException {
+    private static MapboxVectorTile decodeMvt2(byte[] mvtTile, byte[] compressedMvt, double decompressionTime)
+            throws IOException {
         VectorTileDecoder mvtDecoder = new VectorTileDecoder();
         mvtDecoder.setAutoScale(false);
         var tile = mvtDecoder.decode(mvtTile);
@@ -94,6 +105,7 @@ public class MvtUtils {
         var layers = new ArrayList<Layer>();
         var tileExtent = 0;
         for(var layerName : tile.getLayerNames()){
+            var layerExtent = 0;
             var layerFeatures =
                     mvtFeatures.stream().filter(f -> f.getLayerName().equals(layerName)).collect(Collectors.toList());
 
@@ -116,28 +128,17 @@ public class MvtUtils {
                 var feature = new Feature(id, geometry, properties);
                 features.add(feature);
 
-                var featureTileExtent = mvtFeature.getExtent();
-                if(featureTileExtent > tileExtent){
-                    tileExtent = featureTileExtent;
-                }
+                layerExtent = Math.max(layerExtent, mvtFeature.getExtent());
             }
 
-            layers.add(new Layer(layerName, features));
+            tileExtent = Math.max(tileExtent, layerExtent);
+            layers.add(new Layer(layerName, features, layerExtent));
         }
 
-
-        var decompressionTime = getGzipDecompressionTime(compressedMvt);
-        /* Start with one extent per tile not per layer like in MVT */
+        /* the extent of the tile is the largest extent of the layers */
         return new MapboxVectorTile(layers, compressedMvt.length, mvtTile.length, tileExtent, decompressionTime);
     }
 
-    private static double getGzipDecompressionTime(byte[] compressedMvt) throws IOException {
-        long start = System.nanoTime();
-        unzip(compressedMvt);
-        long finish = System.nanoTime();
-        return (finish - start) / 1_000_000d;
-    }
-
     private static GeometryFactory createGeometryFactory() {
         final PrecisionModel precisionModel = new PrecisionModel();
         final PackedCoordinateSequenceFactory coordinateSequenceFactory =
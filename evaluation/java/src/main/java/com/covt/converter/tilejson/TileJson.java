@@ -1,10 +1,19 @@
 package com.covt.converter.tilejson;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
+import java.util.Map;
 
 public class TileJson {
     @JsonProperty("vector_layers")
     public List<VectorLayer> vectorLayers;
+    /*
+     * Tileset wide string dictionaries per layer and column which are referenced by code from the tiles, only part of
+     * the TileJson of the tileset and not of the TileJson of a single tile
+     * */
+    @JsonProperty("shared_dictionaries")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Map<String, Map<String, List<String>>> sharedDictionaries;
 }
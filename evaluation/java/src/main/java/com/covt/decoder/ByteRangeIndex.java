@@ -0,0 +1,159 @@
+package com.covt.decoder;
+
+import me.lemire.integercompression.IntWrapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Index of the byte ranges of the layers and columns of a tile which was converted with the byte range index,
+ * see CovtConverter.encodeByteRangeIndex for the layout.
+ * A client fetches a prefix of the tile, derives the size of the index with getIndexSize and decodes the index to
+ * get the minimal list of byte ranges for the layers and columns it needs. The metadata of a layer is always part
+ * of the ranges of the layer. The offsets of the ranges are relative to the start of the tile.
+ * */
+public class ByteRangeIndex {
+    public static final byte MARKER = 0;
+    public static final String GEOMETRY_COLUMN_NAME = "geometry";
+
+    public record ByteRange(int offset, int length){}
+
+    private record LayerEntry(String layerName, ByteRange metadata, LinkedHashMap<String, ByteRange> columns,
+                              int sharedVertexBufferLayer){}
+
+    private final int size;
+    private final List<LayerEntry> layers;
+
+    private ByteRangeIndex(int size, List<LayerEntry> layers){
+        this.size = size;
+        this.layers = layers;
+    }
+
+    public static boolean hasIndex(byte[] tile){
+        return tile.length > 0 && tile[0] == MARKER;
+    }
+
+    /* The prefix has to contain at least the marker and the varint encoded length of the index */
+    public static int getIndexSize(byte[] prefix){
+        if(!hasIndex(prefix)){
+            throw new IllegalArgumentException("The tile contains no byte range index.");
+        }
+
+        var pos = new IntWrapper(1);
+        var indexLength = VarintDecoder.decodeInt(prefix, pos);
+        return pos.get() + indexLength;
+    }
+
+    /* The buffer has to contain the index, which means at least the first getIndexSize bytes of the tile */
+    public static ByteRangeIndex decode(byte[] buffer){
+        var size = getIndexSize(buffer);
+        var pos = new IntWrapper(1);
+        VarintDecoder.decodeInt(buffer, pos);
+
+        var numLayers = VarintDecoder.decodeInt(buffer, pos);
+        var layers = new ArrayList<LayerEntry>(numLayers);
+        var offset = size;
+        for(var i = 0; i < numLayers; i++){
+            var layerName = DecodingUtils.decodeString(buffer, pos);
+            var metadataLength = VarintDecoder.decodeInt(buffer, pos);
+            var sharedVertexBufferLayer = VarintDecoder.decodeInt(buffer, pos) - 1;
+            var numColumns = VarintDecoder.decodeInt(buffer, pos);
+
+            var metadata = new ByteRange(offset, metadataLength);
+            offset += metadataLength;
+            var columns = new LinkedHashMap<String, ByteRange>();
+            for(var j = 0; j < numColumns; j++){
+                var columnName = DecodingUtils.decodeString(buffer, pos);
+                var columnLength = VarintDecoder.decodeInt(buffer, pos);
+                columns.put(columnName, new ByteRange(offset, columnLength));
+                offset += columnLength;
+            }
+            layers.add(new LayerEntry(layerName, metadata, columns, sharedVertexBufferLayer));
+        }
+
+        return new ByteRangeIndex(size, layers);
+    }
+
+    /* Number of bytes of the index at the start of the tile */
+    public int size(){
+        return size;
+    }
+
+    public List<String> layerNames(){
+        return layers.stream().map(LayerEntry::layerName).toList();
+    }
+
+    /* Returns the range of the layer including the metadata and all columns or null if the layer doesn't exist */
+    public ByteRange getLayerRange(String layerName){
+        var layer = getLayer(layerName);
+        if(layer == null){
+            return null;
+        }
+
+        var metadata = layer.metadata();
+        var length = metadata.length() + layer.columns().values().stream().mapToInt(ByteRange::length).sum();
+        return new ByteRange(metadata.offset(), length);
+    }
+
+    /*
+     * Returns the sorted byte ranges of the specified columns per layer, adjacent ranges are merged.
+     * If the columns of a layer are null all columns of the layer are included. Layers and columns which are not
+     * part of the tile are ignored. If a geometry column references the vertex buffer of another layer the metadata
+     * and the geometry column of that layer are included.
+     * */
+    public List<ByteRange> getByteRanges(Map<String, Set<String>> columnsPerLayer){
+        var ranges = new ArrayList<ByteRange>();
+        for(var layerColumns : columnsPerLayer.entrySet()){
+            var layer = getLayer(layerColumns.getKey());
+            if(layer == null){
+                continue;
+            }
+
+            ranges.add(layer.metadata());
+            var columnNames = layerColumns.getValue();
+            for(var column : layer.columns().entrySet()){
+                if(columnNames == null || columnNames.contains(column.getKey())){
+                    ranges.add(column.getValue());
+                }
+            }
+
+            var includesGeometry = columnNames == null || columnNames.contains(GEOMETRY_COLUMN_NAME);
+            if(includesGeometry && layer.sharedVertexBufferLayer() >= 0){
+                var vertexBufferLayer = layers.get(layer.sharedVertexBufferLayer());
+                ranges.add(vertexBufferLayer.metadata());
+                ranges.add(vertexBufferLayer.columns().get(GEOMETRY_COLUMN_NAME));
+            }
+        }
+
+        return mergeRanges(ranges);
+    }
+
+    private LayerEntry getLayer(String layerName){
+        return layers.stream().filter(l -> l.layerName().equals(layerName)).findFirst().orElse(null);
+    }
+
+    private static List<ByteRange> mergeRanges(List<ByteRange> ranges){
+        ranges.sort(Comparator.comparingInt(ByteRange::offset));
+        var mergedRanges = new ArrayList<ByteRange>();
+        for(var range : ranges){
+            if(range.length() == 0){
+                continue;
+            }
+
+            var lastIndex = mergedRanges.size() - 1;
+            var last = lastIndex >= 0 ? mergedRanges.get(lastIndex) : null;
+            if(last != null && range.offset() <= last.offset() + last.length()){
+                var end = Math.max(last.offset() + last.length(), range.offset() + range.length());
+                mergedRanges.set(lastIndex, new ByteRange(last.offset(), end - last.offset()));
+            }
+            else{
+                mergedRanges.add(range);
+            }
+        }
+        return mergedRanges;
+    }
+}
@@ -7,13 +7,18 @@ import com.covt.converter.tilejson.TileJson;
 import com.covt.converter.tilejson.VectorLayer;
 import me.lemire.integercompression.IntWrapper;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateXYM;
+import org.locationtech.jts.geom.CoordinateXYZM;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.util.GeometryEditor;
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 record Header(int version, int numLayers) { }
 
@@ -51,47 +56,144 @@ public class CovtParser {
     *  - support not SFA conform polygon where closing vertex is missing
     * */
     public static List<Layer> decodeCovt(byte[] covtBuffer, TileJson tileJson) throws IOException {
-        var pos = new IntWrapper(0);
+        return decodeCovt(covtBuffer, tileJson, null);
+    }
+
+    /*
+     * Only the localized properties of the specified languages e.g. de for name:de and the default property
+     * e.g. name are decoded, if no languages are specified all localized properties are decoded.
+     * */
+    public static List<Layer> decodeCovt(byte[] covtBuffer, TileJson tileJson, Set<String> languages) throws IOException {
+        return decodeCovt(covtBuffer, tileJson, languages, true);
+    }
+
+    /*
+     * If decodeVertexValues is false the z- and m-value streams of the geometry column are skipped and only the
+     * two-dimensional geometries are decoded.
+     * */
+    public static List<Layer> decodeCovt(byte[] covtBuffer, TileJson tileJson, Set<String> languages,
+                                         boolean decodeVertexValues) throws IOException {
+        return decodeCovt(covtBuffer, tileJson, languages, decodeVertexValues, null);
+    }
+
+    /*
+     * If nested paths are specified only the leaf fields of the nested columns with the specified path e.g. lanes.width
+     * are decoded, the streams of the other leaf fields are skipped.
+     * */
+    public static List<Layer> decodeCovt(byte[] covtBuffer, TileJson tileJson, Set<String> languages,
+                                         boolean decodeVertexValues, Set<String> nestedPaths) throws IOException {
+        return decodeLayers(covtBuffer, tileJson, languages, decodeVertexValues, nestedPaths, null, null);
+    }
+
+    /*
+     * Reports the duration and size of the decoding of every column and layer to the listener.
+     * */
+    public static List<Layer> decodeCovt(byte[] covtBuffer, TileJson tileJson, Set<String> languages,
+                                         boolean decodeVertexValues, Set<String> nestedPaths,
+                                         DecodingListener listener) throws IOException {
+        return decodeLayers(covtBuffer, tileJson, languages, decodeVertexValues, nestedPaths, null, listener);
+    }
+
+    /*
+     * Returns the precomputed triangles of the layers which were converted with tessellated polygons.
+     * */
+    public static List<TessellatedLayer> decodeTessellatedLayers(byte[] covtBuffer, TileJson tileJson) throws IOException {
+        var tessellatedLayers = new ArrayList<TessellatedLayer>();
+        decodeLayers(covtBuffer, tileJson, null, false, null, tessellatedLayers, null);
+        return tessellatedLayers;
+    }
+
+    private static List<Layer> decodeLayers(byte[] covtBuffer, TileJson tileJson, Set<String> languages,
+                                            boolean decodeVertexValues, Set<String> nestedPaths,
+                                            List<TessellatedLayer> tessellatedLayers,
+                                            DecodingListener listener) throws IOException {
+        /* the optional byte range index is only used for partial fetches of a tile */
+        var pos = new IntWrapper(ByteRangeIndex.hasIndex(covtBuffer) ? ByteRangeIndex.getIndexSize(covtBuffer) : 0);
         var layers = new ArrayList<Layer>();
+        int[] sharedVertexBuffer = null;
         while(pos.get() < covtBuffer.length){
+            var layerStart = listener != null ? System.nanoTime() : 0;
+            var layerOffset = pos.get();
             var layerMetadata = decodeLayerMetadata(covtBuffer, pos, tileJson);
 
             var columId = 0;
             long[] ids = null;
             Geometry[] geometries = null;
+            long[] featurePermutation = null;
             var features = new ArrayList<Feature>();
             var properties = new HashMap<String, List<Optional>>();
             for(var columnMetadataEntry : layerMetadata.columnMetadata().entrySet()){
                 var columnMetadata = columnMetadataEntry.getValue();
                 var columnName = columnMetadataEntry.getKey();
+                var columnStart = listener != null ? System.nanoTime() : 0;
+                var columnOffset = pos.get();
                 if(columId++ == 0 && !columnName.equals(ID_COLUMN_NAME ) && !columnName.equals(GEOMETRY_COLUMN_NAME)){
                     throw new IllegalArgumentException("Id or geometry has to be the first column in a tile.");
                 }
 
                 if(columnName.equals(ID_COLUMN_NAME )){
-                    var idDataStream = columnMetadata.streams().get(0);
+                    var idDataStream = columnMetadata.streams().get(StreamType.DATA);
                     ids = decodedIds(covtBuffer, idDataStream.numValues(), idDataStream.streamEncoding(), pos);
                 }
                 else if(columnName.equals(GEOMETRY_COLUMN_NAME)) {
                     var geometryColumn = decodeGeometryColumn(covtBuffer,
-                            columnMetadata, pos, 32 - Integer.numberOfLeadingZeros(layerMetadata.extent()));
+                            columnMetadata, pos, 32 - Integer.numberOfLeadingZeros(layerMetadata.extent()), sharedVertexBuffer);
+                    if(geometryColumn.vertexOffsets() != null){
+                        sharedVertexBuffer = geometryColumn.vertexBuffer();
+                    }
 
                     geometries = convertGeometryColumn(geometryColumn, layerMetadata.numFeatures());
+
+                    var zValues = decodeVertexValues(covtBuffer, columnMetadata.streams().get(StreamType.Z_VALUE),
+                            decodeVertexValues, pos);
+                    var mValues = decodeVertexValues(covtBuffer, columnMetadata.streams().get(StreamType.M_VALUE),
+                            decodeVertexValues, pos);
+                    if(zValues != null || mValues != null){
+                        addVertexValues(geometries, zValues, mValues);
+                    }
+
+                    var indexBufferMetadata = columnMetadata.streams().get(StreamType.INDEX_BUFFER);
+                    if(indexBufferMetadata != null){
+                        var indexBuffer = decodeIndexBuffer(covtBuffer, indexBufferMetadata, geometryColumn.vertexOffsets(), pos);
+                        if(tessellatedLayers != null){
+                            tessellatedLayers.add(new TessellatedLayer(layerMetadata.layerName(),
+                                    geometryColumn.vertexBuffer(), indexBuffer));
+                        }
+                    }
+
+                    var permutationMetadata = columnMetadata.streams().get(StreamType.PERMUTATION);
+                    if(permutationMetadata != null){
+                        featurePermutation = DecodingUtils.decodeForBitPacking(covtBuffer, pos,
+                                permutationMetadata.numValues(), false);
+                    }
+                }
+                else if(columnMetadata.columnType() == ColumnType.LOCALIZED_DICTIONARY){
+                    var localizedColumns = decodeLocalizedStringDictionaryColumn(covtBuffer, layerMetadata.numFeatures(),
+                            columnName, columnMetadata, languages, pos);
+                    properties.putAll(localizedColumns);
+                }
+                else if(columnMetadata.nestedField() != null){
+                    properties.put(columnName, decodeNestedColumn(covtBuffer, layerMetadata.numFeatures(), columnName,
+                            columnMetadata.nestedField(), nestedPaths, pos));
                 }
                 else{
-                    var propertyColumn = decodePropertyColumn(covtBuffer, layerMetadata.numFeatures(), columnMetadata, pos);
+                    var sharedDictionary = columnMetadata.columnType() == ColumnType.SHARED_DICTIONARY ?
+                            SharedDictionaryCache.get(tileJson, layerMetadata.layerName(), columnName) : null;
+                    var propertyColumn = decodePropertyColumn(covtBuffer, layerMetadata.numFeatures(), columnMetadata,
+                            layerMetadata.requiredColumns().contains(columnName), sharedDictionary, pos);
                     properties.put(columnName, propertyColumn);
                 }
+
+                if(listener != null){
+                    listener.onColumnDecoded(layerMetadata.layerName(), columnName, columnMetadata,
+                            pos.get() - columnOffset, System.nanoTime() - columnStart);
+                }
             }
 
             for(var j = 0; j < layerMetadata.numFeatures(); j++){
                 var featureProperties = new HashMap<String, Object>();
-                for(var columnMetadataEntry : layerMetadata.columnMetadata().entrySet()) {
-                    var columnName = columnMetadataEntry.getKey();
-                    if (!columnName.equals(ID_COLUMN_NAME) && !columnName.equals(GEOMETRY_COLUMN_NAME)) {
-                        var propertyValue = properties.get(columnName).get(j);
-                        featureProperties.put(columnName, propertyValue);
-                    }
+                for(var property : properties.entrySet()) {
+                    featureProperties.put(property.getKey(), property.getValue().get(j));
                 }
 
                 var id = ids == null? 0 : ids[j];
@@ -99,7 +201,20 @@ public class CovtParser {
                 features.add(feature);
             }
 
-            layers.add(new Layer(layerMetadata.layerName(), features));
+            /* restore the original order of features which were reordered during the conversion */
+            if(featurePermutation != null){
+                var originalFeatures = new Feature[features.size()];
+                for(var j = 0; j < originalFeatures.length; j++){
+                    originalFeatures[(int)featurePermutation[j]] = features.get(j);
+                }
+                features = new ArrayList<>(Arrays.asList(originalFeatures));
+            }
+
+            layers.add(new Layer(layerMetadata.layerName(), features, layerMetadata.extent()));
+            if(listener != null){
+                listener.onLayerDecoded(layerMetadata.layerName(), layerMetadata.numFeatures(), pos.get() - layerOffset,
+                        System.nanoTime() - layerStart);
+            }
 
             /*var columns = new HashMap<String, List<Optional>>();
                 if(columnMetadata.length > 2){
@@ -204,6 +319,23 @@ public class CovtParser {
                     geometries[geometryCounter++] = geometryFactory.createPolygon(shell, rings);
                 }
             }
+            else if(geometryType.equals(GeometryType.MULTIPOINT)){
+                /* the points are created directly from the vertex buffer without an intermediate coordinate array */
+                var numPoints = geometryOffsets[geometryOffsetsCounter++];
+                var points = new Point[numPoints];
+                for(var i = 0; i < numPoints; i++){
+                    var offset = vertexOffsets == null ? vertexBufferOffset + i * 2 :
+                            vertexOffsets[vertexOffsetsOffset + i] * 2;
+                    points[i] = geometryFactory.createPoint(new Coordinate(vertexBuffer[offset], vertexBuffer[offset + 1]));
+                }
+                if(vertexOffsets == null){
+                    vertexBufferOffset += numPoints * 2;
+                }
+                else{
+                    vertexOffsetsOffset += numPoints;
+                }
+                geometries[geometryCounter++] = geometryFactory.createMultiPoint(points);
+            }
             else if(geometryType.equals(GeometryType.MULTILINESTRING)){
                 var numLineStrings = geometryOffsets[geometryOffsetsCounter++];
                 var lineStrings = new LineString[numLineStrings];
@@ -273,11 +405,18 @@ public class CovtParser {
         return geometries;
     }
 
-    private static List<Optional> decodePropertyColumn(byte[] covtBuffer, int numFeatures, ColumnMetadata columnMetadata, IntWrapper pos) throws IOException {
+    private static List<Optional> decodePropertyColumn(byte[] covtBuffer, int numFeatures, ColumnMetadata columnMetadata,
+                                                       boolean required, String[] sharedDictionary, IntWrapper pos) throws IOException {
         var propertyColumnValues = new ArrayList<Optional>();
         var dataStreamMetadata  = columnMetadata.streams().get(StreamType.DATA);
         var numBytes = (int)Math.ceil(numFeatures / 8d);
-        if(columnMetadata.columnDataType() == ColumnDataType.BOOLEAN){
+        var isConstant = dataStreamMetadata.streamEncoding() == StreamEncoding.CONSTANT;
+        if(columnMetadata.columnDataType() == ColumnDataType.BOOLEAN && isConstant){
+            var value = Optional.of(covtBuffer[pos.get()] == 1);
+            pos.add(dataStreamMetadata.byteLength());
+            return Collections.nCopies(numFeatures, value);
+        }
+        else if(columnMetadata.columnDataType() == ColumnDataType.BOOLEAN){
             //var rleDecodedColumn = DecodingUtils.decodeByteRle(covtBuffer, dataStreamMetadata.numValues(), pos,
             var rleDecodedColumn = DecodingUtils.decodeByteRle(covtBuffer, numBytes, pos,
                     dataStreamMetadata.byteLength());
@@ -289,30 +428,37 @@ public class CovtParser {
             return propertyColumnValues;
         }
 
-        /* decode present stream */
-        //TODO: check if values are required -> no present stream if column values are required
+        /* a required column has no present stream */
         //TODO: get rid of the byte length hack in the byte rle decoding
-        var presentStream = DecodingUtils.decodeByteRle(covtBuffer, numBytes, pos);
-        var bitSet = BitSet.valueOf(presentStream);
-        if(columnMetadata.columnDataType() == ColumnDataType.INT_64){
-            long[] decodedDataColumn;
-            if(dataStreamMetadata.streamEncoding() == StreamEncoding.RLE){
-                decodedDataColumn = DecodingUtils.decodeRle(covtBuffer, dataStreamMetadata.numValues(), pos, true);
-            }
-            else if(dataStreamMetadata.streamEncoding() == StreamEncoding.VARINT_ZIG_ZAG){
-                //TODO: refactor to use long instead of int
-                var values = DecodingUtils.decodeZigZagVarint(covtBuffer,  pos, dataStreamMetadata.numValues());
-                decodedDataColumn = Arrays.stream(values).mapToLong(i -> i).toArray();
+        BitSet bitSet;
+        if(required){
+            bitSet = new BitSet(numFeatures);
+            bitSet.set(0, numFeatures);
+        }
+        else{
+            var presentStream = DecodingUtils.decodeByteRle(covtBuffer, numBytes, pos);
+            bitSet = BitSet.valueOf(presentStream);
+        }
+
+        /* a constant column stores only a single value which is used for all present values */
+        if(isConstant && columnMetadata.columnDataType() != ColumnDataType.STRING){
+            Object value;
+            if(columnMetadata.columnDataType() == ColumnDataType.INT_64){
+                value = DecodingUtils.decodeZigZagLongVarint(covtBuffer, pos);
             }
-            else if(dataStreamMetadata.streamEncoding() == StreamEncoding.VARINT_DELTA_ZIG_ZAG){
-                //TODO: refactor to use long instead of int
-                var values = DecodingUtils.decodeZigZagDeltaVarint(covtBuffer, pos, dataStreamMetadata.numValues());
-                decodedDataColumn = Arrays.stream(values).mapToLong(i -> i).toArray();
+            else if(columnMetadata.columnDataType() == ColumnDataType.FLOAT){
+                value = DecodingUtils.decodeFloatsLE(covtBuffer, pos, 1)[0];
             }
             else{
-                throw new IllegalArgumentException("The specified encoding for the long data stream is not supported.");
+                throw new IllegalArgumentException("The constant encoding is not supported for the specified data type.");
             }
 
+            return getConstantColumn(Optional.of(value), bitSet, numFeatures, required);
+        }
+
+        if(columnMetadata.columnDataType() == ColumnDataType.INT_64){
+            var decodedDataColumn = decodeLongDataStream(covtBuffer, dataStreamMetadata, pos);
+
             //TODO: this evaluation should happen when accessing the properties based on random access
             var j = 0;
             for(var i = 0; i < numFeatures; i++){
@@ -339,13 +485,22 @@ public class CovtParser {
         else if(columnMetadata.columnDataType() == ColumnDataType.STRING){
             //TODO: also decode localized dictionary
             /* String streams: present (BitVector), data (RLE), length (RLE), data_dictionary */
-            if(!columnMetadata.columnType().equals(ColumnType.DICTIONARY)){
+            var isSharedDictionary = columnMetadata.columnType().equals(ColumnType.SHARED_DICTIONARY);
+            if(!columnMetadata.columnType().equals(ColumnType.DICTIONARY) && !isSharedDictionary){
                 throw new IllegalArgumentException("Currently only dictionary encoding is supported for String.");
             }
 
-            var numDictionaryEntries = columnMetadata.streams().get(StreamType.DICTIONARY).numValues();
-            var data = DecodingUtils.decodeRle(covtBuffer, dataStreamMetadata.numValues(), pos, false);
-            var dictionaryData = getStringDictionary(covtBuffer, numDictionaryEntries, pos);
+            long[] data;
+            if(isConstant){
+                data = new long[dataStreamMetadata.numValues()];
+                Arrays.fill(data, VarintDecoder.decodeInt(covtBuffer, pos));
+            }
+            else{
+                data = DecodingUtils.decodeRle(covtBuffer, dataStreamMetadata.numValues(), pos, false);
+            }
+            /* the shared dictionary is not part of the tile */
+            var dictionaryData = isSharedDictionary ? sharedDictionary :
+                    getStringDictionary(covtBuffer, columnMetadata.streams().get(StreamType.DICTIONARY), pos);
 
             var dataCounter = 0;
             for(var i = 0; i < numFeatures; i++){
@@ -366,6 +521,146 @@ public class CovtParser {
         return propertyColumnValues;
     }
 
+    private static long[] decodeLongDataStream(byte[] covtBuffer, StreamMetadata dataStreamMetadata, IntWrapper pos)
+            throws IOException {
+        switch (dataStreamMetadata.streamEncoding()){
+            case RLE:
+                return DecodingUtils.decodeRle(covtBuffer, dataStreamMetadata.numValues(), pos, true);
+            case VARINT_ZIG_ZAG:
+                return DecodingUtils.decodeZigZagLongVarint(covtBuffer, pos, dataStreamMetadata.numValues());
+            case VARINT_DELTA_ZIG_ZAG:
+                return DecodingUtils.decodeZigZagDeltaLongVarint(covtBuffer, pos, dataStreamMetadata.numValues());
+            case CONSTANT: {
+                var values = new long[dataStreamMetadata.numValues()];
+                Arrays.fill(values, DecodingUtils.decodeZigZagLongVarint(covtBuffer, pos));
+                return values;
+            }
+            default:
+                throw new IllegalArgumentException("The specified encoding for the long data stream is not supported.");
+        }
+    }
+
+    /*
+     * The leaf fields are stored in preorder, a leaf field which is not contained in the nested paths is skipped.
+     * */
+    private static List<Optional> decodeNestedColumn(byte[] covtBuffer, int numFeatures, String columnName,
+                                                     NestedField nestedField, Set<String> nestedPaths,
+                                                     IntWrapper pos) throws IOException {
+        var records = new ArrayList<Object>(Collections.nCopies(numFeatures, null));
+        for(var path : nestedField.getLeafPaths()){
+            var leafField = path.get(path.size() - 1);
+            var streams = leafField.streams();
+            if(nestedPaths != null && !nestedPaths.contains(NestedField.getPathName(columnName, path))){
+                pos.add(streams.values().stream().mapToInt(StreamMetadata::byteLength).sum());
+                continue;
+            }
+
+            var repetitionLevelsMetadata = streams.get(StreamType.REPETITION_LEVELS);
+            var repetitionLevels = repetitionLevelsMetadata == null ? null :
+                    Arrays.stream(DecodingUtils.decodeRle(covtBuffer, repetitionLevelsMetadata.numValues(), pos, false)).
+                            mapToInt(i -> (int)i).toArray();
+            var definitionLevelsMetadata = streams.get(StreamType.DEFINITION_LEVELS);
+            var definitionLevels = Arrays.stream(DecodingUtils.decodeRle(covtBuffer, definitionLevelsMetadata.numValues(),
+                    pos, false)).mapToInt(i -> (int)i).toArray();
+
+            var dataStreamMetadata = streams.get(StreamType.DATA);
+            var values = new Object[dataStreamMetadata != null ? dataStreamMetadata.numValues() : 0];
+            if(dataStreamMetadata != null){
+                switch (leafField.dataType()){
+                    case BOOLEAN: {
+                        var numBytes = (int)Math.ceil(values.length / 8d);
+                        var bitSet = BitSet.valueOf(DecodingUtils.decodeByteRle(covtBuffer, numBytes, pos,
+                                dataStreamMetadata.byteLength()));
+                        for(var i = 0; i < values.length; i++){
+                            values[i] = bitSet.get(i);
+                        }
+                        break;
+                    }
+                    case INT_64: {
+                        var longValues = decodeLongDataStream(covtBuffer, dataStreamMetadata, pos);
+                        for(var i = 0; i < values.length; i++){
+                            values[i] = longValues[i];
+                        }
+                        break;
+                    }
+                    case FLOAT: {
+                        var floatValues = DecodingUtils.decodeFloatsLE(covtBuffer, pos, values.length);
+                        for(var i = 0; i < values.length; i++){
+                            values[i] = floatValues[i];
+                        }
+                        break;
+                    }
+                    case STRING: {
+                        var codes = DecodingUtils.decodeRle(covtBuffer, values.length, pos, false);
+                        var dictionary = getStringDictionary(covtBuffer, streams.get(StreamType.DICTIONARY), pos);
+                        for(var i = 0; i < values.length; i++){
+                            values[i] = dictionary[(int)codes[i]];
+                        }
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Data type of the nested field not supported.");
+                }
+            }
+
+            NestedColumnDecoder.assemble(records, path, repetitionLevels, definitionLevels, values);
+        }
+
+        return records.stream().map(Optional::ofNullable).collect(Collectors.toList());
+    }
+
+    private static Map<String, List<Optional>> decodeLocalizedStringDictionaryColumn(byte[] covtBuffer, int numFeatures,
+                                                                                     String columnName, ColumnMetadata columnMetadata,
+                                                                                     Set<String> languages, IntWrapper pos) throws IOException {
+        /* present and data stream per property followed by the length and dictionary stream shared by all properties */
+        var numBytes = (int)Math.ceil(numFeatures / 8d);
+        var presentStreams = new LinkedHashMap<String, BitSet>();
+        var dataStreams = new HashMap<String, long[]>();
+        for(var localizedStream : columnMetadata.localizedStreams().entrySet()){
+            var propertyName = localizedStream.getKey();
+            var presentStreamMetadata = localizedStream.getValue().get(StreamType.PRESENT);
+            var dataStreamMetadata = localizedStream.getValue().get(StreamType.DATA);
+            if(languages != null && !propertyName.equals(columnName) &&
+                    !languages.contains(propertyName.substring(columnName.length() + 1))){
+                pos.add(presentStreamMetadata.byteLength() + dataStreamMetadata.byteLength());
+                continue;
+            }
+
+            var presentStream = DecodingUtils.decodeByteRle(covtBuffer, numBytes, pos, presentStreamMetadata.byteLength());
+            presentStreams.put(propertyName, BitSet.valueOf(presentStream));
+            dataStreams.put(propertyName, DecodingUtils.decodeRle(covtBuffer, dataStreamMetadata.numValues(), pos, false));
+        }
+
+        var dictionaryData = getStringDictionary(covtBuffer, columnMetadata.streams().get(StreamType.DICTIONARY), pos);
+
+        var propertyColumns = new HashMap<String, List<Optional>>();
+        for(var presentStream : presentStreams.entrySet()){
+            var propertyName = presentStream.getKey();
+            var bitSet = presentStream.getValue();
+            var data = dataStreams.get(propertyName);
+            var propertyColumnValues = new ArrayList<Optional>(numFeatures);
+            var dataCounter = 0;
+            for(var i = 0; i < numFeatures; i++){
+                propertyColumnValues.add(bitSet.get(i) ? Optional.of(dictionaryData[(int)data[dataCounter++]]) : Optional.empty());
+            }
+            propertyColumns.put(propertyName, propertyColumnValues);
+        }
+
+        return propertyColumns;
+    }
+
+    private static List<Optional> getConstantColumn(Optional value, BitSet bitSet, int numFeatures, boolean required){
+        if(required){
+            return Collections.nCopies(numFeatures, value);
+        }
+
+        var propertyColumnValues = new ArrayList<Optional>(numFeatures);
+        for(var i = 0; i < numFeatures; i++){
+            propertyColumnValues.add(bitSet.get(i) ? value : Optional.empty());
+        }
+        return propertyColumnValues;
+    }
+
     private static int getNumberOfPresentValues(BitSet bitSet, int numValues){
         var numPresentValues = 0;
         for(var i = 0; i < numValues; i++){
@@ -377,9 +672,19 @@ public class CovtParser {
         return numPresentValues;
     }
 
-    private static String[] getStringDictionary(byte[] covtBuffer, int numDictionaryEntries, IntWrapper pos) throws IOException {
+    private static String[] getStringDictionary(byte[] covtBuffer, StreamMetadata dictionaryStreamMetadata, IntWrapper pos) throws IOException {
+        var numDictionaryEntries = dictionaryStreamMetadata.numValues();
+        if(dictionaryStreamMetadata.streamEncoding() == StreamEncoding.FRONT_CODING){
+            return FrontCodedDictionary.decode(covtBuffer, pos, numDictionaryEntries,
+                    dictionaryStreamMetadata.byteLength()).decodeAll();
+        }
+
         var lengthStream = DecodingUtils.decodeRle(covtBuffer, numDictionaryEntries, pos, false);
 
+        if(dictionaryStreamMetadata.streamEncoding() == StreamEncoding.FSST){
+            return DecodingUtils.decodeFsstDictionary(covtBuffer, pos, lengthStream);
+        }
+
         var dictionaryData = new String[numDictionaryEntries];
         for(var i = 0; i < numDictionaryEntries; i++){
             var length = (int)lengthStream[i];
@@ -390,7 +695,7 @@ public class CovtParser {
     }
 
     private static GeometryColumn decodeGeometryColumn(byte[] covtBuffer, ColumnMetadata columnMetadata,
-                                                       IntWrapper pos, int numBits) throws IOException {
+                                                       IntWrapper pos, int numBits, int[] sharedVertexBuffer) throws IOException {
         /*
         * - Geometry column streams -> geometryType, geometryOffsets, partOffsets, ringOffsets, vertexOffsets, vertexBuffer
         * - geometryType -> Byte, start with Boolean RLE -> but in general parquetRLEBitpackingHybridEncoding
@@ -477,6 +782,13 @@ public class CovtParser {
         }
 
         var vertexBufferMetadata = columnMetadata.streams().get(StreamType.VERTEX_BUFFER);
+        /* references the vertex buffer of a previous layer when a vertex dictionary is shared across the layers */
+        if(vertexBufferMetadata == null){
+            if(sharedVertexBuffer == null){
+                throw new IllegalArgumentException("The geometry column references a shared vertex buffer which is missing.");
+            }
+            return new GeometryColumn(geometryTypes, geometryOffsets, partOffsets, ringOffsets, vertexOffsets, sharedVertexBuffer);
+        }
 
         var encoding = vertexBufferMetadata.streamEncoding();
         if(columnMetadata.columnType() == ColumnType.ICE_MORTON_CODE){
@@ -496,12 +808,15 @@ public class CovtParser {
             return new GeometryColumn(geometryTypes, geometryOffsets, partOffsets, ringOffsets, vertexOffsets, vertexBuffer);
         }
 
+        /* the number of values of an ICE vertex buffer is the number of vertices and not the number of coordinates */
+        var numCoordinates = columnMetadata.columnType() == ColumnType.ICE ? vertexBufferMetadata.numValues() * 2 :
+                vertexBufferMetadata.numValues();
         int[] vertexBuffer = null;
         if(encoding == StreamEncoding.VARINT_DELTA_ZIG_ZAG){
-            vertexBuffer = DecodingUtils.decodeZigZagDeltaVarintCoordinates(covtBuffer, pos, vertexBufferMetadata.numValues());
+            vertexBuffer = DecodingUtils.decodeZigZagDeltaVarintCoordinates(covtBuffer, pos, numCoordinates);
         }
         else if(encoding == StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG){
-            vertexBuffer = DecodingUtils.decodeFastPfor128DeltaCoordinates(covtBuffer, vertexBufferMetadata.numValues(),
+            vertexBuffer = DecodingUtils.decodeFastPfor128DeltaCoordinates(covtBuffer, numCoordinates,
                     vertexBufferMetadata.byteLength(), pos);
         }
         else{
@@ -549,26 +864,134 @@ public class CovtParser {
         return vertices;
     }
 
-    private static long[] decodedIds(byte[] covtBuffer, int numFeatures, StreamEncoding encoding, IntWrapper pos) throws IOException {
-        if(encoding == StreamEncoding.RLE){
-            return DecodingUtils.decodeRle(covtBuffer, numFeatures, pos, false);
+    /*
+     * Returns the value of every vertex, NaN for vertices without a value, or null if the stream is not present or
+     * skipped, a skipped stream is not decompressed.
+     * */
+    private static double[] decodeVertexValues(byte[] covtBuffer, StreamMetadata vertexValuesMetadata, boolean decode,
+                                               IntWrapper pos) throws IOException {
+        if(vertexValuesMetadata == null){
+            return null;
+        }
+        if(!decode){
+            pos.add(vertexValuesMetadata.byteLength());
+            return null;
+        }
+
+        var streamStart = pos.get();
+        var numVertices = vertexValuesMetadata.numValues();
+        var presentLength = VarintDecoder.decodeInt(covtBuffer, pos);
+        var present = BitSet.valueOf(DecodingUtils.decodeByteRle(covtBuffer, (numVertices + 7) / 8, pos,
+                presentLength));
+        var numPresentValues = present.cardinality();
+        int[] presentValues;
+        if(vertexValuesMetadata.streamEncoding() == StreamEncoding.VARINT_DELTA_ZIG_ZAG){
+            presentValues = DecodingUtils.decodeZigZagDeltaVarint(covtBuffer, pos, numPresentValues);
+        }
+        else if(vertexValuesMetadata.streamEncoding() == StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG){
+            presentValues = DecodingUtils.decodeFastPfor128ZigZagDelta(covtBuffer, numPresentValues,
+                    vertexValuesMetadata.byteLength() - (pos.get() - streamStart), pos);
+        }
+        else{
+            throw new IllegalArgumentException("The specified encoding is not supported for z- and m-values.");
         }
 
-        if(encoding == StreamEncoding.VARINT){
-            //TODO: optimize this decoding step and test
-            //TODO: use long
-            return Arrays.stream(DecodingUtils.decodeVarint(covtBuffer, pos, numFeatures)).mapToLong(i -> i).toArray();
+        var factor = Math.pow(10, vertexValuesMetadata.scale());
+        var values = new double[numVertices];
+        var presentIndex = 0;
+        for(var i = 0; i < numVertices; i++){
+            values[i] = present.get(i) ? presentValues[presentIndex++] / factor : Double.NaN;
         }
+        return values;
+    }
 
-        if(encoding == StreamEncoding.VARINT_DELTA_ZIG_ZAG){
-            //TODO: optimize this decoding step and test
-            //TODO: use long
-            return Arrays.stream(DecodingUtils.decodeZigZagDeltaVarint(covtBuffer, pos, numFeatures)).mapToLong(i -> i).toArray();
+    /*
+     * The z- and m-values are stored in the order of the vertices of the geometries without the closing vertices of
+     * the rings.
+     * */
+    private static void addVertexValues(Geometry[] geometries, double[] zValues, double[] mValues){
+        var vertexIndex = new IntWrapper(0);
+        var editor = new GeometryEditor();
+        var operation = new GeometryEditor.CoordinateOperation() {
+            @Override
+            public Coordinate[] edit(Coordinate[] coordinates, Geometry geometry) {
+                var isRing = geometry instanceof LinearRing && coordinates.length > 0;
+                var numVertices = isRing ? coordinates.length - 1 : coordinates.length;
+                var vertices = new Coordinate[coordinates.length];
+                for(var i = 0; i < numVertices; i++){
+                    var index = vertexIndex.get();
+                    vertexIndex.increment();
+                    var x = coordinates[i].getX();
+                    var y = coordinates[i].getY();
+                    if(zValues != null && mValues != null){
+                        vertices[i] = new CoordinateXYZM(x, y, zValues[index], mValues[index]);
+                    }
+                    else if(mValues != null){
+                        vertices[i] = new CoordinateXYM(x, y, mValues[index]);
+                    }
+                    else{
+                        vertices[i] = new Coordinate(x, y, zValues[index]);
+                    }
+                }
+
+                if(isRing){
+                    vertices[numVertices] = vertices[0].copy();
+                }
+                return vertices;
+            }
+        };
+
+        for(var i = 0; i < geometries.length; i++){
+            geometries[i] = editor.edit(geometries[i], operation);
+        }
+    }
+
+    /*
+     * The indices reference the vertices in the order of the vertex offsets for ICE encoded geometries, so they are
+     * resolved to reference the vertex buffer directly.
+     * */
+    private static int[] decodeIndexBuffer(byte[] covtBuffer, StreamMetadata indexBufferMetadata, int[] vertexOffsets,
+                                           IntWrapper pos){
+        int[] indexBuffer;
+        if(indexBufferMetadata.streamEncoding() == StreamEncoding.VARINT_DELTA_ZIG_ZAG){
+            indexBuffer = DecodingUtils.decodeZigZagDeltaVarint(covtBuffer, pos, indexBufferMetadata.numValues());
+        }
+        else if(indexBufferMetadata.streamEncoding() == StreamEncoding.FAST_PFOR_DELTA_ZIG_ZAG){
+            indexBuffer = DecodingUtils.decodeFastPfor128ZigZagDelta(covtBuffer, indexBufferMetadata.numValues(),
+                    indexBufferMetadata.byteLength(), pos);
+        }
+        else{
+            throw new IllegalArgumentException("The specified encoding is not supported for the index buffer.");
         }
 
+        if(vertexOffsets != null){
+            for(var i = 0; i < indexBuffer.length; i++){
+                indexBuffer[i] = vertexOffsets[indexBuffer[i]];
+            }
+        }
+        return indexBuffer;
+    }
 
-        //TODO: add VarintZigZagDelta encoding
-        throw new IllegalArgumentException("The specified encoding for the id column is not supported (yet).");
+    private static long[] decodedIds(byte[] covtBuffer, int numFeatures, StreamEncoding encoding, IntWrapper pos) throws IOException {
+        switch (encoding){
+            case RLE:
+                return DecodingUtils.decodeRle(covtBuffer, numFeatures, pos, false);
+            case VARINT:
+                return DecodingUtils.decodeLongVarint(covtBuffer, pos, numFeatures);
+            case VARINT_DELTA: {
+                var ids = new long[numFeatures];
+                VarintDecoder.decodeDeltaLongs(covtBuffer, pos, ids, 0, numFeatures);
+                return ids;
+            }
+            case VARINT_DELTA_ZIG_ZAG:
+                return DecodingUtils.decodeZigZagDeltaLongVarint(covtBuffer, pos, numFeatures);
+            case FOR_BIT_PACKING:
+                return DecodingUtils.decodeForBitPacking(covtBuffer, pos, numFeatures, false);
+            case DELTA_FOR_BIT_PACKING:
+                return DecodingUtils.decodeForBitPacking(covtBuffer, pos, numFeatures, true);
+            default:
+                throw new IllegalArgumentException("The specified encoding for the id column is not supported (yet).");
+        }
     }
 
     private static LayerMetadata decodeLayerMetadata(byte[] covtBuffer, IntWrapper pos, TileJson tileJson) throws IOException {
@@ -581,7 +1004,7 @@ public class CovtParser {
         VectorLayer vectorLayer;
         List<String> fields = null;
         if(optimizeMetadata){
-            var layerId = DecodingUtils.decodeVarint(covtBuffer, pos, 1)[0];
+            var layerId = VarintDecoder.decodeInt(covtBuffer, pos);
             vectorLayer = tileJson.vectorLayers.get(layerId);
             /* the layer id corresponds to the position of the layer in the vector_layers list */
             layerName = vectorLayer.id;
@@ -592,17 +1015,21 @@ public class CovtParser {
             layerName = DecodingUtils.decodeString(covtBuffer, pos);
         }
 
-        var layerDesc = DecodingUtils.decodeVarint(covtBuffer, pos, 3);
-        var extent = layerDesc[0];
-        var numFeatures = layerDesc[1];
-        var numColumns = layerDesc[2];
+        var extent = VarintDecoder.decodeInt(covtBuffer, pos);
+        var numFeatures = VarintDecoder.decodeInt(covtBuffer, pos);
+        var numColumns = VarintDecoder.decodeInt(covtBuffer, pos);
 
         var columnMetadata = new LinkedHashMap<String, ColumnMetadata>();
+        var requiredColumns = new HashSet<String>();
+        /* the id and geometry columns are always referenced by their column id */
+        var numReservedColumns = 1;
         for(var i = 0; i < numColumns; i++){
             String columnName;
-            //TODO: not working for id -> make DataType the first field of the ColumnMetadata before name
-            if(optimizeMetadata || i == 0){
-                var columnId = DecodingUtils.decodeVarint(covtBuffer, pos, 1)[0];
+            if(optimizeMetadata || i < numReservedColumns){
+                var columnId = VarintDecoder.decodeInt(covtBuffer, pos);
+                if(i == 0 && columnId == 0){
+                    numReservedColumns = 2;
+                }
                 /* check if is a property column -> id or geometry columns needs no matching */
                 if(columnId > 1){
                     /* subtract id and geometry column to match vector_layers indices */
@@ -617,29 +1044,46 @@ public class CovtParser {
             }
 
             var columnDesc = (int)covtBuffer[pos.get()] & 0xff;
-            //TODO: handle required
             var required = (columnDesc >> 7) == 1 ? true : false;
-            var columnDataType =  ColumnDataType.values()[(columnDesc >> 3 & 0xF)];
+            if(required){
+                requiredColumns.add(columnName);
+            }
             var columnType = ColumnType.values()[columnDesc & 0x7];
             pos.increment();
+            /* the data types which don't fit into 4 bits are stored as escape value followed by a varint */
+            var columnDataTypeId = columnDesc >> 3 & 0xF;
+            if(columnDataTypeId == 0xF){
+                columnDataTypeId += VarintDecoder.decodeInt(covtBuffer, pos);
+            }
+            var columnDataType =  ColumnDataType.values()[columnDataTypeId];
+
+            if(columnDataType == ColumnDataType.LIST || columnDataType == ColumnDataType.STRUCT){
+                columnMetadata.put(columnName, new ColumnMetadata(columnDataType, columnType, new TreeMap<>(), null,
+                        decodeNestedFieldMetadata(covtBuffer, pos, null, columnDataType)));
+                continue;
+            }
 
             var streams = new TreeMap<StreamType, StreamMetadata>();
-            columnMetadata.put(columnName, new ColumnMetadata(columnDataType, columnType, streams));
+            LinkedHashMap<String, TreeMap<StreamType, StreamMetadata>> localizedStreams = null;
+            if(columnType == ColumnType.LOCALIZED_DICTIONARY){
+                localizedStreams = decodeLocalizedStreamMetadata(covtBuffer, pos, fields);
+            }
+            columnMetadata.put(columnName, new ColumnMetadata(columnDataType, columnType, streams, localizedStreams));
+            if(columnDataType == ColumnDataType.GEOMETRY || columnDataType == ColumnDataType.GEOMETRY_Z ||
+                    columnDataType == ColumnDataType.GEOMETRY_M || columnDataType == ColumnDataType.GEOMETRY_ZM){
+                var numStreams = VarintDecoder.decodeInt(covtBuffer, pos);
+                for(var j = 0; j < numStreams; j++){
+                    decodeStreamMetadata(covtBuffer, pos, streams);
+                }
+                continue;
+            }
+
             while(true){
-                var streamDesc = (int)covtBuffer[pos.get()] & 0xff;
-                var streamType = StreamType.values()[streamDesc >> 4];
-                var streamEncoding = StreamEncoding.values()[streamDesc & 0xF];
-                pos.increment();
-                var numValues = DecodingUtils.decodeVarint(covtBuffer, pos , 1)[0];
-                var byteLength = DecodingUtils.decodeVarint(covtBuffer, pos, 1)[0];
-                //var streamName = DecodingUtils.decodeString(covtBuffer, pos);
-                streams.put(streamType, new StreamMetadata(streamEncoding, numValues, byteLength));
+                var streamType = decodeStreamMetadata(covtBuffer, pos, streams);
 
                 /* check if it is the last stream in the column */
-                if(columnDataType == ColumnDataType.GEOMETRY && streamType == StreamType.VERTEX_BUFFER){
-                    break;
-                }
-                else if(streamType == StreamType.DATA && columnType == ColumnType.PLAIN){
+                if(streamType == StreamType.DATA && (columnType == ColumnType.PLAIN ||
+                        columnType == ColumnType.SHARED_DICTIONARY)){
                     break;
                 }
                 else if(streamType == StreamType.DICTIONARY){
@@ -648,12 +1092,69 @@ public class CovtParser {
             }
         }
 
-        return new LayerMetadata(layerName, extent, numFeatures, numColumns, columnMetadata);
+        return new LayerMetadata(layerName, extent, numFeatures, numColumns, columnMetadata, requiredColumns);
+    }
+
+    private static NestedField decodeNestedFieldMetadata(byte[] covtBuffer, IntWrapper pos, String name,
+                                                         ColumnDataType dataType){
+        var children = new ArrayList<NestedField>();
+        var streams = new TreeMap<StreamType, StreamMetadata>();
+        if(dataType == ColumnDataType.STRUCT || dataType == ColumnDataType.LIST){
+            var numChildren = dataType == ColumnDataType.STRUCT ? VarintDecoder.decodeInt(covtBuffer, pos) : 1;
+            for(var i = 0; i < numChildren; i++){
+                var childName = dataType == ColumnDataType.STRUCT ? DecodingUtils.decodeString(covtBuffer, pos) : null;
+                var childDataType = ColumnDataType.values()[covtBuffer[pos.get()]];
+                pos.increment();
+                children.add(decodeNestedFieldMetadata(covtBuffer, pos, childName, childDataType));
+            }
+        }
+        else{
+            var numStreams = VarintDecoder.decodeInt(covtBuffer, pos);
+            for(var i = 0; i < numStreams; i++){
+                decodeStreamMetadata(covtBuffer, pos, streams);
+            }
+        }
+
+        return new NestedField(name, dataType, children, streams);
+    }
+
+    private static StreamType decodeStreamMetadata(byte[] covtBuffer, IntWrapper pos, TreeMap<StreamType, StreamMetadata> streams){
+        var streamDesc = (int)covtBuffer[pos.get()] & 0xff;
+        var streamType = StreamType.values()[streamDesc >> 4];
+        var streamEncoding = StreamEncoding.values()[streamDesc & 0xF];
+        pos.increment();
+        var numValues = VarintDecoder.decodeInt(covtBuffer, pos);
+        var byteLength = VarintDecoder.decodeInt(covtBuffer, pos);
+        var scale = streamType == StreamType.Z_VALUE || streamType == StreamType.M_VALUE ?
+                VarintDecoder.decodeInt(covtBuffer, pos) : 0;
+        //var streamName = DecodingUtils.decodeString(covtBuffer, pos);
+        streams.put(streamType, new StreamMetadata(streamEncoding, numValues, byteLength, scale));
+        return streamType;
+    }
+
+    /*
+     * The property names are referenced by their index in the fields of the vector layer when the metadata is optimized.
+     * */
+    private static LinkedHashMap<String, TreeMap<StreamType, StreamMetadata>> decodeLocalizedStreamMetadata(byte[] covtBuffer,
+                                                                                                         IntWrapper pos,
+                                                                                                         List<String> fields){
+        var localizedStreams = new LinkedHashMap<String, TreeMap<StreamType, StreamMetadata>>();
+        var numProperties = VarintDecoder.decodeInt(covtBuffer, pos);
+        for(var i = 0; i < numProperties; i++){
+            var propertyName = fields != null ? fields.get(VarintDecoder.decodeInt(covtBuffer, pos)) :
+                    DecodingUtils.decodeString(covtBuffer, pos);
+            var streams = new TreeMap<StreamType, StreamMetadata>();
+            decodeStreamMetadata(covtBuffer, pos, streams);
+            decodeStreamMetadata(covtBuffer, pos, streams);
+            localizedStreams.put(propertyName, streams);
+        }
+
+        return localizedStreams;
     }
 
     private static Header decodeHeader(byte[] covtBuffer, IntWrapper pos){
-        var version = DecodingUtils.decodeVarint(covtBuffer, pos, 1)[0];
-        var numLayers = DecodingUtils.decodeVarint(covtBuffer, pos,1)[0];
+        var version = VarintDecoder.decodeInt(covtBuffer, pos);
+        var numLayers = VarintDecoder.decodeInt(covtBuffer, pos);
         return new Header(version, numLayers);
     }
 
@@ -0,0 +1,230 @@
+package com.covt.decoder;
+
+import com.covt.converter.CovtConverter;
+import com.covt.converter.mvt.Feature;
+import com.covt.converter.mvt.Layer;
+import com.covt.converter.tilejson.TileJson;
+import org.locationtech.jts.geom.Geometry;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/*
+ * Keeps the decoded layers of frequently accessed tiles on the heap until the byte budget of the cache is exhausted,
+ * then the least recently used layers are evicted.
+ * An entry is identified by the tile, the layer and the projection, so different subsets of the columns of a layer
+ * are cached independently. On a miss the tile is decoded with the projection and all layers of the tile are cached,
+ * as the decoding of the tile is the expensive part, the requested layer is added last so it is evicted last.
+ * The size of an entry is estimated from the number of features, vertices and property values, as the decoded
+ * layers consist of JTS geometries and boxed values the estimate includes the object headers and references.
+ * Strings which are shared by the features e.g. the values of a dictionary or the property names are counted once.
+ * The returned layers are shared and must not be modified.
+ * */
+public class DecodedLayerCache {
+    private static final int OBJECT_SIZE = 16;
+    private static final int REFERENCE_SIZE = 8;
+    /* Coordinate object with x, y and z plus the reference in the coordinate array */
+    private static final int COORDINATE_SIZE = OBJECT_SIZE + 3 * Double.BYTES + REFERENCE_SIZE;
+    /* geometry object with envelope and coordinate sequence */
+    private static final int GEOMETRY_SIZE = 3 * OBJECT_SIZE + 4 * Double.BYTES + 2 * REFERENCE_SIZE;
+    private static final int MAP_ENTRY_SIZE = OBJECT_SIZE + 4 * REFERENCE_SIZE;
+    private static final int BOXED_VALUE_SIZE = OBJECT_SIZE + Long.BYTES;
+
+    /*
+     * @param columns names of the property columns which are part of the layers, localized columns e.g. name:de or
+     *                name_en are selected by the name of the column e.g. name like they are grouped by the converter,
+     *                null for all columns
+     * @param languages, decodeVertexValues, nestedPaths see CovtParser.decodeCovt
+     * */
+    public record Projection(Set<String> columns, Set<String> languages, boolean decodeVertexValues,
+                             Set<String> nestedPaths){
+        public static final Projection ALL = new Projection(null, null, true, null);
+    }
+
+    public record Statistics(long hitCount, long missCount, long evictionCount, int numEntries, long sizeInBytes){}
+
+    private record Key(long tileId, String layerName, Projection projection){}
+
+    private record Entry(Layer layer, long sizeInBytes){}
+
+    private final long maxSizeInBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public DecodedLayerCache(long maxSizeInBytes){
+        if(maxSizeInBytes <= 0){
+            throw new IllegalArgumentException("The byte budget of the cache has to be positive.");
+        }
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    /*
+     * Returns the decoded layer or null if the tile contains no layer with the specified name.
+     * @param tileId id of the tile e.g. from TileId.zxyToTileId
+     * */
+    public Layer getLayer(long tileId, String layerName, Projection projection, byte[] covtBuffer,
+                          TileJson tileJson) throws IOException {
+        var key = new Key(tileId, layerName, projection);
+        synchronized(this){
+            var entry = entries.get(key);
+            if(entry != null){
+                hitCount++;
+                return entry.layer;
+            }
+            missCount++;
+        }
+
+        /* decoded outside the lock, concurrent misses for the same tile decode the tile multiple times */
+        var layers = CovtParser.decodeCovt(covtBuffer, tileJson, projection.languages, projection.decodeVertexValues,
+                projection.nestedPaths);
+        Layer requestedLayer = null;
+        for(var layer : layers){
+            var projectedLayer = projectColumns(layer, projection.columns);
+            if(layer.name().equals(layerName)){
+                requestedLayer = projectedLayer;
+            }
+            else{
+                put(new Key(tileId, layer.name(), projection), projectedLayer);
+            }
+        }
+
+        if(requestedLayer != null){
+            put(key, requestedLayer);
+        }
+        return requestedLayer;
+    }
+
+    public synchronized void invalidate(long tileId){
+        var iterator = entries.entrySet().iterator();
+        while(iterator.hasNext()){
+            var entry = iterator.next();
+            if(entry.getKey().tileId == tileId){
+                sizeInBytes -= entry.getValue().sizeInBytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear(){
+        entries.clear();
+        sizeInBytes = 0;
+    }
+
+    public synchronized Statistics getStatistics(){
+        return new Statistics(hitCount, missCount, evictionCount, entries.size(), sizeInBytes);
+    }
+
+    /* An entry which is already cached e.g. by a concurrent miss is kept, so the cached instance stays the same */
+    private void put(Key key, Layer layer){
+        var entrySize = estimateSize(layer);
+        synchronized(this){
+            /* a layer which exceeds the budget would evict all other entries */
+            if(entrySize > maxSizeInBytes || entries.containsKey(key)){
+                return;
+            }
+
+            entries.put(key, new Entry(layer, entrySize));
+            sizeInBytes += entrySize;
+            evict();
+        }
+    }
+
+    private void evict(){
+        var iterator = entries.values().iterator();
+        while(sizeInBytes > maxSizeInBytes){
+            var eldestEntry = iterator.next();
+            sizeInBytes -= eldestEntry.sizeInBytes;
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private static Layer projectColumns(Layer layer, Set<String> columns){
+        if(columns == null){
+            return layer;
+        }
+
+        var features = layer.features().stream().map(feature -> {
+            var properties = new HashMap<String, Object>();
+            for(var property : feature.properties().entrySet()){
+                var localizedColumnName = CovtConverter.getLocalizedColumnName(property.getKey());
+                var columnName = localizedColumnName != null ? localizedColumnName : property.getKey();
+                if(columns.contains(columnName)){
+                    properties.put(property.getKey(), property.getValue());
+                }
+            }
+            return new Feature(feature.id(), feature.geometry(), properties);
+        }).toList();
+        return new Layer(layer.name(), features, layer.tileExtent());
+    }
+
+    static long estimateSize(Layer layer){
+        long size = OBJECT_SIZE + layer.name().length();
+        var countedStrings = Collections.newSetFromMap(new IdentityHashMap<String, Boolean>());
+        for(var feature : layer.features()){
+            size += OBJECT_SIZE + Long.BYTES + 3 * REFERENCE_SIZE;
+            size += estimateSize(feature.geometry());
+            size += OBJECT_SIZE;
+            for(var property : feature.properties().entrySet()){
+                size += MAP_ENTRY_SIZE + estimateStringSize(property.getKey(), countedStrings) +
+                        estimateValueSize(property.getValue(), countedStrings);
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(Geometry geometry){
+        if(geometry == null){
+            return 0;
+        }
+        return (long) geometry.getNumGeometries() * GEOMETRY_SIZE + (long) geometry.getNumPoints() * COORDINATE_SIZE;
+    }
+
+    private static long estimateValueSize(Object value, Set<String> countedStrings){
+        if(value == null){
+            return 0;
+        }
+        if(value instanceof String string){
+            return estimateStringSize(string, countedStrings);
+        }
+        /* the decoded property values are wrapped in an Optional, the empty Optional is a shared instance */
+        if(value instanceof Optional<?> optional){
+            return optional.isPresent() ? OBJECT_SIZE + REFERENCE_SIZE + estimateValueSize(optional.get(),
+                    countedStrings) : 0;
+        }
+        if(value instanceof Map<?, ?> struct){
+            long size = OBJECT_SIZE;
+            for(var field : struct.entrySet()){
+                size += MAP_ENTRY_SIZE + estimateValueSize(field.getKey(), countedStrings) +
+                        estimateValueSize(field.getValue(), countedStrings);
+            }
+            return size;
+        }
+        if(value instanceof List<?> list){
+            long size = OBJECT_SIZE;
+            for(var element : list){
+                size += REFERENCE_SIZE + estimateValueSize(element, countedStrings);
+            }
+            return size;
+        }
+        return BOXED_VALUE_SIZE;
+    }
+
+    /*
+     * String object with the byte array of the Latin-1 or UTF-16 encoded characters, a String instance which was
+     * already counted is only referenced.
+     * */
+    private static long estimateStringSize(String value, Set<String> countedStrings){
+        return countedStrings.add(value) ? 2 * OBJECT_SIZE + 2L * value.length() : 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.covt.decoder;
+
+import com.covt.converter.ColumnMetadata;
+
+/*
+ * Receives the timings and sizes of the decoding of a tile with CovtParser.decodeCovt.
+ * The methods are called on the decoding thread after a column respectively a layer was decoded. The duration of a
+ * layer contains the decoding of the metadata and the columns and the assembling of the features. The durations
+ * are in nanoseconds and the sizes in bytes.
+ * */
+public interface DecodingListener {
+
+    default void onColumnDecoded(String layerName, String columnName, ColumnMetadata columnMetadata, int byteSize,
+                                 long nanos){}
+
+    default void onLayerDecoded(String layerName, int numFeatures, int byteSize, long nanos){}
+}
@@ -1,6 +1,7 @@
 package com.covt.decoder;
 
 import com.covt.converter.EncodingUtils;
+import com.covt.converter.FsstEncoder;
 import com.covt.converter.GeometryUtils;
 import me.lemire.integercompression.*;
 import org.apache.orc.impl.BufferChunk;
@@ -19,7 +20,7 @@ public final class DecodingUtils {
     private DecodingUtils(){}
 
     public static String decodeString(byte[] content, IntWrapper pos) {
-        var stringLength = decodeVarint(content, pos)[0];
+        var stringLength = VarintDecoder.decodeInt(content, pos);
         var str = new String(content, pos.get(), stringLength, StandardCharsets.UTF_8);
         pos.set(pos.get() + stringLength);
         return str;
@@ -31,74 +32,147 @@ public final class DecodingUtils {
         return str;
     }
 
-    //TODO: quick and dirty -> optimize for performance
+    /*
+     * Decodes a FSST compressed dictionary -> symbolTable | compressed strings.
+     * The symbols are not copied and referenced by their offset in the buffer, every string can be decoded independently.
+     * */
+    public static String[] decodeFsstDictionary(byte[] content, IntWrapper pos, long[] compressedLengths){
+        var numSymbols = content[pos.get()] & 0xff;
+        var symbolLengths = new int[numSymbols];
+        var symbolOffsets = new int[numSymbols];
+        var symbolOffset = pos.get() + 1 + numSymbols;
+        for(var i = 0; i < numSymbols; i++){
+            symbolLengths[i] = content[pos.get() + 1 + i] & 0xff;
+            symbolOffsets[i] = symbolOffset;
+            symbolOffset += symbolLengths[i];
+        }
+
+        var values = new String[compressedLengths.length];
+        var offset = symbolOffset;
+        for(var i = 0; i < compressedLengths.length; i++){
+            var compressedLength = (int)compressedLengths[i];
+            values[i] = decodeFsstString(content, offset, compressedLength, symbolOffsets, symbolLengths);
+            offset += compressedLength;
+        }
+
+        pos.set(offset);
+        return values;
+    }
+
+    public static String decodeFsstString(byte[] content, int offset, int compressedLength, int[] symbolOffsets,
+                                          int[] symbolLengths){
+        var buffer = new byte[compressedLength * 8];
+        var length = 0;
+        var end = offset + compressedLength;
+        while(offset < end){
+            var code = content[offset++] & 0xff;
+            if(code == FsstEncoder.ESCAPE_CODE){
+                buffer[length++] = content[offset++];
+                continue;
+            }
+
+            var symbolLength = symbolLengths[code];
+            System.arraycopy(content, symbolOffsets[code], buffer, length, symbolLength);
+            length += symbolLength;
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
     public static int[] decodeVarint(byte[] src, IntWrapper pos, int numValues){
         var values = new int[numValues];
-        var dstOffset = 0;
-        for(var i = 0; i < numValues; i++){
-            var offset = decodeVarint(src, pos.get(), values, dstOffset);
-            dstOffset++;
-            pos.set(offset);
-        }
+        VarintDecoder.decodeInts(src, pos, values, 0, numValues);
         return values;
     }
 
     public static int[] decodeZigZagVarint(byte[] covtBuffer, IntWrapper pos, int numValues){
         var values = new int[numValues];
-        for(var i = 0; i < numValues; i++){
-            values[i] = decodeZigZagVarint(covtBuffer, pos);
-        }
-
+        VarintDecoder.decodeZigZagInts(covtBuffer, pos, values, 0, numValues);
         return values;
     }
 
     public static int[] decodeZigZagDeltaVarint(byte[] covtBuffer, IntWrapper pos, int numValues){
         var values = new int[numValues];
-        var previousValue = 0;
-        for(var i = 0; i < numValues; i++){
-            var delta = decodeZigZagVarint(covtBuffer, pos);
-            var value = previousValue + delta;
-            values[i] = value;
-            previousValue = value;
-        }
-
+        VarintDecoder.decodeZigZagDeltaInts(covtBuffer, pos, values, 0, numValues);
         return values;
     }
 
-    /*public static long[] decodeLongVarint(byte[] src, IntWrapper pos, int numValues, int byteSize){
-        //TODO: get rid of that byte buffer creation
+    public static long[] decodeLongVarint(byte[] src, IntWrapper pos, int numValues){
         var values = new long[numValues];
-        for(var i = 0; i < numValues; i++){
-            values[i] = decodeLongVarint(ByteBuffer.wrap(src, pos.get() ));
+        VarintDecoder.decodeLongs(src, pos, values, 0, numValues);
+        return values;
+    }
 
-        }
+    public static long[] decodeZigZagLongVarint(byte[] src, IntWrapper pos, int numValues){
+        var values = new long[numValues];
+        VarintDecoder.decodeZigZagLongs(src, pos, values, 0, numValues);
+        return values;
+    }
 
-        //TODO: refactor -> get byte size from decoding
-        pos.set(pos.get() + byteSize);
+    public static long[] decodeZigZagDeltaLongVarint(byte[] src, IntWrapper pos, int numValues){
+        var values = new long[numValues];
+        VarintDecoder.decodeZigZagDeltaLongs(src, pos, values, 0, numValues);
         return values;
     }
 
-    public static long[] decodeZigZagLongVarint(byte[] src, IntWrapper pos, int numValues, int byteSize){
-        //TODO: get rid of that byte buffer creation
+    public static long decodeLongVarint(byte[] src, IntWrapper pos){
+        return VarintDecoder.decodeLong(src, pos);
+    }
+
+    public static long decodeZigZagLongVarint(byte[] src, IntWrapper pos){
+        return VarintDecoder.decodeZigZagLong(src, pos);
+    }
+
+    /*
+     * Decodes frame of reference encoded values -> (first value) | reference | bitWidth | packed values (LSB first).
+     * */
+    public static long[] decodeForBitPacking(byte[] buffer, IntWrapper pos, int numValues, boolean deltaEncoded){
         var values = new long[numValues];
-        for(var i = 0; i < numValues; i++){
-            var varint = decodeLongVarint(ByteBuffer.wrap())
-            values[i] = decodeZigZagLongVarint(ByteBuffer.wrap(src));
+        if(numValues == 0){
+            return values;
+        }
 
+        var numPackedValues = numValues;
+        var valueOffset = 0;
+        if(deltaEncoded){
+            values[0] = decodeZigZagLongVarint(buffer, pos);
+            numPackedValues--;
+            valueOffset = 1;
         }
+        var reference = decodeZigZagLongVarint(buffer, pos);
+        var bitWidth = buffer[pos.get()] & 0xff;
+        pos.increment();
+
+        var bitPos = (long)pos.get() << 3;
+        for(var i = 0; i < numPackedValues; i++){
+            var value = 0L;
+            var numBits = 0;
+            while(numBits < bitWidth){
+                var bitOffset = (int)(bitPos & 7);
+                var n = Math.min(8 - bitOffset, bitWidth - numBits);
+                var bits = ((buffer[(int)(bitPos >>> 3)] & 0xff) >>> bitOffset) & ((1 << n) - 1);
+                value |= (long)bits << numBits;
+                numBits += n;
+                bitPos += n;
+            }
+            values[i + valueOffset] = value + reference;
+        }
+        pos.add((int)(((long)numPackedValues * bitWidth + 7) / 8));
 
-        //TODO: refactor -> get byte size from decoding
-        pos.set(pos.get() + byteSize);
+        if(deltaEncoded){
+            for(var i = 1; i < numValues; i++){
+                values[i] += values[i - 1];
+            }
+        }
         return values;
-    }*/
+    }
 
     public static int[] decodeZigZagDeltaVarintCoordinates(byte[] covtBuffer, IntWrapper pos, int numValues){
         var values = new int[numValues];
         var previousValueX = 0;
         var previousValueY = 0;
         for(var i = 0; i < numValues; i+=2){
-            var deltaX = decodeZigZagVarint(covtBuffer, pos);
-            var deltaY = decodeZigZagVarint(covtBuffer, pos);
+            var deltaX = VarintDecoder.decodeZigZagInt(covtBuffer, pos);
+            var deltaY = VarintDecoder.decodeZigZagInt(covtBuffer, pos);
             var x = previousValueX + deltaX;
             var y = previousValueY + deltaY;
             values[i] = x;
@@ -111,144 +185,6 @@ public final class DecodingUtils {
         return values;
     }
 
-    //Source: https://github.com/bazelbuild/bazel/blob/master/src/main/java/com/google/devtools/build/lib/util/VarInt.java
-    /**
-     * Reads a varint from src, places its values into the first element of dst and returns the offset
-     * in to src of the first byte after the varint.
-     *
-     * @param src source buffer to retrieve from
-     * @param offset offset within src
-     * @param dst the resulting int values
-     * @return the updated offset after reading the varint
-     */
-    private static int decodeVarint(byte[] src, int offset, int[] dst) {
-        var dstOffset = 0;
-
-        /*
-         * Max 4 bytes supported.
-         * */
-        var b= src[offset++];
-        var value = b & 0x7f;
-        if ((b & 0x80) == 0) {
-            dst[dstOffset] = value;
-            return offset;
-        }
-
-        b = src[offset++];
-        value |= (b & 0x7f) << 7;
-        if ((b & 0x80) == 0) {
-            dst[dstOffset] = value;
-            return offset;
-        }
-
-        b = src[offset++];
-        value |= (b & 0x7f) << 14;
-        if ((b & 0x80) == 0) {
-            dst[dstOffset] = value;
-            return offset;
-        }
-
-        b = src[offset++];
-        value |= (b & 0x7f) << 21;
-        dst[dstOffset] = value;
-        return offset;
-    }
-
-    private static int decodeVarint(byte[] src, int offset, int[] dst, int dstOffset) {
-        /*
-         * Max 4 bytes supported.
-         * */
-        var b= src[offset++];
-        var value = b & 0x7f;
-        if ((b & 0x80) == 0) {
-            dst[dstOffset] = value;
-            return offset;
-        }
-
-        b = src[offset++];
-        value |= (b & 0x7f) << 7;
-        if ((b & 0x80) == 0) {
-            dst[dstOffset] = value;
-            return offset;
-        }
-
-        b = src[offset++];
-        value |= (b & 0x7f) << 14;
-        if ((b & 0x80) == 0) {
-            dst[dstOffset] = value;
-            return offset;
-        }
-
-        b = src[offset++];
-        value |= (b & 0x7f) << 21;
-        dst[dstOffset] = value;
-        return offset;
-    }
-
-    //TODO: quick and dirty -> optimize for performance
-    private static int[] decodeVarint(byte[] src, IntWrapper pos){
-        var values = new int[1];
-        var offset = decodeVarint(src, pos.get(), values);
-        pos.set(offset);
-        return values;
-    }
-
-    /* Source: https://github.com/bazelbuild/bazel/blob/master/src/main/java/com/google/devtools/build/lib/util/VarInt.java */
-    private static long decodeLongVarint(ByteBuffer src) {
-        long tmp;
-        if ((tmp = src.get()) >= 0) {
-            return tmp;
-        }
-        long result = tmp & 0x7f;
-        if ((tmp = src.get()) >= 0) {
-            result |= tmp << 7;
-        } else {
-            result |= (tmp & 0x7f) << 7;
-            if ((tmp = src.get()) >= 0) {
-                result |= tmp << 14;
-            } else {
-                result |= (tmp & 0x7f) << 14;
-                if ((tmp = src.get()) >= 0) {
-                    result |= tmp << 21;
-                } else {
-                    result |= (tmp & 0x7f) << 21;
-                    if ((tmp = src.get()) >= 0) {
-                        result |= tmp << 28;
-                    } else {
-                        result |= (tmp & 0x7f) << 28;
-                        if ((tmp = src.get()) >= 0) {
-                            result |= tmp << 35;
-                        } else {
-                            result |= (tmp & 0x7f) << 35;
-                            if ((tmp = src.get()) >= 0) {
-                                result |= tmp << 42;
-                            } else {
-                                result |= (tmp & 0x7f) << 42;
-                                if ((tmp = src.get()) >= 0) {
-                                    result |= tmp << 49;
-                                } else {
-                                    result |= (tmp & 0x7f) << 49;
-                                    if ((tmp = src.get()) >= 0) {
-                                        result |= tmp << 56;
-                                    } else {
-                                        result |= (tmp & 0x7f) << 56;
-                                        result |= ((long) src.get()) << 63;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return result;
-    }
-
-    private static int decodeZigZagVarint(byte[] src, IntWrapper pos){
-        var value = decodeVarint(src, pos);
-        return decodeZigZag(value[0]);
-    }
-
     private static int decodeZigZag(int encoded) {
         return (encoded >>> 1) ^ (-(encoded & 1));
     }
@@ -395,7 +331,7 @@ public final class DecodingUtils {
         var vertices = new int[numVertices * 2];
         var previousMortonCode = 0;
         for(var i = 0; i < numVertices; i++){
-            var delta = decodeVarint(covtBuffer, pos)[0];
+            var delta = VarintDecoder.decodeInt(covtBuffer, pos);
             var mortonCode = previousMortonCode + delta;
 
             var vertex = GeometryUtils.decodeMorton(mortonCode, numBits);
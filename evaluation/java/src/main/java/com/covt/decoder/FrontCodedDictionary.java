@@ -0,0 +1,154 @@
+package com.covt.decoder;
+
+import me.lemire.integercompression.IntWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/*
+ * Random access to a sorted and front coded dictionary without decoding the full dictionary.
+ * A value is decoded by jumping to the block of the code and decoding at most blockSize values.
+ * Because the codes are assigned in lexicographic order a value or prefix can be searched with a binary search
+ * over the restart values of the blocks.
+ * */
+public class FrontCodedDictionary {
+    private final byte[] buffer;
+    private final int numValues;
+    private final int blockSize;
+    private final int[] blockOffsets;
+
+    private FrontCodedDictionary(byte[] buffer, int numValues, int blockSize, int[] blockOffsets){
+        this.buffer = buffer;
+        this.numValues = numValues;
+        this.blockSize = blockSize;
+        this.blockOffsets = blockOffsets;
+    }
+
+    /*
+     * Decodes the block index of the dictionary stream and sets the position to the end of the stream.
+     * */
+    public static FrontCodedDictionary decode(byte[] buffer, IntWrapper pos, int numValues, int byteLength){
+        var streamEnd = pos.get() + byteLength;
+        var blockSize = VarintDecoder.decodeInt(buffer, pos);
+        var numBlocks = (numValues + blockSize - 1) / blockSize;
+        /* the block lengths are decoded into the offsets array and converted in place */
+        var blockOffsets = new int[numBlocks];
+        VarintDecoder.decodeInts(buffer, pos, blockOffsets, 0, numBlocks);
+        var blockOffset = pos.get();
+        for(var i = 0; i < numBlocks; i++){
+            var blockLength = blockOffsets[i];
+            blockOffsets[i] = blockOffset;
+            blockOffset += blockLength;
+        }
+
+        pos.set(streamEnd);
+        return new FrontCodedDictionary(buffer, numValues, blockSize, blockOffsets);
+    }
+
+    public int size(){
+        return numValues;
+    }
+
+    public String get(int code){
+        Objects.checkIndex(code, numValues);
+        var pos = new IntWrapper(blockOffsets[code / blockSize]);
+        var value = decodeRestartValue(pos);
+        for(var i = 0; i < code % blockSize; i++){
+            value = decodeNextValue(pos, value);
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    public String[] decodeAll(){
+        var values = new String[numValues];
+        byte[] value = null;
+        var pos = new IntWrapper(0);
+        for(var i = 0; i < numValues; i++){
+            if(i % blockSize == 0){
+                pos.set(blockOffsets[i / blockSize]);
+                value = decodeRestartValue(pos);
+            }
+            else{
+                value = decodeNextValue(pos, value);
+            }
+            values[i] = new String(value, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    /*
+     * Returns the code of the value or -1 if the value is not part of the dictionary.
+     * */
+    public int indexOf(String value){
+        var code = findFirst(v -> v.compareTo(value) >= 0);
+        return code < numValues && get(code).equals(value) ? code : -1;
+    }
+
+    /*
+     * Returns the range of codes [start, end) of the values which start with the specified prefix.
+     * */
+    public int[] prefixRange(String prefix){
+        var start = findFirst(v -> v.compareTo(prefix) >= 0);
+        var end = findFirst(v -> truncate(v, prefix.length()).compareTo(prefix) > 0);
+        return new int[]{start, Math.max(start, end)};
+    }
+
+    /*
+     * Returns the first code for which the predicate is true or the size of the dictionary if no value matches.
+     * The predicate has to be monotone regarding the lexicographic order of the values.
+     * */
+    private int findFirst(Predicate<String> predicate){
+        var low = 0;
+        var high = blockOffsets.length;
+        while(low < high){
+            var mid = (low + high) >>> 1;
+            var restartValue = decodeRestartValue(new IntWrapper(blockOffsets[mid]));
+            if(predicate.test(new String(restartValue, StandardCharsets.UTF_8))){
+                high = mid;
+            }
+            else{
+                low = mid + 1;
+            }
+        }
+
+        /* the restart value of block low matches, so the first match is in the previous block or at the restart value */
+        if(low == 0){
+            return 0;
+        }
+
+        var code = (low - 1) * blockSize;
+        var pos = new IntWrapper(blockOffsets[low - 1]);
+        var value = decodeRestartValue(pos);
+        var blockEnd = Math.min(low * blockSize, numValues);
+        for(code++; code < blockEnd; code++){
+            value = decodeNextValue(pos, value);
+            if(predicate.test(new String(value, StandardCharsets.UTF_8))){
+                return code;
+            }
+        }
+
+        return blockEnd;
+    }
+
+    private byte[] decodeRestartValue(IntWrapper pos){
+        var length = VarintDecoder.decodeInt(buffer, pos);
+        var value = Arrays.copyOfRange(buffer, pos.get(), pos.get() + length);
+        pos.add(length);
+        return value;
+    }
+
+    private byte[] decodeNextValue(IntWrapper pos, byte[] previousValue){
+        var sharedLength = VarintDecoder.decodeInt(buffer, pos);
+        var suffixLength = VarintDecoder.decodeInt(buffer, pos);
+        var value = Arrays.copyOf(previousValue, sharedLength + suffixLength);
+        System.arraycopy(buffer, pos.get(), value, sharedLength, suffixLength);
+        pos.add(suffixLength);
+        return value;
+    }
+
+    private static String truncate(String value, int length){
+        return value.length() > length ? value.substring(0, length) : value;
+    }
+}
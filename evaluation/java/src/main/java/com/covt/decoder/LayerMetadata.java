@@ -3,6 +3,9 @@ package com.covt.decoder;
 
 import com.covt.converter.ColumnMetadata;
 import java.util.LinkedHashMap;
+import java.util.Set;
 
-public record LayerMetadata(String layerName, int extent, int numFeatures, int numColumns, LinkedHashMap<String, ColumnMetadata> columnMetadata) {
+/* Required columns have a value for every feature and therefore no present stream */
+public record LayerMetadata(String layerName, int extent, int numFeatures, int numColumns, LinkedHashMap<String, ColumnMetadata> columnMetadata,
+                            Set<String> requiredColumns) {
 }
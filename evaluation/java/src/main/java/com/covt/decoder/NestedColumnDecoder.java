@@ -0,0 +1,117 @@
+package com.covt.decoder;
+
+import com.covt.converter.ColumnDataType;
+import com.covt.converter.NestedField;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Assembles the values of a nested property column from the repetition and definition levels of its leaf fields,
+ * see NestedColumnEncoder for the definition of the levels.
+ * The leaf fields are assembled one after another into the same records, so only the projected leaf fields have to
+ * be decoded. Structs only contain the fields with a value and null elements of a list are preserved.
+ * */
+public final class NestedColumnDecoder {
+
+    private NestedColumnDecoder(){}
+
+    /*
+     * @param records value of the nested property per feature, null if the feature has no value for the property
+     * @param path fields from the root of the column to the leaf field
+     * @param repetitionLevels null if the path contains no list
+     * @param values present values of the leaf field
+     * */
+    public static void assemble(List<Object> records, List<NestedField> path, int[] repetitionLevels,
+                                int[] definitionLevels, Object[] values){
+        var elementIndices = new int[path.size()];
+        var recordIndex = -1;
+        var valueIndex = 0;
+        for(var i = 0; i < definitionLevels.length; i++){
+            var repetitionLevel = repetitionLevels != null ? repetitionLevels[i] : 0;
+            var definitionLevel = definitionLevels[i];
+            if(repetitionLevel == 0){
+                recordIndex++;
+            }
+
+            /* the parent is either a struct or a list, the records are the list of the root values */
+            Object parent = records;
+            Object key = recordIndex;
+            var currentDefinitionLevel = 0;
+            var numLists = 0;
+            for(var depth = 0; depth < path.size(); depth++){
+                var field = path.get(depth);
+                if(definitionLevel <= currentDefinitionLevel){
+                    /* null element of a list which has to be added to preserve the position of the next elements */
+                    if(parent instanceof List<?> list && (int)key >= list.size()){
+                        set(parent, key, null);
+                    }
+                    break;
+                }
+
+                currentDefinitionLevel++;
+                if(field.isLeaf()){
+                    set(parent, key, values[valueIndex++]);
+                    break;
+                }
+
+                var value = get(parent, key);
+                if(value == null){
+                    value = field.dataType() == ColumnDataType.STRUCT ? new LinkedHashMap<String, Object>() :
+                            new ArrayList<>();
+                    set(parent, key, value);
+                }
+
+                parent = value;
+                if(field.dataType() == ColumnDataType.STRUCT){
+                    key = path.get(depth + 1).name();
+                    continue;
+                }
+
+                numLists++;
+                if(definitionLevel <= currentDefinitionLevel){
+                    /* empty list */
+                    break;
+                }
+                currentDefinitionLevel++;
+
+                /* a new element starts if this list repeats, a deeper list continues the current element */
+                if(repetitionLevel == numLists){
+                    elementIndices[depth]++;
+                }
+                else if(repetitionLevel < numLists){
+                    elementIndices[depth] = 0;
+                }
+                key = elementIndices[depth];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object get(Object parent, Object key){
+        if(parent instanceof List){
+            var list = (List<Object>)parent;
+            var index = (int)key;
+            return index < list.size() ? list.get(index) : null;
+        }
+        return ((Map<String, Object>)parent).get((String)key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void set(Object parent, Object key, Object value){
+        if(parent instanceof List){
+            var list = (List<Object>)parent;
+            var index = (int)key;
+            if(index < list.size()){
+                list.set(index, value);
+            }
+            else{
+                list.add(value);
+            }
+            return;
+        }
+        ((Map<String, Object>)parent).put((String)key, value);
+    }
+}
@@ -0,0 +1,48 @@
+package com.covt.decoder;
+
+import com.covt.converter.tilejson.TileJson;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/*
+ * Converts the shared dictionaries of a TileJson only once, the decoded values are reused by all tiles of the tileset.
+ * The dictionaries are cached per TileJson instance, so the TileJson of the tileset has to be loaded once and used
+ * for all tiles e.g. CovtArchiveReader.tileJson. The returned arrays are shared and must not be modified.
+ * */
+public final class SharedDictionaryCache {
+    private static final Map<TileJson, Map<String, Map<String, String[]>>> DICTIONARIES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private SharedDictionaryCache(){}
+
+    public static String[] get(TileJson tileJson, String layerName, String columnName){
+        var dictionaries = DICTIONARIES.computeIfAbsent(tileJson, SharedDictionaryCache::convertDictionaries);
+        var layerDictionaries = dictionaries.get(layerName);
+        var dictionary = layerDictionaries != null ? layerDictionaries.get(columnName) : null;
+        if(dictionary == null){
+            throw new IllegalArgumentException(String.format("No shared dictionary found for column %s of layer %s.",
+                    columnName, layerName));
+        }
+
+        return dictionary;
+    }
+
+    private static Map<String, Map<String, String[]>> convertDictionaries(TileJson tileJson){
+        var dictionaries = new HashMap<String, Map<String, String[]>>();
+        if(tileJson.sharedDictionaries == null){
+            return dictionaries;
+        }
+
+        for(var layer : tileJson.sharedDictionaries.entrySet()){
+            var layerDictionaries = new HashMap<String, String[]>();
+            for(var column : layer.getValue().entrySet()){
+                layerDictionaries.put(column.getKey(), column.getValue().toArray(new String[0]));
+            }
+            dictionaries.put(layer.getKey(), layerDictionaries);
+        }
+        return dictionaries;
+    }
+}
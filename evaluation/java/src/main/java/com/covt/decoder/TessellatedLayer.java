@@ -0,0 +1,7 @@
+package com.covt.decoder;
+
+/*
+ * Triangulated polygons of a layer which can be directly uploaded to the GPU.
+ * The vertex buffer contains the x, y coordinates and every three indices of the index buffer form a triangle.
+ * */
+public record TessellatedLayer(String name, int[] vertexBuffer, int[] indexBuffer){}
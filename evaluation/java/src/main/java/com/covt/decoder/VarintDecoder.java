@@ -0,0 +1,153 @@
+package com.covt.decoder;
+
+import me.lemire.integercompression.IntWrapper;
+
+/*
+ * Allocation free varint kernels which decode into caller provided arrays.
+ * The int kernels support varints up to 5 bytes, the long kernels the full 64-bit range with up to 10 bytes.
+ * Runs of single byte varints, which are the common case for deltas and dictionary codes, are decoded in a tight
+ * loop without branching into the multi byte path.
+ * */
+public final class VarintDecoder {
+
+    private VarintDecoder(){}
+
+    public static int decodeInt(byte[] src, IntWrapper pos){
+        var offset = pos.get();
+        int b = src[offset++];
+        if(b >= 0){
+            pos.set(offset);
+            return b;
+        }
+
+        var value = b & 0x7f;
+        var shift = 7;
+        do{
+            b = src[offset++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        }while(b < 0 && shift < 35);
+
+        /* skip the upper bytes of an int which was sign extended to 64 bit before encoding */
+        while(b < 0){
+            b = src[offset++];
+        }
+
+        pos.set(offset);
+        return value;
+    }
+
+    public static long decodeLong(byte[] src, IntWrapper pos){
+        var offset = pos.get();
+        long b = src[offset++];
+        if(b >= 0){
+            pos.set(offset);
+            return b;
+        }
+
+        var value = b & 0x7f;
+        var shift = 7;
+        do{
+            b = src[offset++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        }while(b < 0 && shift < 70);
+
+        pos.set(offset);
+        return value;
+    }
+
+    public static int decodeZigZagInt(byte[] src, IntWrapper pos){
+        var encoded = decodeInt(src, pos);
+        return (encoded >>> 1) ^ (-(encoded & 1));
+    }
+
+    public static long decodeZigZagLong(byte[] src, IntWrapper pos){
+        var encoded = decodeLong(src, pos);
+        return (encoded >>> 1) ^ (-(encoded & 1));
+    }
+
+    public static void decodeInts(byte[] src, IntWrapper pos, int[] dst, int dstOffset, int numValues){
+        var end = dstOffset + numValues;
+        var i = dstOffset;
+        while(i < end){
+            var offset = pos.get();
+            byte b;
+            while(i < end && (b = src[offset]) >= 0){
+                dst[i++] = b;
+                offset++;
+            }
+            pos.set(offset);
+
+            if(i < end){
+                dst[i++] = decodeInt(src, pos);
+            }
+        }
+    }
+
+    public static void decodeLongs(byte[] src, IntWrapper pos, long[] dst, int dstOffset, int numValues){
+        var end = dstOffset + numValues;
+        var i = dstOffset;
+        while(i < end){
+            var offset = pos.get();
+            byte b;
+            while(i < end && (b = src[offset]) >= 0){
+                dst[i++] = b;
+                offset++;
+            }
+            pos.set(offset);
+
+            if(i < end){
+                dst[i++] = decodeLong(src, pos);
+            }
+        }
+    }
+
+    public static void decodeZigZagInts(byte[] src, IntWrapper pos, int[] dst, int dstOffset, int numValues){
+        decodeInts(src, pos, dst, dstOffset, numValues);
+        for(var i = dstOffset; i < dstOffset + numValues; i++){
+            var encoded = dst[i];
+            dst[i] = (encoded >>> 1) ^ (-(encoded & 1));
+        }
+    }
+
+    public static void decodeZigZagLongs(byte[] src, IntWrapper pos, long[] dst, int dstOffset, int numValues){
+        decodeLongs(src, pos, dst, dstOffset, numValues);
+        for(var i = dstOffset; i < dstOffset + numValues; i++){
+            var encoded = dst[i];
+            dst[i] = (encoded >>> 1) ^ (-(encoded & 1));
+        }
+    }
+
+    public static void decodeDeltaInts(byte[] src, IntWrapper pos, int[] dst, int dstOffset, int numValues){
+        decodeInts(src, pos, dst, dstOffset, numValues);
+        prefixSum(dst, dstOffset, numValues);
+    }
+
+    public static void decodeDeltaLongs(byte[] src, IntWrapper pos, long[] dst, int dstOffset, int numValues){
+        decodeLongs(src, pos, dst, dstOffset, numValues);
+        prefixSum(dst, dstOffset, numValues);
+    }
+
+    public static void decodeZigZagDeltaInts(byte[] src, IntWrapper pos, int[] dst, int dstOffset, int numValues){
+        decodeZigZagInts(src, pos, dst, dstOffset, numValues);
+        prefixSum(dst, dstOffset, numValues);
+    }
+
+    public static void decodeZigZagDeltaLongs(byte[] src, IntWrapper pos, long[] dst, int dstOffset, int numValues){
+        decodeZigZagLongs(src, pos, dst, dstOffset, numValues);
+        prefixSum(dst, dstOffset, numValues);
+    }
+
+    private static void prefixSum(int[] values, int offset, int numValues){
+        for(var i = offset + 1; i < offset + numValues; i++){
+            values[i] += values[i - 1];
+        }
+    }
+
+    private static void prefixSum(long[] values, int offset, int numValues){
+        for(var i = offset + 1; i < offset + numValues; i++){
+            values[i] += values[i - 1];
+        }
+    }
+}
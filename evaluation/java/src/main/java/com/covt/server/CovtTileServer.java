@@ -0,0 +1,244 @@
+package com.covt.server;
+
+import com.covt.archive.TileId;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Lightweight HTTP server for COVT tiles under /{z}/{x}/{y}.covt. The sources are queried in the specified order,
+ * so for example a COVT archive can be combined with a source which converts the missing tiles from a MBTiles
+ * archive with MVT tiles.
+ * The TileJson of the tileset which is needed to decode the tiles e.g. with shared dictionaries is served under
+ * /tiles.json, it is the TileJson of the first source which has one, so combined sources have to share it.
+ * Every request is handled on its own virtual thread if the runtime supports virtual threads, otherwise on a cached
+ * thread pool, so blocking reads don't limit the number of concurrent keep-alive connections.
+ * Single byte ranges are supported, requests with multiple ranges are answered with the full tile.
+ * */
+public class CovtTileServer implements AutoCloseable {
+    private static final Pattern TILE_PATH = Pattern.compile("^/(\\d+)/(\\d+)/(\\d+)\\.covt$");
+    private static final Pattern BYTE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    private static final String TILE_JSON_PATH = "/tiles.json";
+    private static final String CONTENT_TYPE = "application/vnd.covt";
+    private static final String TILE_JSON_CONTENT_TYPE = "application/json";
+    private static final int BACKLOG = 4096;
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<TileSource> sources;
+    /* JSON encoded TileJson of the sources or null if no source has a TileJson */
+    private final byte[] tileJson;
+
+    public CovtTileServer(InetSocketAddress address, List<TileSource> sources) throws IOException {
+        if(sources.isEmpty()){
+            throw new IllegalArgumentException("At least one tile source is required.");
+        }
+
+        this.sources = List.copyOf(sources);
+        var sourceTileJson = sources.stream().map(TileSource::tileJson).filter(Objects::nonNull).findFirst();
+        this.tileJson = sourceTileJson.isPresent() ?
+                new ObjectMapper().writeValueAsBytes(sourceTileJson.get()) : null;
+        this.executor = createExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start(){
+        server.start();
+    }
+
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close(){
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /* Virtual threads are only available since Java 21, so the executor is created via reflection */
+    private static ExecutorService createExecutor(){
+        try{
+            var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch(ReflectiveOperationException e){
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try(exchange){
+            try{
+                respond(exchange);
+            }
+            catch(IOException | RuntimeException e){
+                /* the status can only be sent if the response hasn't started yet, otherwise the exchange is closed */
+                if(exchange.getResponseCode() == -1){
+                    exchange.sendResponseHeaders(500, -1);
+                }
+            }
+        }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        var method = exchange.getRequestMethod();
+        var isHead = method.equals("HEAD");
+        if(!method.equals("GET") && !isHead){
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+            return;
+        }
+
+        var path = exchange.getRequestURI().getPath();
+        if(path.equals(TILE_JSON_PATH)){
+            respondTileJson(exchange, isHead);
+            return;
+        }
+
+        var matcher = TILE_PATH.matcher(path);
+        if(!matcher.matches()){
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        var coordinates = parseTileCoordinates(matcher);
+        var tile = coordinates != null ? getTile(coordinates[0], coordinates[1], coordinates[2]) : null;
+        if(tile == null){
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        var headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", CONTENT_TYPE);
+        headers.set("Accept-Ranges", "bytes");
+        var tileLength = tile.remaining();
+        var statusCode = 200;
+        var rangeHeader = exchange.getRequestHeaders().getFirst("Range");
+        if(rangeHeader != null){
+            var range = parseRange(rangeHeader, tileLength);
+            if(range != null && range.length == 0){
+                headers.set("Content-Range", "bytes */" + tileLength);
+                exchange.sendResponseHeaders(416, -1);
+                return;
+            }
+            if(range != null){
+                headers.set("Content-Range", String.format("bytes %d-%d/%d", range[0],
+                        range[1] - 1, tileLength));
+                tile = tile.slice(tile.position() + range[0], range[1] - range[0]);
+                statusCode = 206;
+            }
+        }
+
+        if(isHead){
+            headers.set("Content-Length", String.valueOf(tile.remaining()));
+            exchange.sendResponseHeaders(statusCode, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(statusCode, tile.remaining() == 0 ? -1 : tile.remaining());
+        try(var body = exchange.getResponseBody()){
+            write(tile, body);
+        }
+    }
+
+    private void respondTileJson(HttpExchange exchange, boolean isHead) throws IOException {
+        if(tileJson == null){
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", TILE_JSON_CONTENT_TYPE);
+        if(isHead){
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(tileJson.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(200, tileJson.length);
+        try(var body = exchange.getResponseBody()){
+            body.write(tileJson);
+        }
+    }
+
+    private ByteBuffer getTile(int zoom, int x, int y) throws IOException {
+        for(var source : sources){
+            var tile = source.getTile(zoom, x, y);
+            if(tile != null){
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    /* Returns null if the coordinates are no valid tile of the zoom level */
+    private static int[] parseTileCoordinates(Matcher matcher){
+        int zoom;
+        int x;
+        int y;
+        try{
+            zoom = Integer.parseInt(matcher.group(1));
+            x = Integer.parseInt(matcher.group(2));
+            y = Integer.parseInt(matcher.group(3));
+        }
+        catch(NumberFormatException e){
+            return null;
+        }
+
+        var numTiles = 1L << Math.min(zoom, TileId.MAX_ZOOM);
+        return zoom <= TileId.MAX_ZOOM && x < numTiles && y < numTiles ? new int[]{zoom, x, y} : null;
+    }
+
+    /*
+     * Returns the start and the exclusive end of a single byte range, an empty array if the range is not satisfiable
+     * and null if the header is ignored like for multiple ranges.
+     * */
+    private static int[] parseRange(String rangeHeader, int tileLength){
+        var matcher = BYTE_RANGE.matcher(rangeHeader.trim());
+        if(!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())){
+            return null;
+        }
+
+        long start;
+        long end;
+        if(matcher.group(1).isEmpty()){
+            /* suffix range with the number of bytes at the end of the tile */
+            start = Math.max(0, tileLength - Long.parseLong(matcher.group(2)));
+            end = tileLength;
+        }
+        else{
+            start = Long.parseLong(matcher.group(1));
+            end = matcher.group(2).isEmpty() ? tileLength : Math.min(tileLength, Long.parseLong(matcher.group(2)) + 1);
+        }
+
+        return start >= tileLength || start >= end ? new int[0] : new int[]{(int)start, (int)end};
+    }
+
+    private static void write(ByteBuffer tile, OutputStream body) throws IOException {
+        if(tile.hasArray()){
+            body.write(tile.array(), tile.arrayOffset() + tile.position(), tile.remaining());
+            return;
+        }
+
+        var buffer = new byte[Math.min(COPY_BUFFER_SIZE, tile.remaining())];
+        while(tile.hasRemaining()){
+            var length = Math.min(buffer.length, tile.remaining());
+            tile.get(buffer, 0, length);
+            body.write(buffer, 0, length);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.covt.server;
+
+import com.covt.archive.CovtArchiveReader;
+import com.covt.archive.TilesetConverter;
+import com.covt.converter.ConversionConfig;
+import com.covt.converter.CovtConverter;
+import com.covt.converter.mvt.MbTilesReader;
+import com.covt.converter.mvt.MvtUtils;
+import com.covt.converter.tilejson.TileJson;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+
+/*
+ * Source of the COVT tiles served by the CovtTileServer. The coordinates follow the XYZ tiling scheme with the
+ * origin in the top left corner.
+ * */
+@FunctionalInterface
+public interface TileSource {
+
+    /* Returns the tile or null if the source contains no tile with the specified coordinates */
+    ByteBuffer getTile(int zoom, int x, int y) throws IOException;
+
+    /* Returns the TileJson of the tileset e.g. with the shared dictionaries or null if the source has none */
+    default TileJson tileJson(){
+        return null;
+    }
+
+    static TileSource fromArchive(CovtArchiveReader reader){
+        return new TileSource() {
+            @Override
+            public ByteBuffer getTile(int zoom, int x, int y) {
+                return reader.getTile(zoom, x, y);
+            }
+
+            @Override
+            public TileJson tileJson() {
+                return reader.tileJson();
+            }
+        };
+    }
+
+    /* MBTiles archive which contains COVT tiles, the rows of MBTiles follow the TMS tiling scheme */
+    static TileSource fromMbTiles(MbTilesReader reader){
+        return (zoom, x, y) -> {
+            var tile = readTile(reader, zoom, x, y);
+            return tile != null ? ByteBuffer.wrap(tile) : null;
+        };
+    }
+
+    /*
+     * Converts the gzip compressed MVT tiles of a MBTiles archive on the fly, every tile is converted with a copy of
+     * the config for its zoom level as the config is shared by the concurrent requests. Like the tiles of an archive
+     * the tiles are converted without optimized metadata and the shared dictionaries of the config are only part of
+     * the TileJson of the source, see TilesetConverter.
+     * */
+    static TileSource convertingMbTiles(MbTilesReader reader, ConversionConfig config){
+        var tileJson = TilesetConverter.createTileJson(config);
+        return new TileSource() {
+            @Override
+            public ByteBuffer getTile(int zoom, int x, int y) throws IOException {
+                var gzipCompressedMvt = readTile(reader, zoom, x, y);
+                if(gzipCompressedMvt == null){
+                    return null;
+                }
+
+                var mvtTile = MvtUtils.decodeMvt2(gzipCompressedMvt);
+                return ByteBuffer.wrap(CovtConverter.convertMvtTile(mvtTile.layers(), mvtTile.tileExtent(),
+                        TilesetConverter.createTileConfig(config, zoom)));
+            }
+
+            @Override
+            public TileJson tileJson() {
+                return tileJson;
+            }
+        };
+    }
+
+    private static byte[] readTile(MbTilesReader reader, int zoom, int x, int y) throws IOException {
+        try{
+            return reader.readTile(zoom, x, (1 << zoom) - 1 - y);
+        }
+        catch(SQLException e){
+            throw new IOException("The tile can't be read from the MBTiles archive.", e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.covt.archive;
+
+import com.covt.converter.tilejson.TileJson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CovtArchiveReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readTile_SmallArchive_ValidTiles() throws IOException {
+        var archivePath = tempDir.resolve("tiles.covta");
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            writer.addTile(5, 16, 11, createTile(5, 16, 11));
+            writer.addTile(0, 0, 0, createTile(0, 0, 0));
+            writer.addTile(5, 3, 30, createTile(5, 3, 30));
+        }
+
+        var reader = new CovtArchiveReader(archivePath);
+
+        assertEquals(3, reader.numTiles());
+        assertArrayEquals(createTile(0, 0, 0), reader.readTile(0, 0, 0));
+        assertArrayEquals(createTile(5, 16, 11), reader.readTile(5, 16, 11));
+        assertArrayEquals(createTile(5, 3, 30), reader.readTile(5, 3, 30));
+        assertNull(reader.readTile(5, 16, 12));
+        assertNull(reader.getTile(14, 0, 0));
+        assertNull(reader.tileJson());
+    }
+
+    @Test
+    public void tileJson_TileJsonOfTileset_SameDictionaries() throws IOException {
+        var archivePath = tempDir.resolve("tiles.covta");
+        var tileJson = new TileJson();
+        tileJson.sharedDictionaries = Map.of("poi", Map.of("class", List.of("shop", "cafe")));
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            writer.addTile(0, 0, 0, createTile(0, 0, 0));
+            writer.setTileJson(tileJson);
+        }
+
+        var reader = new CovtArchiveReader(archivePath);
+
+        assertEquals(tileJson.sharedDictionaries, reader.tileJson().sharedDictionaries);
+        assertSame(reader.tileJson(), reader.tileJson());
+        assertArrayEquals(createTile(0, 0, 0), reader.readTile(0, 0, 0));
+    }
+
+    @Test
+    public void readTile_ArchiveWithLeafDirectories_ValidTiles() throws IOException {
+        /* 2 zoom levels with more tiles than fit into the root directory, every second tile is missing */
+        var archivePath = tempDir.resolve("tiles.covta");
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            for(var zoom = 6; zoom <= 7; zoom++){
+                for(var x = 0; x < 1 << zoom; x++){
+                    for(var y = x % 2; y < 1 << zoom; y += 2){
+                        writer.addTile(zoom, x, y, createTile(zoom, x, y));
+                    }
+                }
+            }
+        }
+
+        var reader = new CovtArchiveReader(archivePath);
+
+        assertEquals((64 * 64 + 128 * 128) / 2, reader.numTiles());
+        for(var zoom = 6; zoom <= 7; zoom++){
+            for(var x = 0; x < 1 << zoom; x++){
+                for(var y = 0; y < 1 << zoom; y++){
+                    var tile = reader.readTile(zoom, x, y);
+                    if(y % 2 == x % 2){
+                        assertArrayEquals(createTile(zoom, x, y), tile);
+                    }
+                    else{
+                        assertNull(tile);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readTile_IdenticalTiles_StoredOnce() throws IOException {
+        var archivePath = tempDir.resolve("tiles.covta");
+        var oceanTile = new byte[1000];
+        Arrays.fill(oceanTile, (byte)7);
+        long numDuplicateTiles;
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            for(var x = 0; x < 128; x++){
+                for(var y = 0; y < 128; y++){
+                    writer.addTile(7, x, y, x == 5 && y == 9 ? createTile(7, x, y) : oceanTile);
+                }
+            }
+            numDuplicateTiles = writer.numDuplicateTiles();
+        }
+
+        var reader = new CovtArchiveReader(archivePath);
+
+        assertEquals(128 * 128 - 2, numDuplicateTiles);
+        assertEquals(128 * 128, reader.numTiles());
+        /* the consecutive ocean tiles are merged into runs, so the directory is small as well */
+        assertTrue(Files.size(archivePath) < 3 * oceanTile.length);
+        assertArrayEquals(createTile(7, 5, 9), reader.readTile(7, 5, 9));
+        assertArrayEquals(oceanTile, reader.readTile(7, 5, 10));
+        assertArrayEquals(oceanTile, reader.readTile(7, 127, 0));
+        assertArrayEquals(oceanTile, reader.readTile(7, 0, 0));
+    }
+
+    @Test
+    public void addTile_Segments_ConcatenatedTile() throws IOException {
+        var archivePath = tempDir.resolve("tiles.covta");
+        var segments = new ByteBuffer[]{ByteBuffer.wrap(new byte[]{1, 2, 3}), ByteBuffer.wrap(new byte[0]),
+                ByteBuffer.wrap(new byte[]{9, 4, 5, 6}, 1, 3)};
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            writer.addTile(2, 1, 1, segments);
+            writer.addTile(2, 1, 2, new byte[]{1, 2, 3, 4, 5, 6});
+            assertEquals(1, writer.numDuplicateTiles());
+        }
+
+        var reader = new CovtArchiveReader(archivePath);
+
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, reader.readTile(2, 1, 1));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, reader.readTile(2, 1, 2));
+        assertEquals(1, segments[2].position());
+    }
+
+    @Test
+    public void addTile_LargeIdenticalTiles_StoredTwice() throws IOException {
+        var archivePath = tempDir.resolve("tiles.covta");
+        var tile = new byte[CovtArchiveWriter.MAX_DEDUPLICATED_TILE_SIZE + 1];
+        Arrays.fill(tile, (byte)3);
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            writer.addTile(1, 0, 0, tile);
+            writer.addTile(1, 0, 1, tile);
+            assertEquals(0, writer.numDuplicateTiles());
+        }
+
+        var reader = new CovtArchiveReader(archivePath);
+
+        assertTrue(Files.size(archivePath) > 2 * tile.length);
+        assertArrayEquals(tile, reader.readTile(1, 0, 0));
+        assertArrayEquals(tile, reader.readTile(1, 0, 1));
+    }
+
+    @Test
+    public void close_DuplicateTile_ThrowsException() throws IOException {
+        var writer = new CovtArchiveWriter(tempDir.resolve("tiles.covta"));
+        writer.addTile(3, 1, 2, createTile(3, 1, 2));
+        writer.addTile(0, 0, 0, createTile(0, 0, 0));
+        writer.addTile(3, 1, 2, createTile(3, 1, 2));
+
+        assertThrows(IllegalArgumentException.class, writer::close);
+    }
+
+    @Test
+    public void getTile_ClosedReader_ThrowsException() throws IOException {
+        var archivePath = tempDir.resolve("tiles.covta");
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            writer.addTile(0, 0, 0, createTile(0, 0, 0));
+        }
+
+        ByteBuffer tile;
+        var reader = new CovtArchiveReader(archivePath);
+        try(reader){
+            tile = reader.getTile(0, 0, 0);
+        }
+
+        assertThrows(IllegalStateException.class, () -> reader.getTile(0, 0, 0));
+        /* the views of the tiles stay valid after the reader is closed */
+        var buffer = new byte[tile.remaining()];
+        tile.get(buffer);
+        assertArrayEquals(createTile(0, 0, 0), buffer);
+    }
+
+    @Test
+    public void createReader_InvalidFile_ThrowsException() throws IOException {
+        var filePath = tempDir.resolve("tiles.mbtiles");
+        Files.write(filePath, new byte[128]);
+
+        assertThrows(IllegalArgumentException.class, () -> new CovtArchiveReader(filePath));
+    }
+
+    private static byte[] createTile(int zoom, int x, int y){
+        var tile = new byte[(x * 7 + y) % 50 + 1];
+        for(var i = 0; i < tile.length; i++){
+            tile[i] = (byte)(zoom * 31 + x * 17 + y * 13 + i);
+        }
+        return tile;
+    }
+}
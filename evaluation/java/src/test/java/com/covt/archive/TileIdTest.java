@@ -0,0 +1,45 @@
+package com.covt.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TileIdTest {
+
+    @Test
+    public void zxyToTileId_AllTilesOfZoomLevels_UniqueAndConsecutiveIds(){
+        var tileIds = new HashSet<Long>();
+        for(var zoom = 0; zoom <= 6; zoom++){
+            for(var x = 0; x < 1 << zoom; x++){
+                for(var y = 0; y < 1 << zoom; y++){
+                    var tileId = TileId.zxyToTileId(zoom, x, y);
+                    tileIds.add(tileId);
+
+                    assertEquals(new TileId.TileCoordinate(zoom, x, y), TileId.tileIdToZxy(tileId));
+                }
+            }
+        }
+
+        assertEquals(tileIds.size(), (int)TileId.zxyToTileId(7, 0, 0));
+        assertEquals(0, TileId.zxyToTileId(0, 0, 0));
+        assertEquals(1, TileId.zxyToTileId(1, 0, 0));
+    }
+
+    @Test
+    public void zxyToTileId_MaxZoom_ValidRoundTrip(){
+        var maxCoordinate = (1 << TileId.MAX_ZOOM) - 1;
+
+        var tileId = TileId.zxyToTileId(TileId.MAX_ZOOM, maxCoordinate, 12345);
+
+        assertEquals(new TileId.TileCoordinate(TileId.MAX_ZOOM, maxCoordinate, 12345), TileId.tileIdToZxy(tileId));
+    }
+
+    @Test
+    public void zxyToTileId_InvalidCoordinates_ThrowsException(){
+        assertThrows(IllegalArgumentException.class, () -> TileId.zxyToTileId(2, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> TileId.zxyToTileId(32, 0, 0));
+    }
+}
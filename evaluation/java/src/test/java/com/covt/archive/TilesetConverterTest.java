@@ -0,0 +1,261 @@
+package com.covt.archive;
+
+import com.covt.converter.ConversionConfig;
+import com.covt.converter.EncodingUtils;
+import com.covt.converter.mvt.MbTilesReader;
+import com.covt.decoder.CovtParser;
+import no.ecc.vectortile.VectorTileEncoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TilesetConverterTest {
+    private static final int NUM_ZOOM_LEVELS = 3;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void convertIncremental_UnchangedSource_TilesCopiedFromPreviousArchive() throws Exception {
+        var mbTilesFileName = createMbTiles();
+        var previousArchivePath = tempDir.resolve("previous.covta");
+        var manifestPath = tempDir.resolve("tiles.manifest");
+        var messageDigest = CovtArchiveWriter.createMessageDigest();
+        var previousManifest = new ConversionManifest(
+                TilesetConverter.createTileConfig(new ConversionConfig(), -1).fingerprint());
+        try(var writer = new CovtArchiveWriter(previousArchivePath)){
+            for(var zoom = 0; zoom < NUM_ZOOM_LEVELS; zoom++){
+                for(var x = 0; x < 1 << zoom; x++){
+                    for(var y = 0; y < 1 << zoom; y++){
+                        writer.addTile(zoom, x, y, getCovtTile(zoom, x, y));
+                        previousManifest.put(TileId.zxyToTileId(zoom, x, y),
+                                messageDigest.digest(getMvtTile(zoom, x, (1 << zoom) - 1 - y)),
+                                messageDigest.digest(getCovtTile(zoom, x, y)));
+                    }
+                }
+            }
+            /* tile which was removed from the source */
+            writer.addTile(3, 0, 0, getCovtTile(3, 0, 0));
+        }
+        previousManifest.write(manifestPath);
+
+        var archivePath = tempDir.resolve("tiles.covta");
+        TilesetConverter.Statistics statistics;
+        try(var reader = new MbTilesReader(mbTilesFileName)){
+            statistics = TilesetConverter.convertIncremental(reader, 0, 14, new ConversionConfig(),
+                    previousArchivePath, manifestPath, archivePath);
+        }
+
+        var archive = new CovtArchiveReader(archivePath);
+        assertEquals(21, statistics.numTiles());
+        assertEquals(0, statistics.numConvertedTiles());
+        assertEquals(21, statistics.numUnchangedTiles());
+        assertEquals(21, archive.numTiles());
+        assertArrayEquals(getCovtTile(2, 1, 3), archive.readTile(2, 1, 3));
+        assertArrayEquals(getCovtTile(0, 0, 0), archive.readTile(0, 0, 0));
+        assertNull(archive.readTile(3, 0, 0));
+        var manifest = ConversionManifest.read(manifestPath);
+        assertEquals(21, manifest.size());
+        assertArrayEquals(messageDigest.digest(getCovtTile(2, 1, 3)),
+                manifest.get(TileId.zxyToTileId(2, 1, 3)).tileHash());
+    }
+
+    @Test
+    public void convert_EmptyTiles_ConfigOfCallerUnchanged() throws Exception {
+        var config = new ConversionConfig();
+        var archivePath = tempDir.resolve("tiles.covta");
+
+        TilesetConverter.Statistics statistics;
+        try(var reader = new MbTilesReader(createMbTiles(TilesetConverterTest::getEmptyMvtTile))){
+            statistics = TilesetConverter.convert(reader, 0, 14, config, archivePath);
+        }
+
+        assertEquals(21, statistics.numTiles());
+        assertEquals(NUM_ZOOM_LEVELS, statistics.numConvertedTiles());
+        assertEquals(-1, config.zoom());
+        assertTrue(config.optimizeMetadata());
+    }
+
+    @Test
+    public void convert_DefaultConfig_TilesOfArchiveDecodable() throws Exception {
+        var archivePath = tempDir.resolve("tiles.covta");
+        try(var reader = new MbTilesReader(createMbTiles(TilesetConverterTest::getPoiMvtTile))){
+            TilesetConverter.convert(reader, 0, 14, new ConversionConfig(), archivePath);
+        }
+
+        var archive = new CovtArchiveReader(archivePath);
+        /* the archive contains no TileJson of the tile, the tile 2/1/3 is stored in the row 0 of the MBTiles */
+        var layers = CovtParser.decodeCovt(archive.readTile(2, 1, 3), null);
+
+        assertEquals(1, layers.size());
+        assertEquals("poi", layers.get(0).name());
+        var features = layers.get(0).features();
+        assertEquals(1, features.size());
+        assertEquals(Optional.of("2/1/0"), features.get(0).properties().get("name"));
+        assertEquals(Optional.of("shop"), features.get(0).properties().get("class"));
+        assertEquals(new Coordinate(15, 5), features.get(0).geometry().getCoordinate());
+    }
+
+    @Test
+    public void convert_SharedDictionaries_StoredOnceInArchive() throws Exception {
+        var archivePath = tempDir.resolve("tiles.covta");
+        Map<String, Map<String, List<String>>> sharedDictionaries;
+        try(var reader = new MbTilesReader(createMbTiles(TilesetConverterTest::getPoiMvtTile))){
+            sharedDictionaries = TilesetConverter.buildSharedDictionaries(reader, 0, 14, 16);
+            TilesetConverter.convert(reader, 0, 14, new ConversionConfig().sharedDictionaries(sharedDictionaries),
+                    archivePath);
+        }
+
+        var archive = new CovtArchiveReader(archivePath);
+        var tileJson = archive.tileJson();
+        /* the names are unique per tile and exceed the size of the dictionary */
+        assertEquals(Map.of("poi", Map.of("class", List.of("shop"))), sharedDictionaries);
+        assertEquals(sharedDictionaries, tileJson.sharedDictionaries);
+        for(var tile : List.of(new int[]{0, 0, 0}, new int[]{2, 1, 3}, new int[]{2, 3, 0})){
+            var features = CovtParser.decodeCovt(archive.readTile(tile[0], tile[1], tile[2]), tileJson).get(0).
+                    features();
+            assertEquals(Optional.of("shop"), features.get(0).properties().get("class"));
+        }
+    }
+
+    @Test
+    public void convertIncremental_ChangedConfig_AllTilesConverted() throws Exception {
+        var mbTilesFileName = createMbTiles(TilesetConverterTest::getEmptyMvtTile);
+        var previousArchivePath = tempDir.resolve("previous.covta");
+        var manifestPath = tempDir.resolve("tiles.manifest");
+        var archivePath = tempDir.resolve("tiles.covta");
+        var config = new ConversionConfig();
+        var changedConfig = new ConversionConfig().includeIds(true);
+
+        TilesetConverter.Statistics unchangedStatistics;
+        TilesetConverter.Statistics changedStatistics;
+        try(var reader = new MbTilesReader(mbTilesFileName)){
+            TilesetConverter.convertIncremental(reader, 0, 14, config, tempDir.resolve("missing.covta"),
+                    manifestPath, previousArchivePath);
+            /* the existing output archive is replaced if the previous archive doesn't exist */
+            TilesetConverter.convertIncremental(reader, 0, 14, config, tempDir.resolve("missing.covta"),
+                    manifestPath, previousArchivePath);
+            unchangedStatistics = TilesetConverter.convertIncremental(reader, 0, 14, config, previousArchivePath,
+                    manifestPath, archivePath);
+            changedStatistics = TilesetConverter.convertIncremental(reader, 0, 14, changedConfig, archivePath,
+                    manifestPath, previousArchivePath);
+        }
+
+        assertEquals(21, unchangedStatistics.numUnchangedTiles());
+        assertEquals(0, changedStatistics.numUnchangedTiles());
+        assertEquals(NUM_ZOOM_LEVELS, changedStatistics.numConvertedTiles());
+        assertArrayEquals(TilesetConverter.createTileConfig(changedConfig, -1).fingerprint(),
+                ConversionManifest.read(manifestPath).configFingerprint());
+        assertFalse(Arrays.equals(config.fingerprint(), changedConfig.fingerprint()));
+    }
+
+    @Test
+    public void convertIncremental_SameArchivePath_ThrowsException() throws Exception {
+        var archivePath = tempDir.resolve("tiles.covta");
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            writer.addTile(0, 0, 0, getCovtTile(0, 0, 0));
+        }
+
+        try(var reader = new MbTilesReader(createMbTiles())){
+            assertThrows(IllegalArgumentException.class, () -> TilesetConverter.convertIncremental(reader, 0, 14,
+                    new ConversionConfig(), archivePath, tempDir.resolve("tiles.manifest"), archivePath));
+        }
+    }
+
+    @Test
+    public void read_WrittenManifest_SameEntries() throws IOException {
+        var manifestPath = tempDir.resolve("tiles.manifest");
+        var messageDigest = CovtArchiveWriter.createMessageDigest();
+        var manifest = new ConversionManifest(new ConversionConfig().fingerprint());
+        manifest.put(5, messageDigest.digest(new byte[]{1}), messageDigest.digest(new byte[]{2}));
+        manifest.put(1L << 40, messageDigest.digest(new byte[]{3}), messageDigest.digest(new byte[]{4}));
+
+        manifest.write(manifestPath);
+        var readManifest = ConversionManifest.read(manifestPath);
+
+        assertEquals(2, readManifest.size());
+        assertArrayEquals(messageDigest.digest(new byte[]{1}), readManifest.get(5).sourceHash());
+        assertArrayEquals(messageDigest.digest(new byte[]{4}), readManifest.get(1L << 40).tileHash());
+        assertNull(readManifest.get(6));
+        assertArrayEquals(new ConversionConfig().fingerprint(), readManifest.configFingerprint());
+        assertThrows(IllegalArgumentException.class, () -> manifest.put(7, new byte[]{1}, new byte[]{2}));
+    }
+
+    @FunctionalInterface
+    private interface MvtTileGenerator {
+        byte[] create(int zoom, int x, int tileRow) throws IOException;
+    }
+
+    private String createMbTiles() throws SQLException, IOException {
+        return createMbTiles(TilesetConverterTest::getMvtTile);
+    }
+
+    private String createMbTiles(MvtTileGenerator tileGenerator) throws SQLException, IOException {
+        var fileName = tempDir.resolve("tiles.mbtiles").toString();
+        try(var connection = DriverManager.getConnection("jdbc:sqlite:" + fileName)){
+            connection.setAutoCommit(false);
+            try(var statement = connection.createStatement()){
+                statement.execute("CREATE TABLE tiles (zoom_level integer, tile_column integer, tile_row integer, " +
+                        "tile_data blob, PRIMARY KEY (zoom_level, tile_column, tile_row));");
+            }
+            try(var statement = connection.prepareStatement("INSERT INTO tiles VALUES (?, ?, ?, ?);")){
+                for(var zoom = 0; zoom < NUM_ZOOM_LEVELS; zoom++){
+                    for(var x = 0; x < 1 << zoom; x++){
+                        for(var y = 0; y < 1 << zoom; y++){
+                            statement.setInt(1, zoom);
+                            statement.setInt(2, x);
+                            statement.setInt(3, y);
+                            statement.setBytes(4, tileGenerator.create(zoom, x, y));
+                            statement.addBatch();
+                        }
+                    }
+                }
+                statement.executeBatch();
+            }
+            connection.commit();
+        }
+        return fileName;
+    }
+
+    /* the source tiles are not valid MVT tiles, so the test fails if a tile is converted */
+    private static byte[] getMvtTile(int zoom, int x, int tileRow){
+        return new byte[]{(byte)zoom, (byte)x, (byte)tileRow};
+    }
+
+    /* valid gzip compressed MVT tile without layers */
+    private static byte[] getEmptyMvtTile(int zoom, int x, int tileRow) throws IOException {
+        return EncodingUtils.gzipCompress(new byte[0]);
+    }
+
+    private static byte[] getPoiMvtTile(int zoom, int x, int tileRow) throws IOException {
+        var encoder = new VectorTileEncoder(4096, 8, false);
+        var properties = new LinkedHashMap<String, Object>();
+        properties.put("class", "shop");
+        properties.put("name", zoom + "/" + x + "/" + tileRow);
+        encoder.addFeature("poi", properties, new GeometryFactory().createPoint(
+                new Coordinate(x * 10 + 5, tileRow * 10 + 5)));
+        return EncodingUtils.gzipCompress(encoder.encode());
+    }
+
+    private static byte[] getCovtTile(int zoom, int x, int y){
+        return new byte[]{(byte)(zoom + 100), (byte)x, (byte)y, 42};
+    }
+}
@@ -0,0 +1,151 @@
+package com.covt.converter;
+
+import com.covt.converter.mvt.Feature;
+import com.covt.converter.mvt.Layer;
+import com.covt.converter.tilejson.TileJson;
+import com.covt.decoder.CovtParser;
+import com.covt.decoder.DecodingListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConversionListenerTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    private record Column(String layerName, String columnName, ColumnMetadata metadata, int byteSize, long nanos,
+                          List<ConversionListener.RejectedCandidate> rejectedCandidates){}
+
+    private record LayerSize(String layerName, int numFeatures, int byteSize){}
+
+    private static class RecordingListener implements ConversionListener, DecodingListener {
+        private final List<Column> columns = new ArrayList<>();
+        private final List<LayerSize> layers = new ArrayList<>();
+        private int tileSize = -1;
+
+        @Override
+        public void onColumnConverted(String layerName, String columnName, ColumnMetadata columnMetadata,
+                                      int byteSize, long nanos, List<RejectedCandidate> rejectedCandidates){
+            columns.add(new Column(layerName, columnName, columnMetadata, byteSize, nanos, rejectedCandidates));
+        }
+
+        @Override
+        public void onLayerConverted(String layerName, int numFeatures, int metadataSize, int byteSize, long nanos){
+            layers.add(new LayerSize(layerName, numFeatures, byteSize));
+        }
+
+        @Override
+        public void onTileConverted(int numLayers, int byteSize, long nanos){
+            tileSize = byteSize;
+        }
+
+        @Override
+        public void onColumnDecoded(String layerName, String columnName, ColumnMetadata columnMetadata, int byteSize,
+                                    long nanos){
+            columns.add(new Column(layerName, columnName, columnMetadata, byteSize, nanos, List.of()));
+        }
+
+        @Override
+        public void onLayerDecoded(String layerName, int numFeatures, int byteSize, long nanos){
+            layers.add(new LayerSize(layerName, numFeatures, byteSize));
+        }
+    }
+
+    @Test
+    public void convertMvtTile2_ListenerSet_SizesOfColumnsAndLayersAddUpToTile() throws IOException {
+        var listener = new RecordingListener();
+        var config = new ConversionConfig().includeIds(true).conversionListener(listener);
+
+        var tile = CovtConverter.convertMvtTile2(createLayers(), 4096, config).getRight();
+
+        assertEquals(tile.length, listener.tileSize);
+        assertEquals(List.of(new LayerSize("transportation", 50, tile.length)), listener.layers);
+        assertEquals(List.of("id", "geometry", "oneway", "lanes", "class"),
+                listener.columns.stream().map(Column::columnName).toList());
+        for(var column : listener.columns){
+            assertNotNull(column.metadata());
+            assertTrue(column.nanos() > 0);
+        }
+        /* the layer additionally contains the metadata */
+        assertTrue(listener.columns.stream().mapToInt(Column::byteSize).sum() < tile.length);
+    }
+
+    @Test
+    public void convertMvtTile2_ListenerSet_RejectedCandidatesNotSmallerThanChosenStream() throws IOException {
+        var listener = new RecordingListener();
+        var config = new ConversionConfig().includeIds(true).conversionListener(listener);
+
+        CovtConverter.convertMvtTile2(createLayers(), 4096, config);
+
+        var idColumn = listener.columns.get(0);
+        var idStream = idColumn.metadata().streams().get(StreamType.DATA);
+        assertEquals(4, idColumn.rejectedCandidates().size());
+        for(var column : listener.columns){
+            for(var candidate : column.rejectedCandidates()){
+                if(candidate.streamType() == StreamType.DATA){
+                    assertFalse(candidate.encoding().equals(column.metadata().streams().get(StreamType.DATA).
+                            streamEncoding().name()));
+                    assertTrue(candidate.byteSize() >= column.metadata().streams().get(StreamType.DATA).byteLength());
+                }
+            }
+        }
+        assertEquals(50, idStream.numValues());
+    }
+
+    @Test
+    public void convertMvtTile2_ListenerSet_SameTileAsWithoutListener() throws IOException {
+        var layers = createLayers();
+        var config = new ConversionConfig().includeIds(true).includeByteRangeIndex(true);
+
+        var tile = CovtConverter.convertMvtTile2(layers, 4096, config).getRight();
+        var instrumentedTile = CovtConverter.convertMvtTile2(layers, 4096,
+                config.conversionListener(new RecordingListener())).getRight();
+
+        assertArrayEquals(tile, instrumentedTile);
+    }
+
+    @Test
+    public void decodeCovt_ListenerSet_SizesOfColumnsMatchConversion() throws IOException {
+        var conversionListener = new RecordingListener();
+        var data = CovtConverter.convertMvtTile2(createLayers(), 4096,
+                new ConversionConfig().includeIds(true).conversionListener(conversionListener));
+        var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+        var decodingListener = new RecordingListener();
+
+        CovtParser.decodeCovt(data.getRight(), tileJson, null, true, null, decodingListener);
+
+        assertEquals(conversionListener.layers, decodingListener.layers);
+        Map<String, Integer> convertedSizes = new HashMap<>();
+        conversionListener.columns.forEach(c -> convertedSizes.put(c.columnName(), c.byteSize()));
+        Map<String, Integer> decodedSizes = new HashMap<>();
+        decodingListener.columns.forEach(c -> decodedSizes.put(c.columnName(), c.byteSize()));
+        assertEquals(convertedSizes, decodedSizes);
+    }
+
+    private List<Layer> createLayers(){
+        var transportation = new ArrayList<Feature>();
+        for(var i = 0; i < 50; i++){
+            var line = geometryFactory.createLineString(new Coordinate[]{new Coordinate(i * 40, 100),
+                    new Coordinate(i * 40, 2000), new Coordinate(i * 40 + 300, 2100)});
+            var properties = new LinkedHashMap<String, Object>();
+            properties.put("class", i % 3 == 0 ? "primary" : "residential");
+            properties.put("lanes", (long)(i % 4));
+            properties.put("oneway", i % 2 == 0);
+            transportation.add(new Feature(i, line, properties));
+        }
+        return List.of(new Layer("transportation", transportation));
+    }
+}
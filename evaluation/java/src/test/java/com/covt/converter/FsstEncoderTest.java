@@ -0,0 +1,41 @@
+package com.covt.converter;
+
+import com.covt.decoder.DecodingUtils;
+import me.lemire.integercompression.IntWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FsstEncoderTest {
+
+    @Test
+    public void encode_StreetNames_SmallerThanPlainDictionary() {
+        var values = List.of("Hauptstra\u00dfe", "Bahnhofstra\u00dfe", "Schulstra\u00dfe", "Gartenstra\u00dfe", "Dorfstra\u00dfe",
+                "Bergstra\u00dfe", "Kirchstra\u00dfe", "Waldstra\u00dfe", "Ringstra\u00dfe", "Schillerstra\u00dfe", "Goethestra\u00dfe");
+
+        var encodedValues = FsstEncoder.encode(values).toByteArray();
+
+        var plainSize = values.stream().mapToInt(v -> v.getBytes(StandardCharsets.UTF_8).length).sum();
+        assertTrue(encodedValues.length < plainSize);
+    }
+
+    @Test
+    public void decodeFsstDictionary_MixedValues_EqualValues() {
+        var values = List.of("Wien", "Wiener Neustadt", "", "Sankt P\u00f6lten", "Sankt Valentin", "\u6771\u4eac", "Wien");
+        var encodedValues = FsstEncoder.encode(values);
+
+        var lengths = Arrays.stream(encodedValues.compressedLengths()).mapToLong(l -> l).toArray();
+        var buffer = encodedValues.toByteArray();
+        var pos = new IntWrapper(0);
+        var decodedValues = DecodingUtils.decodeFsstDictionary(buffer, pos, lengths);
+
+        assertArrayEquals(values.toArray(new String[0]), decodedValues);
+        assertEquals(buffer.length, pos.get());
+    }
+}
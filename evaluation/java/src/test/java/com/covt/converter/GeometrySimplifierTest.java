@@ -0,0 +1,86 @@
+package com.covt.converter;
+
+import com.covt.converter.mvt.Feature;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeometrySimplifierTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void simplify_CollinearAndDuplicateVertices_Removed(){
+        var coordinates = new ArrayList<Coordinate>();
+        for(var i = 0; i <= 100; i++){
+            coordinates.add(new Coordinate(i * 10, 50));
+            coordinates.add(new Coordinate(i * 10, 50));
+        }
+        var line = geometryFactory.createLineString(coordinates.toArray(new Coordinate[0]));
+        var simplifier = new GeometrySimplifier().addRule("transportation", 10,
+                new GeometrySimplifier.Options(1, 0, GeometrySimplifier.Algorithm.DOUGLAS_PEUCKER));
+
+        var features = simplifier.simplify("transportation", 8, List.of(createFeature(line)));
+
+        assertEquals(2, features.get(0).geometry().getNumPoints());
+    }
+
+    @Test
+    public void simplify_PolygonOnCoarseGrid_ValidAndSnapped(){
+        var coordinates = new ArrayList<Coordinate>();
+        for(var i = 0; i < 360; i += 3){
+            var radius = i % 2 == 0 ? 1000 : 990;
+            coordinates.add(new Coordinate(2048 + radius * Math.cos(Math.toRadians(i)),
+                    2048 + radius * Math.sin(Math.toRadians(i))));
+        }
+        coordinates.add(coordinates.get(0));
+        var polygon = geometryFactory.createPolygon(coordinates.toArray(new Coordinate[0]));
+        var simplifier = new GeometrySimplifier().addRule(6,
+                new GeometrySimplifier.Options(16, 40, GeometrySimplifier.Algorithm.VISVALINGAM_WHYATT));
+
+        var simplifiedGeometry = simplifier.simplify("landuse", 5, List.of(createFeature(polygon))).get(0).geometry();
+
+        assertTrue(simplifiedGeometry.isValid());
+        assertTrue(simplifiedGeometry.getNumPoints() < polygon.getNumPoints());
+        for(var coordinate : simplifiedGeometry.getCoordinates()){
+            assertEquals(0, coordinate.x % 16);
+            assertEquals(0, coordinate.y % 16);
+        }
+        assertEquals(polygon.getArea(), simplifiedGeometry.getArea(), polygon.getArea() * 0.02);
+    }
+
+    @Test
+    public void simplify_ZoomAboveMaxZoom_FeaturesUnchanged(){
+        var line = geometryFactory.createLineString(new Coordinate[]{new Coordinate(0, 0), new Coordinate(5, 1),
+                new Coordinate(10, 0)});
+        var features = List.of(createFeature(line));
+        var simplifier = new GeometrySimplifier().addRule("transportation", 10,
+                new GeometrySimplifier.Options(4, 2, GeometrySimplifier.Algorithm.DOUGLAS_PEUCKER));
+
+        assertSame(features, simplifier.simplify("transportation", 11, features));
+        assertSame(features, simplifier.simplify("water", 5, features));
+        assertEquals(2, simplifier.simplify("transportation", 10, features).get(0).geometry().getNumPoints());
+    }
+
+    @Test
+    public void simplify_CollapsedPolygon_FeatureRemoved(){
+        var polygon = geometryFactory.createPolygon(new Coordinate[]{new Coordinate(1, 1), new Coordinate(3, 1),
+                new Coordinate(3, 3), new Coordinate(1, 3), new Coordinate(1, 1)});
+        var simplifier = new GeometrySimplifier().addRule(14,
+                new GeometrySimplifier.Options(32, 0, GeometrySimplifier.Algorithm.DOUGLAS_PEUCKER));
+
+        assertTrue(simplifier.simplify("building", 12, List.of(createFeature(polygon))).isEmpty());
+    }
+
+    private Feature createFeature(Geometry geometry){
+        return new Feature(1, geometry, new LinkedHashMap<>());
+    }
+}
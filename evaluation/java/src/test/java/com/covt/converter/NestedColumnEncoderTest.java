@@ -0,0 +1,69 @@
+package com.covt.converter;
+
+import com.covt.converter.mvt.Feature;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NestedColumnEncoderTest {
+
+    @Test
+    public void shred_ListOfStructs_DremelLevels(){
+        var features = createFeatures(
+                List.of(Map.of("type", "bus"), Map.of("type", "taxi", "max", 2L)),
+                null,
+                List.of(),
+                List.of(Map.of("max", 1L)));
+
+        var shreddedColumn = NestedColumnEncoder.shred("lanes", features);
+
+        var schema = shreddedColumn.schema();
+        assertEquals(ColumnDataType.LIST, schema.dataType());
+        assertEquals(ColumnDataType.STRUCT, schema.children().get(0).dataType());
+        var leafColumns = shreddedColumn.leafColumns();
+        assertEquals(2, leafColumns.size());
+
+        /* list not null: 1, list not empty: 2, struct not null: 3, value not null: 4 */
+        var typeColumn = leafColumns.get(0);
+        assertEquals("type", typeColumn.field().name());
+        assertEquals(1, typeColumn.maxRepetitionLevel());
+        assertArrayEquals(new int[]{0, 1, 0, 0, 0}, typeColumn.repetitionLevels());
+        assertArrayEquals(new int[]{4, 4, 0, 1, 3}, typeColumn.definitionLevels());
+        assertEquals(List.of("bus", "taxi"), typeColumn.values());
+
+        var maxColumn = leafColumns.get(1);
+        assertArrayEquals(new int[]{0, 1, 0, 0, 0}, maxColumn.repetitionLevels());
+        assertArrayEquals(new int[]{3, 4, 0, 1, 4}, maxColumn.definitionLevels());
+        assertEquals(List.of(2L, 1L), maxColumn.values());
+    }
+
+    @Test
+    public void shred_DifferentDataTypes_ThrowsException(){
+        var features = createFeatures(Map.of("levels", 3L), Map.of("levels", "three"));
+
+        assertThrows(IllegalArgumentException.class, () -> NestedColumnEncoder.shred("building", features));
+    }
+
+    private List<Feature> createFeatures(Object... values){
+        var point = new GeometryFactory().createPoint(new Coordinate(1, 1));
+        var features = new ArrayList<Feature>();
+        for(var value : values){
+            var properties = new LinkedHashMap<String, Object>();
+            if(value != null){
+                properties.put("lanes", value);
+                properties.put("building", value);
+            }
+            features.add(new Feature(0, point, properties));
+        }
+        return features;
+    }
+}
@@ -0,0 +1,80 @@
+package com.covt.converter;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TriangulatorTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void triangulate_Square_TwoTriangles(){
+        var polygon = createPolygon(new int[]{0, 0, 10, 0, 10, 10, 0, 10});
+
+        var triangles = Triangulator.triangulate(polygon);
+
+        assertEquals(6, triangles.size());
+        assertEquals(polygon.getArea(), getArea(polygon, triangles), 1e-9);
+    }
+
+    @Test
+    public void triangulate_PolygonWithHole_AreaWithoutHole(){
+        var shell = geometryFactory.createLinearRing(toCoordinates(new int[]{0, 0, 100, 0, 100, 100, 0, 100}));
+        var hole = geometryFactory.createLinearRing(toCoordinates(new int[]{20, 20, 20, 80, 80, 80, 80, 20}));
+        var polygon = geometryFactory.createPolygon(shell, new LinearRing[]{hole});
+
+        var triangles = Triangulator.triangulate(polygon);
+
+        /* n vertices plus two bridge vertices -> n - 2 + 2 triangles */
+        assertEquals(8 * 3, triangles.size());
+        assertEquals(polygon.getArea(), getArea(polygon, triangles), 1e-9);
+    }
+
+    @Test
+    public void triangulate_ConcavePolygon_AreaEqual(){
+        var polygon = createPolygon(new int[]{0, 0, 40, 0, 40, 40, 30, 40, 30, 10, 10, 10, 10, 40, 0, 40});
+
+        var triangles = Triangulator.triangulate(polygon);
+
+        assertEquals(6 * 3, triangles.size());
+        assertEquals(polygon.getArea(), getArea(polygon, triangles), 1e-9);
+    }
+
+    private Polygon createPolygon(int[] vertices){
+        return geometryFactory.createPolygon(toCoordinates(vertices));
+    }
+
+    private Coordinate[] toCoordinates(int[] vertices){
+        var coordinates = new Coordinate[vertices.length / 2 + 1];
+        for(var i = 0; i < vertices.length; i += 2){
+            coordinates[i / 2] = new Coordinate(vertices[i], vertices[i + 1]);
+        }
+        coordinates[coordinates.length - 1] = coordinates[0];
+        return coordinates;
+    }
+
+    private double getArea(Polygon polygon, List<Integer> triangles){
+        var vertices = new ArrayList<Coordinate>();
+        for(var i = 0; i <= polygon.getNumInteriorRing(); i++){
+            var ring = i == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(i - 1);
+            var coordinates = ring.getCoordinates();
+            vertices.addAll(List.of(coordinates).subList(0, coordinates.length - 1));
+        }
+
+        var area = 0d;
+        for(var i = 0; i < triangles.size(); i += 3){
+            var a = vertices.get(triangles.get(i));
+            var b = vertices.get(triangles.get(i + 1));
+            var c = vertices.get(triangles.get(i + 2));
+            area += Math.abs((b.x - a.x) * (c.y - a.y) - (c.x - a.x) * (b.y - a.y)) / 2;
+        }
+        return area;
+    }
+}
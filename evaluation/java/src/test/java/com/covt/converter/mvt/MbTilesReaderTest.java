@@ -0,0 +1,150 @@
+package com.covt.converter.mvt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MbTilesReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readTile_ExistingAndMissingTile_TileDataOrNull() throws Exception {
+        var fileName = createMbTiles(4);
+
+        try(var reader = new MbTilesReader(fileName)){
+            assertArrayEquals(getTileData(3, 5, 2), reader.readTile(3, 5, 2));
+            assertArrayEquals(getTileData(2, 1, 3), reader.readTile(2, 1, 3));
+            assertNull(reader.readTile(3, 8, 0));
+        }
+    }
+
+    @Test
+    public void scan_ZoomRange_AllTilesOrdered() throws Exception {
+        var fileName = createMbTiles(4);
+
+        try(var reader = new MbTilesReader(fileName); var cursor = reader.scan(1, 2)){
+            var numTiles = 0;
+            var previousKey = -1;
+            while(cursor.hasNext()){
+                var tile = cursor.next();
+                var key = (tile.zoom() << 20) | (tile.x() << 10) | tile.y();
+                assertTrue(key > previousKey);
+                assertArrayEquals(getTileData(tile.zoom(), tile.x(), tile.y()), tile.data());
+                previousKey = key;
+                numTiles++;
+            }
+            assertEquals(4 + 16, numTiles);
+        }
+    }
+
+    @Test
+    public void scan_TileRange_OnlyTilesInRange() throws Exception {
+        var fileName = createMbTiles(4);
+
+        try(var reader = new MbTilesReader(fileName); var cursor = reader.scan(3, 2, 4, 3, 6)){
+            var tiles = new ArrayList<MbTilesReader.Tile>();
+            cursor.forEachRemaining(tiles::add);
+
+            assertEquals(6, tiles.size());
+            for(var tile : tiles){
+                assertEquals(3, tile.zoom());
+                assertFalse(tile.x() < 2 || tile.x() > 3 || tile.y() < 4 || tile.y() > 6);
+            }
+        }
+    }
+
+    @Test
+    public void close_CursorClosedTwice_ConnectionReleasedOnce() throws Exception {
+        var fileName = createMbTiles(2);
+        var executor = Executors.newSingleThreadExecutor();
+
+        try(var reader = new MbTilesReader(fileName, 1)){
+            var cursor = reader.scan(0, 1);
+            cursor.close();
+            cursor.close();
+
+            /* the only connection is borrowed by the first cursor, so the second cursor has to wait */
+            try(var firstCursor = reader.scan(0, 1)){
+                var secondCursor = executor.submit(() -> reader.scan(0, 1));
+                assertThrows(TimeoutException.class, () -> secondCursor.get(200, TimeUnit.MILLISECONDS));
+                firstCursor.close();
+                secondCursor.get(10, TimeUnit.SECONDS).close();
+            }
+        }
+        finally{
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void readTile_MultipleWorkers_ValidTiles() throws Exception {
+        var fileName = createMbTiles(5);
+        var executor = Executors.newFixedThreadPool(4);
+
+        try(var reader = new MbTilesReader(fileName)){
+            var results = new ArrayList<Future<Boolean>>();
+            for(var x = 0; x < 16; x++){
+                var column = x;
+                results.add(executor.submit(() -> {
+                    for(var y = 0; y < 16; y++){
+                        assertArrayEquals(getTileData(4, column, y), reader.readTile(4, column, y));
+                    }
+                    return true;
+                }));
+            }
+            for(var result : results){
+                result.get();
+            }
+        }
+        finally{
+            executor.shutdown();
+        }
+    }
+
+    private String createMbTiles(int numZoomLevels) throws SQLException {
+        var fileName = tempDir.resolve("tiles.mbtiles").toString();
+        try(var connection = DriverManager.getConnection("jdbc:sqlite:" + fileName)){
+            connection.setAutoCommit(false);
+            try(var statement = connection.createStatement()){
+                statement.execute("CREATE TABLE tiles (zoom_level integer, tile_column integer, tile_row integer, " +
+                        "tile_data blob, PRIMARY KEY (zoom_level, tile_column, tile_row));");
+            }
+            try(var statement = connection.prepareStatement("INSERT INTO tiles VALUES (?, ?, ?, ?);")){
+                for(var zoom = 0; zoom < numZoomLevels; zoom++){
+                    for(var x = 0; x < 1 << zoom; x++){
+                        for(var y = 0; y < 1 << zoom; y++){
+                            statement.setInt(1, zoom);
+                            statement.setInt(2, x);
+                            statement.setInt(3, y);
+                            statement.setBytes(4, getTileData(zoom, x, y));
+                            statement.addBatch();
+                        }
+                    }
+                }
+                statement.executeBatch();
+            }
+            connection.commit();
+        }
+        return fileName;
+    }
+
+    private static byte[] getTileData(int zoom, int x, int y){
+        return new byte[]{(byte)zoom, (byte)x, (byte)y};
+    }
+}
@@ -0,0 +1,325 @@
+package com.covt.converter.mvt;
+
+import com.covt.converter.ConversionConfig;
+import com.covt.converter.CovtConverter;
+import com.covt.converter.geometry.GeometryType;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MvtColumnarReaderTest {
+    private static final int MOVE_TO = 1;
+    private static final int LINE_TO = 2;
+    private static final int CLOSE_PATH = 7;
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void read_PointLayer_Columns(){
+        var layers = MvtColumnarReader.read(createTile());
+
+        assertEquals(2, layers.size());
+        var poi = layers.get(0);
+        assertEquals("poi", poi.name());
+        assertEquals(4096, poi.extent());
+        assertArrayEquals(new long[]{1, 2, 3}, poi.ids());
+        var geometries = poi.geometries();
+        assertArrayEquals(new int[]{GeometryType.POINT.ordinal(), GeometryType.MULTIPOINT.ordinal(),
+                GeometryType.POINT.ordinal()}, geometries.geometryTypes().toArray());
+        assertArrayEquals(new int[]{2}, geometries.geometryOffsets().toArray());
+        assertArrayEquals(new int[]{10, 20, 15, 25, 5, 30, 100, 4000}, geometries.vertexBuffer().toArray());
+        assertEquals(List.of("name", "rank", "_id"), new ArrayList<>(poi.properties().keySet()));
+        assertArrayEquals(new Object[]{"a", null, "c"}, poi.properties().get("name"));
+        assertArrayEquals(new Object[]{1L, -2L, null}, poi.properties().get("rank"));
+        assertArrayEquals(new Object[]{null, "x", null}, poi.properties().get("_id"));
+    }
+
+    @Test
+    public void read_PolygonAndLineLayer_Columns(){
+        var layers = MvtColumnarReader.read(createTile());
+
+        var water = layers.get(1);
+        assertEquals(8192, water.extent());
+        assertEquals(8192, MvtColumnarReader.getTileExtent(layers));
+        var geometries = water.geometries();
+        assertArrayEquals(new int[]{GeometryType.POLYGON.ordinal(), GeometryType.MULTIPOLYGON.ordinal(),
+                GeometryType.LINESTRING.ordinal(), GeometryType.MULTILINESTRING.ordinal()},
+                geometries.geometryTypes().toArray());
+        assertArrayEquals(new int[]{2, 2}, geometries.geometryOffsets().toArray());
+        /* rings of the polygons followed by the vertices of the LineStrings */
+        assertArrayEquals(new int[]{2, 1, 2, 3, 2, 3}, geometries.partOffsets().toArray());
+        assertArrayEquals(new int[]{4, 4, 4, 4, 4}, geometries.ringOffsets().toArray());
+        assertEquals(2 * (5 * 4 + 3 + 2 + 3), geometries.vertexBuffer().size());
+    }
+
+    @Test
+    public void read_RingWithoutArea_RingRemovedFromVertexBuffer(){
+        var layer = new ProtobufWriter();
+        layer.writeString(1, "water");
+        var cursor = new int[2];
+        var shell = ring(cursor, 0, 0, 10, false);
+        var degenerateRing = new int[]{command(MOVE_TO, 1), 5 - cursor[0], 5 - cursor[1], command(LINE_TO, 2), 1, 0,
+                1, 0, command(CLOSE_PATH, 1)};
+        cursor[0] = 7;
+        cursor[1] = 5;
+        var hole = ring(cursor, 2, 2, 6, true);
+        layer.writeMessage(2, feature(1, new int[0], 3, concat(shell, degenerateRing, hole)));
+        var tile = new ProtobufWriter();
+        tile.writeMessage(3, layer);
+
+        var geometries = MvtColumnarReader.read(tile.toByteArray()).get(0).geometries();
+
+        assertArrayEquals(new int[]{GeometryType.POLYGON.ordinal()}, geometries.geometryTypes().toArray());
+        assertEquals(0, geometries.geometryOffsets().size());
+        assertArrayEquals(new int[]{2}, geometries.partOffsets().toArray());
+        assertArrayEquals(new int[]{4, 4}, geometries.ringOffsets().toArray());
+        assertArrayEquals(new int[]{0, 0, 10, 0, 10, 10, 0, 10, 2, 2, 2, 8, 8, 8, 8, 2},
+                geometries.vertexBuffer().toArray());
+    }
+
+    @Test
+    public void convertColumnarTile_PlainEncoding_SameTileAsJtsLayers() throws IOException {
+        var config = new ConversionConfig().geometryEncoding(CovtConverter.GeometryEncoding.PLAIN).includeIds(true);
+        var columnarLayers = MvtColumnarReader.read(createTile());
+
+        var columnarTile = CovtConverter.convertColumnarTile(columnarLayers, 8192, config);
+        var jtsTile = CovtConverter.convertMvtTileToSegments(createJtsLayers(), 8192, config);
+
+        assertEquals(jtsTile.getLeft(), columnarTile.getLeft());
+        assertArrayEquals(concat(jtsTile.getRight()), concat(columnarTile.getRight()));
+    }
+
+    @Test
+    public void convertColumnarTile_DefaultIceEncoding_PlainEncodedGeometries() throws IOException {
+        var plainConfig = new ConversionConfig().geometryEncoding(CovtConverter.GeometryEncoding.PLAIN);
+        var columnarLayers = MvtColumnarReader.read(createTile());
+
+        var iceTile = CovtConverter.convertColumnarTile(columnarLayers, 8192, new ConversionConfig());
+        var plainTile = CovtConverter.convertColumnarTile(columnarLayers, 8192, plainConfig);
+
+        assertEquals(plainTile.getLeft(), iceTile.getLeft());
+        assertArrayEquals(concat(plainTile.getRight()), concat(iceTile.getRight()));
+    }
+
+    @Test
+    public void convertColumnarTile_SortFeaturesById_ThrowsException(){
+        var config = new ConversionConfig().sortFeaturesById(true);
+        var columnarLayers = MvtColumnarReader.read(createTile());
+
+        assertThrows(IllegalArgumentException.class, () -> CovtConverter.convertColumnarTile(columnarLayers, 8192,
+                config));
+    }
+
+    private List<Layer> createJtsLayers(){
+        var poi = new ArrayList<Feature>();
+        poi.add(new Feature(1, geometryFactory.createPoint(new Coordinate(10, 20)), properties("name", "a", "rank", 1L)));
+        poi.add(new Feature(2, geometryFactory.createMultiPointFromCoords(new Coordinate[]{new Coordinate(15, 25),
+                new Coordinate(5, 30)}), properties("rank", -2L, "_id", "x")));
+        poi.add(new Feature(3, geometryFactory.createPoint(new Coordinate(100, 4000)), properties("name", "c")));
+
+        var water = new ArrayList<Feature>();
+        var polygonWithHole = createPolygon(0, 0, 10, true);
+        water.add(new Feature(1, polygonWithHole, properties("class", "lake")));
+        water.add(new Feature(2, geometryFactory.createMultiPolygon(new Polygon[]{createPolygon(20, 0, 10, false),
+                createPolygon(40, 0, 10, true)}), properties("class", "ocean")));
+        water.add(new Feature(3, geometryFactory.createLineString(new Coordinate[]{new Coordinate(1, 1),
+                new Coordinate(5, 1), new Coordinate(5, 9)}), properties()));
+        water.add(new Feature(4, geometryFactory.createMultiLineString(new LineString[]{
+                geometryFactory.createLineString(new Coordinate[]{new Coordinate(7, 7), new Coordinate(8, 8)}),
+                geometryFactory.createLineString(new Coordinate[]{new Coordinate(2, 3), new Coordinate(4, 3),
+                        new Coordinate(4, 6)})}), properties("class", "river")));
+        return List.of(new Layer("poi", poi, 4096), new Layer("water", water, 8192));
+    }
+
+    private Polygon createPolygon(int x, int y, int size, boolean withHole){
+        var shell = createRing(x, y, size, false);
+        var holes = withHole ? new LinearRing[]{createRing(x + 2, y + 2, size - 4, true)} : new LinearRing[0];
+        return geometryFactory.createPolygon(shell, holes);
+    }
+
+    /* the exterior ring is clockwise and the interior ring counterclockwise in tile coordinates */
+    private LinearRing createRing(int x, int y, int size, boolean reverse){
+        var coordinates = new Coordinate[]{new Coordinate(x, y), new Coordinate(x + size, y),
+                new Coordinate(x + size, y + size), new Coordinate(x, y + size)};
+        if(reverse){
+            coordinates = new Coordinate[]{coordinates[0], coordinates[3], coordinates[2], coordinates[1]};
+        }
+        var closedCoordinates = Arrays.copyOf(coordinates, 5);
+        closedCoordinates[4] = coordinates[0];
+        return geometryFactory.createLinearRing(closedCoordinates);
+    }
+
+    private static Map<String, Object> properties(Object... keyValues){
+        var properties = new LinkedHashMap<String, Object>();
+        for(var i = 0; i < keyValues.length; i += 2){
+            properties.put((String)keyValues[i], keyValues[i + 1]);
+        }
+        return properties;
+    }
+
+    private byte[] createTile(){
+        var tile = new ProtobufWriter();
+
+        var poi = new ProtobufWriter();
+        poi.writeString(1, "poi");
+        /* the keys and values follow the features */
+        poi.writeMessage(2, feature(1, new int[]{0, 0, 1, 1}, 1, command(MOVE_TO, 1), 10, 20));
+        poi.writeMessage(2, feature(2, new int[]{1, 2, 2, 3}, 1, command(MOVE_TO, 2), 15, 25, -10, 5));
+        poi.writeMessage(2, feature(3, new int[]{0, 4}, 1, command(MOVE_TO, 1), 100, 4000));
+        for(var key : List.of("name", "rank", "id")){
+            poi.writeString(3, key);
+        }
+        poi.writeMessage(4, stringValue("a"));
+        poi.writeMessage(4, new ProtobufWriter().writeVarint(4, 1));
+        poi.writeMessage(4, new ProtobufWriter().writeVarint(6, 3));
+        poi.writeMessage(4, stringValue("x"));
+        poi.writeMessage(4, stringValue("c"));
+        poi.writeVarint(15, 2);
+        tile.writeMessage(3, poi);
+
+        var water = new ProtobufWriter();
+        water.writeVarint(15, 2);
+        water.writeString(1, "water");
+        water.writeString(3, "class");
+        water.writeMessage(4, stringValue("lake"));
+        water.writeMessage(4, stringValue("ocean"));
+        water.writeMessage(4, stringValue("river"));
+        water.writeVarint(5, 8192);
+        var cursor = new int[2];
+        water.writeMessage(2, feature(1, new int[]{0, 0}, 3, concat(ring(cursor, 0, 0, 10, false),
+                ring(cursor, 2, 2, 6, true))));
+        water.writeMessage(2, feature(2, new int[]{0, 1}, 3, concat(ring(cursor = new int[2], 20, 0, 10, false),
+                ring(cursor, 40, 0, 10, false), ring(cursor, 42, 2, 6, true))));
+        water.writeMessage(2, feature(3, new int[0], 2, command(MOVE_TO, 1), 1, 1, command(LINE_TO, 2), 4, 0, 0, 8));
+        water.writeMessage(2, feature(4, new int[]{0, 2}, 2, command(MOVE_TO, 1), 7, 7, command(LINE_TO, 1), 1, 1,
+                command(MOVE_TO, 1), -6, -5, command(LINE_TO, 2), 2, 0, 0, 3));
+        tile.writeMessage(3, water);
+        return tile.toByteArray();
+    }
+
+    private static int[] ring(int[] cursor, int x, int y, int size, boolean reverse){
+        var vertices = reverse ? new int[]{x, y, x, y + size, x + size, y + size, x + size, y} :
+                new int[]{x, y, x + size, y, x + size, y + size, x, y + size};
+        var commands = new ArrayList<Integer>();
+        for(var i = 0; i < 4; i++){
+            if(i == 0){
+                commands.add(command(MOVE_TO, 1));
+            }
+            else if(i == 1){
+                commands.add(command(LINE_TO, 3));
+            }
+            commands.add(vertices[2 * i] - cursor[0]);
+            commands.add(vertices[2 * i + 1] - cursor[1]);
+            cursor[0] = vertices[2 * i];
+            cursor[1] = vertices[2 * i + 1];
+        }
+        commands.add(command(CLOSE_PATH, 1));
+        return commands.stream().mapToInt(i -> i).toArray();
+    }
+
+    private static int[] concat(int[]... arrays){
+        return Arrays.stream(arrays).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    private static byte[] concat(ByteBuffer[] segments){
+        var stream = new ByteArrayOutputStream();
+        for(var segment : segments){
+            var bytes = new byte[segment.remaining()];
+            segment.duplicate().get(bytes);
+            stream.writeBytes(bytes);
+        }
+        return stream.toByteArray();
+    }
+
+    private static int command(int id, int count){
+        return (id & 0x7) | (count << 3);
+    }
+
+    /* The command integers are passed unchanged, the parameters are zigzag encoded */
+    private static ProtobufWriter feature(long id, int[] tags, int type, int... geometry){
+        var feature = new ProtobufWriter();
+        feature.writeVarint(1, id);
+        feature.writePackedVarints(2, Arrays.stream(tags).asLongStream().toArray());
+        feature.writeVarint(3, type);
+        var encodedGeometry = new long[geometry.length];
+        var numParameters = 0;
+        for(var i = 0; i < geometry.length; i++){
+            if(numParameters == 0){
+                encodedGeometry[i] = geometry[i];
+                var commandId = geometry[i] & 0x7;
+                numParameters = commandId == CLOSE_PATH ? 0 : 2 * (geometry[i] >>> 3);
+            }
+            else{
+                encodedGeometry[i] = (geometry[i] << 1) ^ (geometry[i] >> 31);
+                numParameters--;
+            }
+        }
+        feature.writePackedVarints(4, encodedGeometry);
+        return feature;
+    }
+
+    private static ProtobufWriter stringValue(String value){
+        return new ProtobufWriter().writeString(1, value);
+    }
+
+    private static class ProtobufWriter {
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        private ProtobufWriter writeVarint(int fieldNumber, long value){
+            writeRawVarint(fieldNumber << 3);
+            writeRawVarint(value);
+            return this;
+        }
+
+        private ProtobufWriter writeString(int fieldNumber, String value){
+            writeBytes(fieldNumber, value.getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        private void writeMessage(int fieldNumber, ProtobufWriter message){
+            writeBytes(fieldNumber, message.toByteArray());
+        }
+
+        private void writePackedVarints(int fieldNumber, long[] values){
+            var packedValues = new ProtobufWriter();
+            for(var value : values){
+                packedValues.writeRawVarint(value);
+            }
+            writeBytes(fieldNumber, packedValues.toByteArray());
+        }
+
+        private void writeBytes(int fieldNumber, byte[] bytes){
+            writeRawVarint((fieldNumber << 3) | 2);
+            writeRawVarint(bytes.length);
+            stream.writeBytes(bytes);
+        }
+
+        private void writeRawVarint(long value){
+            while((value & ~0x7FL) != 0){
+                stream.write((int)((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            stream.write((int)value);
+        }
+
+        private byte[] toByteArray(){
+            return stream.toByteArray();
+        }
+    }
+}
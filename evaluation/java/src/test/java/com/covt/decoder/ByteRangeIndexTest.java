@@ -0,0 +1,165 @@
+package com.covt.decoder;
+
+import com.covt.converter.ConversionConfig;
+import com.covt.converter.CovtConverter;
+import com.covt.converter.mvt.Feature;
+import com.covt.converter.mvt.Layer;
+import com.covt.converter.tilejson.TileJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ByteRangeIndexTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void decodeCovt_TileWithIndex_IndexSkipped() throws IOException {
+        var layers = createLayers();
+        var tile = convert(layers, new ConversionConfig().includeIds(true).includeByteRangeIndex(true));
+        var tileWithoutIndex = convert(layers, new ConversionConfig().includeIds(true));
+
+        var covtLayers = CovtParser.decodeCovt(tile.getRight(), tile.getLeft());
+
+        assertTrue(ByteRangeIndex.hasIndex(tile.getRight()));
+        assertFalse(ByteRangeIndex.hasIndex(tileWithoutIndex.getRight()));
+        assertEquals(tileWithoutIndex.getRight().length + ByteRangeIndex.getIndexSize(tile.getRight()),
+                tile.getRight().length);
+        assertLayersEqual(layers, covtLayers);
+    }
+
+    @Test
+    public void getLayerRange_SingleLayer_LayerDecodableFromRange() throws IOException {
+        var layers = createLayers();
+        for(var optimizeMetadata : new boolean[]{true, false}){
+            var config = new ConversionConfig().includeIds(true).includeByteRangeIndex(true).
+                    optimizeMetadata(optimizeMetadata);
+            var tile = convert(layers, config);
+            var index = ByteRangeIndex.decode(tile.getRight());
+
+            var range = index.getLayerRange("poi");
+            var layerBuffer = Arrays.copyOfRange(tile.getRight(), range.offset(), range.offset() + range.length());
+            var covtLayers = CovtParser.decodeCovt(layerBuffer, tile.getLeft());
+
+            assertEquals(List.of("transportation", "poi"), index.layerNames());
+            assertEquals(tile.getRight().length, range.offset() + range.length());
+            assertLayersEqual(List.of(layers.get(1)), covtLayers);
+        }
+    }
+
+    @Test
+    public void getByteRanges_GeometryAndTwoProperties_OnlyRequestedColumns() throws IOException {
+        var layers = createLayers();
+        var tile = convert(layers, new ConversionConfig().includeIds(true).includeByteRangeIndex(true));
+        var index = ByteRangeIndex.decode(Arrays.copyOf(tile.getRight(), 512));
+
+        var ranges = index.getByteRanges(Map.of("transportation", Set.of("geometry", "class", "oneway")));
+
+        var layerRange = index.getLayerRange("transportation");
+        assertEquals(layerRange.offset(), ranges.get(0).offset());
+        var numBytes = ranges.stream().mapToInt(ByteRangeIndex.ByteRange::length).sum();
+        assertTrue(numBytes < layerRange.length());
+        for(var i = 1; i < ranges.size(); i++){
+            var previous = ranges.get(i - 1);
+            assertTrue(previous.offset() + previous.length() < ranges.get(i).offset());
+        }
+        assertEquals(List.of(layerRange), index.getByteRanges(Map.of("transportation",
+                Set.of("id", "geometry", "class", "lanes", "oneway"))));
+        assertTrue(index.getByteRanges(Map.of("water", Set.of("geometry"))).isEmpty());
+    }
+
+    @Test
+    public void getByteRanges_SharedVertexDictionary_VertexBufferLayerIncluded() throws IOException {
+        var layers = createLayers();
+        var config = new ConversionConfig().geometryEncoding(CovtConverter.GeometryEncoding.ICE).includeIds(true).
+                sharedVertexDictionary(true).includeByteRangeIndex(true);
+        var tile = convert(layers, config);
+        var index = ByteRangeIndex.decode(tile.getRight());
+
+        var ranges = index.getByteRanges(Map.of("poi", Set.of("geometry")));
+        var propertyRanges = index.getByteRanges(Map.of("poi", Set.of("name")));
+
+        var firstLayerRange = index.getLayerRange("transportation");
+        assertEquals(firstLayerRange.offset(), ranges.get(0).offset());
+        assertTrue(ranges.size() > 1);
+        assertEquals(index.getLayerRange("poi").offset(), propertyRanges.get(0).offset());
+    }
+
+    @Test
+    public void convertMvtTileToSegments_TileWithIndex_SegmentsInTileLayout() throws IOException {
+        var layers = createLayers();
+        var config = new ConversionConfig().includeIds(true).includeByteRangeIndex(true);
+        var tile = convert(layers, config);
+
+        var segments = CovtConverter.convertMvtTileToSegments(layers, 4096, config).getRight();
+
+        /* the index followed by metadata, id, geometry and properties of both layers */
+        assertEquals(1 + 2 * 4, segments.length);
+        var firstSegment = new byte[segments[0].remaining()];
+        segments[0].duplicate().get(firstSegment);
+        assertEquals(ByteRangeIndex.getIndexSize(tile.getRight()), firstSegment.length);
+        var concatenatedTile = ByteBuffer.allocate(tile.getRight().length);
+        for(var segment : segments){
+            concatenatedTile.put(segment);
+        }
+        assertFalse(concatenatedTile.hasRemaining());
+        assertArrayEquals(tile.getRight(), concatenatedTile.array());
+    }
+
+    private List<Layer> createLayers(){
+        var transportation = new ArrayList<Feature>();
+        for(var i = 0; i < 50; i++){
+            var line = geometryFactory.createLineString(new Coordinate[]{new Coordinate(i * 40, 100),
+                    new Coordinate(i * 40, 2000), new Coordinate(i * 40 + 300, 2100)});
+            var properties = new LinkedHashMap<String, Object>();
+            properties.put("class", i % 3 == 0 ? "primary" : "residential");
+            properties.put("lanes", (long)(i % 4));
+            properties.put("oneway", i % 2 == 0);
+            transportation.add(new Feature(i, line, properties));
+        }
+        var poi = new ArrayList<Feature>();
+        for(var i = 0; i < 50; i++){
+            /* the points share vertices with the lines */
+            var point = geometryFactory.createPoint(new Coordinate(i * 40, 2000));
+            var properties = new LinkedHashMap<String, Object>();
+            properties.put("name", "poi " + i);
+            properties.put("rank", (long)i);
+            poi.add(new Feature(100 + i, point, properties));
+        }
+        return List.of(new Layer("transportation", transportation), new Layer("poi", poi));
+    }
+
+    private static Pair<TileJson, byte[]> convert(List<Layer> layers, ConversionConfig config) throws IOException {
+        var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+        return Pair.of(new ObjectMapper().readValue(data.getLeft(), TileJson.class), data.getRight());
+    }
+
+    private static void assertLayersEqual(List<Layer> mvtLayers, List<Layer> covtLayers){
+        assertEquals(mvtLayers.size(), covtLayers.size());
+        for(var i = 0; i < mvtLayers.size(); i++){
+            var mvtFeatures = mvtLayers.get(i).features();
+            var covtFeatures = covtLayers.get(i).features();
+            assertEquals(mvtLayers.get(i).name(), covtLayers.get(i).name());
+            assertEquals(mvtFeatures.size(), covtFeatures.size());
+            for(var j = 0; j < mvtFeatures.size(); j++){
+                assertEquals(mvtFeatures.get(j).id(), covtFeatures.get(j).id());
+                assertEquals(mvtFeatures.get(j).geometry(), covtFeatures.get(j).geometry());
+            }
+        }
+    }
+}
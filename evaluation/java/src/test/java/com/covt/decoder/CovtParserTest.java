@@ -1,16 +1,34 @@
 package com.covt.decoder;
 
+import com.covt.converter.ConversionConfig;
 import com.covt.converter.CovtConverter;
+import com.covt.converter.GeometrySimplifier;
+import com.covt.converter.SharedDictionaryBuilder;
+import com.covt.converter.mvt.Feature;
 import com.covt.converter.mvt.Layer;
 import com.covt.converter.tilejson.TileJson;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateXYZM;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntToLongFunction;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CovtParserTest {
     private static final String BING_MVT_PATH = "..\\..\\test\\fixtures\\bing\\mvt";
@@ -41,6 +59,628 @@ public class CovtParserTest {
         runBingTests(tileIds);
     }
 
+    /* Synthetic tiles --------------------------------  */
+
+    @Test
+    public void parseCovt_PoiLayerWithStreetNames_ValidParsedTile() throws IOException{
+        var streetNames = List.of("Hauptstrasse", "Bahnhofstrasse", "Schulstrasse", "Gartenstrasse", "Dorfstrasse",
+                "Bergstrasse", "Kirchstrasse", "Waldstrasse", "Ringstrasse", "Schillerstrasse", "Goethestrasse");
+        var features = createPoiFeatures(200, (i, properties) -> {
+            properties.put("street", streetNames.get(i % streetNames.size()));
+            if(i % 3 == 0){
+                properties.put("class", i % 2 == 0 ? "shop" : "restaurant");
+            }
+        });
+
+        runSyntheticTest(List.of(new Layer("poi", features)));
+    }
+
+    @Test
+    public void parseCovt_SortedDictionaries_ValidParsedTile() throws IOException{
+        var features = createPoiFeatures(300, (i, properties) -> {
+            properties.put("street", "Street " + (i * 7) % 53);
+            if(i % 4 != 0){
+                properties.put("class", i % 3 == 0 ? "shop" : "restaurant");
+            }
+        });
+
+        runSyntheticTest(List.of(new Layer("poi", features)), new ConversionConfig().sortDictionaries(true));
+    }
+
+    @Test
+    public void parseCovt_SharedDictionaries_ValidParsedTiles() throws IOException{
+        var classes = List.of("shop", "restaurant", "cafe", "bar");
+        var tiles = new ArrayList<List<Layer>>();
+        for(var tile = 0; tile < 3; tile++){
+            var tileIndex = tile;
+            var features = createPoiFeatures(100, (i, properties) -> {
+                properties.put("class", classes.get((i + tileIndex) % classes.size()));
+                properties.put("name", "Poi " + tileIndex + "-" + i);
+            });
+            tiles.add(List.of(new Layer("poi", features)));
+        }
+
+        var dictionaryBuilder = new SharedDictionaryBuilder(16);
+        tiles.forEach(dictionaryBuilder::addTile);
+        var sharedDictionaries = dictionaryBuilder.build();
+        assertEquals(Set.of("class"), sharedDictionaries.get("poi").keySet());
+
+        var config = new ConversionConfig().sharedDictionaries(sharedDictionaries);
+        for(var tile : tiles){
+            runSyntheticTest(tile, config);
+            var sharedDictionaryTileSize = CovtConverter.convertMvtTile(tile, 4096, config).length;
+            var tileSize = CovtConverter.convertMvtTile(tile, 4096, new ConversionConfig()).length;
+            assertTrue(sharedDictionaryTileSize < tileSize);
+            var tileJson = new ObjectMapper().readValue(CovtConverter.convertMvtTile2(tile, 4096, config).getLeft(),
+                    TileJson.class);
+            assertNull(tileJson.sharedDictionaries);
+        }
+
+        /* values which are not part of the shared dictionary fall back to a dictionary per tile */
+        var features = createPoiFeatures(10, (i, properties) -> properties.put("class", i % 2 == 0 ? "shop" : "hotel"));
+        runSyntheticTest(List.of(new Layer("poi", features)), config);
+    }
+
+    @Test
+    public void parseCovt_LocalizedNames_ValidParsedTile() throws IOException{
+        var features = createLocalizedPlaceFeatures();
+
+        runSyntheticTest(List.of(new Layer("place", features)), new ConversionConfig().allowLocalizedStringDictionary(true));
+        runSyntheticTest(List.of(new Layer("place", features)), new ConversionConfig().allowLocalizedStringDictionary(true).
+                sortDictionaries(true));
+        runSyntheticTest(List.of(new Layer("place", features)), new ConversionConfig().allowLocalizedStringDictionary(true).
+                optimizeMetadata(false));
+    }
+
+    @Test
+    public void parseCovt_LocalizedNamesProjectedByLanguage_OnlyRequestedLanguages() throws IOException{
+        var features = createLocalizedPlaceFeatures();
+        var data = CovtConverter.convertMvtTile2(List.of(new Layer("place", features)), 4096,
+                new ConversionConfig().allowLocalizedStringDictionary(true));
+        var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+
+        var covtLayers = CovtParser.decodeCovt(data.getRight(), tileJson, Set.of("de"));
+
+        var covtFeatures = covtLayers.get(0).features();
+        for(var i = 0; i < features.size(); i++){
+            var properties = covtFeatures.get(i).properties();
+            assertEquals(Set.of("name", "name:de", "class"), properties.keySet());
+            assertEquals(features.get(i).properties().get("name"), ((Optional)properties.get("name")).get());
+            assertEquals(Optional.ofNullable(features.get(i).properties().get("name:de")), properties.get("name:de"));
+        }
+    }
+
+    @Test
+    public void parseCovt_RequiredAndConstantColumns_ValidParsedTile() throws IOException{
+        var features = createPoiFeatures(120, (i, properties) -> {
+            properties.put("class", "shop");
+            properties.put("rank", (long)i);
+            properties.put("level", 3L);
+            properties.put("height", 12.5f);
+            properties.put("indoor", true);
+            if(i % 5 == 0){
+                properties.put("brand", "Spar");
+                properties.put("floors", 2L);
+                properties.put("area", 0.5f);
+            }
+        });
+
+        runSyntheticTest(List.of(new Layer("poi", features)));
+        runSyntheticTest(List.of(new Layer("poi", features)), new ConversionConfig().optimizeMetadata(false));
+    }
+
+    @Test
+    public void parseCovt_UnsortedIds_ValidParsedTile() throws IOException{
+        var random = new Random(42);
+        var features = withIds(createPoiFeatures(150, (i, properties) -> properties.put("class", "shop")),
+                i -> random.nextInt(1_000_000));
+        var config = new ConversionConfig().includeIds(true);
+
+        runSyntheticTest(List.of(new Layer("poi", features)), config);
+        runSyntheticTest(List.of(new Layer("poi", features)), config.optimizeMetadata(false));
+    }
+
+    @Test
+    public void parseCovt_SequentialAndLargeIds_ValidParsedTile() throws IOException{
+        var config = new ConversionConfig().includeIds(true);
+        var sequentialFeatures = withIds(createPoiFeatures(100, (i, properties) -> {}), i -> 1000 + i);
+        runSyntheticTest(List.of(new Layer("poi", sequentialFeatures)), config);
+
+        var largeIdFeatures = withIds(createPoiFeatures(100, (i, properties) -> {}), i -> (1L << 50) + i * 3L);
+        runSyntheticTest(List.of(new Layer("poi", largeIdFeatures)), config);
+    }
+
+    @Test
+    public void parseCovt_SortFeaturesById_FeaturesSortedById() throws IOException{
+        var random = new Random(7);
+        var features = withIds(createPoiFeatures(200, (i, properties) -> properties.put("rank", (long)i)),
+                i -> random.nextInt(10_000));
+        var config = new ConversionConfig().includeIds(true).sortFeaturesById(true);
+
+        var data = CovtConverter.convertMvtTile2(List.of(new Layer("poi", features)), 4096, config);
+        var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+        var covtLayers = CovtParser.decodeCovt(data.getRight(), tileJson);
+
+        var sortedFeatures = features.stream().sorted(Comparator.comparingLong(Feature::id)).toList();
+        compareTiles(List.of(new Layer("poi", sortedFeatures)), covtLayers);
+    }
+
+    @Test
+    public void parseCovt_HilbertSortedPointsWithPermutation_OriginalOrder() throws IOException{
+        var features = withIds(createPoiFeatures(300, (i, properties) -> properties.put("rank", (long)i)), i -> i);
+        var config = new ConversionConfig().includeIds(true).sortPointFeaturesOnHilbertCurve(true)
+                .storeFeaturePermutation(true);
+
+        runSyntheticTest(List.of(new Layer("poi", features)), config);
+        runSyntheticTest(List.of(new Layer("poi", features)), config.optimizeMetadata(false));
+    }
+
+    @Test
+    public void convertMvtTile_SortedByIdAndOnHilbertCurve_ThrowsException(){
+        var features = withIds(createPoiFeatures(10, (i, properties) -> {}), i -> 10 - i);
+        var config = new ConversionConfig().sortFeaturesById(true).sortPointFeaturesOnHilbertCurve(true);
+
+        assertThrows(IllegalArgumentException.class, () -> CovtConverter.convertMvtTile2(
+                List.of(new Layer("poi", features)), 4096, config));
+    }
+
+    @Test
+    public void parseCovt_HilbertSortedPoints_SmallerTile() throws IOException{
+        var features = withIds(createPoiFeatures(300, (i, properties) -> {}), i -> i);
+        var layers = List.of(new Layer("poi", features));
+        var config = new ConversionConfig().includeIds(true).sortPointFeaturesOnHilbertCurve(true);
+
+        var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+        var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+        var covtFeatures = CovtParser.decodeCovt(data.getRight(), tileJson).get(0).features();
+        var sortedFeatures = covtFeatures.stream().map(f -> features.get((int)f.id())).toList();
+        compareTiles(List.of(new Layer("poi", sortedFeatures)), List.of(new Layer("poi", covtFeatures)));
+        assertEquals(features.size(), covtFeatures.stream().mapToLong(Feature::id).distinct().count());
+
+        /* randomly distributed points have large deltas between the vertices when not sorted */
+        var random = new Random(3);
+        var geometryFactory = new GeometryFactory();
+        var randomFeatures = new ArrayList<Feature>();
+        for(var i = 0; i < 500; i++){
+            var point = geometryFactory.createPoint(new Coordinate(random.nextInt(4096), random.nextInt(4096)));
+            randomFeatures.add(new Feature(0, point, new LinkedHashMap<>()));
+        }
+        var randomLayers = List.of(new Layer("poi", randomFeatures));
+        var plainConfig = new ConversionConfig().geometryEncoding(CovtConverter.GeometryEncoding.PLAIN);
+        var unsortedTileSize = CovtConverter.convertMvtTile(randomLayers, 4096, plainConfig).length;
+        var sortedTileSize = CovtConverter.convertMvtTile(randomLayers, 4096,
+                plainConfig.sortPointFeaturesOnHilbertCurve(true)).length;
+        assertTrue(sortedTileSize < unsortedTileSize);
+    }
+
+    @Test
+    public void decodeTessellatedLayers_PolygonLayer_TrianglesCoverPolygons() throws IOException{
+        var geometryFactory = new GeometryFactory();
+        var features = new ArrayList<Feature>();
+        for(var i = 0; i < 20; i++){
+            var x = (i % 5) * 200;
+            var y = (i / 5) * 200;
+            var shell = geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(x, y),
+                    new Coordinate(x + 150, y), new Coordinate(x + 150, y + 150), new Coordinate(x + 75, y + 100),
+                    new Coordinate(x, y + 150), new Coordinate(x, y)});
+            var polygon = i % 3 != 0 ? geometryFactory.createPolygon(shell) :
+                    geometryFactory.createPolygon(shell, new LinearRing[]{geometryFactory.createLinearRing(new Coordinate[]{
+                            new Coordinate(x + 20, y + 20), new Coordinate(x + 20, y + 40), new Coordinate(x + 40, y + 40),
+                            new Coordinate(x + 40, y + 20), new Coordinate(x + 20, y + 20)})});
+            features.add(new Feature(i, polygon, new LinkedHashMap<>(Map.of("class", "building"))));
+        }
+        var layers = List.of(new Layer("building", features));
+        var expectedArea = features.stream().mapToDouble(f -> f.geometry().getArea()).sum();
+
+        for(var geometryEncoding : List.of(CovtConverter.GeometryEncoding.PLAIN, CovtConverter.GeometryEncoding.ICE_MORTON)){
+            var config = new ConversionConfig().geometryEncoding(geometryEncoding).includeIds(true).tessellatePolygons(true);
+            runSyntheticTest(layers, config);
+
+            var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+            var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+            var tessellatedLayers = CovtParser.decodeTessellatedLayers(data.getRight(), tileJson);
+
+            assertEquals(1, tessellatedLayers.size());
+            var vertexBuffer = tessellatedLayers.get(0).vertexBuffer();
+            var indexBuffer = tessellatedLayers.get(0).indexBuffer();
+            var area = 0d;
+            for(var i = 0; i < indexBuffer.length; i += 3){
+                var a = indexBuffer[i] * 2;
+                var b = indexBuffer[i + 1] * 2;
+                var c = indexBuffer[i + 2] * 2;
+                area += Math.abs((vertexBuffer[b] - vertexBuffer[a]) * (vertexBuffer[c + 1] - vertexBuffer[a + 1]) -
+                        (vertexBuffer[c] - vertexBuffer[a]) * (vertexBuffer[b + 1] - vertexBuffer[a + 1])) / 2d;
+            }
+            assertEquals(expectedArea, area, 1e-9);
+        }
+    }
+
+    @Test
+    public void parseCovt_SharedVertexDictionary_ValidParsedTile() throws IOException{
+        /* the streets are the edges of the blocks, so both layers share all vertices */
+        var geometryFactory = new GeometryFactory();
+        var blocks = new ArrayList<Feature>();
+        var streets = new ArrayList<Feature>();
+        for(var i = 0; i < 100; i++){
+            var x = (i % 10) * 300 + 17;
+            var y = (i / 10) * 300 + 23;
+            var coordinates = new Coordinate[]{new Coordinate(x, y), new Coordinate(x + 250, y + 3),
+                    new Coordinate(x + 247, y + 260), new Coordinate(x + 5, y + 255), new Coordinate(x, y)};
+            blocks.add(new Feature(i, geometryFactory.createPolygon(coordinates), new LinkedHashMap<>(Map.of("class", "residential"))));
+            streets.add(new Feature(i, geometryFactory.createLineString(coordinates), new LinkedHashMap<>(Map.of("class", "minor"))));
+        }
+        var layers = List.of(new Layer("transportation", streets), new Layer("landuse", blocks),
+                new Layer("poi", createPoiFeatures(10, (i, properties) -> {})));
+
+        for(var geometryEncoding : List.of(CovtConverter.GeometryEncoding.ICE, CovtConverter.GeometryEncoding.ICE_MORTON)){
+            var config = new ConversionConfig().geometryEncoding(geometryEncoding).includeIds(true);
+            runSyntheticTest(layers, config.sharedVertexDictionary(true));
+
+            var sharedTileSize = CovtConverter.convertMvtTile(layers, 4096, config.sharedVertexDictionary(true)).length;
+            var tileSize = CovtConverter.convertMvtTile(layers, 4096, config.sharedVertexDictionary(false)).length;
+            assertTrue(sharedTileSize < tileSize);
+        }
+    }
+
+    @Test
+    public void parseCovt_SimplifiedGeometries_ValidParsedTile() throws IOException{
+        var geometryFactory = new GeometryFactory();
+        var features = new ArrayList<Feature>();
+        for(var i = 0; i < 20; i++){
+            var coordinates = new Coordinate[200];
+            for(var j = 0; j < coordinates.length; j++){
+                coordinates[j] = new Coordinate(j * 20, i * 200 + (j % 2) + (j / 50) * 40);
+            }
+            features.add(new Feature(i, geometryFactory.createLineString(coordinates), new LinkedHashMap<>()));
+        }
+        var layers = List.of(new Layer("transportation", features));
+        var simplifier = new GeometrySimplifier().addRule(10,
+                new GeometrySimplifier.Options(4, 2, GeometrySimplifier.Algorithm.DOUGLAS_PEUCKER));
+        var config = new ConversionConfig().includeIds(true).zoom(8).geometrySimplifier(simplifier);
+
+        var simplifiedLayers = List.of(new Layer("transportation", simplifier.simplify("transportation", 8, features)));
+        var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+        var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+        compareTiles(simplifiedLayers, CovtParser.decodeCovt(data.getRight(), tileJson));
+
+        var tileSize = CovtConverter.convertMvtTile(layers, 4096, new ConversionConfig().includeIds(true)).length;
+        assertTrue(data.getRight().length < tileSize);
+    }
+
+    @Test
+    public void parseCovt_ZAndMValues_ValuesPerVertex() throws IOException{
+        /* the streets cross at the same position on different elevations, so ICE has to store the values per vertex */
+        var geometryFactory = new GeometryFactory();
+        var streets = new ArrayList<Feature>();
+        for(var i = 0; i < 10; i++){
+            var coordinates = new Coordinate[50];
+            for(var j = 0; j < coordinates.length; j++){
+                coordinates[j] = i % 2 == 0 ? new Coordinate(j * 40, 1000 + i * 10, 200 + j % 7) :
+                        new Coordinate(1000 + i * 10, j * 40, 5 + i);
+            }
+            streets.add(new Feature(i, geometryFactory.createLineString(coordinates), new LinkedHashMap<>()));
+        }
+        var lanes = new ArrayList<Feature>();
+        for(var i = 0; i < 10; i++){
+            var x = i * 300 + 17;
+            var coordinates = new Coordinate[]{new CoordinateXYZM(x, 2000, 3, 350), new CoordinateXYZM(x + 250, 2003, 4, 375),
+                    new CoordinateXYZM(x + 247, 2260, 5, 350), new CoordinateXYZM(x, 2000, 3, 350)};
+            lanes.add(new Feature(i, geometryFactory.createPolygon(coordinates), new LinkedHashMap<>()));
+        }
+        var layers = List.of(new Layer("transportation", streets), new Layer("lanes", lanes),
+                new Layer("poi", createPoiFeatures(10, (i, properties) -> {})));
+
+        for(var geometryEncoding : CovtConverter.GeometryEncoding.values()){
+            var config = new ConversionConfig().geometryEncoding(geometryEncoding).includeIds(true);
+            var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+            var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+
+            var covtLayers = CovtParser.decodeCovt(data.getRight(), tileJson);
+            compareTiles(layers, covtLayers);
+            for(var i = 0; i < 2; i++){
+                var mvtFeatures = layers.get(i).features();
+                for(var j = 0; j < mvtFeatures.size(); j++){
+                    var mvtCoordinates = mvtFeatures.get(j).geometry().getCoordinates();
+                    var covtCoordinates = covtLayers.get(i).features().get(j).geometry().getCoordinates();
+                    for(var k = 0; k < mvtCoordinates.length; k++){
+                        assertEquals(mvtCoordinates[k].getZ(), covtCoordinates[k].getZ());
+                        assertEquals(mvtCoordinates[k].getM(), covtCoordinates[k].getM());
+                    }
+                }
+            }
+
+            var projectedLayers = CovtParser.decodeCovt(data.getRight(), tileJson, null, false);
+            compareTiles(layers, projectedLayers);
+            for(var layer : projectedLayers){
+                for(var feature : layer.features()){
+                    assertTrue(Double.isNaN(feature.geometry().getCoordinate().getZ()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parseCovt_MissingAndFractionalVertexValues_ValuesRestored() throws IOException{
+        /* every third vertex has no z-value and only the first vertex of a line has a m-value */
+        var geometryFactory = new GeometryFactory();
+        var lines = new ArrayList<Feature>();
+        for(var i = 0; i < 10; i++){
+            var coordinates = new Coordinate[20];
+            for(var j = 0; j < coordinates.length; j++){
+                var z = j % 3 == 0 ? Double.NaN : 100.25 + i * 0.01 + j;
+                coordinates[j] = j == 0 ? new CoordinateXYZM(i * 300 + 10, j * 100, z, -1.5) :
+                        new CoordinateXYZM(i * 300 + 10, j * 100, z, Double.NaN);
+            }
+            lines.add(new Feature(i, geometryFactory.createLineString(coordinates), new LinkedHashMap<>()));
+        }
+        var layers = List.of(new Layer("transportation", lines));
+
+        for(var geometryEncoding : CovtConverter.GeometryEncoding.values()){
+            for(var optimizeMetadata : new boolean[]{false, true}){
+                var config = new ConversionConfig().geometryEncoding(geometryEncoding).includeIds(true).
+                        optimizeMetadata(optimizeMetadata).vertexValueScale(2);
+                var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+                var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+
+                var covtLayers = CovtParser.decodeCovt(data.getRight(), tileJson);
+
+                compareTiles(layers, covtLayers);
+                for(var i = 0; i < lines.size(); i++){
+                    var mvtCoordinates = lines.get(i).geometry().getCoordinates();
+                    var covtCoordinates = covtLayers.get(0).features().get(i).geometry().getCoordinates();
+                    for(var j = 0; j < mvtCoordinates.length; j++){
+                        assertEquals(mvtCoordinates[j].getZ(), covtCoordinates[j].getZ());
+                        assertEquals(mvtCoordinates[j].getM(), covtCoordinates[j].getM());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parseCovt_LayersWithDifferentExtents_ValidParsedTile() throws IOException{
+        /* the layers with the extent of 2^15 and 4000 can't be ICE encoded and fall back to the plain encoding */
+        var geometryFactory = new GeometryFactory();
+        var layers = new ArrayList<Layer>();
+        for(var extent : new int[]{512, 4096, 32768, 4000}){
+            var lines = new ArrayList<Feature>();
+            for(var i = 0; i < 20; i++){
+                var coordinates = new Coordinate[]{new Coordinate(i * extent / 20, 0),
+                        new Coordinate(i * extent / 20, extent / 2), new Coordinate(extent - 1, extent - 1)};
+                lines.add(new Feature(i, geometryFactory.createLineString(coordinates), new LinkedHashMap<>()));
+            }
+            layers.add(new Layer("layer" + extent, lines, extent));
+        }
+
+        for(var geometryEncoding : CovtConverter.GeometryEncoding.values()){
+            for(var sharedVertexDictionary : new boolean[]{false, true}){
+                var config = new ConversionConfig().geometryEncoding(geometryEncoding).includeIds(true).
+                        sharedVertexDictionary(sharedVertexDictionary);
+                var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+                var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+
+                var covtLayers = CovtParser.decodeCovt(data.getRight(), tileJson);
+
+                compareTiles(layers, covtLayers);
+                for(var i = 0; i < layers.size(); i++){
+                    assertEquals(layers.get(i).tileExtent(), covtLayers.get(i).tileExtent());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parseCovt_TileExtentNoPowerOfTwo_PlainEncodedTile() throws IOException{
+        var geometryFactory = new GeometryFactory();
+        var lines = new ArrayList<Feature>();
+        for(var i = 0; i < 20; i++){
+            var coordinates = new Coordinate[]{new Coordinate(i * 200, 0), new Coordinate(i * 200, 2000),
+                    new Coordinate(3999, 3999)};
+            lines.add(new Feature(i, geometryFactory.createLineString(coordinates), new LinkedHashMap<>()));
+        }
+        var layers = List.of(new Layer("transportation", lines));
+
+        for(var sharedVertexDictionary : new boolean[]{false, true}){
+            var config = new ConversionConfig().includeIds(true).sharedVertexDictionary(sharedVertexDictionary);
+            var data = CovtConverter.convertMvtTile2(layers, 4000, config);
+            var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+
+            var covtLayers = CovtParser.decodeCovt(data.getRight(), tileJson);
+
+            compareTiles(layers, covtLayers);
+            assertEquals(4000, covtLayers.get(0).tileExtent());
+        }
+    }
+
+    @Test
+    public void parseCovt_MultiPoints_ValidParsedTile() throws IOException{
+        var geometryFactory = new GeometryFactory();
+        var features = new ArrayList<Feature>();
+        for(var i = 0; i < 30; i++){
+            var coordinates = new Coordinate[i % 5 + 1];
+            for(var j = 0; j < coordinates.length; j++){
+                coordinates[j] = new Coordinate((i * 131 + j * 977) % 4096, (i * 17 + j * 1031) % 4096);
+            }
+            var geometry = i % 3 == 0 ? geometryFactory.createPoint(coordinates[0]) :
+                    geometryFactory.createMultiPointFromCoords(coordinates);
+            features.add(new Feature(i, geometry, new LinkedHashMap<>()));
+        }
+        var layers = List.of(new Layer("poi", features));
+
+        for(var geometryEncoding : CovtConverter.GeometryEncoding.values()){
+            runSyntheticTest(layers, new ConversionConfig().geometryEncoding(geometryEncoding).includeIds(true));
+        }
+    }
+
+    @Test
+    public void parseCovt_HilbertSortedMultiPoints_SamePoints() throws IOException{
+        var geometryFactory = new GeometryFactory();
+        var features = new ArrayList<Feature>();
+        for(var i = 0; i < 20; i++){
+            var coordinates = new Coordinate[10];
+            for(var j = 0; j < coordinates.length; j++){
+                coordinates[j] = new Coordinate((i * 211 + j * 1237) % 4096, (i * 53 + j * 389) % 4096);
+            }
+            features.add(new Feature(i, geometryFactory.createMultiPointFromCoords(coordinates), new LinkedHashMap<>()));
+        }
+        var layers = List.of(new Layer("poi", features));
+
+        for(var geometryEncoding : CovtConverter.GeometryEncoding.values()){
+            var config = new ConversionConfig().geometryEncoding(geometryEncoding).includeIds(true).
+                    sortMultiPointsOnHilbertCurve(true);
+            var data = CovtConverter.convertMvtTile2(layers, 4096, config);
+            var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+
+            var covtFeatures = CovtParser.decodeCovt(data.getRight(), tileJson).get(0).features();
+
+            assertEquals(features.size(), covtFeatures.size());
+            for(var i = 0; i < features.size(); i++){
+                assertEquals(features.get(i).id(), covtFeatures.get(i).id());
+                assertTrue(features.get(i).geometry().equalsTopo(covtFeatures.get(i).geometry()));
+            }
+        }
+    }
+
+    @Test
+    public void parseCovt_NestedProperties_ValidParsedTile() throws IOException{
+        var layers = List.of(new Layer("transportation", createFeaturesWithNestedProperties()));
+
+        runSyntheticTest(layers, new ConversionConfig().includeIds(true));
+        runSyntheticTest(layers, new ConversionConfig().includeIds(true).optimizeMetadata(false).sortDictionaries(true));
+    }
+
+    @Test
+    public void parseCovt_NestedPropertiesProjectedByPath_OnlyRequestedLeafFields() throws IOException{
+        var features = createFeaturesWithNestedProperties();
+        var data = CovtConverter.convertMvtTile2(List.of(new Layer("transportation", features)), 4096,
+                new ConversionConfig().includeIds(true));
+        var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+
+        var covtFeatures = CovtParser.decodeCovt(data.getRight(), tileJson, null, true,
+                Set.of("lanes.width", "address.building.levels")).get(0).features();
+
+        for(var i = 0; i < features.size(); i++){
+            var lanes = (List<Map<String, Object>>)features.get(i).properties().get("lanes");
+            var covtLanes = (Optional<List<Map<String, Object>>>)covtFeatures.get(i).properties().get("lanes");
+            assertEquals(lanes == null, covtLanes.isEmpty());
+            if(lanes != null){
+                assertEquals(lanes.size(), covtLanes.get().size());
+                for(var j = 0; j < lanes.size(); j++){
+                    var lane = lanes.get(j);
+                    var covtLane = covtLanes.get().get(j);
+                    assertEquals(lane == null, covtLane == null);
+                    if(lane != null){
+                        assertEquals(lane.containsKey("width") ? Map.of("width", lane.get("width")) : Map.of(), covtLane);
+                    }
+                }
+            }
+
+            var address = (Map<String, Object>)features.get(i).properties().get("address");
+            var covtAddress = (Optional<Map<String, Object>>)covtFeatures.get(i).properties().get("address");
+            assertEquals(address == null, covtAddress.isEmpty());
+            if(address != null){
+                assertEquals(Set.of("building"), covtAddress.get().keySet());
+                var building = (Map<String, Object>)address.get("building");
+                assertEquals(Map.of("levels", building.get("levels")), covtAddress.get().get("building"));
+            }
+        }
+    }
+
+    private List<Feature> createFeaturesWithNestedProperties(){
+        var geometryFactory = new GeometryFactory();
+        var features = new ArrayList<Feature>();
+        for(var i = 0; i < 50; i++){
+            var properties = new LinkedHashMap<String, Object>();
+            properties.put("class", i % 2 == 0 ? "primary" : "secondary");
+            if(i % 7 != 0){
+                var lanes = new ArrayList<Map<String, Object>>();
+                for(var j = 0; j < i % 4; j++){
+                    var lane = new LinkedHashMap<String, Object>();
+                    lane.put("width", 2.5f + j);
+                    lane.put("turns", j % 2 == 0 ? List.of("left", "through") : List.of());
+                    if(j == 1){
+                        lane.put("bus", true);
+                    }
+                    lanes.add(lane);
+                }
+                /* null elements keep their position in the list */
+                if(i % 5 == 0){
+                    lanes.add(null);
+                }
+                properties.put("lanes", lanes);
+            }
+            if(i % 3 != 0){
+                var address = new LinkedHashMap<String, Object>();
+                address.put("street", "Street " + i % 10);
+                address.put("number", (long)i);
+                address.put("building", i % 2 == 0 ? Map.of("levels", (long)(i % 5)) : Map.of("levels", 3L, "roof", "flat"));
+                properties.put("address", address);
+            }
+            var lineString = geometryFactory.createLineString(new Coordinate[]{new Coordinate(i, i * 2),
+                    new Coordinate(i + 10, i * 2 + 5)});
+            features.add(new Feature(i, lineString, properties));
+        }
+        return features;
+    }
+
+    private List<Feature> withIds(List<Feature> features, IntToLongFunction idGenerator){
+        var featuresWithIds = new ArrayList<Feature>();
+        for(var i = 0; i < features.size(); i++){
+            var feature = features.get(i);
+            featuresWithIds.add(new Feature(idGenerator.applyAsLong(i), feature.geometry(), feature.properties()));
+        }
+        return featuresWithIds;
+    }
+
+    private List<Feature> createLocalizedPlaceFeatures(){
+        var cities = List.of("Wien", "Roma", "Praha", "Warszawa", "Bratislava");
+        var germanNames = List.of("Wien", "Rom", "Prag", "Warschau", "Pressburg");
+        var englishNames = List.of("Vienna", "Rome", "Prague", "Warsaw", "Bratislava");
+        return createPoiFeatures(50, (i, properties) -> {
+            var city = i % cities.size();
+            properties.put("name", cities.get(city));
+            if(i % 7 != 0){
+                properties.put("name:de", germanNames.get(city));
+            }
+            properties.put("name_en", englishNames.get(city));
+            properties.put("class", "city");
+        });
+    }
+
+    private void runSyntheticTest(List<Layer> mvtLayers) throws IOException {
+        runSyntheticTest(mvtLayers, new ConversionConfig());
+    }
+
+    private void runSyntheticTest(List<Layer> mvtLayers, ConversionConfig config) throws IOException {
+        var data = CovtConverter.convertMvtTile2(mvtLayers, 4096, config);
+
+        var objectMapper = new ObjectMapper();
+        var tileJson = objectMapper.readValue(data.getLeft(), TileJson.class);
+        /* the shared dictionaries are part of the TileJson of the tileset and not of the tile */
+        tileJson.sharedDictionaries = config.sharedDictionaries();
+
+        var covtLayers = CovtParser.decodeCovt(data.getRight(), tileJson);
+
+        compareTiles(mvtLayers, covtLayers);
+    }
+
+    private List<Feature> createPoiFeatures(int numFeatures, PropertyGenerator propertyGenerator){
+        var geometryFactory = new GeometryFactory();
+        var features = new ArrayList<Feature>();
+        for(var i = 0; i < numFeatures; i++){
+            var point = geometryFactory.createPoint(new Coordinate((i * 37) % 4096, (i * 91) % 4096));
+            var properties = new LinkedHashMap<String, Object>();
+            propertyGenerator.apply(i, properties);
+            features.add(new Feature(0, point, properties));
+        }
+        return features;
+    }
+
+    @FunctionalInterface
+    private interface PropertyGenerator {
+        void apply(int featureIndex, LinkedHashMap<String, Object> properties);
+    }
+
     private void runBingTests(List<String> tileIds) throws IOException {
         for(var tileId : tileIds){
             var mvtTile = com.covt.converter.mvt.MvtUtils.decodeMvt2(Paths.get(BING_MVT_PATH, tileId + ".mvt"));
@@ -0,0 +1,164 @@
+package com.covt.decoder;
+
+import com.covt.converter.ConversionConfig;
+import com.covt.converter.CovtConverter;
+import com.covt.converter.mvt.Feature;
+import com.covt.converter.mvt.Layer;
+import com.covt.converter.tilejson.TileJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DecodedLayerCacheTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void getLayer_SameTileTwice_Hit() throws IOException {
+        var tile = convert(createLayers());
+        var cache = new DecodedLayerCache(10_000_000);
+
+        var layer = cache.getLayer(1, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        var cachedLayer = cache.getLayer(1, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        /* all layers of the tile are cached on a miss */
+        var otherLayer = cache.getLayer(1, "transportation", DecodedLayerCache.Projection.ALL, tile.getRight(),
+                tile.getLeft());
+
+        assertSame(layer, cachedLayer);
+        assertEquals(50, layer.features().size());
+        assertEquals(50, otherLayer.features().size());
+        assertNull(cache.getLayer(1, "water", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft()));
+        var statistics = cache.getStatistics();
+        assertEquals(2, statistics.hitCount());
+        assertEquals(2, statistics.missCount());
+        assertEquals(0, statistics.evictionCount());
+        assertEquals(2, statistics.numEntries());
+        /* the cached layers are not replaced by the decoding of a miss */
+        assertSame(otherLayer, cache.getLayer(1, "transportation", DecodedLayerCache.Projection.ALL,
+                tile.getRight(), tile.getLeft()));
+    }
+
+    @Test
+    public void getLayer_DifferentProjections_CachedIndependently() throws IOException {
+        var tile = convert(createLayers());
+        var cache = new DecodedLayerCache(10_000_000);
+        var projection = new DecodedLayerCache.Projection(Set.of("name"), null, true, null);
+
+        var layer = cache.getLayer(1, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        var projectedLayer = cache.getLayer(1, "poi", projection, tile.getRight(), tile.getLeft());
+
+        assertNotSame(layer, projectedLayer);
+        assertEquals(Set.of("name", "rank"), layer.features().get(0).properties().keySet());
+        assertEquals(Set.of("name"), projectedLayer.features().get(0).properties().keySet());
+        assertEquals(layer.features().get(0).geometry(), projectedLayer.features().get(0).geometry());
+        assertEquals(2, cache.getStatistics().missCount());
+        assertEquals(4, cache.getStatistics().numEntries());
+    }
+
+    @Test
+    public void getLayer_LocalizedColumnProjected_AllLanguagesOfColumn() throws IOException {
+        var properties = new LinkedHashMap<String, Object>();
+        properties.put("name", "Wien");
+        properties.put("name:de", "Wien");
+        properties.put("name_en", "Vienna");
+        properties.put("addr:street", "Ring");
+        var poi = List.of(new Feature(1, geometryFactory.createPoint(new Coordinate(10, 20)), properties));
+        var data = CovtConverter.convertMvtTile2(List.of(new Layer("poi", poi)), 4096,
+                new ConversionConfig().allowLocalizedStringDictionary(true));
+        var tileJson = new ObjectMapper().readValue(data.getLeft(), TileJson.class);
+        var cache = new DecodedLayerCache(10_000_000);
+
+        var layer = cache.getLayer(1, "poi", new DecodedLayerCache.Projection(Set.of("name"), null, true, null),
+                data.getRight(), tileJson);
+        var addressLayer = cache.getLayer(1, "poi", new DecodedLayerCache.Projection(Set.of("addr:street"), null,
+                true, null), data.getRight(), tileJson);
+
+        assertEquals(Set.of("name", "name:de", "name_en"), layer.features().get(0).properties().keySet());
+        assertEquals(Set.of("addr:street"), addressLayer.features().get(0).properties().keySet());
+    }
+
+    @Test
+    public void getLayer_BudgetExceeded_LeastRecentlyUsedEvicted() throws IOException {
+        var tile = convert(List.of(createLayers().get(1)));
+        var layerSize = DecodedLayerCache.estimateSize(CovtParser.decodeCovt(tile.getRight(), tile.getLeft()).get(0));
+        var cache = new DecodedLayerCache(2 * layerSize);
+
+        cache.getLayer(1, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        cache.getLayer(2, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        cache.getLayer(1, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        cache.getLayer(3, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+
+        var statistics = cache.getStatistics();
+        assertEquals(1, statistics.evictionCount());
+        assertEquals(2, statistics.numEntries());
+        assertEquals(2 * layerSize, statistics.sizeInBytes());
+        /* tile 2 was evicted as tile 1 was accessed afterwards */
+        cache.getLayer(1, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        assertEquals(2, cache.getStatistics().hitCount());
+        cache.getLayer(2, "poi", DecodedLayerCache.Projection.ALL, tile.getRight(), tile.getLeft());
+        assertEquals(4, cache.getStatistics().missCount());
+    }
+
+    @Test
+    public void estimateSize_SharedStrings_CountedOnce(){
+        var sharedValue = "residential";
+        var features = new ArrayList<Feature>();
+        var copiedFeatures = new ArrayList<Feature>();
+        for(var i = 0; i < 10; i++){
+            var point = geometryFactory.createPoint(new Coordinate(i, i));
+            features.add(new Feature(i, point, new LinkedHashMap<>(Map.of("class", Optional.of(sharedValue)))));
+            copiedFeatures.add(new Feature(i, point, new LinkedHashMap<>(Map.of(new String("class"),
+                    Optional.of(new String(sharedValue))))));
+        }
+
+        var size = DecodedLayerCache.estimateSize(new Layer("landuse", features));
+        var copiedSize = DecodedLayerCache.estimateSize(new Layer("landuse", copiedFeatures));
+
+        /* the copies of the name and the value are counted for each of the other 9 features */
+        var stringsSize = 2 * 16 + 2L * "class".length() + 2 * 16 + 2L * sharedValue.length();
+        assertEquals(9 * stringsSize, copiedSize - size);
+    }
+
+    @Test
+    public void constructor_InvalidBudget_IllegalArgumentException(){
+        assertThrows(IllegalArgumentException.class, () -> new DecodedLayerCache(0));
+    }
+
+    private List<Layer> createLayers(){
+        var transportation = new ArrayList<Feature>();
+        var poi = new ArrayList<Feature>();
+        for(var i = 0; i < 50; i++){
+            var line = geometryFactory.createLineString(new Coordinate[]{new Coordinate(i * 40, 100),
+                    new Coordinate(i * 40, 2000)});
+            var lineProperties = new LinkedHashMap<String, Object>();
+            lineProperties.put("class", i % 3 == 0 ? "primary" : "residential");
+            transportation.add(new Feature(i, line, lineProperties));
+
+            var pointProperties = new LinkedHashMap<String, Object>();
+            pointProperties.put("name", "poi " + i);
+            pointProperties.put("rank", (long)i);
+            poi.add(new Feature(100 + i, geometryFactory.createPoint(new Coordinate(i * 40, 2000)), pointProperties));
+        }
+        return List.of(new Layer("transportation", transportation), new Layer("poi", poi));
+    }
+
+    private static Pair<TileJson, byte[]> convert(List<Layer> layers) throws IOException {
+        var data = CovtConverter.convertMvtTile2(layers, 4096, new ConversionConfig().includeIds(true));
+        return Pair.of(new ObjectMapper().readValue(data.getLeft(), TileJson.class), data.getRight());
+    }
+}
@@ -0,0 +1,70 @@
+package com.covt.decoder;
+
+import com.covt.converter.EncodingUtils;
+import me.lemire.integercompression.IntWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FrontCodedDictionaryTest {
+    private static final int BLOCK_SIZE = 4;
+
+    @Test
+    public void get_SortedStreetNames_EqualValues() throws IOException {
+        var values = createSortedValues();
+        var dictionary = decodeDictionary(values);
+
+        assertEquals(values.size(), dictionary.size());
+        for(var i = 0; i < values.size(); i++){
+            assertEquals(values.get(i), dictionary.get(i));
+        }
+        assertArrayEquals(values.toArray(new String[0]), dictionary.decodeAll());
+    }
+
+    @Test
+    public void indexOf_ExistingAndMissingValues_CodeOrMinusOne() throws IOException {
+        var values = createSortedValues();
+        var dictionary = decodeDictionary(values);
+
+        for(var i = 0; i < values.size(); i++){
+            assertEquals(i, dictionary.indexOf(values.get(i)));
+        }
+        assertEquals(-1, dictionary.indexOf("A"));
+        assertEquals(-1, dictionary.indexOf("Gartenweg"));
+        assertEquals(-1, dictionary.indexOf("Zeppelinstrasse"));
+    }
+
+    @Test
+    public void prefixRange_StreetNamePrefix_RangeOfMatchingCodes() throws IOException {
+        var values = createSortedValues();
+        var dictionary = decodeDictionary(values);
+
+        for(var prefix : List.of("B", "Berg", "Garten", "S", "Sch", "Wien", "")){
+            var expectedCodes = IntStream.range(0, values.size()).filter(i -> values.get(i).startsWith(prefix)).toArray();
+            var range = dictionary.prefixRange(prefix);
+            assertArrayEquals(expectedCodes, IntStream.range(range[0], range[1]).toArray());
+        }
+    }
+
+    private static List<String> createSortedValues(){
+        var values = new ArrayList<>(List.of("Bahnhofstrasse", "Bergstrasse", "Berggasse", "Dorfstrasse", "Gartenstrasse",
+                "Gartenstrasse 1", "Goethestrasse", "Hauptstrasse", "Kirchstrasse", "Ringstrasse", "Schillerstrasse",
+                "Schulstrasse", "Schulweg", "Waldstrasse", "\u00d6dgasse", ""));
+        return values.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static FrontCodedDictionary decodeDictionary(List<String> values) throws IOException {
+        var buffer = EncodingUtils.encodeFrontCodedDictionary(values, BLOCK_SIZE);
+        var pos = new IntWrapper(0);
+        var dictionary = FrontCodedDictionary.decode(buffer, pos, values.size(), buffer.length);
+        assertEquals(buffer.length, pos.get());
+        return dictionary;
+    }
+}
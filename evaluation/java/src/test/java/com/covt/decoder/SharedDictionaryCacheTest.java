@@ -0,0 +1,26 @@
+package com.covt.decoder;
+
+import com.covt.converter.tilejson.TileJson;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SharedDictionaryCacheTest {
+
+    @Test
+    public void get_NamesWithSeparator_DictionaryOfLayerAndColumn(){
+        var tileJson = new TileJson();
+        tileJson.sharedDictionaries = Map.of("a:b", Map.of("c", List.of("x")), "a", Map.of("b:c", List.of("y")));
+
+        assertArrayEquals(new String[]{"x"}, SharedDictionaryCache.get(tileJson, "a:b", "c"));
+        assertArrayEquals(new String[]{"y"}, SharedDictionaryCache.get(tileJson, "a", "b:c"));
+        assertSame(SharedDictionaryCache.get(tileJson, "a", "b:c"), SharedDictionaryCache.get(tileJson, "a", "b:c"));
+        assertThrows(IllegalArgumentException.class, () -> SharedDictionaryCache.get(tileJson, "a", "c"));
+        assertThrows(IllegalArgumentException.class, () -> SharedDictionaryCache.get(tileJson, "b", "c"));
+    }
+}
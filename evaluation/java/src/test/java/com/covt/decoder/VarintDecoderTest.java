@@ -0,0 +1,70 @@
+package com.covt.decoder;
+
+import com.covt.converter.EncodingUtils;
+import me.lemire.integercompression.IntWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VarintDecoderTest {
+    private static final long[] LONG_VALUES = {0, 1, 127, 128, 300, 16_383, 16_384, Integer.MAX_VALUE,
+            1L << 35, Long.MAX_VALUE, -1, Long.MIN_VALUE, 5, 6, 7};
+
+    @Test
+    public void decodeLongs_Full64BitRange_EqualValues(){
+        var encodedValues = EncodingUtils.encodeVarints(LONG_VALUES, false, false);
+
+        var pos = new IntWrapper(0);
+        var values = new long[LONG_VALUES.length + 2];
+        VarintDecoder.decodeLongs(encodedValues, pos, values, 2, LONG_VALUES.length);
+
+        assertArrayEquals(LONG_VALUES, Arrays.copyOfRange(values, 2, values.length));
+        assertEquals(encodedValues.length, pos.get());
+    }
+
+    @Test
+    public void decodeZigZagDeltaLongs_Full64BitRange_EqualValues(){
+        var encodedValues = EncodingUtils.encodeVarints(LONG_VALUES, true, true);
+
+        var pos = new IntWrapper(0);
+        var values = new long[LONG_VALUES.length];
+        VarintDecoder.decodeZigZagDeltaLongs(encodedValues, pos, values, 0, values.length);
+
+        assertArrayEquals(LONG_VALUES, values);
+        assertEquals(encodedValues.length, pos.get());
+    }
+
+    @Test
+    public void decodeInts_FiveByteAndSignExtendedValues_EqualValues(){
+        var intValues = new int[]{3, Integer.MAX_VALUE, 1 << 28, 0, -1, Integer.MIN_VALUE, 42};
+        var encodedValues = EncodingUtils.encodeVarints(Arrays.stream(intValues).mapToLong(i -> i).toArray(),
+                false, false);
+
+        var pos = new IntWrapper(0);
+        var values = new int[intValues.length];
+        VarintDecoder.decodeInts(encodedValues, pos, values, 0, values.length);
+
+        assertArrayEquals(intValues, values);
+        assertEquals(encodedValues.length, pos.get());
+    }
+
+    @Test
+    public void decodeZigZagDeltaInts_SingleByteRuns_EqualValues(){
+        var intValues = new int[1000];
+        for(var i = 0; i < intValues.length; i++){
+            intValues[i] = i % 100 == 0 ? i * 100_000 : i * 3 - 20;
+        }
+        var encodedValues = EncodingUtils.encodeVarints(Arrays.stream(intValues).mapToLong(i -> i).toArray(),
+                true, true);
+
+        var pos = new IntWrapper(0);
+        var values = new int[intValues.length];
+        VarintDecoder.decodeZigZagDeltaInts(encodedValues, pos, values, 0, values.length);
+
+        assertArrayEquals(intValues, values);
+        assertEquals(encodedValues.length, pos.get());
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
@@ -158,7 +159,8 @@ public class BingCovtDemo {
     }
 
     private TileStats runBingTest(String fileName) throws IOException {
-        var mvtTile = MvtUtils.decodeMvt2(Paths.get(fileName));
+        /* the tile is decoded from a compressed copy to measure the decompression time */
+        var mvtTile = MvtUtils.decodeMvt2(EncodingUtils.gzipCompress(Files.readAllBytes(Paths.get(fileName))));
         var mvtLayers = mvtTile.layers();
 
         var data = CovtConverter.convertMvtTile2(mvtLayers, mvtTile.tileExtent(),
@@ -7,6 +7,7 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -79,7 +80,8 @@ public class OmtCovtDemo {
     }
 
     private TileStats runOmtTest(String fileName) throws IOException {
-        var mvtTile = MvtUtils.decodeMvt2(Paths.get(fileName));
+        /* the tile is decoded from a compressed copy to measure the decompression time */
+        var mvtTile = MvtUtils.decodeMvt2(EncodingUtils.gzipCompress(Files.readAllBytes(Paths.get(fileName))));
         var mvtLayers = mvtTile.layers();
 
         var covtTile = CovtConverter.convertMvtTile(mvtLayers, mvtTile.tileExtent(), CovtConverter.GeometryEncoding.ICE_MORTON,
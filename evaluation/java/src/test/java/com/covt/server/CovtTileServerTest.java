@@ -0,0 +1,192 @@
+package com.covt.server;
+
+import com.covt.archive.CovtArchiveReader;
+import com.covt.archive.CovtArchiveWriter;
+import com.covt.converter.ConversionConfig;
+import com.covt.converter.EncodingUtils;
+import com.covt.converter.mvt.MbTilesReader;
+import com.covt.converter.tilejson.TileJson;
+import com.covt.decoder.CovtParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import no.ecc.vectortile.VectorTileEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CovtTileServerTest {
+    private static final byte[] TILE = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    @TempDir
+    Path tempDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private CovtTileServer server;
+
+    @AfterEach
+    public void tearDown(){
+        if(server != null){
+            server.close();
+        }
+    }
+
+    @Test
+    public void getTile_ArchiveSource_FullTile() throws IOException, InterruptedException {
+        var archivePath = tempDir.resolve("tiles.covta");
+        try(var writer = new CovtArchiveWriter(archivePath)){
+            writer.addTile(3, 2, 5, TILE);
+        }
+        startServer(List.of(TileSource.fromArchive(new CovtArchiveReader(archivePath))));
+
+        var response = send("/3/2/5.covt", null);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("bytes", response.headers().firstValue("Accept-Ranges").orElseThrow());
+        assertArrayEquals(TILE, response.body());
+        assertEquals(404, send("/3/2/6.covt", null).statusCode());
+        assertEquals(404, send("/3/2/5.mvt", null).statusCode());
+        assertEquals(404, send("/3/8/5.covt", null).statusCode());
+    }
+
+    @Test
+    public void getTile_ByteRange_PartialContent() throws IOException, InterruptedException {
+        startServer(List.of((zoom, x, y) -> ByteBuffer.wrap(TILE)));
+
+        var response = send("/0/0/0.covt", "bytes=2-4");
+        assertEquals(206, response.statusCode());
+        assertEquals("bytes 2-4/10", response.headers().firstValue("Content-Range").orElseThrow());
+        assertArrayEquals(Arrays.copyOfRange(TILE, 2, 5), response.body());
+
+        var openEndedResponse = send("/0/0/0.covt", "bytes=7-");
+        assertEquals(206, openEndedResponse.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(TILE, 7, 10), openEndedResponse.body());
+
+        var suffixResponse = send("/0/0/0.covt", "bytes=-3");
+        assertEquals(206, suffixResponse.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(TILE, 7, 10), suffixResponse.body());
+    }
+
+    @Test
+    public void getTile_UnsatisfiableOrMultipleRanges_ExpectedStatus() throws IOException, InterruptedException {
+        startServer(List.of((zoom, x, y) -> ByteBuffer.wrap(TILE)));
+
+        var unsatisfiableResponse = send("/0/0/0.covt", "bytes=10-12");
+        assertEquals(416, unsatisfiableResponse.statusCode());
+        assertEquals("bytes */10", unsatisfiableResponse.headers().firstValue("Content-Range").orElseThrow());
+
+        var multipleRangesResponse = send("/0/0/0.covt", "bytes=0-1,4-5");
+        assertEquals(200, multipleRangesResponse.statusCode());
+        assertArrayEquals(TILE, multipleRangesResponse.body());
+    }
+
+    @Test
+    public void getTile_MultipleSources_FirstTileReturned() throws IOException, InterruptedException {
+        var fallbackTile = new byte[]{42};
+        startServer(List.of((zoom, x, y) -> zoom == 1 ? ByteBuffer.wrap(TILE) : null,
+                (zoom, x, y) -> ByteBuffer.wrap(fallbackTile)));
+
+        assertArrayEquals(TILE, send("/1/0/1.covt", null).body());
+        assertArrayEquals(fallbackTile, send("/2/0/1.covt", null).body());
+    }
+
+    @Test
+    public void getTile_FailingSource_InternalServerError() throws IOException, InterruptedException {
+        startServer(List.of((zoom, x, y) -> {
+            if(zoom == 1){
+                throw new IllegalArgumentException("Double currently not supported.");
+            }
+            throw new IOException("The tile can't be read.");
+        }));
+
+        assertEquals(500, send("/1/0/1.covt", null).statusCode());
+        assertEquals(500, send("/2/0/1.covt", null).statusCode());
+        /* the source is not queried for coordinates which are out of range */
+        assertEquals(404, send("/1/2/0.covt", null).statusCode());
+        assertEquals(404, send("/32/0/0.covt", null).statusCode());
+        assertEquals(404, send("/3/99999999999/0.covt", null).statusCode());
+    }
+
+    @Test
+    public void getTileJson_ConvertingMbTilesSource_TileDecodable() throws Exception {
+        var sharedDictionaries = Map.of("poi", Map.of("class", List.of("shop")));
+        try(var reader = new MbTilesReader(createMbTiles())){
+            startServer(List.of(TileSource.convertingMbTiles(reader,
+                    new ConversionConfig().sharedDictionaries(sharedDictionaries))));
+
+            var tileJsonResponse = send("/tiles.json", null);
+            var tileResponse = send("/0/0/0.covt", null);
+
+            assertEquals(200, tileJsonResponse.statusCode());
+            assertEquals("application/json",
+                    tileJsonResponse.headers().firstValue("Content-Type").orElseThrow());
+            var tileJson = new ObjectMapper().readValue(tileJsonResponse.body(), TileJson.class);
+            assertEquals(sharedDictionaries, tileJson.sharedDictionaries);
+            assertEquals(200, tileResponse.statusCode());
+            var features = CovtParser.decodeCovt(tileResponse.body(), tileJson).get(0).features();
+            assertEquals(1, features.size());
+            assertEquals(Optional.of("shop"), features.get(0).properties().get("class"));
+            assertEquals(Optional.of("cafe"), features.get(0).properties().get("name"));
+            assertEquals(new Coordinate(5, 5), features.get(0).geometry().getCoordinate());
+        }
+    }
+
+    @Test
+    public void getTileJson_SourcesWithoutTileJson_NotFound() throws IOException, InterruptedException {
+        startServer(List.of((zoom, x, y) -> ByteBuffer.wrap(TILE)));
+
+        assertEquals(404, send("/tiles.json", null).statusCode());
+    }
+
+    private String createMbTiles() throws SQLException, IOException {
+        var encoder = new VectorTileEncoder(4096, 8, false);
+        var properties = new LinkedHashMap<String, Object>();
+        properties.put("class", "shop");
+        properties.put("name", "cafe");
+        encoder.addFeature("poi", properties, new GeometryFactory().createPoint(new Coordinate(5, 5)));
+
+        var fileName = tempDir.resolve("tiles.mbtiles").toString();
+        try(var connection = DriverManager.getConnection("jdbc:sqlite:" + fileName);
+            var statement = connection.createStatement()){
+            statement.execute("CREATE TABLE tiles (zoom_level integer, tile_column integer, tile_row integer, " +
+                    "tile_data blob, PRIMARY KEY (zoom_level, tile_column, tile_row));");
+            try(var insertStatement = connection.prepareStatement("INSERT INTO tiles VALUES (0, 0, 0, ?);")){
+                insertStatement.setBytes(1, EncodingUtils.gzipCompress(encoder.encode()));
+                insertStatement.executeUpdate();
+            }
+        }
+        return fileName;
+    }
+
+    private void startServer(List<TileSource> sources) throws IOException {
+        server = new CovtTileServer(new InetSocketAddress("localhost", 0), sources);
+        server.start();
+    }
+
+    private HttpResponse<byte[]> send(String path, String range) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        if(range != null){
+            request.header("Range", range);
+        }
+        return client.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}